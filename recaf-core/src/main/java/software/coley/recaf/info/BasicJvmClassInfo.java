@@ -5,6 +5,7 @@
 import software.coley.recaf.info.builder.JvmClassInfoBuilder;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * Basic JVM class info implementation.
@@ -60,9 +61,14 @@ public boolean equals(Object o) {
 
 	@Override
 	public int hashCode() {
-		int result = super.hashCode();
-		result = 31 * result + Arrays.hashCode(bytecode);
+		// Everything beyond the header is derived from the bytecode, so it does not need to be hashed.
+		// This also lets lazily modeled classes such as LazyJvmClassInfo yield the same hash without building a model.
+		int result = getName().hashCode();
+		result = 31 * result + Objects.hashCode(getSuperName());
+		result = 31 * result + getInterfaces().hashCode();
+		result = 31 * result + getAccess();
 		result = 31 * result + version;
+		result = 31 * result + Arrays.hashCode(bytecode);
 		return result;
 	}
 
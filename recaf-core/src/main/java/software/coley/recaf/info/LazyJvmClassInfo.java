@@ -0,0 +1,373 @@
+package software.coley.recaf.info;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
+import software.coley.recaf.info.annotation.AnnotationInfo;
+import software.coley.recaf.info.annotation.TypeAnnotationInfo;
+import software.coley.recaf.info.builder.JvmClassInfoBuilder;
+import software.coley.recaf.info.member.BasicMember;
+import software.coley.recaf.info.member.FieldMember;
+import software.coley.recaf.info.member.MethodMember;
+import software.coley.recaf.info.properties.BasicPropertyContainer;
+import software.coley.recaf.info.properties.Property;
+import software.coley.recaf.info.properties.PropertyContainer;
+import software.coley.recaf.util.io.ByteSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * JVM class info implementation which only holds onto data from the class file header up-front.
+ * The bytecode is read from the backing source when requested and is only softly held, and the remaining class model
+ * <i>(Fields, methods, annotations, etc)</i> is built when first requested.
+ * <br>
+ * Intended for large library resources where most classes are never looked at beyond their names and hierarchy.
+ * The backing source should point to the class file's content in a larger mapped/archived input without making
+ * a copy of it, such as {@link ByteSource#mmap()} of a modules image entry.
+ * <br>
+ * When the header is already known, such as from a persisted snapshot of a library, it can be provided up-front
+ * with {@link Header} so that the source is not read at all until the bytecode or full model is needed.
+ *
+ * @author Matt Coley
+ */
+public class LazyJvmClassInfo implements JvmClassInfo {
+	private final PropertyContainer properties = new BasicPropertyContainer();
+	private final ByteSource source;
+	private final String name;
+	private final String superName;
+	private final List<String> interfaces;
+	private final int access;
+	private final int version;
+	private final Header header;
+	private volatile SoftReference<byte[]> bytecode;
+	private volatile BasicJvmClassInfo model;
+	private int hash;
+
+	/**
+	 * @param source
+	 * 		Source of the class file content.
+	 * 		Read once to parse the header, and again when the bytecode is requested and not already cached.
+	 *
+	 * @throws IOException
+	 * 		When the source cannot be read.
+	 * @throws IllegalArgumentException
+	 * 		When the source content is not a class file that ASM can read the header of.
+	 */
+	public LazyJvmClassInfo(@Nonnull ByteSource source) throws IOException {
+		this.source = source;
+
+		// The reader and its backing array are dropped once we've pulled the header data and hash out.
+		byte[] bytes = source.readAll();
+		ClassReader reader = new ClassReader(bytes);
+		name = reader.getClassName();
+		superName = reader.getSuperName();
+		interfaces = List.of(reader.getInterfaces());
+		access = reader.getAccess();
+		version = reader.readUnsignedShort(6) & 0xFF;
+		header = null;
+		hash = computeHash(bytes);
+	}
+
+	/**
+	 * @param source
+	 * 		Source of the class file content. Not read until the bytecode or hash is first requested.
+	 * @param header
+	 * 		Known header data of the class.
+	 */
+	public LazyJvmClassInfo(@Nonnull ByteSource source, @Nonnull Header header) {
+		this.source = source;
+		this.header = header;
+		name = header.name();
+		superName = header.superName();
+		interfaces = header.interfaces();
+		access = header.access();
+		version = header.version();
+	}
+
+	/**
+	 * @return {@code true} when the full class model has been built.
+	 */
+	public boolean isMaterialized() {
+		return model != null;
+	}
+
+	@Nonnull
+	private BasicJvmClassInfo model() {
+		BasicJvmClassInfo current = model;
+		if (current == null) {
+			synchronized (this) {
+				current = model;
+				if (current == null) {
+					current = new JvmClassInfoBuilder(getBytecode()).build();
+
+					// Members should point to this instance, not the internal model.
+					Stream.concat(current.getFields().stream(), current.getMethods().stream())
+							.filter(member -> member instanceof BasicMember)
+							.map(member -> (BasicMember) member)
+							.forEach(member -> member.setDeclaringClass(this));
+					model = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	@Nonnull
+	@Override
+	public byte[] getBytecode() {
+		// Once built, the model holds onto the bytecode anyways.
+		BasicJvmClassInfo currentModel = model;
+		if (currentModel != null)
+			return currentModel.getBytecode();
+
+		// Otherwise the bytecode is only softly held, so that classes kept in hashed collections
+		// do not pin their contents in memory. Racing reads yield the same content, so no locking is needed.
+		SoftReference<byte[]> ref = bytecode;
+		byte[] current = ref == null ? null : ref.get();
+		if (current == null) {
+			try {
+				current = source.readAll();
+			} catch (IOException ex) {
+				throw new UncheckedIOException("Failed to read bytecode of class: " + name, ex);
+			}
+			bytecode = new SoftReference<>(current);
+		}
+		return current;
+	}
+
+	@Nonnull
+	@Override
+	public ClassReader getClassReader() {
+		// Not cached, as the reader would pin the bytecode in memory.
+		return new ClassReader(getBytecode());
+	}
+
+	@Override
+	public int getVersion() {
+		return version;
+	}
+
+	@Nonnull
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getSuperName() {
+		return superName;
+	}
+
+	@Nonnull
+	@Override
+	public List<String> getInterfaces() {
+		return interfaces;
+	}
+
+	@Override
+	public int getAccess() {
+		return access;
+	}
+
+	@Override
+	public String getSignature() {
+		return model().getSignature();
+	}
+
+	@Override
+	public boolean hasValidSignatures() {
+		return model().hasValidSignatures();
+	}
+
+	@Override
+	public String getSourceFileName() {
+		return model().getSourceFileName();
+	}
+
+	@Nonnull
+	@Override
+	public List<AnnotationInfo> getAnnotations() {
+		return model().getAnnotations();
+	}
+
+	@Nonnull
+	@Override
+	public List<TypeAnnotationInfo> getTypeAnnotations() {
+		return model().getTypeAnnotations();
+	}
+
+	@Override
+	public String getOuterClassName() {
+		return model().getOuterClassName();
+	}
+
+	@Override
+	public String getOuterMethodName() {
+		return model().getOuterMethodName();
+	}
+
+	@Override
+	public String getOuterMethodDescriptor() {
+		return model().getOuterMethodDescriptor();
+	}
+
+	@Nonnull
+	@Override
+	public List<String> getOuterClassBreadcrumbs() {
+		return model().getOuterClassBreadcrumbs();
+	}
+
+	@Nonnull
+	@Override
+	public List<InnerClassInfo> getInnerClasses() {
+		return model().getInnerClasses();
+	}
+
+	@Nonnull
+	@Override
+	public List<FieldMember> getFields() {
+		return model().getFields();
+	}
+
+	@Nonnull
+	@Override
+	public List<MethodMember> getMethods() {
+		return model().getMethods();
+	}
+
+	@Override
+	public FieldMember getDeclaredField(@Nonnull String name, @Nonnull String descriptor) {
+		// Missing members can be reported from the known header without building the model.
+		if (header != null && !isMaterialized() && !header.hasField(name, descriptor))
+			return null;
+		return JvmClassInfo.super.getDeclaredField(name, descriptor);
+	}
+
+	@Override
+	public MethodMember getDeclaredMethod(@Nonnull String name, @Nonnull String descriptor) {
+		if (header != null && !isMaterialized() && !header.hasMethod(name, descriptor))
+			return null;
+		return JvmClassInfo.super.getDeclaredMethod(name, descriptor);
+	}
+
+	@Override
+	public <V> void setProperty(Property<V> property) {
+		properties.setProperty(property);
+	}
+
+	@Override
+	public void removeProperty(String key) {
+		properties.removeProperty(key);
+	}
+
+	@Nonnull
+	@Override
+	public Map<String, Property<?>> getProperties() {
+		return properties.getProperties();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof JvmClassInfo other)) return false;
+
+		// Check header values first so that mismatches do not need the bytecode.
+		if (access != other.getAccess() || version != other.getVersion()) return false;
+		if (!name.equals(other.getName())) return false;
+		if (!Objects.equals(superName, other.getSuperName())) return false;
+		if (!interfaces.equals(other.getInterfaces())) return false;
+
+		// The rest of the model is derived from the bytecode, so there is no need to build it.
+		return Arrays.equals(getBytecode(), other.getBytecode());
+	}
+
+	@Override
+	public int hashCode() {
+		// Computed up-front when the header is read from the source, otherwise once when first requested.
+		int result = hash;
+		if (result == 0)
+			hash = result = computeHash(getBytecode());
+		return result;
+	}
+
+	/**
+	 * @param bytecode
+	 * 		Class bytecode.
+	 *
+	 * @return Hash matching {@link BasicJvmClassInfo#hashCode()}, which only considers the header and bytecode.
+	 */
+	private int computeHash(@Nonnull byte[] bytecode) {
+		int result = name.hashCode();
+		result = 31 * result + Objects.hashCode(superName);
+		result = 31 * result + interfaces.hashCode();
+		result = 31 * result + access;
+		result = 31 * result + version;
+		result = 31 * result + Arrays.hashCode(bytecode);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "JVM class: " + getName();
+	}
+
+	/**
+	 * Known header data of a class, including an outline of its declared members.
+	 */
+	public interface Header {
+		/**
+		 * @return Class name.
+		 */
+		@Nonnull
+		String name();
+
+		/**
+		 * @return Super class name, or {@code null} for {@code java/lang/Object} and modules.
+		 */
+		@Nullable
+		String superName();
+
+		/**
+		 * @return Implemented interface names.
+		 */
+		@Nonnull
+		List<String> interfaces();
+
+		/**
+		 * @return Class access flags.
+		 */
+		int access();
+
+		/**
+		 * @return Class file major version.
+		 */
+		int version();
+
+		/**
+		 * @param name
+		 * 		Field name.
+		 * @param descriptor
+		 * 		Field descriptor.
+		 *
+		 * @return {@code true} when the class declares the field.
+		 */
+		boolean hasField(@Nonnull String name, @Nonnull String descriptor);
+
+		/**
+		 * @param name
+		 * 		Method name.
+		 * @param descriptor
+		 * 		Method descriptor.
+		 *
+		 * @return {@code true} when the class declares the method.
+		 */
+		boolean hasMethod(@Nonnull String name, @Nonnull String descriptor);
+	}
+}
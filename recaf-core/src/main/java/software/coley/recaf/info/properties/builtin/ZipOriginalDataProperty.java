@@ -0,0 +1,93 @@
+package software.coley.recaf.info.properties.builtin;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import software.coley.lljzip.format.compression.ZipCompressions;
+import software.coley.recaf.info.Info;
+import software.coley.recaf.info.properties.BasicProperty;
+
+import java.lang.foreign.MemorySegment;
+import java.util.zip.CRC32;
+
+/**
+ * Built in property to track the original compressed data of an {@link Info} value stored inside a ZIP container.
+ * Exporting can copy this data as-is rather than compressing the content again.
+ * <p>
+ * This property is not {@link #persistent() persistent}, so it is not carried over to classes built from the one
+ * it was recorded on. Since other copies may still carry it, the recorded {@link Data#crc() CRC} and
+ * {@link Data#size() size} of the decompressed data should be compared against the current content before
+ * the compressed data is used.
+ *
+ * @author Matt Coley
+ */
+public class ZipOriginalDataProperty extends BasicProperty<ZipOriginalDataProperty.Data> {
+	public static final String KEY = "zip-original-data";
+
+	/**
+	 * @param value
+	 * 		Original entry data.
+	 */
+	public ZipOriginalDataProperty(@Nonnull Data value) {
+		super(KEY, value);
+	}
+
+	@Override
+	public boolean persistent() {
+		return false;
+	}
+
+	/**
+	 * @param info
+	 * 		Info instance.
+	 *
+	 * @return Original entry data, or {@code null} when no property value is assigned.
+	 */
+	@Nullable
+	public static Data get(@Nonnull Info info) {
+		return info.getPropertyValueOrNull(KEY);
+	}
+
+	/**
+	 * @param info
+	 * 		Info instance.
+	 * @param value
+	 * 		Original entry data.
+	 */
+	public static void set(@Nonnull Info info, @Nonnull Data value) {
+		info.setProperty(new ZipOriginalDataProperty(value));
+	}
+
+	/**
+	 * @param info
+	 * 		Info instance.
+	 */
+	public static void remove(@Nonnull Info info) {
+		info.removeProperty(KEY);
+	}
+
+	/**
+	 * @param method
+	 * 		Compression method of the data, either {@link ZipCompressions#STORED} or {@link ZipCompressions#DEFLATED}.
+	 * @param crc
+	 * 		CRC32 of the decompressed data.
+	 * @param size
+	 * 		Length of the decompressed data.
+	 * @param compressedData
+	 * 		Data of the entry as it appears in the ZIP.
+	 */
+	public record Data(int method, long crc, long size, @Nonnull MemorySegment compressedData) {
+		/**
+		 * @param content
+		 * 		Content to compare against.
+		 *
+		 * @return {@code true} when the content has the same length and CRC as the original decompressed data.
+		 */
+		public boolean matches(@Nonnull byte[] content) {
+			if (content.length != size)
+				return false;
+			CRC32 crc32 = new CRC32();
+			crc32.update(content);
+			return crc32.getValue() == crc;
+		}
+	}
+}
@@ -34,22 +34,25 @@
 public abstract class AbstractAssemblerPipeline<C extends ClassInfo, R extends ClassResult, I extends ClassRepresentation> implements AssemblerPipeline<C, R, I> {
 	protected final AssemblerPipelineConfig pipelineConfig;
 	private final AssemblerPipelineGeneralConfig generalConfig;
-	protected PrintContext<?> context;
 
 	public AbstractAssemblerPipeline(@Nonnull AssemblerPipelineGeneralConfig generalConfig,
 									 @Nonnull AssemblerPipelineConfig pipelineConfig) {
 		this.generalConfig = generalConfig;
 		this.pipelineConfig = pipelineConfig;
-
-		generalConfig.getDisassemblyIndent().addChangeListener((ob, old, current) -> refreshContext());
 	}
 
-	private void refreshContext() {
-		context = new PrintContext<>(generalConfig.getDisassemblyIndent().getValue());
+	/**
+	 * @return New print context reflecting the current config. Each print gets its own context so that
+	 * disassembly can be done from multiple threads at once.
+	 */
+	@Nonnull
+	private PrintContext<?> newContext() {
+		PrintContext<?> context = new PrintContext<>(generalConfig.getDisassemblyIndent().getValue());
 
 		// Enable comments that outline where try-catch ranges begin/end.
 		if (pipelineConfig instanceof JvmAssemblerPipelineConfig jvmConfig && jvmConfig.emitTryRangeComments())
 			context.setDebugTryCatchRanges(true);
+		return context;
 	}
 
 	@Nonnull
@@ -183,7 +186,7 @@ protected Result<AnnotationPrinter> annotationPrinter(@Nonnull AnnotationPathNod
 
 	@Nonnull
 	protected String print(@Nonnull Printer printer) {
-		refreshContext(); // new context
+		PrintContext<?> context = newContext();
 		printer.print(context);
 		return context.toString();
 	}
@@ -27,19 +27,27 @@
 import software.coley.recaf.workspace.model.resource.ResourceJvmClassListener;
 import software.coley.recaf.workspace.model.resource.WorkspaceResource;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 /**
  * Represents method calls as a navigable graph.
+ * <p>
+ * The graph is populated in two phases. First all classes are scanned in parallel, creating vertices for their
+ * methods and collecting their outgoing calls. Then once all vertices exist, the collected calls are resolved
+ * and linked in parallel. Calls that still cannot be resolved are tracked, and linked later if the missing
+ * classes are added to the workspace.
  *
  * @author Amejonah
  * @author Matt Coley
@@ -47,19 +55,23 @@
  */
 public class CallGraph implements WorkspaceModificationListener, ResourceJvmClassListener {
 	private static final DebuggingLogger logger = Logging.get(CallGraph.class);
-	private final ExecutorService threadPool = ThreadPoolFactory.newFixedThreadPool("call-graph", 1, true);
+	private static final ExecutorService threadPool = ThreadPoolFactory.newFixedThreadPool("call-graph");
 	private final CachedLinkResolver resolver = new CachedLinkResolver();
-	private final Map<JvmClassInfo, LinkedClass> classToLinkerType = Collections.synchronizedMap(new IdentityHashMap<>());
-	private final Map<JvmClassInfo, ClassMethodsContainer> classToMethodsContainer = Collections.synchronizedMap(new IdentityHashMap<>());
+	private final StripedIdentityMap<JvmClassInfo, LinkedClass> classToLinkerType = new StripedIdentityMap<>();
+	private final StripedIdentityMap<JvmClassInfo, ClassMethodsContainer> classToMethodsContainer = new StripedIdentityMap<>();
+	private final Map<String, Set<MethodRef>> unresolvedDeclarationsByOwner = new ConcurrentHashMap<>();
 	private final MultiMap<String, MethodRef, Set<MethodRef>> unresolvedDeclarations = MultiMap.from(
-			new ConcurrentHashMap<>(),
+			unresolvedDeclarationsByOwner,
 			() -> Collections.newSetFromMap(new ConcurrentHashMap<>()));
 	private final MultiMap<String, CallingContext, Set<CallingContext>> unresolvedReferences = MultiMap.from(
 			new ConcurrentHashMap<>(),
 			() -> Collections.newSetFromMap(new ConcurrentHashMap<>()));
 	private final ObservableBoolean isReady = new ObservableBoolean(false);
+	private final AtomicInteger buildWorkDone = new AtomicInteger();
 	private final Workspace workspace;
 	private final ClassLookup lookup;
+	private volatile int buildWorkTotal = -1;
+	private volatile BuildTimings buildTimings;
 	private boolean initialized;
 
 	/**
@@ -87,6 +99,25 @@ public ObservableBoolean isReady() {
 		return isReady;
 	}
 
+	/**
+	 * @return Progress of the initial population of the graph, from {@code 0} to {@code 1}.
+	 */
+	public double getBuildProgress() {
+		if (isReady.getValue()) return 1;
+		int total = buildWorkTotal;
+		if (total <= 0) return 0;
+		return Math.min(1, buildWorkDone.get() / (double) total);
+	}
+
+	/**
+	 * @return Timings of the phases of the initial population of the graph,
+	 * or {@code null} if the graph is not yet populated.
+	 */
+	@Nullable
+	public BuildTimings getBuildTimings() {
+		return buildTimings;
+	}
+
 	/**
 	 * @param classInfo
 	 * 		Class to wrap.
@@ -136,33 +167,103 @@ public void initialize() {
 		workspace.getPrimaryResource().addResourceJvmClassListener(this);
 
 		// Initialize asynchronously, and mark 'isReady' if completed successfully
-		CompletableFuture.runAsync(() -> {
-			for (WorkspaceResource resource : workspace.getAllResources(false)) {
-				Stream.concat(resource.jvmClassBundleStream(),
-						resource.getVersionedJvmClassBundles().values().stream()).forEach(bundle -> {
-					for (JvmClassInfo jvmClass : bundle.values()) {
-						visit(jvmClass);
+		long start = System.nanoTime();
+		CompletableFuture.supplyAsync(this::collectClasses, threadPool)
+				.thenCompose(classes -> {
+					buildWorkTotal = classes.size() * 2;
+					return forEachAsync(classes, this::scan);
+				})
+				.thenCompose(scanned -> {
+					long scanEnd = System.nanoTime();
+					return forEachAsync(scanned, this::link).thenApply(linked -> {
+						long linkEnd = System.nanoTime();
+						int calls = scanned.stream().mapToInt(c -> c.calls().size()).sum();
+						int unresolved = linked.stream().mapToInt(Integer::intValue).sum();
+						return new BuildTimings(scanned.size(), calls, unresolved,
+								TimeUnit.NANOSECONDS.toMillis(scanEnd - start),
+								TimeUnit.NANOSECONDS.toMillis(linkEnd - scanEnd));
+					});
+				})
+				.whenComplete((timings, t) -> {
+					if (t == null) {
+						buildTimings = timings;
+						logger.debug("Call graph populated: {} classes, {} calls ({} unresolved), scan {}ms, link {}ms",
+								timings.classCount(), timings.callCount(), timings.unresolvedCallCount(),
+								timings.scanMillis(), timings.linkMillis());
+						isReady.setValue(true);
+					} else {
+						logger.error("Call graph initialization failed", t);
+						isReady.setValue(false);
 					}
 				});
-			}
-		}, threadPool).whenComplete((unused, t) -> {
-			if (t == null) {
-				isReady.setValue(true);
-			} else {
-				logger.error("Call graph initialization failed", t);
-				isReady.setValue(false);
-			}
-		});
 	}
 
 	/**
-	 * Populate {@link MethodVertex} for all methods in {@link JvmClassInfo#getMethods()}.
+	 * @return All JVM classes in the workspace to populate the graph with.
+	 */
+	@Nonnull
+	private List<JvmClassInfo> collectClasses() {
+		List<JvmClassInfo> classes = new ArrayList<>();
+		for (WorkspaceResource resource : workspace.getAllResources(false)) {
+			Stream.concat(resource.jvmClassBundleStream(),
+					resource.getVersionedJvmClassBundles().values().stream()).forEach(bundle -> classes.addAll(bundle.values()));
+		}
+		return classes;
+	}
+
+	/**
+	 * @param items
+	 * 		Items to process.
+	 * @param action
+	 * 		Action to run on each item in the {@link #threadPool}.
+	 *
+	 * @return Future of the action results, in the same order as the given items.
+	 */
+	@Nonnull
+	private <T, R> CompletableFuture<List<R>> forEachAsync(@Nonnull List<T> items, @Nonnull Function<T, R> action) {
+		List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+		for (T item : items)
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				R result = action.apply(item);
+				buildWorkDone.incrementAndGet();
+				return result;
+			}, threadPool));
+		return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+				.thenApply(unused -> futures.stream().map(CompletableFuture::join).toList());
+	}
+
+	/**
+	 * Populate {@link MethodVertex} for all methods in {@link JvmClassInfo#getMethods()},
+	 * then link their outgoing calls.
 	 *
 	 * @param jvmClass
 	 * 		Class to visit.
 	 */
 	private void visit(@Nonnull JvmClassInfo jvmClass) {
+		ScannedClass scanned = scan(jvmClass);
+		link(scanned);
+
+		// Link calls from other classes that were made to this class before it was known.
+		for (MutableMethodVertex methodVertex : scanned.methods()) {
+			MethodRef method = methodVertex.getMethod();
+			linkedResolvedCalls(jvmClass, method.name(), method.desc(), methodVertex);
+		}
+	}
+
+	/**
+	 * Populate {@link MethodVertex} for all methods in {@link JvmClassInfo#getMethods()},
+	 * and collect the method calls made by each of them.
+	 *
+	 * @param jvmClass
+	 * 		Class to scan.
+	 *
+	 * @return Vertices of the class's methods, and the calls made by them.
+	 */
+	@Nonnull
+	private ScannedClass scan(@Nonnull JvmClassInfo jvmClass) {
 		ClassMethodsContainer classMethodsContainer = getClassMethodsContainer(jvmClass);
+		List<MutableMethodVertex> methods = new ArrayList<>();
+		List<CallSite> calls = new ArrayList<>();
 		jvmClass.getClassReader().accept(new ClassVisitor(RecafConstants.getAsmVersion()) {
 			@Override
 			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
@@ -172,18 +273,12 @@ public MethodVisitor visitMethod(int access, String name, String descriptor, Str
 							name, descriptor, jvmClass.getName());
 					return null;
 				}
+				methods.add(methodVertex);
 
 				return new MethodVisitor(RecafConstants.getAsmVersion()) {
-					@Override
-					public void visitEnd() {
-						super.visitEnd();
-
-						linkedResolvedCalls(jvmClass, name, descriptor, methodVertex);
-					}
-
 					@Override
 					public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
-						onMethodCalled(jvmClass, methodVertex, opcode, owner, name, descriptor, isInterface);
+						calls.add(new CallSite(methodVertex, opcode, owner, name, descriptor, isInterface));
 					}
 
 					@Override
@@ -210,10 +305,28 @@ public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootst
 				};
 			}
 		}, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		return new ScannedClass(jvmClass, methods, calls);
+	}
+
+	/**
+	 * Links the calls collected by {@link #scan(JvmClassInfo)}.
+	 *
+	 * @param scanned
+	 * 		Scanned class to link calls of.
+	 *
+	 * @return Number of calls that could not be resolved.
+	 */
+	private int link(@Nonnull ScannedClass scanned) {
+		int unresolved = 0;
+		for (CallSite call : scanned.calls())
+			if (!onMethodCalled(scanned.jvmClass(), call.callingVertex(), call.opcode(),
+					call.owner(), call.name(), call.descriptor(), call.isInterface()))
+				unresolved++;
+		return unresolved;
 	}
 
 	/**
-	 * Called from the {@link MethodVisitor} in {@link #visit(JvmClassInfo)} when a method is visited.
+	 * Called from {@link #visit(JvmClassInfo)} for each method of a newly visited class.
 	 * <p>
 	 * This method ensures that {@link #unresolvedReferences unresolved references} are marked as resolved
 	 * and the {@link MethodVertex} model is updated when the given method details match a previously
@@ -254,7 +367,7 @@ private void linkedResolvedCalls(@Nonnull JvmClassInfo owner,
 
 
 	/**
-	 * Called from the {@link ClassReader} in {@link #visit(JvmClassInfo)}.
+	 * Called from {@link #link(ScannedClass)} for each call collected by {@link #scan(JvmClassInfo)}.
 	 * Links the given vertex to the remote {@link MethodVertex} of the resolved method call,
 	 * if resolution is a success.
 	 * <p>
@@ -278,10 +391,12 @@ private void linkedResolvedCalls(@Nonnull JvmClassInfo owner,
 	 * 		Method call descriptor.
 	 * @param isInterface
 	 * 		Method interface flag.
+	 *
+	 * @return {@code true} when the call was resolved and linked.
 	 */
-	private void onMethodCalled(@Nonnull JvmClassInfo callingClass, @Nonnull MutableMethodVertex callingVertex,
-	                            int opcode, @Nonnull String owner, @Nonnull String name,
-	                            @Nonnull String descriptor, boolean isInterface) {
+	private boolean onMethodCalled(@Nonnull JvmClassInfo callingClass, @Nonnull MutableMethodVertex callingVertex,
+	                               int opcode, @Nonnull String owner, @Nonnull String name,
+	                               @Nonnull String descriptor, boolean isInterface) {
 		MethodRef ref = new MethodRef(owner, name, descriptor);
 
 		// Resolve the method
@@ -299,22 +414,25 @@ private void onMethodCalled(@Nonnull JvmClassInfo callingClass, @Nonnull Mutable
 			callingVertex.getCalls().add(resolvedMethodCallVertex);
 			resolvedMethodCallVertex.getCallers().add(callingVertex);
 
-			// Remove tracked unresolved call if any exist
-			Set<MethodRef> unresolvedWithinOwner = unresolvedDeclarations.get(owner);
-			if (unresolvedWithinOwner.remove(ref)) {
-				if (unresolvedWithinOwner.isEmpty()) unresolvedDeclarations.remove(owner);
-				logger.debugging(l -> l.info("Satisfy unresolved call {}", ref));
-			}
-
-			// Remove tracking of unresolved declarations/references
-			boolean resolvedPriorUnknown = false;
-			resolvedPriorUnknown |= unresolvedDeclarations.remove(owner, ref);
-			resolvedPriorUnknown |= unresolvedReferences.remove(owner, callContext);
-			if (resolvedPriorUnknown) logger.debugging(l -> l.warn("Found previous unresolved reference: {}", ref));
+			// Remove tracked unresolved call if any exist.
+			// The removal and the pruning of the owner's empty set happen atomically,
+			// so that declarations concurrently added for the same owner are not dropped along with it.
+			boolean[] satisfied = new boolean[1];
+			unresolvedDeclarationsByOwner.computeIfPresent(owner, (o, unresolvedWithinOwner) -> {
+				satisfied[0] = unresolvedWithinOwner.remove(ref);
+				return unresolvedWithinOwner.isEmpty() ? null : unresolvedWithinOwner;
+			});
+			if (satisfied[0]) logger.debugging(l -> l.info("Satisfy unresolved call {}", ref));
+
+			// Remove tracking of unresolved references
+			if (unresolvedReferences.remove(owner, callContext))
+				logger.debugging(l -> l.warn("Found previous unresolved reference: {}", ref));
+			return true;
 		} else {
-			unresolvedDeclarations.put(owner, ref);
+			addUnresolvedDeclaration(owner, ref);
 			unresolvedReferences.put(owner, callContext);
 			logger.debugging(l -> l.warn("Cannot resolve method: {} - {}", ref, resolutionResult.error()));
+			return false;
 		}
 	}
 
@@ -340,7 +458,7 @@ public Result<Resolution<JvmClassInfo, MethodMember>> resolve(int opcode, @Nonnu
 
 		// Skip if we cannot resolve owner
 		if (ownerClass == null) {
-			unresolvedDeclarations.put(owner, new MethodRef(owner, name, descriptor));
+			addUnresolvedDeclaration(owner, new MethodRef(owner, name, descriptor));
 			return Result.error(ResolutionError.NO_SUCH_METHOD);
 		}
 
@@ -411,12 +529,11 @@ public void onUpdateClass(@Nonnull WorkspaceResource resource, @Nonnull JvmClass
 	public void onRemoveClass(@Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo cls) {
 		// Prune vertex connections of all methods within the class
 		ClassMethodsContainer container = getClassMethodsContainer(cls);
-		Set<MethodRef> unresolvedWithinOwner = unresolvedDeclarations.get(cls.getName());
 		for (MethodVertex vertex : container.getVertices()) {
 			MethodRef ref = vertex.getMethod();
 			if (vertex instanceof MutableMethodVertex) {
 				((MutableMethodVertex) vertex).prune();
-				unresolvedWithinOwner.add(ref);
+				addUnresolvedDeclaration(cls.getName(), ref);
 			} else {
 				logger.warn("Could not prune reference: {}", ref);
 			}
@@ -427,6 +544,24 @@ public void onRemoveClass(@Nonnull WorkspaceResource resource, @Nonnull JvmClass
 		classToMethodsContainer.remove(cls);
 	}
 
+	/**
+	 * Records a method declaration that could not be resolved.
+	 * Done atomically per owner, so that it cannot race with the owner's set being pruned once empty.
+	 *
+	 * @param owner
+	 * 		Declaring class of method.
+	 * @param ref
+	 * 		Method declaration that could not be resolved.
+	 */
+	private void addUnresolvedDeclaration(@Nonnull String owner, @Nonnull MethodRef ref) {
+		unresolvedDeclarationsByOwner.compute(owner, (o, unresolvedWithinOwner) -> {
+			if (unresolvedWithinOwner == null)
+				unresolvedWithinOwner = Collections.newSetFromMap(new ConcurrentHashMap<>());
+			unresolvedWithinOwner.add(ref);
+			return unresolvedWithinOwner;
+		});
+	}
+
 	/**
 	 * @return Map of classes that could not be resolved, to method declarations observed being made to them.
 	 */
@@ -436,6 +571,61 @@ MultiMap<String, MethodRef, Set<MethodRef>> getUnresolvedDeclarations() {
 		return unresolvedDeclarations;
 	}
 
+	/**
+	 * Timings of the initial population of a call graph.
+	 *
+	 * @param classCount
+	 * 		Number of classes in the graph.
+	 * @param callCount
+	 * 		Number of method calls linked, or attempted to be linked.
+	 * @param unresolvedCallCount
+	 * 		Number of method calls that could not be resolved.
+	 * @param scanMillis
+	 * 		Time spent creating vertices and collecting method calls.
+	 * @param linkMillis
+	 * 		Time spent resolving and linking method calls.
+	 */
+	public record BuildTimings(int classCount, int callCount, int unresolvedCallCount, long scanMillis, long linkMillis) {
+		/**
+		 * @return Total time spent populating the graph.
+		 */
+		public long totalMillis() {
+			return scanMillis + linkMillis;
+		}
+	}
+
+	/**
+	 * Vertices and calls collected from a class.
+	 *
+	 * @param jvmClass
+	 * 		Scanned class.
+	 * @param methods
+	 * 		Vertices of methods in the class.
+	 * @param calls
+	 * 		Method calls made by methods in the class.
+	 */
+	private record ScannedClass(@Nonnull JvmClassInfo jvmClass, @Nonnull List<MutableMethodVertex> methods,
+	                            @Nonnull List<CallSite> calls) {}
+
+	/**
+	 * Method call collected from a class, to be linked once all vertices exist.
+	 *
+	 * @param callingVertex
+	 * 		The method that is doing the call.
+	 * @param opcode
+	 * 		Call opcode.
+	 * @param owner
+	 * 		Call owner.
+	 * @param name
+	 * 		Method call name.
+	 * @param descriptor
+	 * 		Method call descriptor.
+	 * @param isInterface
+	 * 		Method interface flag.
+	 */
+	private record CallSite(@Nonnull MutableMethodVertex callingVertex, int opcode, @Nonnull String owner,
+	                        @Nonnull String name, @Nonnull String descriptor, boolean isInterface) {}
+
 	/**
 	 * Models the calling context to some method.
 	 *
@@ -471,8 +661,8 @@ public int hashCode() {
 	 * Mutable impl of {@link MethodVertex}.
 	 */
 	static class MutableMethodVertex implements MethodVertex {
-		private final Set<MethodVertex> callers = Collections.synchronizedSet(new HashSet<>());
-		private final Set<MethodVertex> calls = Collections.synchronizedSet(new HashSet<>());
+		private final Set<MethodVertex> callers = ConcurrentHashMap.newKeySet();
+		private final Set<MethodVertex> calls = ConcurrentHashMap.newKeySet();
 		private final MethodRef method;
 		private final MethodMember resolvedMethod;
 
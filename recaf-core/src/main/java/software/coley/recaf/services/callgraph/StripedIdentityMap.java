@@ -0,0 +1,68 @@
+package software.coley.recaf.services.callgraph;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Identity keyed map split into independently locked stripes, so that threads working on different keys
+ * rarely contend with one another. Class models use content based equality which is expensive to compute,
+ * so identity is used for keys instead.
+ *
+ * @param <K>
+ * 		Key type.
+ * @param <V>
+ * 		Value type.
+ *
+ * @author Matt Coley
+ */
+class StripedIdentityMap<K, V> {
+	private static final int STRIPES = 64;
+	private final Object[] stripes = new Object[STRIPES];
+
+	StripedIdentityMap() {
+		for (int i = 0; i < STRIPES; i++)
+			stripes[i] = new IdentityHashMap<K, V>();
+	}
+
+	/**
+	 * @param key
+	 * 		Key to lookup.
+	 * @param function
+	 * 		Function to create the value when no value is present for the key.
+	 * 		Must not access this map.
+	 *
+	 * @return Existing or newly created value.
+	 */
+	@Nonnull
+	V computeIfAbsent(@Nonnull K key, @Nonnull Function<K, V> function) {
+		Map<K, V> stripe = stripe(key);
+		synchronized (stripe) {
+			return stripe.computeIfAbsent(key, function);
+		}
+	}
+
+	/**
+	 * @param key
+	 * 		Key to remove.
+	 *
+	 * @return Prior value associated with the key.
+	 */
+	@Nullable
+	V remove(@Nonnull K key) {
+		Map<K, V> stripe = stripe(key);
+		synchronized (stripe) {
+			return stripe.remove(key);
+		}
+	}
+
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	private Map<K, V> stripe(@Nonnull K key) {
+		int hash = System.identityHashCode(key);
+		return (Map<K, V>) stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+	}
+}
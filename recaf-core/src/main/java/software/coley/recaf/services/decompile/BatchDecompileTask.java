@@ -0,0 +1,347 @@
+package software.coley.recaf.services.decompile;
+
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import software.coley.recaf.analytics.logging.Logging;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.services.workspace.io.WorkspaceExportConsumer;
+import software.coley.recaf.services.workspace.io.WorkspaceOutputType;
+import software.coley.recaf.util.threading.ThreadPoolFactory;
+import software.coley.recaf.workspace.model.Workspace;
+import software.coley.recaf.workspace.model.bundle.JvmClassBundle;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Task for decompiling all JVM classes in a workspace's primary resource, streaming each result to an output
+ * as soon as it is available rather than holding all decompiled sources in memory.
+ * <br>
+ * Decompilation is done on a fixed pool created for each run, with the number of decompiled results awaiting output
+ * bounded by {@link #withMaxInFlight(int)}. Progress can be observed from other threads while the task is running.
+ *
+ * @author Matt Coley
+ * @see DecompilerManager#newBatch(JvmDecompiler, Workspace)
+ */
+public class BatchDecompileTask {
+	private static final Logger logger = Logging.get(BatchDecompileTask.class);
+	private static final int BUFFER_SIZE = 1 << 16;
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final AtomicLong bytesWritten = new AtomicLong();
+	private final DecompilerManager decompilerManager;
+	private final JvmDecompiler decompiler;
+	private final Workspace workspace;
+	private Predicate<JvmClassInfo> classFilter = classInfo -> true;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private int maxInFlight = 256;
+	private volatile boolean cancelled;
+	private volatile int total = -1;
+	private volatile long startTime = -1;
+	private volatile long endTime = -1;
+
+	/**
+	 * @param decompilerManager
+	 * 		Manager to pass decompilation through, so that filters and the persistent cache are used.
+	 * @param decompiler
+	 * 		Decompiler implementation to use.
+	 * @param workspace
+	 * 		Workspace to decompile the primary resource of.
+	 */
+	BatchDecompileTask(@Nonnull DecompilerManager decompilerManager, @Nonnull JvmDecompiler decompiler,
+	                   @Nonnull Workspace workspace) {
+		this.decompilerManager = decompilerManager;
+		this.decompiler = decompiler;
+		this.workspace = workspace;
+	}
+
+	/**
+	 * @param parallelism
+	 * 		Number of threads to decompile with.
+	 * 		Capped to the max size of pools from {@link ThreadPoolFactory}.
+	 *
+	 * @return Self.
+	 */
+	@Nonnull
+	public BatchDecompileTask withParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be at least 1");
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * @param maxInFlight
+	 * 		Max number of classes being decompiled or awaiting output at a time.
+	 * 		Bounds the memory used by decompiled sources which have not yet been written.
+	 *
+	 * @return Self.
+	 */
+	@Nonnull
+	public BatchDecompileTask withMaxInFlight(int maxInFlight) {
+		if (maxInFlight < 1)
+			throw new IllegalArgumentException("Max in-flight count must be at least 1");
+		this.maxInFlight = maxInFlight;
+		return this;
+	}
+
+	/**
+	 * @param classFilter
+	 * 		Filter for which classes to decompile.
+	 * 		Inner classes with an outer class present in the same bundle are always skipped,
+	 * 		as they are included in the outer class's decompilation.
+	 *
+	 * @return Self.
+	 */
+	@Nonnull
+	public BatchDecompileTask withClassFilter(@Nonnull Predicate<JvmClassInfo> classFilter) {
+		this.classFilter = classFilter;
+		return this;
+	}
+
+	/**
+	 * Decompiles the classes and writes them to the given consumer. Blocks until completion.
+	 * <ul>
+	 *     <li>{@link WorkspaceOutputType#FILE} streams a ZIP of the sources via {@link WorkspaceExportConsumer#write(byte[])}</li>
+	 *     <li>{@link WorkspaceOutputType#DIRECTORY} writes each source via {@link WorkspaceExportConsumer#writeRelative(String, byte[])}</li>
+	 * </ul>
+	 *
+	 * @param outputType
+	 * 		Type of output to write.
+	 * @param consumer
+	 * 		Consumer to write to.
+	 *
+	 * @throws IOException
+	 * 		When the output cannot be written to, or the task is interrupted.
+	 */
+	public void export(@Nonnull WorkspaceOutputType outputType, @Nonnull WorkspaceExportConsumer consumer) throws IOException {
+		if (startTime >= 0)
+			throw new IllegalStateException("Batch decompile task has already been run");
+		startTime = System.currentTimeMillis();
+		List<JvmClassInfo> classes = collectClasses();
+		total = classes.size();
+
+		ZipOutputStream zip = outputType == WorkspaceOutputType.FILE ?
+				new ZipOutputStream(new BufferedOutputStream(new ConsumerOutputStream(consumer), BUFFER_SIZE)) : null;
+		ExecutorService pool = ThreadPoolFactory.newFixedThreadPool("batch-decompile", parallelism, true);
+		BlockingQueue<Output> outputs = new LinkedBlockingQueue<>();
+		Semaphore inFlight = new Semaphore(maxInFlight);
+		int submitted = 0;
+		int written = 0;
+		try {
+			// Submit work while there are permits available, otherwise write out completed work to free up permits.
+			// Both are done on this thread so that the output does not need to be thread-safe.
+			while (submitted < classes.size() && !cancelled) {
+				if (inFlight.tryAcquire()) {
+					JvmClassInfo classInfo = classes.get(submitted++);
+					pool.execute(() -> outputs.add(decompile(classInfo)));
+				} else {
+					write(outputs.take(), zip, consumer);
+					inFlight.release();
+					written++;
+				}
+			}
+
+			// Write out remaining work.
+			while (written < submitted) {
+				write(outputs.take(), zip, consumer);
+				inFlight.release();
+				written++;
+			}
+
+			if (zip != null)
+				zip.close();
+			consumer.commit();
+		} catch (InterruptedException ex) {
+			cancelled = true;
+			throw new InterruptedIOException("Batch decompilation was interrupted");
+		} finally {
+			pool.shutdownNow();
+			endTime = System.currentTimeMillis();
+			logger.debug("Batch decompiled {}/{} classes in {}ms ({} failed)", getCompleted(), total, getElapsedMillis(), getFailed());
+		}
+	}
+
+	/**
+	 * Stops submitting new classes for decompilation. Classes already being decompiled will be written to the output.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * @return {@code true} when {@link #cancel()} was called, or the task was interrupted.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return {@code true} when the task has finished running.
+	 */
+	public boolean isDone() {
+		return endTime >= 0;
+	}
+
+	/**
+	 * @return Number of classes to decompile, or {@code -1} if the task has not yet started.
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return Number of classes decompiled and written to the output.
+	 */
+	public long getCompleted() {
+		return completed.sum();
+	}
+
+	/**
+	 * @return Number of classes which did not decompile successfully. These are included in {@link #getCompleted()}.
+	 */
+	public long getFailed() {
+		return failed.sum();
+	}
+
+	/**
+	 * @return Number of bytes of decompiled source written to the output, before any compression.
+	 */
+	public long getBytesWritten() {
+		return bytesWritten.get();
+	}
+
+	/**
+	 * @return Progress from {@code 0} to {@code 1}.
+	 */
+	public double getProgress() {
+		int currentTotal = total;
+		if (currentTotal < 0) return 0;
+		if (currentTotal == 0) return 1;
+		return getCompleted() / (double) currentTotal;
+	}
+
+	/**
+	 * @return Milliseconds elapsed since the task started, or the total run time if completed.
+	 */
+	public long getElapsedMillis() {
+		if (startTime < 0) return 0;
+		long end = endTime >= 0 ? endTime : System.currentTimeMillis();
+		return end - startTime;
+	}
+
+	/**
+	 * @return Average number of classes completed per second.
+	 */
+	public double getClassesPerSecond() {
+		long elapsed = getElapsedMillis();
+		if (elapsed <= 0) return 0;
+		return getCompleted() * 1000.0 / elapsed;
+	}
+
+	/**
+	 * @return Average number of source bytes written per second.
+	 */
+	public double getBytesPerSecond() {
+		long elapsed = getElapsedMillis();
+		if (elapsed <= 0) return 0;
+		return getBytesWritten() * 1000.0 / elapsed;
+	}
+
+	@Nonnull
+	private List<JvmClassInfo> collectClasses() {
+		List<JvmClassInfo> classes = new ArrayList<>();
+		workspace.getPrimaryResource().jvmClassBundleStream().forEach(bundle -> {
+			for (JvmClassInfo classInfo : bundle) {
+				if (isIncludedInOuterClass(bundle, classInfo) || !classFilter.test(classInfo))
+					continue;
+				classes.add(classInfo);
+			}
+		});
+		return classes;
+	}
+
+	@Nonnull
+	private Output decompile(@Nonnull JvmClassInfo classInfo) {
+		DecompileResult result;
+		try {
+			result = decompilerManager.decompileNow(decompiler, workspace, classInfo, false);
+		} catch (Throwable t) {
+			result = new DecompileResult(t, decompiler.getConfig().getHash());
+		}
+		return new Output(classInfo.getName() + ".java", result);
+	}
+
+	private void write(@Nonnull Output output, ZipOutputStream zip, @Nonnull WorkspaceExportConsumer consumer) throws IOException {
+		DecompileResult result = output.result();
+		if (result.getType() != DecompileResult.ResultType.SUCCESS)
+			failed.increment();
+
+		String text = result.getText();
+		if (text != null) {
+			byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+			if (zip != null) {
+				zip.putNextEntry(new ZipEntry(output.path()));
+				zip.write(bytes);
+				zip.closeEntry();
+			} else {
+				consumer.writeRelative(output.path(), bytes);
+			}
+			bytesWritten.addAndGet(bytes.length);
+		}
+		completed.increment();
+	}
+
+	private static boolean isIncludedInOuterClass(@Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo classInfo) {
+		String outerClassName = classInfo.getOuterClassName();
+		return outerClassName != null && bundle.containsKey(outerClassName);
+	}
+
+	/**
+	 * Decompiled output of a class.
+	 *
+	 * @param path
+	 * 		Relative output path.
+	 * @param result
+	 * 		Decompilation result.
+	 */
+	private record Output(@Nonnull String path, @Nonnull DecompileResult result) {}
+
+	/**
+	 * Output stream which passes data along to {@link WorkspaceExportConsumer#write(byte[])}.
+	 */
+	private static class ConsumerOutputStream extends OutputStream {
+		private final WorkspaceExportConsumer consumer;
+
+		private ConsumerOutputStream(@Nonnull WorkspaceExportConsumer consumer) {
+			this.consumer = consumer;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			consumer.write(new byte[]{(byte) b});
+		}
+
+		@Override
+		public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+			// Must copy since the buffered stream re-uses the array, and consumers may hold onto what they are given.
+			if (len > 0)
+				consumer.write(Arrays.copyOfRange(b, off, off + len));
+		}
+	}
+}
@@ -0,0 +1,311 @@
+package software.coley.recaf.services.decompile;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import software.coley.recaf.analytics.logging.Logging;
+import software.coley.recaf.util.threading.ThreadPoolFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Disk backed cache of decompiler output, allowing decompilations to be re-used across sessions.
+ * <br>
+ * Entries are keyed by {@link #key(byte[], Collection, Decompiler) a hash of the input bytecode, the bytecode of its inner
+ * classes, and the decompiler's identity and config}.
+ * Each entry is stored as a compressed file in the cache directory. The total size of the cache is capped, with the least
+ * recently used entries being removed by a background compaction task when the cap is exceeded.
+ *
+ * @author Matt Coley
+ */
+public class DecompileDiskCache {
+	private static final Logger logger = Logging.get(DecompileDiskCache.class);
+	private static final String EXTENSION = ".gz";
+	private static final String TEMP_EXTENSION = ".tmp";
+	/** Compaction trims down to this ratio of the max size so that we don't compact on every subsequent write. */
+	private static final double COMPACT_TARGET_RATIO = 0.8;
+	private final ExecutorService compactionService = ThreadPoolFactory.newSingleThreadExecutor("decompile-cache-compaction");
+	private final AtomicBoolean compactionQueued = new AtomicBoolean();
+	/** Access ordered map of entry keys to their size on disk. Eldest entries are the least recently used. */
+	private final Map<String, Long> entrySizes = new LinkedHashMap<>(256, 0.75F, true);
+	private final LongSupplier maxSizeSupplier;
+	private final Path directory;
+	private long totalSize;
+
+	/**
+	 * @param directory
+	 * 		Directory to store cached entries in.
+	 * @param maxSizeSupplier
+	 * 		Supplier of the max size of the cache, in bytes.
+	 */
+	public DecompileDiskCache(@Nonnull Path directory, @Nonnull LongSupplier maxSizeSupplier) {
+		this.directory = directory;
+		this.maxSizeSupplier = maxSizeSupplier;
+
+		// Populate the LRU model from existing entries, and handle any cleanup from prior sessions in the background.
+		compactionService.submit(this::initialize);
+	}
+
+	/**
+	 * @param bytecode
+	 * 		Bytecode given to the decompiler, after any filtering has been applied.
+	 * @param decompiler
+	 * 		Decompiler used.
+	 *
+	 * @return Cache key for the given input.
+	 */
+	@Nonnull
+	public static String key(@Nonnull byte[] bytecode, @Nonnull Decompiler decompiler) {
+		return key(bytecode, Collections.emptyList(), decompiler);
+	}
+
+	/**
+	 * @param bytecode
+	 * 		Bytecode given to the decompiler, after any filtering has been applied.
+	 * @param innerBytecode
+	 * 		Bytecode of the inner classes the decompiler will read from the workspace along with the class,
+	 * 		in a stable order.
+	 * @param decompiler
+	 * 		Decompiler used.
+	 *
+	 * @return Cache key for the given input.
+	 */
+	@Nonnull
+	public static String key(@Nonnull byte[] bytecode, @Nonnull Collection<byte[]> innerBytecode, @Nonnull Decompiler decompiler) {
+		Hasher hasher = Hashing.sha256().newHasher(bytecode.length + 64);
+		hasher.putBytes(bytecode);
+		for (byte[] inner : innerBytecode) {
+			// Length prefix so that the boundaries between classes are part of the hash
+			hasher.putInt(inner.length);
+			hasher.putBytes(inner);
+		}
+		hasher.putString(decompiler.getName(), StandardCharsets.UTF_8);
+		hasher.putString(decompiler.getVersion(), StandardCharsets.UTF_8);
+		hasher.putInt(decompiler.getConfig().getHash());
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * @param key
+	 * 		Cache key, see {@link #key(byte[], Collection, Decompiler)}.
+	 *
+	 * @return Cached decompilation text, or {@code null} if no entry exists for the key.
+	 */
+	@Nullable
+	public String get(@Nonnull String key) {
+		Path path = entryPath(key);
+		if (!Files.isRegularFile(path))
+			return null;
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+			String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+
+			// Mark the entry as recently used, both in the model and on disk so the order persists across sessions.
+			synchronized (entrySizes) {
+				entrySizes.get(key);
+			}
+			Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+			return text;
+		} catch (IOException ex) {
+			// Likely a partial or corrupt entry, or it was removed while we were reading it.
+			logger.debug("Failed to read cached decompilation '{}', removing entry", key, ex);
+			remove(key);
+			return null;
+		}
+	}
+
+	/**
+	 * @param key
+	 * 		Cache key, see {@link #key(byte[], Collection, Decompiler)}.
+	 * @param text
+	 * 		Decompilation text to cache.
+	 */
+	public void put(@Nonnull String key, @Nonnull String text) {
+		Path path = entryPath(key);
+		Path temp = directory.resolve(key + TEMP_EXTENSION);
+		try {
+			if (!Files.isDirectory(directory))
+				Files.createDirectories(directory);
+
+			// Write to a temporary file and move it into place so that readers never see partial entries.
+			try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+				out.write(text.getBytes(StandardCharsets.UTF_8));
+			}
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+			long size = Files.size(path);
+			boolean overCapacity;
+			synchronized (entrySizes) {
+				Long existing = entrySizes.put(key, size);
+				if (existing != null) totalSize -= existing;
+				totalSize += size;
+				overCapacity = totalSize > maxSizeSupplier.getAsLong();
+			}
+			if (overCapacity)
+				requestCompaction();
+		} catch (IOException ex) {
+			logger.warn("Failed to write cached decompilation '{}'", key, ex);
+			try {
+				Files.deleteIfExists(temp);
+			} catch (IOException ignored) {
+				// Will be cleaned up next session
+			}
+		}
+	}
+
+	/**
+	 * @param key
+	 * 		Cache key, see {@link #key(byte[], Collection, Decompiler)}.
+	 */
+	public void remove(@Nonnull String key) {
+		synchronized (entrySizes) {
+			Long existing = entrySizes.remove(key);
+			if (existing != null) totalSize -= existing;
+		}
+		try {
+			Files.deleteIfExists(entryPath(key));
+		} catch (IOException ex) {
+			logger.debug("Failed to remove cached decompilation '{}'", key, ex);
+		}
+	}
+
+	/**
+	 * Removes all entries from the cache.
+	 */
+	public void clear() {
+		List<String> keys;
+		synchronized (entrySizes) {
+			keys = new ArrayList<>(entrySizes.keySet());
+		}
+		keys.forEach(this::remove);
+	}
+
+	/**
+	 * @return Current size of the cache on disk, in bytes.
+	 */
+	public long getSize() {
+		synchronized (entrySizes) {
+			return totalSize;
+		}
+	}
+
+	/**
+	 * @return Number of entries in the cache.
+	 */
+	public int getEntryCount() {
+		synchronized (entrySizes) {
+			return entrySizes.size();
+		}
+	}
+
+	/**
+	 * Schedules a compaction pass on the background compaction thread, if one is not already queued.
+	 */
+	public void requestCompaction() {
+		if (compactionQueued.compareAndSet(false, true))
+			compactionService.submit(() -> {
+				compactionQueued.set(false);
+				compact();
+			});
+	}
+
+	/**
+	 * Removes the least recently used entries until the cache is under its size limit.
+	 */
+	private void compact() {
+		long maxSize = maxSizeSupplier.getAsLong();
+		long targetSize = (long) (maxSize * COMPACT_TARGET_RATIO);
+		List<String> evicted = new ArrayList<>();
+		synchronized (entrySizes) {
+			if (totalSize <= maxSize)
+				return;
+			Iterator<Map.Entry<String, Long>> it = entrySizes.entrySet().iterator();
+			while (totalSize > targetSize && it.hasNext()) {
+				Map.Entry<String, Long> entry = it.next();
+				totalSize -= entry.getValue();
+				evicted.add(entry.getKey());
+				it.remove();
+			}
+		}
+		for (String key : evicted) {
+			try {
+				Files.deleteIfExists(entryPath(key));
+			} catch (IOException ex) {
+				logger.debug("Failed to evict cached decompilation '{}'", key, ex);
+			}
+		}
+		if (!evicted.isEmpty())
+			logger.debug("Evicted {} cached decompilations", evicted.size());
+	}
+
+	/**
+	 * Loads existing entries into the LRU model, ordered by their last access time.
+	 */
+	private void initialize() {
+		if (!Files.isDirectory(directory))
+			return;
+		record DiskEntry(String key, long size, long lastAccess) {}
+		List<DiskEntry> diskEntries = new ArrayList<>();
+		try (Stream<Path> stream = Files.list(directory)) {
+			stream.forEach(path -> {
+				String fileName = path.getFileName().toString();
+				try {
+					if (fileName.endsWith(TEMP_EXTENSION)) {
+						// Leftover from a write interrupted in a prior session.
+						Files.deleteIfExists(path);
+					} else if (fileName.endsWith(EXTENSION)) {
+						BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+						String key = fileName.substring(0, fileName.length() - EXTENSION.length());
+						diskEntries.add(new DiskEntry(key, attributes.size(), attributes.lastModifiedTime().toMillis()));
+					}
+				} catch (IOException ex) {
+					logger.debug("Failed to read cache entry '{}'", fileName, ex);
+				}
+			});
+		} catch (IOException ex) {
+			logger.warn("Failed to read decompilation cache directory", ex);
+			return;
+		}
+		diskEntries.sort(Comparator.comparingLong(DiskEntry::lastAccess));
+		synchronized (entrySizes) {
+			// Entries recorded this session before initialization finished are the most recently used,
+			// so they need to be placed after the entries from prior sessions.
+			Map<String, Long> sessionEntries = new LinkedHashMap<>(entrySizes);
+			entrySizes.clear();
+			for (DiskEntry entry : diskEntries)
+				if (!sessionEntries.containsKey(entry.key()))
+					entrySizes.put(entry.key(), entry.size());
+			entrySizes.putAll(sessionEntries);
+			totalSize = entrySizes.values().stream().mapToLong(Long::longValue).sum();
+		}
+		compact();
+	}
+
+	@Nonnull
+	private Path entryPath(@Nonnull String key) {
+		return directory.resolve(key + EXTENSION);
+	}
+}
@@ -14,11 +14,15 @@
 import software.coley.recaf.analytics.logging.DebuggingLogger;
 import software.coley.recaf.analytics.logging.Logging;
 import software.coley.recaf.info.AndroidClassInfo;
+import software.coley.recaf.info.InnerClassInfo;
 import software.coley.recaf.info.JvmClassInfo;
 import software.coley.recaf.info.properties.builtin.CachedDecompileProperty;
+import software.coley.recaf.path.ClassPathNode;
 import software.coley.recaf.services.Service;
 import software.coley.recaf.services.decompile.filter.JvmBytecodeFilter;
 import software.coley.recaf.services.decompile.filter.OutputTextFilter;
+import software.coley.recaf.services.file.RecafDirectoriesConfig;
+import software.coley.recaf.util.TestEnvironment;
 import software.coley.recaf.util.threading.ThreadPoolFactory;
 import software.coley.recaf.util.visitors.*;
 import software.coley.recaf.workspace.model.Workspace;
@@ -45,20 +49,31 @@ public class DecompilerManager implements Service {
 	private final Map<String, JvmDecompiler> jvmDecompilers = new TreeMap<>();
 	private final Map<String, AndroidDecompiler> androidDecompilers = new TreeMap<>();
 	private final DecompilerManagerConfig config;
+	private final DecompileDiskCache diskCache;
 	private final ObservableObject<JvmDecompiler> targetJvmDecompiler;
 	private final ObservableObject<AndroidDecompiler> targetAndroidDecompiler;
 
 	/**
 	 * @param config
 	 * 		Config to pull values from.
+	 * @param directoriesConfig
+	 * 		Config to pull the decompilation cache directory from.
 	 * @param implementations
 	 * 		CDI provider of decompiler implementations.
 	 */
 	@Inject
 	public DecompilerManager(@Nonnull DecompilerManagerConfig config,
+	                         @Nonnull RecafDirectoriesConfig directoriesConfig,
 	                         @Nonnull Instance<Decompiler> implementations) {
 		this.config = config;
 
+		// Skip persistent caching in test environment
+		if (TestEnvironment.isTestEnv())
+			diskCache = null;
+		else
+			diskCache = new DecompileDiskCache(directoriesConfig.getBaseDirectory().resolve("decompile-cache"),
+					() -> Math.max(1, this.config.getPersistDecompilationsLimitMb().getValue()) * 1024L * 1024L);
+
 		// Register implementations
 		for (Decompiler implementation : implementations) {
 			if (implementation instanceof JvmDecompiler jvmDecompiler) {
@@ -119,39 +134,121 @@ public CompletableFuture<DecompileResult> decompile(@Nonnull Workspace workspace
 	 */
 	@Nonnull
 	public CompletableFuture<DecompileResult> decompile(@Nonnull JvmDecompiler decompiler, @Nonnull Workspace workspace, @Nonnull JvmClassInfo classInfo) {
-		return CompletableFuture.supplyAsync(() -> {
-			boolean doCache = config.getCacheDecompilations().getValue();
-			if (doCache) {
-				// Check for cached result, returning the cached result if found
-				// and only if the current config matches the one that yielded the cached result.
-				DecompileResult cachedResult = CachedDecompileProperty.get(classInfo, decompiler);
-				if (cachedResult != null) {
-					if (cachedResult.getConfigHash() == decompiler.getConfig().getHash())
-						return cachedResult;
-
-					// Config changed, void the cache.
-					CachedDecompileProperty.remove(classInfo);
-				}
+		return CompletableFuture.supplyAsync(() -> decompileNow(decompiler, workspace, classInfo, true), decompileThreadPool);
+	}
+
+	/**
+	 * Creates a batch decompilation task for all JVM classes in the given workspace's primary resource.
+	 * The task runs on its own fixed pool rather than the shared pool used by {@code decompile(...)} calls.
+	 *
+	 * @param decompiler
+	 * 		Decompiler implementation to use.
+	 * @param workspace
+	 * 		Workspace to decompile the primary resource of.
+	 *
+	 * @return New batch decompilation task, which can be configured further before being run.
+	 */
+	@Nonnull
+	public BatchDecompileTask newBatch(@Nonnull JvmDecompiler decompiler, @Nonnull Workspace workspace) {
+		return new BatchDecompileTask(this, decompiler, workspace);
+	}
+
+	/**
+	 * Decompiles the given class on the current thread, with all filters and caching applied.
+	 *
+	 * @param decompiler
+	 * 		Decompiler implementation to use.
+	 * @param workspace
+	 * 		Workspace to pull additional information from.
+	 * @param classInfo
+	 * 		Class to decompile.
+	 * @param memoryCache
+	 * 		Flag to allow storing the result in {@link CachedDecompileProperty}.
+	 * 		Bulk operations should not hold onto every result in memory, but can still use existing cached values.
+	 *
+	 * @return Decompilation result.
+	 */
+	@Nonnull
+	DecompileResult decompileNow(@Nonnull JvmDecompiler decompiler, @Nonnull Workspace workspace,
+	                             @Nonnull JvmClassInfo classInfo, boolean memoryCache) {
+		boolean doCache = config.getCacheDecompilations().getValue();
+		if (doCache) {
+			// Check for cached result, returning the cached result if found
+			// and only if the current config matches the one that yielded the cached result.
+			DecompileResult cachedResult = CachedDecompileProperty.get(classInfo, decompiler);
+			if (cachedResult != null) {
+				if (cachedResult.getConfigHash() == decompiler.getConfig().getHash())
+					return cachedResult;
+
+				// Config changed, void the cache.
+				CachedDecompileProperty.remove(classInfo);
 			}
+		}
 
-			// We will use the layered filter manually here so any user requested cleanup is done before we pass the class to the decompiler.
-			// The decompiler base implementation skips some work if there are no registered filters so doing it externally like this is
-			// better for performance. If the user has no filtering enabled then no re-reads and re-writes are necessary.
-			JvmClassInfo filteredClass = JvmBytecodeFilter.applyFilters(workspace, classInfo, Collections.singletonList(getLayeredJvmBytecodeFilter()));
-
-			// Decompile and cache the results.
-			DecompileResult result = decompiler.decompile(workspace, filteredClass);
-			String decompilation = result.getText();
-			if (decompilation != null && !outputTextFilters.isEmpty()) {
-				// Apply output filters and re-wrap the result with the new output text.
-				for (OutputTextFilter textFilter : outputTextFilters)
-					decompilation = textFilter.filter(workspace, classInfo, decompilation);
-				result = new DecompileResult(decompilation, result.getConfigHash());
+		// We will use the layered filter manually here so any user requested cleanup is done before we pass the class to the decompiler.
+		// The decompiler base implementation skips some work if there are no registered filters so doing it externally like this is
+		// better for performance. If the user has no filtering enabled then no re-reads and re-writes are necessary.
+		JvmClassInfo filteredClass = JvmBytecodeFilter.applyFilters(workspace, classInfo, Collections.singletonList(getLayeredJvmBytecodeFilter()));
+
+		// Check for a result persisted from a prior session. The key is based on the filtered bytecode, so any changes
+		// to the class or the filter config will be reflected in the key. Decompilers also pull inner classes from the
+		// workspace when decompiling, so their bytecode is included as well. We store the output before text filters
+		// are applied since those may yield different results for the same input (such as comment insertion).
+		DecompileDiskCache persistentCache = doCache && config.getPersistDecompilations().getValue() ? diskCache : null;
+		String persistKey = persistentCache == null ? null :
+				DecompileDiskCache.key(filteredClass.getBytecode(), collectInnerBytecode(workspace, classInfo), decompiler);
+		String persistedText = persistKey == null ? null : persistentCache.get(persistKey);
+
+		// Decompile and cache the results.
+		DecompileResult result;
+		if (persistedText != null) {
+			result = new DecompileResult(persistedText, decompiler.getConfig().getHash());
+		} else {
+			result = decompiler.decompile(workspace, filteredClass);
+			if (persistKey != null && result.getType() == DecompileResult.ResultType.SUCCESS && result.getText() != null)
+				persistentCache.put(persistKey, result.getText());
+		}
+		String decompilation = result.getText();
+		if (decompilation != null && !outputTextFilters.isEmpty()) {
+			// Apply output filters and re-wrap the result with the new output text.
+			for (OutputTextFilter textFilter : outputTextFilters)
+				decompilation = textFilter.filter(workspace, classInfo, decompilation);
+			result = new DecompileResult(decompilation, result.getConfigHash());
+		}
+		if (doCache && memoryCache)
+			CachedDecompileProperty.set(classInfo, decompiler, result);
+		return result;
+	}
+
+	/**
+	 * @param workspace
+	 * 		Workspace to pull inner classes from.
+	 * @param classInfo
+	 * 		Class to collect inner classes of.
+	 *
+	 * @return Bytecode of all inner classes declared within the given class, recursively, ordered by name.
+	 * Inner classes not found in the workspace are skipped.
+	 */
+	@Nonnull
+	private static List<byte[]> collectInnerBytecode(@Nonnull Workspace workspace, @Nonnull JvmClassInfo classInfo) {
+		SortedMap<String, byte[]> innerBytecode = new TreeMap<>();
+		Deque<JvmClassInfo> queue = new ArrayDeque<>();
+		queue.add(classInfo);
+		while (!queue.isEmpty()) {
+			JvmClassInfo current = queue.poll();
+			for (InnerClassInfo inner : current.getInnerClasses()) {
+				String innerName = inner.getInnerClassName();
+				if (inner.isExternalReference() || innerName.equals(current.getName()) || innerBytecode.containsKey(innerName))
+					continue;
+				ClassPathNode path = workspace.findJvmClass(innerName);
+				if (path == null)
+					continue;
+				JvmClassInfo innerClass = path.getValue().asJvmClass();
+				innerBytecode.put(innerName, innerClass.getBytecode());
+				queue.add(innerClass);
 			}
-			if (doCache)
-				CachedDecompileProperty.set(classInfo, decompiler, result);
-			return result;
-		}, decompileThreadPool);
+		}
+		return new ArrayList<>(innerBytecode.values());
 	}
 
 	/**
@@ -186,6 +283,14 @@ public CompletableFuture<DecompileResult> decompile(@Nonnull AndroidDecompiler d
 		return CompletableFuture.supplyAsync(() -> decompiler.decompile(workspace, classInfo), decompileThreadPool);
 	}
 
+	/**
+	 * @return Disk backed cache of decompilations, or {@code null} when persistent caching is not available.
+	 */
+	@Nullable
+	public DecompileDiskCache getDiskCache() {
+		return diskCache;
+	}
+
 	/**
 	 * Adds an input bytecode filter to all {@link JvmDecompiler} instances.
 	 *
@@ -23,6 +23,8 @@ public class DecompilerManagerConfig extends BasicConfigContainer implements Ser
 	private final ObservableString preferredJvmDecompiler = new ObservableString(null);
 	private final ObservableString preferredAndroidDecompiler = new ObservableString(null);
 	private final ObservableBoolean cacheDecompilations = new ObservableBoolean(true);
+	private final ObservableBoolean persistDecompilations = new ObservableBoolean(true);
+	private final ObservableInteger persistDecompilationsLimitMb = new ObservableInteger(512);
 	private final ObservableBoolean filterDebug = new ObservableBoolean(false);
 	private final ObservableBoolean filterHollow = new ObservableBoolean(false);
 	private final ObservableBoolean filterIllegalAnnotations = new ObservableBoolean(false);
@@ -39,6 +41,8 @@ public DecompilerManagerConfig() {
 		addValue(new BasicConfigValue<>(KEY_PREF_JVM_DECOMPILER, String.class, preferredJvmDecompiler));
 		addValue(new BasicConfigValue<>(KEY_PREF_ANDROID_DECOMPILER, String.class, preferredAndroidDecompiler));
 		addValue(new BasicConfigValue<>("cache-decompilations", boolean.class, cacheDecompilations));
+		addValue(new BasicConfigValue<>("cache-decompilations-disk", boolean.class, persistDecompilations));
+		addValue(new BasicConfigValue<>("cache-decompilations-disk-limit-mb", int.class, persistDecompilationsLimitMb));
 		addValue(new BasicConfigValue<>("filter-strip-debug", boolean.class, filterDebug));
 		addValue(new BasicConfigValue<>("filter-hollow", boolean.class, filterHollow));
 		addValue(new BasicConfigValue<>("filter-annotations-illegal", boolean.class, filterIllegalAnnotations));
@@ -73,6 +77,23 @@ public ObservableBoolean getCacheDecompilations() {
 		return cacheDecompilations;
 	}
 
+	/**
+	 * @return {@code true} to also persist cached decompilations to disk, so they can be re-used in later sessions.
+	 * Only used when {@link #getCacheDecompilations()} is enabled.
+	 */
+	@Nonnull
+	public ObservableBoolean getPersistDecompilations() {
+		return persistDecompilations;
+	}
+
+	/**
+	 * @return Max size of the on-disk decompilation cache, in megabytes.
+	 */
+	@Nonnull
+	public ObservableInteger getPersistDecompilationsLimitMb() {
+		return persistDecompilationsLimitMb;
+	}
+
 	/**
 	 * @return {@code true} to filter out <i>all</i> debug information including generics, line numbers, variable names, etc.
 	 */
@@ -41,16 +41,18 @@
 
 /**
  * A transformer that collects values of {@code static final} field assignments.
+ * <p>
+ * Classes can be visited in parallel, so collected values are recorded per class in a concurrent map
+ * once the class has been fully analyzed.
  *
  * @author Matt Coley
  */
 @Dependent
 public class StaticValueCollectionTransformer implements JvmClassTransformer {
 	private final Map<String, StaticValues> classValues = new ConcurrentHashMap<>();
-	private final Map<String, EffectivelyFinalFields> classFinals = new ConcurrentHashMap<>();
 	private final InheritanceGraphService graphService;
 	private final WorkspaceManager workspaceManager;
-	private InheritanceGraph inheritanceGraph;
+	private volatile InheritanceGraph inheritanceGraph;
 
 	@Inject
 	public StaticValueCollectionTransformer(@Nonnull WorkspaceManager workspaceManager, @Nonnull InheritanceGraphService graphService) {
@@ -179,6 +181,11 @@ else if (field.hasPrivateModifier())
 			classValues.put(className, valuesContainer);
 	}
 
+	@Override
+	public boolean supportsConcurrentTransform() {
+		return true;
+	}
+
 	@Nonnull
 	@Override
 	public String name() {
@@ -96,6 +96,12 @@ public void transform(@Nonnull JvmTransformerContext context, @Nonnull Workspace
 			context.setNode(bundle, classInfo, node);
 	}
 
+	@Override
+	public boolean supportsConcurrentTransform() {
+		// Only the given class is modified, and collected values are only read
+		return true;
+	}
+
 	@Nonnull
 	@Override
 	public String name() {
@@ -0,0 +1,226 @@
+package software.coley.recaf.services.inheritance;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Disjoint-set lookup backing {@link InheritanceGraph#getVertexFamily(String, boolean)}.
+ * <p>
+ * Class names are interned to integer IDs, and each parent-child link between classes in the graph unions the
+ * sets of the two classes. Members of a set are chained in a circular list, so a family can be listed without
+ * walking the hierarchy. Listed families are shared between all their members until the index next changes.
+ * <p>
+ * Links are added incrementally as the graph is populated. Since sets cannot be split, any removal of a link
+ * marks the index via {@link #invalidate()} to be rebuilt from the graph's parent-to-child lookup on the next query.
+ *
+ * @author Matt Coley
+ */
+class FamilyIndex {
+	private static final String OBJECT = "java/lang/Object";
+	private final Function<String, InheritanceVertex> vertexLookup;
+	private final Map<String, Set<String>> parentToChild;
+	private final Map<String, Integer> ids = new HashMap<>();
+	private final Map<Integer, Set<InheritanceVertex>> families = new HashMap<>();
+	private final Map<Integer, Set<InheritanceVertex>> familiesWithObject = new HashMap<>();
+	private final BitSet objectChildren = new BitSet();
+	private String[] names = new String[1024];
+	private int[] parents = new int[1024];
+	private int[] sizes = new int[1024];
+	private int[] next = new int[1024];
+	private int nameCount;
+	private boolean dirty;
+
+	/**
+	 * @param vertexLookup
+	 * 		Lookup for class vertices, yielding {@code null} for classes not in the workspace.
+	 * @param parentToChild
+	 * 		Graph's parent-to-child lookup, used to rebuild the index after links are removed.
+	 */
+	FamilyIndex(@Nonnull Function<String, InheritanceVertex> vertexLookup,
+	            @Nonnull Map<String, Set<String>> parentToChild) {
+		this.vertexLookup = vertexLookup;
+		this.parentToChild = parentToChild;
+	}
+
+	/**
+	 * @param vertex
+	 * 		Class vertex, which is not a module or {@code java/lang/Object}.
+	 * @param includeObject
+	 *        {@code true} to include {@link Object} as a vertex.
+	 *
+	 * @return Unmodifiable set of all classes in the family of the class.
+	 */
+	@Nonnull
+	synchronized Set<InheritanceVertex> getFamily(@Nonnull InheritanceVertex vertex, boolean includeObject) {
+		if (dirty)
+			rebuild();
+
+		// Classes without any links are only in a family with themselves.
+		Integer id = ids.get(vertex.getName());
+		if (id == null)
+			return Collections.singleton(vertex);
+
+		int root = find(id);
+		Map<Integer, Set<InheritanceVertex>> cache = includeObject ? familiesWithObject : families;
+		Set<InheritanceVertex> family = cache.get(root);
+		if (family == null) {
+			Set<InheritanceVertex> members = new LinkedHashSet<>(sizes[root] * 2);
+			int member = root;
+			do {
+				InheritanceVertex memberVertex = vertexLookup.apply(names[member]);
+				if (memberVertex != null)
+					members.add(memberVertex);
+				member = next[member];
+			} while (member != root);
+			if (includeObject && objectChildren.get(root)) {
+				InheritanceVertex objectVertex = vertexLookup.apply(OBJECT);
+				if (objectVertex != null)
+					members.add(objectVertex);
+			}
+			family = Collections.unmodifiableSet(members);
+			cache.put(root, family);
+		}
+		return family;
+	}
+
+	/**
+	 * Records a link between a child class and one of its direct parents.
+	 *
+	 * @param child
+	 * 		Child class name.
+	 * @param parent
+	 * 		Parent class name.
+	 */
+	synchronized void link(@Nonnull String child, @Nonnull String parent) {
+		// The link will be picked up when the index is rebuilt.
+		if (dirty)
+			return;
+		linkImpl(child, parent);
+	}
+
+	/**
+	 * Marks the index to be rebuilt on the next query. Called when links between classes are removed.
+	 */
+	synchronized void invalidate() {
+		dirty = true;
+		families.clear();
+		familiesWithObject.clear();
+	}
+
+	/**
+	 * Drops all state.
+	 */
+	synchronized void reset() {
+		clear();
+		dirty = false;
+	}
+
+	private void rebuild() {
+		clear();
+		dirty = false;
+		parentToChild.forEach((parent, children) -> {
+			for (String child : children)
+				linkImpl(child, parent);
+		});
+	}
+
+	private void clear() {
+		ids.clear();
+		families.clear();
+		familiesWithObject.clear();
+		objectChildren.clear();
+		names = new String[1024];
+		parents = new int[1024];
+		sizes = new int[1024];
+		next = new int[1024];
+		nameCount = 0;
+	}
+
+	private void linkImpl(@Nonnull String child, @Nonnull String parent) {
+		// Family walks do not pass through modules, 'java/lang/Object', or classes not in the workspace.
+		if (child.equals(parent) || !isMember(child))
+			return;
+		if (OBJECT.equals(parent)) {
+			// Children of 'java/lang/Object' are not linked to each other, but their family includes it when requested.
+			int root = find(id(child));
+			if (!objectChildren.get(root)) {
+				objectChildren.set(root);
+				familiesWithObject.remove(root);
+			}
+			return;
+		}
+		if (!isMember(parent))
+			return;
+		union(id(child), id(parent));
+	}
+
+	private boolean isMember(@Nonnull String name) {
+		InheritanceVertex vertex = vertexLookup.apply(name);
+		return vertex != null && !vertex.isModule() && !vertex.isJavaLangObject();
+	}
+
+	private void union(int first, int second) {
+		int firstRoot = find(first);
+		int secondRoot = find(second);
+		if (firstRoot == secondRoot)
+			return;
+
+		// Attach the smaller set beneath the larger one.
+		if (sizes[firstRoot] < sizes[secondRoot]) {
+			int temp = firstRoot;
+			firstRoot = secondRoot;
+			secondRoot = temp;
+		}
+		parents[secondRoot] = firstRoot;
+		sizes[firstRoot] += sizes[secondRoot];
+		if (objectChildren.get(secondRoot))
+			objectChildren.set(firstRoot);
+
+		// Swapping successors splices the two circular member lists into one.
+		int temp = next[firstRoot];
+		next[firstRoot] = next[secondRoot];
+		next[secondRoot] = temp;
+
+		families.remove(firstRoot);
+		families.remove(secondRoot);
+		familiesWithObject.remove(firstRoot);
+		familiesWithObject.remove(secondRoot);
+	}
+
+	private int find(int id) {
+		// Path halving, pointing every other visited entry at its grandparent.
+		while (parents[id] != id) {
+			parents[id] = parents[parents[id]];
+			id = parents[id];
+		}
+		return id;
+	}
+
+	private int id(@Nonnull String name) {
+		Integer id = ids.get(name);
+		if (id != null)
+			return id;
+		int added = nameCount++;
+		if (added == names.length) {
+			int capacity = names.length * 2;
+			names = Arrays.copyOf(names, capacity);
+			parents = Arrays.copyOf(parents, capacity);
+			sizes = Arrays.copyOf(sizes, capacity);
+			next = Arrays.copyOf(next, capacity);
+		}
+		names[added] = name;
+		parents[added] = added;
+		sizes[added] = 1;
+		next[added] = added;
+		ids.put(name, added);
+		return added;
+	}
+}
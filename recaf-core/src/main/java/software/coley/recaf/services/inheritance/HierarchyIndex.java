@@ -0,0 +1,258 @@
+package software.coley.recaf.services.inheritance;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Compact ancestry lookup backing {@link InheritanceGraph#getCommon(String, String)} and
+ * {@link InheritanceGraph#isAssignableFrom(String, String)}.
+ * <p>
+ * Class names are interned to integer IDs, and the ancestors of each class are recorded as a {@link BitSet} of IDs
+ * so that ancestry checks do not need to walk the hierarchy. Answers to both queries are additionally memoized in
+ * bounded caches. Ancestry and answers are dropped via {@link #invalidate()} whenever the hierarchy changes,
+ * while interned IDs are kept until {@link #reset()}.
+ *
+ * @author Matt Coley
+ */
+class HierarchyIndex {
+	private static final int MAX_MEMOIZED = 1 << 16;
+	private static final int[] NO_PARENTS = new int[0];
+	private final Function<String, InheritanceVertex> vertexLookup;
+	private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+	private volatile String[] names = new String[1024];
+	private int nameCount;
+	private volatile Map<String, Ancestry> ancestries = new ConcurrentHashMap<>();
+	private volatile Map<Long, String> commonMemo = new ConcurrentHashMap<>();
+	private volatile Map<Long, Boolean> assignableMemo = new ConcurrentHashMap<>();
+
+	/**
+	 * @param vertexLookup
+	 * 		Lookup for class vertices, yielding {@code null} for classes not in the workspace.
+	 */
+	HierarchyIndex(@Nonnull Function<String, InheritanceVertex> vertexLookup) {
+		this.vertexLookup = vertexLookup;
+	}
+
+	/**
+	 * @param first
+	 * 		First class name. Must be a known class other than {@code java/lang/Object}.
+	 * @param second
+	 * 		Second class name. Must not be {@code java/lang/Object}.
+	 * @param object
+	 * 		Name to yield when there is no closer common parent.
+	 *
+	 * @return Common parent of the classes.
+	 */
+	@Nonnull
+	String getCommon(@Nonnull String first, @Nonnull String second, @Nonnull String object) {
+		Map<Long, String> memo = commonMemo;
+		long key = pairKey(id(first), id(second));
+		String common = memo.get(key);
+		if (common == null) {
+			common = computeCommon(first, second, object);
+			if (memo.size() >= MAX_MEMOIZED)
+				commonMemo = memo = new ConcurrentHashMap<>();
+			memo.put(key, common);
+		}
+		return common;
+	}
+
+	/**
+	 * @param first
+	 * 		Assumed super-class or interface type.
+	 * @param second
+	 * 		Assumed child class. Must be a known class.
+	 *
+	 * @return {@code true} when {@code second} extends or implements {@code first}, directly or indirectly.
+	 */
+	boolean isAssignableFrom(@Nonnull String first, @Nonnull String second) {
+		Ancestry secondAncestry = ancestry(second);
+
+		// All ancestors of the second type are interned when computing its ancestry.
+		// If the first type has no ID, it cannot be one of them.
+		Integer firstId = ids.get(first);
+		if (firstId == null)
+			return false;
+
+		Map<Long, Boolean> memo = assignableMemo;
+		long key = pairKey(firstId, secondAncestry.id());
+		Boolean assignable = memo.get(key);
+		if (assignable == null) {
+			assignable = secondAncestry.ancestors().get(firstId);
+			if (memo.size() >= MAX_MEMOIZED)
+				assignableMemo = memo = new ConcurrentHashMap<>();
+			memo.put(key, assignable);
+		}
+		return assignable;
+	}
+
+	/**
+	 * Drops recorded ancestry and memoized answers. Called when the hierarchy changes.
+	 */
+	void invalidate() {
+		// Swapping in new maps rather than clearing keeps this cheap when called many times in a row,
+		// such as when the graph is first populated.
+		if (!ancestries.isEmpty()) ancestries = new ConcurrentHashMap<>();
+		if (!commonMemo.isEmpty()) commonMemo = new ConcurrentHashMap<>();
+		if (!assignableMemo.isEmpty()) assignableMemo = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Drops all state, including interned IDs.
+	 */
+	synchronized void reset() {
+		invalidate();
+		ids.clear();
+		names = new String[1024];
+		nameCount = 0;
+	}
+
+	@Nonnull
+	private String computeCommon(@Nonnull String first, @Nonnull String second, @Nonnull String object) {
+		Ancestry firstAncestry = ancestry(first);
+		BitSet firstAncestors = firstAncestry.ancestors();
+		int firstId = firstAncestry.id();
+
+		// Base case
+		int secondId = id(second);
+		if (secondId == firstId || firstAncestors.get(secondId))
+			return second;
+
+		// Iterate over second's parents via breadth-first-search.
+		// The first parent found that is also a parent of the first type is the closest common parent.
+		int objectId = id(object);
+		BitSet visited = new BitSet();
+		Queue<String> queue = new ArrayDeque<>();
+		queue.add(second);
+		visited.set(secondId);
+		while (!queue.isEmpty()) {
+			Ancestry next = ancestry(queue.poll());
+			for (int parentId : next.parents()) {
+				if (parentId == objectId || visited.get(parentId))
+					continue;
+				visited.set(parentId);
+
+				// Parent in the set of first's parents? Then its valid.
+				String parent = name(parentId);
+				if (parentId == firstId || firstAncestors.get(parentId))
+					return parent;
+				queue.add(parent);
+			}
+		}
+
+		// Fallback option
+		return object;
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return Direct parents and all ancestors of the class.
+	 */
+	@Nonnull
+	private Ancestry ancestry(@Nonnull String name) {
+		Map<String, Ancestry> cache = ancestries;
+		Ancestry ancestry = cache.get(name);
+		if (ancestry != null)
+			return ancestry;
+
+		int id = id(name);
+		InheritanceVertex vertex = vertexLookup.apply(name);
+		if (vertex == null) {
+			ancestry = new Ancestry(id, NO_PARENTS, new BitSet());
+		} else {
+			Set<InheritanceVertex> parentVertices = vertex.getParents();
+			int[] parents = new int[parentVertices.size()];
+			int i = 0;
+			Queue<String> queue = new ArrayDeque<>();
+			for (InheritanceVertex parent : parentVertices) {
+				parents[i++] = id(parent.getName());
+				queue.add(parent.getName());
+			}
+
+			// Walk upwards, re-using the ancestry of parents where it has already been computed.
+			BitSet ancestors = new BitSet();
+			while (!queue.isEmpty()) {
+				String next = queue.poll();
+				int nextId = id(next);
+				if (ancestors.get(nextId))
+					continue;
+				ancestors.set(nextId);
+
+				Ancestry nextAncestry = cache.get(next);
+				if (nextAncestry != null) {
+					ancestors.or(nextAncestry.ancestors());
+					continue;
+				}
+				InheritanceVertex nextVertex = vertexLookup.apply(next);
+				if (nextVertex != null)
+					for (InheritanceVertex parent : nextVertex.getParents())
+						queue.add(parent.getName());
+			}
+
+			// Classes in an inheritance loop should not list themselves as their own ancestor.
+			ancestors.clear(id);
+			ancestry = new Ancestry(id, parents, ancestors);
+		}
+		Ancestry existing = cache.putIfAbsent(name, ancestry);
+		return existing == null ? ancestry : existing;
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return Interned ID of the class name.
+	 */
+	private int id(@Nonnull String name) {
+		Integer id = ids.get(name);
+		if (id != null)
+			return id;
+		synchronized (this) {
+			id = ids.get(name);
+			if (id != null)
+				return id;
+			int next = nameCount++;
+			String[] current = names;
+			if (next == current.length)
+				names = current = Arrays.copyOf(current, current.length * 2);
+			current[next] = name;
+			ids.put(name, next);
+			return next;
+		}
+	}
+
+	/**
+	 * @param id
+	 * 		Interned ID of a class name.
+	 *
+	 * @return Class name.
+	 */
+	@Nonnull
+	private String name(int id) {
+		return names[id];
+	}
+
+	private static long pairKey(int first, int second) {
+		return ((long) first << 32) | (second & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @param id
+	 * 		Interned ID of the class.
+	 * @param parents
+	 * 		Interned IDs of the direct parents of the class.
+	 * @param ancestors
+	 * 		Interned IDs of all parents of the class. Not modified once created.
+	 */
+	private record Ancestry(int id, @Nonnull int[] parents, @Nonnull BitSet ancestors) {}
+}
@@ -26,14 +26,10 @@
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
-import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -51,6 +47,8 @@ public class InheritanceGraph implements Service, WorkspaceModificationListener,
 	private final Map<String, InheritanceVertex> vertices = new ConcurrentHashMap<>();
 	private final Set<String> stubs = ConcurrentHashMap.newKeySet();
 	private final Function<String, InheritanceVertex> vertexProvider = createVertexProvider();
+	private final HierarchyIndex hierarchyIndex = new HierarchyIndex(this::getVertex);
+	private final FamilyIndex familyIndex = new FamilyIndex(this::getVertex, parentToChild);
 	private final InheritanceGraphConfig config;
 	private final Workspace workspace;
 
@@ -82,6 +80,7 @@ public InheritanceGraph(@Nonnull InheritanceGraphConfig config,
 	private void refreshChildLookup() {
 		// Clear
 		parentToChild.clear();
+		familyIndex.reset();
 
 		// Repopulate
 		for (WorkspaceResource resource : Lists.add(workspace.getSupportingResources(), workspace.getPrimaryResource())) {
@@ -103,6 +102,8 @@ private void refreshChildLookup() {
 	 */
 	private void populateParentToChildLookup(@Nonnull String name, @Nonnull String parentName) {
 		parentToChild.computeIfAbsent(parentName, k -> ConcurrentHashMap.newKeySet()).add(name);
+		hierarchyIndex.invalidate();
+		familyIndex.link(name, parentName);
 
 		InheritanceVertex parentVertex = getVertex(parentName);
 		InheritanceVertex childVertex = getVertex(name);
@@ -185,6 +186,8 @@ private void removeParentToChildLookup(@Nonnull String name, @Nonnull String par
 		Set<String> children = parentToChild.get(parentName);
 		if (children != null)
 			children.remove(name);
+		hierarchyIndex.invalidate();
+		familyIndex.invalidate();
 		InheritanceVertex parentVertex = getVertex(parentName);
 		InheritanceVertex childVertex = getVertex(name);
 		if (parentVertex != null) parentVertex.clearCachedVertices();
@@ -202,6 +205,8 @@ private void removeClass(@Nonnull ClassInfo cls) {
 
 		String name = cls.getName();
 		vertices.remove(name);
+		hierarchyIndex.invalidate();
+		familyIndex.invalidate();
 	}
 
 
@@ -247,7 +252,8 @@ public InheritanceVertex getVertex(@Nonnull String name) {
 	 * @param includeObject
 	 *        {@code true} to include {@link Object} as a vertex.
 	 *
-	 * @return Complete inheritance family of the class.
+	 * @return Complete inheritance family of the class. The set is unmodifiable, and is shared with other members
+	 * of the family until the graph is next changed.
 	 */
 	@Nonnull
 	public Set<InheritanceVertex> getVertexFamily(@Nonnull String name, boolean includeObject) {
@@ -256,7 +262,9 @@ public Set<InheritanceVertex> getVertexFamily(@Nonnull String name, boolean incl
 			return Collections.emptySet();
 		if (vertex.isModule())
 			return Collections.singleton(vertex);
-		return vertex.getFamily(includeObject);
+		if (vertex.isJavaLangObject())
+			return includeObject ? Collections.singleton(vertex) : Collections.emptySet();
+		return familyIndex.getFamily(vertex, includeObject);
 	}
 
 	/**
@@ -279,7 +287,7 @@ public boolean isAssignableFrom(@Nonnull String first, @Nonnull String second) {
 		InheritanceVertex secondVertex = getVertex(second);
 		if (secondVertex == null)
 			return false;
-		return secondVertex.allParents().anyMatch(v -> v.getName().equals(first));
+		return hierarchyIndex.isAssignableFrom(first, second);
 	}
 
 	/**
@@ -292,50 +300,10 @@ public boolean isAssignableFrom(@Nonnull String first, @Nonnull String second) {
 	 */
 	@Nonnull
 	public String getCommon(@Nonnull String first, @Nonnull String second) {
-		// Full upwards hierarchy for the first
 		InheritanceVertex vertex = getVertex(first);
 		if (vertex == null || OBJECT.equals(first) || OBJECT.equals(second))
 			return OBJECT;
-
-		Set<String> firstParents = vertex.allParents()
-				.map(InheritanceVertex::getName)
-				.collect(Collectors.toCollection(LinkedHashSet::new));
-		firstParents.add(first);
-
-		// Ensure 'Object' is last
-		firstParents.remove(OBJECT);
-		firstParents.add(OBJECT);
-
-		// Base case
-		if (firstParents.contains(second))
-			return second;
-
-		// Iterate over second's parents via breadth-first-search
-		Queue<String> queue = new LinkedList<>();
-		queue.add(second);
-		do {
-			// Item to fetch parents of
-			String next = queue.poll();
-			if (next == null || next.equals(OBJECT))
-				break;
-
-			InheritanceVertex nextVertex = getVertex(next);
-			if (nextVertex == null)
-				break;
-
-			for (String parent : nextVertex.getParents().stream()
-					.map(InheritanceVertex::getName).toList()) {
-				if (!parent.equals(OBJECT)) {
-					// Parent in the set of visited classes? Then its valid.
-					if (firstParents.contains(parent))
-						return parent;
-					// Queue up the parent
-					queue.add(parent);
-				}
-			}
-		} while (!queue.isEmpty());
-		// Fallback option
-		return OBJECT;
+		return hierarchyIndex.getCommon(first, second, OBJECT);
 	}
 
 	@Nonnull
@@ -393,6 +361,7 @@ private void onUpdateClassImpl(@Nonnull ClassInfo oldValue, @Nonnull ClassInfo n
 		InheritanceVertex vertex = getVertex(name);
 		if (vertex != null)
 			vertex.setValue(newValue);
+		hierarchyIndex.invalidate();
 	}
 
 
@@ -441,6 +410,8 @@ public void onWorkspaceClosed(@Nonnull Workspace workspace) {
 		parentToChild.clear();
 		vertices.clear();
 		stubs.clear();
+		hierarchyIndex.reset();
+		familyIndex.reset();
 	}
 
 	@Override
@@ -474,6 +445,10 @@ public void onPostApply(@Nonnull MappingResults mappingResults) {
 			InheritanceVertex vertex = vertices.get(name);
 			if (vertex != null) vertex.clearCachedVertices();
 		});
+
+		// Names of classes have changed, so any recorded ancestry and families are no longer valid.
+		hierarchyIndex.invalidate();
+		familyIndex.invalidate();
 	}
 
 	@Nonnull
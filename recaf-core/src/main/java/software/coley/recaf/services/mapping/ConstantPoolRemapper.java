@@ -0,0 +1,669 @@
+package software.coley.recaf.services.mapping;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import software.coley.cafedude.classfile.ConstantPoolConstants;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.workspace.model.Workspace;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An alternative to {@link WorkspaceClassRemapper} that remaps classes by patching their raw bytes, rather than
+ * passing every method body through a {@link ClassReader} to {@link org.objectweb.asm.ClassWriter} round trip.
+ * <p>
+ * Names and descriptors are stored in the constant pool, and are referenced by index from other entries and
+ * attributes. Since indices are the same size regardless of the entry they point to, remapping only requires
+ * appending entries with the new values to the pool, then pointing the affected indices at them. Code and all
+ * other content is copied as-is. The same {@link WorkspaceBackedRemapper} methods are used as in the visitor
+ * based approach, so the results are equivalent.
+ * <p>
+ * Entries that are shared by differently mapped references are left in place and new ones are used instead.
+ * For example, a {@code NameAndType} entry may be used by field references of two different owners, where only
+ * one of the owners has a mapping for the field. Class and member reference entries map to the same value
+ * regardless of where they are used, so they are updated directly.
+ * <p>
+ * Not every construct is supported, such as modules and dynamic constants. In such cases {@link #remap(JvmClassInfo)}
+ * yields {@code null} and {@link WorkspaceClassRemapper} should be used instead.
+ *
+ * @author Matt Coley
+ */
+public class ConstantPoolRemapper {
+	private static final int MAX_POOL_SIZE = 0xFFFF;
+	private final WorkspaceBackedRemapper remapper;
+	private final Map<String, Integer> addedUtf8 = new HashMap<>();
+	private final Map<Long, Integer> addedNameTypes = new HashMap<>();
+	private ByteArrayOutputStream addedBytes;
+	private DataOutputStream addedOutput;
+	private ClassReader reader;
+	private byte[] bytecode;
+	private byte[] out;
+	private char[] buffer;
+	private String className;
+	private int poolSize;
+
+	/**
+	 * @param workspace
+	 * 		Workspace to pull class info from when additional context is needed.
+	 * @param mappings
+	 * 		Mappings to apply.
+	 */
+	public ConstantPoolRemapper(@Nonnull Workspace workspace, @Nonnull Mappings mappings) {
+		remapper = new WorkspaceBackedRemapper(workspace, mappings);
+	}
+
+	/**
+	 * @param classInfo
+	 * 		Class to remap.
+	 *
+	 * @return Remapped class bytes, or {@code null} if the class contains content not supported by this remapper.
+	 * When no mappings apply to the class, the original bytes are returned.
+	 */
+	@Nullable
+	public byte[] remap(@Nonnull JvmClassInfo classInfo) {
+		bytecode = classInfo.getBytecode();
+		reader = classInfo.getClassReader();
+		buffer = new char[reader.getMaxStringLength()];
+		className = reader.getClassName();
+		poolSize = reader.getItemCount();
+		addedUtf8.clear();
+		addedNameTypes.clear();
+		addedBytes = new ByteArrayOutputStream();
+		addedOutput = new DataOutputStream(addedBytes);
+		out = null;
+		try {
+			if (!remapClass())
+				return null;
+		} catch (RuntimeException | IOException ex) {
+			// Malformed content, or content the visitor based approach can handle better.
+			return null;
+		}
+		if (poolSize > MAX_POOL_SIZE)
+			return null;
+		if (out == null)
+			return bytecode;
+
+		// Insert the new entries at the end of the constant pool, and update the pool size.
+		int poolEnd = reader.header;
+		byte[] added = addedBytes.toByteArray();
+		byte[] result = new byte[out.length + added.length];
+		System.arraycopy(out, 0, result, 0, poolEnd);
+		System.arraycopy(added, 0, result, poolEnd, added.length);
+		System.arraycopy(out, poolEnd, result, poolEnd + added.length, out.length - poolEnd);
+		writeShort(result, 8, poolSize);
+		return result;
+	}
+
+	/**
+	 * @return {@code true} when any mapping has been found and used.
+	 */
+	public boolean hasMappingBeenApplied() {
+		return remapper.hasMappingBeenApplied();
+	}
+
+	/**
+	 * @return {@code true} when the class was remapped.
+	 * {@code false} when the class contains unsupported content.
+	 *
+	 * @throws IOException
+	 * 		When new pool entries cannot be encoded.
+	 */
+	private boolean remapClass() throws IOException {
+		if ((reader.getAccess() & Opcodes.ACC_MODULE) != 0)
+			return false;
+
+		// Locate members and class attributes.
+		int offset = reader.header + 6;
+		offset += 2 + 2 * reader.readUnsignedShort(offset);
+		int fieldsOffset = offset;
+		offset = skipMembers(offset);
+		int methodsOffset = offset;
+		offset = skipMembers(offset);
+		int attributesOffset = offset;
+
+		// Check for unsupported attributes, and record where bootstrap methods are.
+		int[] bootstrapMethodOffsets = null;
+		int attributeCount = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < attributeCount; i++) {
+			String attributeName = reader.readUTF8(offset, buffer);
+			switch (attributeName) {
+				case "Module", "ModulePackages", "ModuleMainClass" -> {
+					return false;
+				}
+				case "BootstrapMethods" -> {
+					int bootstrapOffset = offset + 6;
+					bootstrapMethodOffsets = new int[reader.readUnsignedShort(bootstrapOffset)];
+					bootstrapOffset += 2;
+					for (int j = 0; j < bootstrapMethodOffsets.length; j++) {
+						bootstrapMethodOffsets[j] = bootstrapOffset;
+						bootstrapOffset += 4 + 2 * reader.readUnsignedShort(bootstrapOffset + 2);
+					}
+				}
+				default -> {
+					// Other attributes are handled later
+				}
+			}
+			offset += 6 + reader.readInt(offset + 2);
+		}
+
+		if (!remapPool(bootstrapMethodOffsets))
+			return false;
+		remapFields(fieldsOffset);
+		remapMethods(methodsOffset);
+		remapClassAttributes(attributesOffset);
+		return true;
+	}
+
+	/**
+	 * Remaps entries in the constant pool that map to the same value regardless of where they are used.
+	 *
+	 * @param bootstrapMethodOffsets
+	 * 		Offsets of bootstrap method entries, or {@code null} if there are none.
+	 *
+	 * @return {@code true} when the pool was remapped.
+	 * {@code false} when the pool contains unsupported entries.
+	 *
+	 * @throws IOException
+	 * 		When new pool entries cannot be encoded.
+	 */
+	private boolean remapPool(@Nullable int[] bootstrapMethodOffsets) throws IOException {
+		int itemCount = reader.getItemCount();
+		for (int i = 1; i < itemCount; i++) {
+			int offset = reader.getItem(i);
+			if (offset == 0)
+				continue; // Unused slot after long/double entries
+			switch (reader.readByte(offset - 1)) {
+				case ConstantPoolConstants.CLASS -> {
+					String name = reader.readUTF8(offset, buffer);
+					patchUtf8(offset, name, remapper.mapType(name));
+				}
+				case ConstantPoolConstants.METHOD_TYPE -> {
+					String desc = reader.readUTF8(offset, buffer);
+					patchUtf8(offset, desc, remapper.mapMethodDesc(desc));
+				}
+				case ConstantPoolConstants.FIELD_REF -> {
+					String owner = reader.readClass(offset, buffer);
+					int nameTypeOffset = reader.getItem(reader.readUnsignedShort(offset + 2));
+					String name = reader.readUTF8(nameTypeOffset, buffer);
+					String desc = reader.readUTF8(nameTypeOffset + 2, buffer);
+					patchNameType(offset + 2, nameTypeOffset, name, desc,
+							remapper.mapFieldName(owner, name, desc), remapper.mapDesc(desc));
+				}
+				case ConstantPoolConstants.METHOD_REF, ConstantPoolConstants.INTERFACE_METHOD_REF -> {
+					String owner = reader.readClass(offset, buffer);
+					int nameTypeOffset = reader.getItem(reader.readUnsignedShort(offset + 2));
+					String name = reader.readUTF8(nameTypeOffset, buffer);
+					String desc = reader.readUTF8(nameTypeOffset + 2, buffer);
+					patchNameType(offset + 2, nameTypeOffset, name, desc,
+							remapper.mapMethodName(owner, name, desc), remapper.mapMethodDesc(desc));
+				}
+				case ConstantPoolConstants.INVOKE_DYNAMIC -> {
+					if (bootstrapMethodOffsets == null)
+						return false;
+					int bootstrapOffset = bootstrapMethodOffsets[reader.readUnsignedShort(offset)];
+					Handle bootstrapHandle = (Handle) reader.readConst(reader.readUnsignedShort(bootstrapOffset), buffer);
+					Object[] bootstrapArguments = new Object[reader.readUnsignedShort(bootstrapOffset + 2)];
+					for (int j = 0; j < bootstrapArguments.length; j++) {
+						int argumentIndex = reader.readUnsignedShort(bootstrapOffset + 4 + 2 * j);
+						bootstrapArguments[j] = remapper.mapValue(reader.readConst(argumentIndex, buffer));
+					}
+					remapper.mapValue(bootstrapHandle);
+
+					int nameTypeOffset = reader.getItem(reader.readUnsignedShort(offset + 2));
+					String name = reader.readUTF8(nameTypeOffset, buffer);
+					String desc = reader.readUTF8(nameTypeOffset + 2, buffer);
+					patchNameType(offset + 2, nameTypeOffset, name, desc,
+							remapper.mapInvokeDynamicMethodName(name, desc, bootstrapHandle, bootstrapArguments),
+							remapper.mapMethodDesc(desc));
+				}
+				case ConstantPoolConstants.DYNAMIC, ConstantPoolConstants.MODULE, ConstantPoolConstants.PACKAGE -> {
+					return false;
+				}
+				default -> {
+					// Other entries do not contain names or descriptors
+				}
+			}
+		}
+		return true;
+	}
+
+	private void remapFields(int offset) throws IOException {
+		int fieldCount = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < fieldCount; i++) {
+			String name = reader.readUTF8(offset + 2, buffer);
+			String desc = reader.readUTF8(offset + 4, buffer);
+			patchUtf8(offset + 2, name, remapper.mapFieldName(className, name, desc));
+			patchUtf8(offset + 4, desc, remapper.mapDesc(desc));
+
+			int attributeCount = reader.readUnsignedShort(offset + 6);
+			offset += 8;
+			for (int j = 0; j < attributeCount; j++) {
+				String attributeName = reader.readUTF8(offset, buffer);
+				int contentOffset = offset + 6;
+				switch (attributeName) {
+					case "Signature" -> patchSignature(contentOffset, true);
+					case "RuntimeVisibleAnnotations", "RuntimeInvisibleAnnotations" -> remapAnnotations(contentOffset);
+					case "RuntimeVisibleTypeAnnotations", "RuntimeInvisibleTypeAnnotations" ->
+							remapTypeAnnotations(contentOffset);
+					default -> {
+						// Other attributes do not contain names or descriptors
+					}
+				}
+				offset = contentOffset + reader.readInt(offset + 2);
+			}
+		}
+	}
+
+	private void remapMethods(int offset) throws IOException {
+		int methodCount = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < methodCount; i++) {
+			String name = reader.readUTF8(offset + 2, buffer);
+			String desc = reader.readUTF8(offset + 4, buffer);
+			patchUtf8(offset + 2, name, remapper.mapMethodName(className, name, desc));
+			patchUtf8(offset + 4, desc, remapper.mapMethodDesc(desc));
+
+			int attributeCount = reader.readUnsignedShort(offset + 6);
+			offset += 8;
+			for (int j = 0; j < attributeCount; j++) {
+				String attributeName = reader.readUTF8(offset, buffer);
+				int contentOffset = offset + 6;
+				switch (attributeName) {
+					case "Code" -> remapCode(contentOffset, name, desc);
+					case "Signature" -> patchSignature(contentOffset, false);
+					case "RuntimeVisibleAnnotations", "RuntimeInvisibleAnnotations" -> remapAnnotations(contentOffset);
+					case "RuntimeVisibleTypeAnnotations", "RuntimeInvisibleTypeAnnotations" ->
+							remapTypeAnnotations(contentOffset);
+					case "RuntimeVisibleParameterAnnotations", "RuntimeInvisibleParameterAnnotations" -> {
+						int parameterCount = reader.readByte(contentOffset);
+						int annotationsOffset = contentOffset + 1;
+						for (int k = 0; k < parameterCount; k++)
+							annotationsOffset = remapAnnotations(annotationsOffset);
+					}
+					case "AnnotationDefault" -> remapElementValue(contentOffset);
+					default -> {
+						// Other attributes do not contain names or descriptors,
+						// or they reference class entries which are already remapped (Exceptions)
+					}
+				}
+				offset = contentOffset + reader.readInt(offset + 2);
+			}
+		}
+	}
+
+	private void remapClassAttributes(int offset) throws IOException {
+		int attributeCount = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < attributeCount; i++) {
+			String attributeName = reader.readUTF8(offset, buffer);
+			int contentOffset = offset + 6;
+			switch (attributeName) {
+				case "Signature" -> patchSignature(contentOffset, false);
+				case "RuntimeVisibleAnnotations", "RuntimeInvisibleAnnotations" -> remapAnnotations(contentOffset);
+				case "RuntimeVisibleTypeAnnotations", "RuntimeInvisibleTypeAnnotations" ->
+						remapTypeAnnotations(contentOffset);
+				case "InnerClasses" -> {
+					int classCount = reader.readUnsignedShort(contentOffset);
+					int classOffset = contentOffset + 2;
+					for (int j = 0; j < classCount; j++) {
+						if (reader.readUnsignedShort(classOffset + 4) != 0) {
+							String name = reader.readClass(classOffset, buffer);
+							String outerName = reader.readUnsignedShort(classOffset + 2) == 0 ?
+									null : reader.readClass(classOffset + 2, buffer);
+							String innerName = reader.readUTF8(classOffset + 4, buffer);
+							patchUtf8(classOffset + 4, innerName, remapper.mapInnerClassName(name, outerName, innerName));
+						}
+						classOffset += 8;
+					}
+				}
+				case "EnclosingMethod" -> {
+					int nameTypeIndex = reader.readUnsignedShort(contentOffset + 2);
+					if (nameTypeIndex != 0) {
+						String owner = reader.readClass(contentOffset, buffer);
+						int nameTypeOffset = reader.getItem(nameTypeIndex);
+						String name = reader.readUTF8(nameTypeOffset, buffer);
+						String desc = reader.readUTF8(nameTypeOffset + 2, buffer);
+						patchNameType(contentOffset + 2, nameTypeOffset, name, desc,
+								remapper.mapMethodName(owner, name, desc), remapper.mapMethodDesc(desc));
+					}
+				}
+				case "Record" -> remapRecordComponents(contentOffset);
+				default -> {
+					// Other attributes do not contain names or descriptors,
+					// or they reference class entries which are already remapped (NestHost, PermittedSubclasses, etc.)
+				}
+			}
+			offset = contentOffset + reader.readInt(offset + 2);
+		}
+	}
+
+	private void remapRecordComponents(int offset) throws IOException {
+		int componentCount = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < componentCount; i++) {
+			String name = reader.readUTF8(offset, buffer);
+			String desc = reader.readUTF8(offset + 2, buffer);
+			patchUtf8(offset, name, remapper.mapRecordComponentName(className, name, desc));
+			patchUtf8(offset + 2, desc, remapper.mapDesc(desc));
+
+			int attributeCount = reader.readUnsignedShort(offset + 4);
+			offset += 6;
+			for (int j = 0; j < attributeCount; j++) {
+				String attributeName = reader.readUTF8(offset, buffer);
+				int contentOffset = offset + 6;
+				switch (attributeName) {
+					case "Signature" -> patchSignature(contentOffset, true);
+					case "RuntimeVisibleAnnotations", "RuntimeInvisibleAnnotations" -> remapAnnotations(contentOffset);
+					case "RuntimeVisibleTypeAnnotations", "RuntimeInvisibleTypeAnnotations" ->
+							remapTypeAnnotations(contentOffset);
+					default -> {
+						// Other attributes do not contain names or descriptors
+					}
+				}
+				offset = contentOffset + reader.readInt(offset + 2);
+			}
+		}
+	}
+
+	private void remapCode(int offset, @Nonnull String methodName, @Nonnull String methodDesc) throws IOException {
+		int codeLength = reader.readInt(offset + 4);
+		offset += 8 + codeLength;
+		offset += 2 + 8 * reader.readUnsignedShort(offset);
+		int attributeCount = reader.readUnsignedShort(offset);
+		int attributesOffset = offset + 2;
+
+		// The local variable type table has the same names as the local variable table,
+		// but variable mapping requires the descriptor. So we need to go over the local variable tables first.
+		Map<Long, String> variableDescriptors = new HashMap<>();
+		offset = attributesOffset;
+		for (int i = 0; i < attributeCount; i++) {
+			if ("LocalVariableTable".equals(reader.readUTF8(offset, buffer))) {
+				int variableCount = reader.readUnsignedShort(offset + 6);
+				int variableOffset = offset + 8;
+				for (int j = 0; j < variableCount; j++) {
+					int startPc = reader.readUnsignedShort(variableOffset);
+					String name = reader.readUTF8(variableOffset + 4, buffer);
+					String desc = reader.readUTF8(variableOffset + 6, buffer);
+					int index = reader.readUnsignedShort(variableOffset + 8);
+					variableDescriptors.put(variableKey(startPc, index), desc);
+					patchUtf8(variableOffset + 4, name,
+							remapper.mapVariableName(className, methodName, methodDesc, name, desc, index));
+					patchUtf8(variableOffset + 6, desc, remapper.mapDesc(desc));
+					variableOffset += 10;
+				}
+			}
+			offset += 6 + reader.readInt(offset + 2);
+		}
+
+		offset = attributesOffset;
+		for (int i = 0; i < attributeCount; i++) {
+			String attributeName = reader.readUTF8(offset, buffer);
+			int contentOffset = offset + 6;
+			switch (attributeName) {
+				case "LocalVariableTypeTable" -> {
+					int variableCount = reader.readUnsignedShort(contentOffset);
+					int variableOffset = contentOffset + 2;
+					for (int j = 0; j < variableCount; j++) {
+						int startPc = reader.readUnsignedShort(variableOffset);
+						int index = reader.readUnsignedShort(variableOffset + 8);
+						String desc = variableDescriptors.get(variableKey(startPc, index));
+						if (desc != null) {
+							String name = reader.readUTF8(variableOffset + 4, buffer);
+							patchUtf8(variableOffset + 4, name,
+									remapper.mapVariableName(className, methodName, methodDesc, name, desc, index));
+						}
+						patchSignature(variableOffset + 6, true);
+						variableOffset += 10;
+					}
+				}
+				case "RuntimeVisibleTypeAnnotations", "RuntimeInvisibleTypeAnnotations" ->
+						remapTypeAnnotations(contentOffset);
+				default -> {
+					// Other attributes do not contain names or descriptors,
+					// or they reference class entries which are already remapped (StackMapTable)
+				}
+			}
+			offset = contentOffset + reader.readInt(offset + 2);
+		}
+	}
+
+	/**
+	 * @param offset
+	 * 		Offset of the annotation count.
+	 *
+	 * @return Offset after the annotations.
+	 *
+	 * @throws IOException
+	 * 		When new pool entries cannot be encoded.
+	 */
+	private int remapAnnotations(int offset) throws IOException {
+		int annotationCount = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < annotationCount; i++)
+			offset = remapAnnotation(offset);
+		return offset;
+	}
+
+	/**
+	 * @param offset
+	 * 		Offset of the type annotation count.
+	 *
+	 * @throws IOException
+	 * 		When new pool entries cannot be encoded.
+	 */
+	private void remapTypeAnnotations(int offset) throws IOException {
+		int annotationCount = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < annotationCount; i++) {
+			// Skip the target info, which varies in size depending on the target type.
+			int targetType = reader.readByte(offset);
+			offset += switch (targetType) {
+				case 0x13, 0x14, 0x15 -> 1;
+				case 0x00, 0x01, 0x16 -> 2;
+				case 0x10, 0x11, 0x12, 0x17, 0x42, 0x43, 0x44, 0x45, 0x46 -> 3;
+				case 0x47, 0x48, 0x49, 0x4A, 0x4B -> 4;
+				case 0x40, 0x41 -> 3 + 6 * reader.readUnsignedShort(offset + 1);
+				default -> throw new IllegalStateException("Unknown type annotation target: " + targetType);
+			};
+
+			// Skip the type path, then handle the remaining content like a regular annotation.
+			offset += 1 + 2 * reader.readByte(offset);
+			offset = remapAnnotation(offset);
+		}
+	}
+
+	/**
+	 * @param offset
+	 * 		Offset of the annotation type.
+	 *
+	 * @return Offset after the annotation.
+	 *
+	 * @throws IOException
+	 * 		When new pool entries cannot be encoded.
+	 */
+	private int remapAnnotation(int offset) throws IOException {
+		String desc = reader.readUTF8(offset, buffer);
+		patchUtf8(offset, desc, remapper.mapDesc(desc));
+		int pairCount = reader.readUnsignedShort(offset + 2);
+		offset += 4;
+		for (int i = 0; i < pairCount; i++) {
+			String name = reader.readUTF8(offset, buffer);
+			patchUtf8(offset, name, remapper.mapAnnotationAttributeName(desc, name));
+			offset = remapElementValue(offset + 2);
+		}
+		return offset;
+	}
+
+	/**
+	 * @param offset
+	 * 		Offset of the element value tag.
+	 *
+	 * @return Offset after the element value.
+	 *
+	 * @throws IOException
+	 * 		When new pool entries cannot be encoded.
+	 */
+	private int remapElementValue(int offset) throws IOException {
+		int tag = reader.readByte(offset);
+		offset++;
+		switch (tag) {
+			case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's' -> offset += 2;
+			case 'e' -> {
+				// Only the enum type is mapped, consistent with the visitor based approach.
+				String desc = reader.readUTF8(offset, buffer);
+				patchUtf8(offset, desc, remapper.mapDesc(desc));
+				offset += 4;
+			}
+			case 'c' -> {
+				String desc = reader.readUTF8(offset, buffer);
+				patchUtf8(offset, desc, remapper.mapDesc(desc));
+				offset += 2;
+			}
+			case '@' -> offset = remapAnnotation(offset);
+			case '[' -> {
+				int valueCount = reader.readUnsignedShort(offset);
+				offset += 2;
+				for (int i = 0; i < valueCount; i++)
+					offset = remapElementValue(offset);
+			}
+			default -> throw new IllegalStateException("Unknown element value tag: " + tag);
+		}
+		return offset;
+	}
+
+	/**
+	 * @param offset
+	 * 		Offset of a {@code CONSTANT_Utf8} index holding a signature.
+	 * @param typeSignature
+	 *        {@code true} for field and variable signatures, {@code false} for class and method signatures.
+	 *
+	 * @throws IOException
+	 * 		When new pool entries cannot be encoded.
+	 */
+	private void patchSignature(int offset, boolean typeSignature) throws IOException {
+		String signature = reader.readUTF8(offset, buffer);
+		patchUtf8(offset, signature, remapper.mapSignature(signature, typeSignature));
+	}
+
+	/**
+	 * @param offset
+	 * 		Offset of a {@code CONSTANT_Utf8} index.
+	 * @param value
+	 * 		Current value of the entry.
+	 * @param mapped
+	 * 		Mapped value.
+	 *
+	 * @throws IOException
+	 * 		When new pool entries cannot be encoded.
+	 */
+	private void patchUtf8(int offset, @Nonnull String value, @Nonnull String mapped) throws IOException {
+		if (!value.equals(mapped))
+			patchIndex(offset, utf8Index(mapped));
+	}
+
+	/**
+	 * @param offset
+	 * 		Offset of a {@code CONSTANT_NameAndType} index.
+	 * @param nameTypeOffset
+	 * 		Offset of the content of the current {@code CONSTANT_NameAndType} entry.
+	 * @param name
+	 * 		Current name.
+	 * @param desc
+	 * 		Current descriptor.
+	 * @param mappedName
+	 * 		Mapped name.
+	 * @param mappedDesc
+	 * 		Mapped descriptor.
+	 *
+	 * @throws IOException
+	 * 		When new pool entries cannot be encoded.
+	 */
+	private void patchNameType(int offset, int nameTypeOffset,
+	                           @Nonnull String name, @Nonnull String desc,
+	                           @Nonnull String mappedName, @Nonnull String mappedDesc) throws IOException {
+		if (name.equals(mappedName) && desc.equals(mappedDesc))
+			return;
+		int nameIndex = name.equals(mappedName) ? reader.readUnsignedShort(nameTypeOffset) : utf8Index(mappedName);
+		int descIndex = desc.equals(mappedDesc) ? reader.readUnsignedShort(nameTypeOffset + 2) : utf8Index(mappedDesc);
+		long key = ((long) nameIndex << 16) | descIndex;
+		Integer index = addedNameTypes.get(key);
+		if (index == null) {
+			index = poolSize++;
+			addedOutput.writeByte(ConstantPoolConstants.NAME_TYPE);
+			addedOutput.writeShort(nameIndex);
+			addedOutput.writeShort(descIndex);
+			addedNameTypes.put(key, index);
+		}
+		patchIndex(offset, index);
+	}
+
+	/**
+	 * @param value
+	 * 		Some text.
+	 *
+	 * @return Index of an added {@code CONSTANT_Utf8} entry holding the text.
+	 *
+	 * @throws IOException
+	 * 		When the text is too long to be encoded.
+	 */
+	private int utf8Index(@Nonnull String value) throws IOException {
+		Integer index = addedUtf8.get(value);
+		if (index == null) {
+			index = poolSize++;
+			addedOutput.writeByte(ConstantPoolConstants.UTF8);
+			addedOutput.writeUTF(value);
+			addedUtf8.put(value, index);
+		}
+		return index;
+	}
+
+	/**
+	 * @param offset
+	 * 		Offset of a constant pool index.
+	 * @param index
+	 * 		New index to point to.
+	 */
+	private void patchIndex(int offset, int index) {
+		// Copy on first write, so that classes without any mapped content do not need to be copied.
+		if (out == null)
+			out = Arrays.copyOf(bytecode, bytecode.length);
+		writeShort(out, offset, index);
+	}
+
+	/**
+	 * @param offset
+	 * 		Offset of the member count.
+	 *
+	 * @return Offset after the members.
+	 */
+	private int skipMembers(int offset) {
+		int memberCount = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < memberCount; i++) {
+			int attributeCount = reader.readUnsignedShort(offset + 6);
+			offset += 8;
+			for (int j = 0; j < attributeCount; j++)
+				offset += 6 + reader.readInt(offset + 2);
+		}
+		return offset;
+	}
+
+	private static long variableKey(int startPc, int index) {
+		return ((long) startPc << 32) | index;
+	}
+
+	private static void writeShort(@Nonnull byte[] array, int offset, int value) {
+		array[offset] = (byte) (value >>> 8);
+		array[offset + 1] = (byte) value;
+	}
+}
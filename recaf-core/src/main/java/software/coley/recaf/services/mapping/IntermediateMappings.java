@@ -4,29 +4,42 @@
 import jakarta.annotation.Nullable;
 import software.coley.recaf.services.mapping.data.ClassMapping;
 import software.coley.recaf.services.mapping.data.FieldMapping;
+import software.coley.recaf.services.mapping.data.MemberMapping;
 import software.coley.recaf.services.mapping.data.MethodMapping;
 import software.coley.recaf.services.mapping.data.VariableMapping;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Collection of object representations of mappings.
  * Useful as an intermediate between multiple types of {@link Mappings}.
+ * <p>
+ * Field and method mappings of each owner are held in a {@link MemberMappingList}, which also groups them by name
+ * so that lookups do not need to scan all the mappings of the owner. Descriptors and pre-mapping names are
+ * interned as they are added since large mapping files repeat them many times over.
+ * <p>
+ * All mapping lookups are safe to perform concurrently, including while mappings are being added.
  *
  * @author Matt Coley
  */
-public class IntermediateMappings implements Mappings {
-	protected final Map<String, ClassMapping> classes = new HashMap<>();
-	protected final Map<String, List<FieldMapping>> fields = new HashMap<>();
-	protected final Map<String, List<MethodMapping>> methods = new HashMap<>();
-	protected final Map<String, List<VariableMapping>> variables = new HashMap<>();
+public class IntermediateMappings implements Mappings, MappingSink {
+	protected final Map<String, ClassMapping> classes = new ConcurrentHashMap<>();
+	protected final Map<String, MemberMappingList<FieldMapping>> fields = new ConcurrentHashMap<>();
+	protected final Map<String, MemberMappingList<MethodMapping>> methods = new ConcurrentHashMap<>();
+	protected final Map<String, List<VariableMapping>> variables = new ConcurrentHashMap<>();
+	private final Map<String, String> internPool = new ConcurrentHashMap<>();
 
 	/**
 	 * @param oldName
@@ -34,6 +47,7 @@ public class IntermediateMappings implements Mappings {
 	 * @param newName
 	 * 		Post-mapping name.
 	 */
+	@Override
 	public void addClass(String oldName, String newName) {
 		if (Objects.equals(oldName, newName)) return; // Skip identity mappings
 		classes.put(oldName, new ClassMapping(oldName, newName));
@@ -49,10 +63,11 @@ public void addClass(String oldName, String newName) {
 	 * @param newName
 	 * 		Post-mapping field name.
 	 */
+	@Override
 	public void addField(String ownerName, String desc, String oldName, String newName) {
 		if (Objects.equals(oldName, newName)) return; // Skip identity mappings
-		fields.computeIfAbsent(ownerName, n -> new ArrayList<>())
-				.add(new FieldMapping(ownerName, oldName, desc, newName));
+		MemberMappingList<FieldMapping> fieldsInClass = fields.computeIfAbsent(ownerName, n -> new MemberMappingList<>(ownerName));
+		fieldsInClass.add(new FieldMapping(fieldsInClass.getOwnerName(), intern(oldName), intern(desc), newName));
 	}
 
 	/**
@@ -65,10 +80,11 @@ public void addField(String ownerName, String desc, String oldName, String newNa
 	 * @param newName
 	 * 		Post-mapping method name.
 	 */
+	@Override
 	public void addMethod(String ownerName, String desc, String oldName, String newName) {
 		if (Objects.equals(oldName, newName)) return; // Skip identity mappings
-		methods.computeIfAbsent(ownerName, n -> new ArrayList<>())
-				.add(new MethodMapping(ownerName, oldName, desc, newName));
+		MemberMappingList<MethodMapping> methodsInClass = methods.computeIfAbsent(ownerName, n -> new MemberMappingList<>(ownerName));
+		methodsInClass.add(new MethodMapping(methodsInClass.getOwnerName(), intern(oldName), intern(desc), newName));
 	}
 
 	/**
@@ -87,13 +103,40 @@ public void addMethod(String ownerName, String desc, String oldName, String newN
 	 * @param newName
 	 * 		Post-mapping method name.
 	 */
+	@Override
 	public void addVariable(String ownerName, String methodName, String methodDesc,
 	                        String desc, String oldName, int index,
 	                        String newName) {
 		if (Objects.equals(oldName, newName)) return; // Skip identity mappings
 		String key = varKey(ownerName, methodName, methodDesc);
-		variables.computeIfAbsent(key, n -> new ArrayList<>())
-				.add(new VariableMapping(ownerName, methodName, methodDesc, desc, oldName, index, newName));
+		variables.computeIfAbsent(key, n -> new CopyOnWriteArrayList<>())
+				.add(new VariableMapping(intern(ownerName), intern(methodName), intern(methodDesc),
+						intern(desc), intern(oldName), index, newName));
+	}
+
+	/**
+	 * Removes a field or method mapping.
+	 *
+	 * @param mapping
+	 * 		Member mapping to remove.
+	 */
+	protected void removeMember(@Nonnull MemberMapping mapping) {
+		MemberMappingList<?> membersInClass = mapping.isField() ?
+				fields.get(mapping.getOwnerName()) :
+				methods.get(mapping.getOwnerName());
+		if (membersInClass != null)
+			membersInClass.remove(mapping);
+	}
+
+	/**
+	 * Clears the mapping entries.
+	 */
+	public void clear() {
+		classes.clear();
+		fields.clear();
+		methods.clear();
+		variables.clear();
+		internPool.clear();
 	}
 
 	/**
@@ -121,7 +164,7 @@ public Map<String, ClassMapping> getClasses() {
 	 */
 	@Nonnull
 	public Map<String, List<FieldMapping>> getFields() {
-		return fields;
+		return Collections.unmodifiableMap(fields);
 	}
 
 	/**
@@ -129,7 +172,7 @@ public Map<String, List<FieldMapping>> getFields() {
 	 */
 	@Nonnull
 	public Map<String, List<MethodMapping>> getMethods() {
-		return methods;
+		return Collections.unmodifiableMap(methods);
 	}
 
 	/**
@@ -159,7 +202,8 @@ public ClassMapping getClassMapping(String name) {
 	 */
 	@Nonnull
 	public List<FieldMapping> getClassFieldMappings(String name) {
-		return fields.getOrDefault(name, Collections.emptyList());
+		List<FieldMapping> fieldsInClass = fields.get(name);
+		return fieldsInClass == null ? Collections.emptyList() : fieldsInClass;
 	}
 
 	/**
@@ -170,7 +214,8 @@ public List<FieldMapping> getClassFieldMappings(String name) {
 	 */
 	@Nonnull
 	public List<MethodMapping> getClassMethodMappings(String name) {
-		return methods.getOrDefault(name, Collections.emptyList());
+		List<MethodMapping> methodsInClass = methods.get(name);
+		return methodsInClass == null ? Collections.emptyList() : methodsInClass;
 	}
 
 	/**
@@ -200,22 +245,23 @@ public String getMappedClassName(@Nonnull String internalName) {
 	@Nullable
 	@Override
 	public String getMappedFieldName(@Nonnull String ownerName, @Nonnull String fieldName, @Nonnull String fieldDesc) {
-		List<FieldMapping> fieldInClass = getClassFieldMappings(ownerName);
-		for (FieldMapping field : fieldInClass)
-			// Some mapping formats exclude descriptors (which sucks) so we bypass the desc check if that is the case.
-			if ((field.getDesc() == null || Objects.equals(fieldDesc, field.getDesc())) && field.getOldName().equals(fieldName))
-				return field.getNewName();
-		return null;
+		MemberMappingList<FieldMapping> fieldsInClass = fields.get(ownerName);
+		if (fieldsInClass == null)
+			return null;
+
+		// Some mapping formats exclude descriptors (which sucks) so we also accept a descriptor-less match.
+		FieldMapping field = fieldsInClass.find(fieldName, fieldDesc, true);
+		return field == null ? null : field.getNewName();
 	}
 
 	@Nullable
 	@Override
 	public String getMappedMethodName(@Nonnull String ownerName, @Nonnull String methodName, @Nonnull String methodDesc) {
-		List<MethodMapping> methodsInClass = getClassMethodMappings(ownerName);
-		for (MethodMapping method : methodsInClass)
-			if (methodDesc.equals(method.getDesc()) && method.getOldName().equals(methodName))
-				return method.getNewName();
-		return null;
+		MemberMappingList<MethodMapping> methodsInClass = methods.get(ownerName);
+		if (methodsInClass == null)
+			return null;
+		MethodMapping method = methodsInClass.find(methodName, methodDesc, false);
+		return method == null ? null : method.getNewName();
 	}
 
 	@Nullable
@@ -243,6 +289,20 @@ protected static String varKey(@Nonnull String ownerName, @Nonnull String method
 		return ownerName + "\t" + methodName + "\t" + methodDesc;
 	}
 
+	/**
+	 * @param value
+	 * 		Some name or descriptor.
+	 *
+	 * @return Shared instance of the value.
+	 */
+	@Nullable
+	protected String intern(@Nullable String value) {
+		if (value == null)
+			return null;
+		String existing = internPool.putIfAbsent(value, value);
+		return existing == null ? value : existing;
+	}
+
 	private static boolean indexEqualsOrOOB(int a, int b) {
 		return a < 0 || b < 0 || a == b;
 	}
@@ -250,4 +310,124 @@ private static boolean indexEqualsOrOOB(int a, int b) {
 	private static boolean equalsOrNull(@Nullable String a, @Nullable String b) {
 		return a == null || b == null || a.equals(b);
 	}
+
+	/**
+	 * Field or method mappings of a single owner, in the order they were added.
+	 * <p>
+	 * The mappings are additionally grouped by their pre-mapping name, so that lookups only need to check
+	 * the mappings sharing the name rather than all mappings of the owner. Among those, the first added
+	 * matching mapping takes precedence, the same as when scanning the list in order.
+	 * <p>
+	 * Access is synchronized, and iteration works over a snapshot of the mappings,
+	 * so the list can be read while mappings are being added.
+	 *
+	 * @param <M>
+	 * 		Member mapping type.
+	 */
+	protected static class MemberMappingList<M extends MemberMapping> extends AbstractList<M> implements RandomAccess {
+		private final List<M> mappings = new ArrayList<>();
+		private final Map<String, Object> mappingsByName = new HashMap<>();
+		private final String ownerName;
+
+		/**
+		 * @param ownerName
+		 * 		Name of class defining the members.
+		 */
+		private MemberMappingList(@Nonnull String ownerName) {
+			this.ownerName = ownerName;
+		}
+
+		/**
+		 * @return Name of class defining the members.
+		 */
+		@Nonnull
+		public String getOwnerName() {
+			return ownerName;
+		}
+
+		/**
+		 * @param name
+		 * 		Pre-mapping member name.
+		 * @param desc
+		 * 		Member descriptor.
+		 * @param matchMissingDesc
+		 *        {@code true} to also match mappings which do not specify a descriptor.
+		 *
+		 * @return First added mapping matching the name and descriptor, or {@code null} if there is none.
+		 */
+		@Nullable
+		@SuppressWarnings("unchecked")
+		public synchronized M find(@Nonnull String name, @Nullable String desc, boolean matchMissingDesc) {
+			Object named = mappingsByName.get(name);
+			if (named instanceof MemberMapping mapping)
+				return matchesDesc(mapping, desc, matchMissingDesc) ? (M) mapping : null;
+			if (named instanceof List<?> list)
+				for (Object item : list)
+					if (matchesDesc((M) item, desc, matchMissingDesc))
+						return (M) item;
+			return null;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public synchronized boolean add(@Nonnull M mapping) {
+			mappings.add(mapping);
+
+			// Most names only have a single mapping, so lists are only created for overloads and duplicates.
+			String name = mapping.getOldName();
+			Object named = mappingsByName.get(name);
+			if (named == null) {
+				mappingsByName.put(name, mapping);
+			} else if (named instanceof List<?> list) {
+				((List<M>) list).add(mapping);
+			} else {
+				List<M> list = new ArrayList<>(2);
+				list.add((M) named);
+				list.add(mapping);
+				mappingsByName.put(name, list);
+			}
+			return true;
+		}
+
+		@Override
+		public synchronized boolean remove(Object o) {
+			int index = mappings.indexOf(o);
+			if (index < 0)
+				return false;
+			M removed = mappings.remove(index);
+
+			// Remove the same instance from its name group
+			String name = removed.getOldName();
+			Object named = mappingsByName.get(name);
+			if (named == removed) {
+				mappingsByName.remove(name);
+			} else if (named instanceof List<?> list) {
+				list.removeIf(item -> item == removed);
+				if (list.size() == 1)
+					mappingsByName.put(name, list.getFirst());
+			}
+			return true;
+		}
+
+		@Override
+		public synchronized M get(int index) {
+			return mappings.get(index);
+		}
+
+		@Override
+		public synchronized int size() {
+			return mappings.size();
+		}
+
+		@Nonnull
+		@Override
+		public synchronized Iterator<M> iterator() {
+			return List.copyOf(mappings).iterator();
+		}
+
+		private static boolean matchesDesc(@Nonnull MemberMapping mapping, @Nullable String desc, boolean matchMissingDesc) {
+			String mappingDesc = mapping.getDesc();
+			return Objects.equals(desc, mappingDesc) || (matchMissingDesc && mappingDesc == null);
+		}
+	}
 }
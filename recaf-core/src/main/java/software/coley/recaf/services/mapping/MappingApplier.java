@@ -86,9 +86,10 @@ public MappingResults applyToClasses(@Nonnull Mappings mappings,
 
 		// Apply mappings to the provided classes, collecting into the results model.
 		Mappings finalMappings = mappings;
+		MappingPrefilter prefilter = MappingPrefilter.of(mappings);
 		ExecutorService service = ThreadUtil.phasingService(applierThreadPool);
 		for (JvmClassInfo classInfo : classes)
-			service.execute(() -> dumpIntoResults(results, workspace, resource, bundle, classInfo, finalMappings));
+			service.execute(() -> dumpIntoResults(results, workspace, resource, bundle, classInfo, finalMappings, prefilter));
 		ThreadUtil.blockUntilComplete(service);
 
 		// Yield results
@@ -113,11 +114,12 @@ public MappingResults applyToPrimaryResource(@Nonnull Mappings mappings) {
 
 		// Apply mappings to all classes in the primary resource, collecting into the results model.
 		Mappings finalMappings = mappings;
+		MappingPrefilter prefilter = MappingPrefilter.of(mappings);
 		ExecutorService service = ThreadUtil.phasingService(applierThreadPool);
 		WorkspaceResource resource = workspace.getPrimaryResource();
 		Stream.concat(resource.jvmClassBundleStream(), resource.versionedJvmClassBundleStream()).forEach(bundle -> {
 			bundle.forEach(classInfo -> {
-				service.execute(() -> dumpIntoResults(results, workspace, resource, bundle, classInfo, finalMappings));
+				service.execute(() -> dumpIntoResults(results, workspace, resource, bundle, classInfo, finalMappings, prefilter));
 			});
 		});
 		ThreadUtil.blockUntilComplete(service);
@@ -167,26 +169,46 @@ private Mappings enrich(@Nonnull Mappings mappings) {
 	 * 		The class to apply mappings to.
 	 * @param mappings
 	 * 		The mappings to apply.
+	 * @param prefilter
+	 * 		Optional filter to skip classes that the mappings cannot affect.
 	 */
 	private static void dumpIntoResults(@Nonnull MappingResults results,
 	                                    @Nonnull Workspace workspace,
 	                                    @Nonnull WorkspaceResource resource,
 	                                    @Nonnull JvmClassBundle bundle,
 	                                    @Nonnull JvmClassInfo classInfo,
-	                                    @Nonnull Mappings mappings) {
+	                                    @Nonnull Mappings mappings,
+	                                    @Nullable MappingPrefilter prefilter) {
+		// Skip the full remapping pass if no names in the class's constant pool are mapped.
+		if (prefilter != null && !prefilter.mayAffect(classInfo))
+			return;
+
 		String originalName = classInfo.getName();
 
-		// Apply renamer
-		ClassWriter cw = new ClassWriter(0);
-		ClassReader cr = classInfo.getClassReader();
-		WorkspaceClassRemapper remapVisitor = new WorkspaceClassRemapper(cw, workspace, mappings);
-		ClassVisitor cv = classInfo.hasValidSignatures() ? remapVisitor : new IllegalSignatureRemovingVisitor(remapVisitor); // Because ASM crashes otherwise.
-		cr.accept(cv, 0);
+		// Apply renamer, patching the constant pool directly when possible.
+		// Otherwise, we fall back to a full read/write pass with the remapping visitor.
+		byte[] remapped = null;
+		boolean applied = false;
+		if (classInfo.hasValidSignatures()) {
+			ConstantPoolRemapper poolRemapper = new ConstantPoolRemapper(workspace, mappings);
+			remapped = poolRemapper.remap(classInfo);
+			applied = poolRemapper.hasMappingBeenApplied();
+		}
+		if (remapped == null) {
+			ClassWriter cw = new ClassWriter(0);
+			ClassReader cr = classInfo.getClassReader();
+			WorkspaceClassRemapper remapVisitor = new WorkspaceClassRemapper(cw, workspace, mappings);
+			ClassVisitor cv = classInfo.hasValidSignatures() ? remapVisitor : new IllegalSignatureRemovingVisitor(remapVisitor); // Because ASM crashes otherwise.
+			cr.accept(cv, 0);
+			applied = remapVisitor.hasMappingBeenApplied();
+			if (applied)
+				remapped = cw.toByteArray();
+		}
 
 		// Update class if it has any modified references
-		if (remapVisitor.hasMappingBeenApplied()) {
+		if (applied) {
 			JvmClassInfo updatedInfo = classInfo.toJvmClassBuilder()
-					.adaptFrom(cw.toByteArray())
+					.adaptFrom(remapped)
 					.build();
 
 			// Mark has referencing something mapped.
@@ -0,0 +1,210 @@
+package software.coley.recaf.services.mapping;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.services.mapping.data.ClassMappingKey;
+import software.coley.recaf.services.mapping.data.FieldMappingKey;
+import software.coley.recaf.services.mapping.data.MappingKey;
+import software.coley.recaf.services.mapping.data.MethodMappingKey;
+import software.coley.recaf.services.mapping.data.VariableMappingKey;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cheap check for whether applying some {@link Mappings} to a class could change it, used by {@link MappingApplier}
+ * to skip the full read/remap/write round trip for classes that cannot be affected.
+ * <p>
+ * Rather than visiting the whole class, only the {@code CONSTANT_Utf8} entries of the constant pool are checked.
+ * Every name, descriptor, and signature in a class is stored as one of these entries, so a class can only be
+ * affected by a mapping if one of the entries:
+ * <ul>
+ *     <li>Matches the old name of a mapped field or method. Owners are not checked since mappings of members
+ *     in parent types also apply to references through child types.</li>
+ *     <li>Is, or contains as an {@code L...;} type, the name of a class that has a mapping.</li>
+ * </ul>
+ * Additionally, classes that own variable mappings are always affected. The check may yield false positives,
+ * but never false negatives.
+ *
+ * @author Matt Coley
+ */
+class MappingPrefilter {
+	private static final int UTF8_TAG = 1;
+	private final Map<String, Boolean> classMatches = new ConcurrentHashMap<>();
+	private final Mappings mappings;
+	private final Set<String> memberNames;
+	private final Set<String> variableOwners;
+	private final boolean hasClassMappings;
+
+	private MappingPrefilter(@Nonnull Mappings mappings, @Nonnull Set<String> memberNames,
+	                         @Nonnull Set<String> variableOwners, boolean hasClassMappings) {
+		this.mappings = mappings;
+		this.memberNames = memberNames;
+		this.variableOwners = variableOwners;
+		this.hasClassMappings = hasClassMappings;
+	}
+
+	/**
+	 * @param mappings
+	 * 		Mappings to be applied.
+	 *
+	 * @return Prefilter for the mappings, or {@code null} if the mappings do not expose their contents in a way
+	 * that allows determining which names they affect, in which case all classes must be visited.
+	 */
+	@Nullable
+	static MappingPrefilter of(@Nonnull Mappings mappings) {
+		// Subclasses may compute mappings on the fly, so we only handle the base adapter type.
+		if (mappings.getClass() != MappingsAdapter.class)
+			return null;
+
+		Set<String> memberNames = new HashSet<>();
+		Set<String> variableOwners = new HashSet<>();
+		boolean hasClassMappings = false;
+		for (MappingKey key : ((MappingsAdapter) mappings).getMappingKeys()) {
+			switch (key) {
+				case ClassMappingKey ignored -> hasClassMappings = true;
+				case FieldMappingKey fieldKey -> memberNames.add(fieldKey.getName());
+				case MethodMappingKey methodKey -> memberNames.add(methodKey.getName());
+				case VariableMappingKey variableKey -> variableOwners.add(variableKey.getOwner());
+				default -> {
+					// Unknown key type, cannot safely filter anything.
+					return null;
+				}
+			}
+		}
+		return new MappingPrefilter(mappings, memberNames, variableOwners, hasClassMappings);
+	}
+
+	/**
+	 * @param classInfo
+	 * 		Class to check.
+	 *
+	 * @return {@code true} when applying the mappings may modify the class.
+	 * {@code false} when the class is guaranteed to be unaffected.
+	 */
+	boolean mayAffect(@Nonnull JvmClassInfo classInfo) {
+		if (variableOwners.contains(classInfo.getName()))
+			return true;
+
+		byte[] bytecode = classInfo.getBytecode();
+		ClassReader reader = classInfo.getClassReader();
+		char[] buffer = new char[reader.getMaxStringLength()];
+		int itemCount = reader.getItemCount();
+		for (int i = 1; i < itemCount; i++) {
+			// Offset of the entry content, just after its tag. Zero for the unused slots after long/double entries.
+			int offset = reader.getItem(i);
+			if (offset == 0 || bytecode[offset - 1] != UTF8_TAG)
+				continue;
+			if (matches(readUtf(bytecode, offset, buffer)))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @param text
+	 * 		Content of a {@code CONSTANT_Utf8} entry.
+	 *
+	 * @return {@code true} when the content may reference a mapped name.
+	 */
+	private boolean matches(@Nonnull String text) {
+		if (memberNames.contains(text))
+			return true;
+		if (!hasClassMappings)
+			return false;
+
+		// Plain internal names, used by class constants.
+		if (isMappedClass(text))
+			return true;
+
+		// Types within descriptors and signatures, such as 'Lcom/example/Foo;' and 'Lcom/example/Foo<TT;>;'
+		int length = text.length();
+		for (int i = 0; i < length - 1; i++) {
+			if (text.charAt(i) != 'L' || !isTypeStart(text, i))
+				continue;
+			int end = i + 1;
+			while (end < length) {
+				char c = text.charAt(end);
+				if (c == ';' || c == '<')
+					break;
+				end++;
+			}
+			if (end > i + 1 && isMappedClass(text.substring(i + 1, end)))
+				return true;
+			i = end;
+		}
+
+		// Inner types of generic outer types in signatures, such as 'Lcom/example/Outer<TT;>.Inner;'
+		// are split, so their full names are not present. We'll assume these may be affected.
+		return text.contains(">.");
+	}
+
+	/**
+	 * @param name
+	 * 		Some potential internal class name.
+	 *
+	 * @return {@code true} when the mappings have a mapping for the class.
+	 */
+	private boolean isMappedClass(@Nonnull String name) {
+		Boolean mapped = classMatches.get(name);
+		if (mapped == null) {
+			// Delegating to the mappings ensures inner classes of mapped outer classes are handled the same way
+			// as they are when the mappings are applied.
+			mapped = mappings.getMappedClassName(name) != null;
+			classMatches.put(name, mapped);
+		}
+		return mapped;
+	}
+
+	/**
+	 * @param text
+	 * 		Some descriptor or signature.
+	 * @param index
+	 * 		Index of an {@code 'L'} character in the text.
+	 *
+	 * @return {@code true} when the character can be the start of a type in a descriptor or signature.
+	 */
+	private static boolean isTypeStart(@Nonnull String text, int index) {
+		if (index == 0)
+			return true;
+		return switch (text.charAt(index - 1)) {
+			case '[', '(', ')', ';', '<', '>', ':', '^', '+', '-' -> true;
+			default -> false;
+		};
+	}
+
+	/**
+	 * @param bytecode
+	 * 		Class file bytes.
+	 * @param offset
+	 * 		Offset of a {@code CONSTANT_Utf8} entry's length.
+	 * @param buffer
+	 * 		Buffer large enough to hold the decoded entry.
+	 *
+	 * @return Decoded entry content.
+	 */
+	@Nonnull
+	private static String readUtf(@Nonnull byte[] bytecode, int offset, @Nonnull char[] buffer) {
+		int length = ((bytecode[offset] & 0xFF) << 8) | (bytecode[offset + 1] & 0xFF);
+		int current = offset + 2;
+		int end = current + length;
+		int count = 0;
+		while (current < end) {
+			int c = bytecode[current++];
+			if ((c & 0x80) == 0) {
+				buffer[count++] = (char) (c & 0x7F);
+			} else if ((c & 0xE0) == 0xC0) {
+				buffer[count++] = (char) (((c & 0x1F) << 6) + (bytecode[current++] & 0x3F));
+			} else {
+				buffer[count++] = (char) (((c & 0xF) << 12)
+						+ ((bytecode[current++] & 0x3F) << 6)
+						+ (bytecode[current++] & 0x3F));
+			}
+		}
+		return new String(buffer, 0, count);
+	}
+}
@@ -0,0 +1,78 @@
+package software.coley.recaf.services.mapping;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import software.coley.recaf.services.mapping.format.MappingFileFormat;
+
+/**
+ * Receiver of mapping entries as they are read by a {@link MappingFileFormat}.
+ *
+ * @author Matt Coley
+ * @see MappingFileFormat#parse(java.io.Reader, MappingSink)
+ */
+public interface MappingSink {
+	/**
+	 * @param oldName
+	 * 		Pre-mapping name.
+	 * @param newName
+	 * 		Post-mapping name.
+	 */
+	void addClass(@Nonnull String oldName, @Nonnull String newName);
+
+	/**
+	 * @param ownerName
+	 * 		Name of class defining the field.
+	 * @param desc
+	 * 		Descriptor type of the field, or {@code null} if the format does not specify one.
+	 * @param oldName
+	 * 		Pre-mapping field name.
+	 * @param newName
+	 * 		Post-mapping field name.
+	 */
+	void addField(@Nonnull String ownerName, @Nullable String desc, @Nonnull String oldName, @Nonnull String newName);
+
+	/**
+	 * @param ownerName
+	 * 		Name of class defining the method.
+	 * @param desc
+	 * 		Descriptor type of the method.
+	 * @param oldName
+	 * 		Pre-mapping method name.
+	 * @param newName
+	 * 		Post-mapping method name.
+	 */
+	void addMethod(@Nonnull String ownerName, @Nonnull String desc, @Nonnull String oldName, @Nonnull String newName);
+
+	/**
+	 * @param ownerName
+	 * 		Name of class defining the method.
+	 * @param methodName
+	 * 		Pre-mapping method name.
+	 * @param methodDesc
+	 * 		Descriptor type of the method.
+	 * @param desc
+	 * 		Variable descriptor.
+	 * @param oldName
+	 * 		Variable old name.
+	 * @param index
+	 * 		Variable index.
+	 * @param newName
+	 * 		Post-mapping method name.
+	 */
+	void addVariable(@Nonnull String ownerName, @Nonnull String methodName, @Nonnull String methodDesc,
+	                 @Nullable String desc, @Nullable String oldName, int index,
+	                 @Nonnull String newName);
+
+	/**
+	 * Called for formats which can rename all classes of a package at once.
+	 * Sinks without support for package mappings ignore these entries.
+	 *
+	 * @param oldPackage
+	 * 		Pre-mapping package name.
+	 * @param newPackage
+	 * 		Post-mapping package name.
+	 */
+	default void addPackage(@Nonnull String oldPackage, @Nonnull String newPackage) {
+		// no-op by default
+	}
+}
@@ -9,9 +9,11 @@
 import software.coley.recaf.services.mapping.data.*;
 import software.coley.recaf.workspace.model.Workspace;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.Function;
 
@@ -91,6 +93,17 @@ public void importIntermediate(@Nonnull IntermediateMappings mappings) {
 		}
 	}
 
+	/**
+	 * Adds all the entries in the given mappings to the current mappings.
+	 * Unlike {@link #importIntermediate(IntermediateMappings)} entries are copied as-is, including variable mappings.
+	 *
+	 * @param mappings
+	 * 		Other mappings to add to the current mappings.
+	 */
+	public void importAdapter(@Nonnull MappingsAdapter mappings) {
+		this.mappings.putAll(mappings.mappings);
+	}
+
 	@Nullable
 	@Override
 	public String getMappedClassName(@Nonnull String internalName) {
@@ -186,6 +199,14 @@ public boolean doesSupportVariableTypeDifferentiation() {
 		return supportVariableTypeDifferentiation;
 	}
 
+	/**
+	 * @return View of the keys of all mapping entries.
+	 */
+	@Nonnull
+	Set<MappingKey> getMappingKeys() {
+		return Collections.unmodifiableSet(mappings.keySet());
+	}
+
 	/**
 	 * @param owner
 	 * 		Internal name of the class <i>"defining"</i> the member.
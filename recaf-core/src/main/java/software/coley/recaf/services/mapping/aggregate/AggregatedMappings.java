@@ -13,10 +13,10 @@
 import software.coley.recaf.workspace.model.Workspace;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Mappings implementation for internal tracking of aggregated mappings.
@@ -28,12 +28,14 @@
  * <br>
  * When this is done for every update of the mappings, the resulting mapping can be applied to the original
  * class files to achieve the same result again.
+ * <br>
+ * Lookups can be done concurrently with updates, while updates themselves are applied one at a time.
  *
  * @author Matt Coley
  * @author Marius Renner
  */
 public class AggregatedMappings extends IntermediateMappings {
-	private final Map<String, String> reverseOrderClassMapping = new HashMap<>();
+	private final Map<String, String> reverseOrderClassMapping = new ConcurrentHashMap<>();
 	private final WorkspaceBackedRemapper reverseMapper;
 
 	/**
@@ -179,7 +181,8 @@ public String getReverseVariableMapping(@Nonnull String owner, @Nonnull String m
 			// The original method descriptor must match the mapping key's
 			if (originalMethodDesc.equals(methodMapping.getDesc())) {
 				// Get the variables that were mapped under the original name
-				List<VariableMapping> variableMappings = variables.get(varKey(originalOwnerName, methodMapping.getOldName(), originalMethodDesc));
+				List<VariableMapping> variableMappings =
+						getMethodVariableMappings(originalOwnerName, methodMapping.getOldName(), originalMethodDesc);
 				for (VariableMapping variableMapping : variableMappings) {
 					// If the variable index, name, and descriptor match, yield the variable mapping's original name
 					if (variableMapping.getIndex() == varIndex && variableMapping.getNewName().equals(varName)) {
@@ -199,14 +202,10 @@ public void addClass(@Nonnull String oldName, @Nonnull String newName) {
 		reverseOrderClassMapping.put(newName, oldName);
 	}
 
-	/**
-	 * Clears the mapping entries.
-	 */
-	public void clear() {
-		classes.clear();
-		fields.clear();
-		methods.clear();
-		variables.clear();
+	@Override
+	public synchronized void clear() {
+		super.clear();
+		reverseOrderClassMapping.clear();
 	}
 
 	/**
@@ -218,7 +217,7 @@ public void clear() {
 	 *
 	 * @return {@code true} when the mapping operation required bridging a current class name to its original name.
 	 */
-	public boolean update(@Nonnull Mappings newMappings) {
+	public synchronized boolean update(@Nonnull Mappings newMappings) {
 		// ORIGINAL:
 		//  a -> b
 		//  a.f1 -> b.f2
@@ -348,7 +347,7 @@ private String findPriorName(MemberMapping newMethodMapping, List<? extends Memb
 		}
 
 		// Remove old mapping entry
-		members.remove(target);
+		removeMember(target);
 		return target.getOldName();
 	}
 }
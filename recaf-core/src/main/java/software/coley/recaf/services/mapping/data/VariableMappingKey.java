@@ -36,6 +36,13 @@ public VariableMappingKey(String owner, String methodName, String methodDesc, St
 		this.variableDesc = variableDesc;
 	}
 
+	/**
+	 * @return Class owner.
+	 */
+	public String getOwner() {
+		return owner;
+	}
+
 	@Nonnull
 	@Override
 	protected String toText() {
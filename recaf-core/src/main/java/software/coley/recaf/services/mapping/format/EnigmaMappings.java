@@ -5,12 +5,18 @@
 import org.slf4j.Logger;
 import software.coley.recaf.analytics.logging.Logging;
 import software.coley.recaf.services.mapping.IntermediateMappings;
+import software.coley.recaf.services.mapping.MappingSink;
 import software.coley.recaf.services.mapping.Mappings;
 import software.coley.recaf.services.mapping.data.ClassMapping;
 import software.coley.recaf.services.mapping.data.FieldMapping;
 import software.coley.recaf.services.mapping.data.MethodMapping;
-import software.coley.recaf.util.StringUtil;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.Stack;
 
 /**
@@ -34,8 +40,34 @@ public EnigmaMappings() {
 	@Nonnull
 	@Override
 	public IntermediateMappings parse(@Nonnull String mappingText) {
-		IntermediateMappings mappings = new IntermediateMappings();
-		String[] lines = StringUtil.splitNewline(mappingText);
+		IntermediateMappings mappings = createMappings();
+		try {
+			read(new BufferedReader(new StringReader(mappingText)), mappings);
+		} catch (IOException ex) {
+			// Should not occur when reading from in-memory text
+			throw new UncheckedIOException(ex);
+		}
+		return mappings;
+	}
+
+	@Override
+	public void parse(@Nonnull Reader reader, @Nonnull MappingSink sink) throws InvalidMappingException {
+		try {
+			read(new BufferedReader(reader), sink);
+		} catch (IOException ex) {
+			throw new InvalidMappingException(ex);
+		}
+	}
+
+	@Nonnull
+	@Override
+	public IntermediateMappings parse(@Nonnull Path path) throws InvalidMappingException {
+		IntermediateMappings mappings = createMappings();
+		parse(path, mappings);
+		return mappings;
+	}
+
+	private void read(@Nonnull BufferedReader reader, @Nonnull MappingSink mappings) throws IOException {
 		// COMMENT comment
 		// CLASS BaseClass TargetClass
 		//     FIELD baseField targetField baseDesc
@@ -43,7 +75,8 @@ public IntermediateMappings parse(@Nonnull String mappingText) {
 		//         ARG baseArg targetArg
 		int line = 0;
 		Stack<String> currentClass = new Stack<>();
-		for (String lineStr : lines) {
+		String lineStr;
+		while ((lineStr = reader.readLine()) != null) {
 			line++;
 			String lineStrTrim = lineStr.trim();
 			int strIndent = lineStr.indexOf(lineStrTrim) + 1;
@@ -109,7 +142,6 @@ public IntermediateMappings parse(@Nonnull String mappingText) {
 				throw new IllegalArgumentException(FAIL + "failed parsing line " + line, ex);
 			}
 		}
-		return mappings;
 	}
 
 	@Override
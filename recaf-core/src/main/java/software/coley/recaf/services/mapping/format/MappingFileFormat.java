@@ -8,14 +8,19 @@
 import net.fabricmc.mappingio.tree.MemoryMappingTree;
 import net.fabricmc.mappingio.tree.VisitOrder;
 import software.coley.recaf.services.mapping.IntermediateMappings;
+import software.coley.recaf.services.mapping.MappingSink;
 import software.coley.recaf.services.mapping.Mappings;
 import software.coley.recaf.services.mapping.data.ClassMapping;
 import software.coley.recaf.services.mapping.data.FieldMapping;
 import software.coley.recaf.services.mapping.data.MethodMapping;
+import software.coley.recaf.services.mapping.data.VariableMapping;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.function.Function;
 
@@ -53,6 +58,81 @@ public interface MappingFileFormat {
 	@Nonnull
 	IntermediateMappings parse(@Nonnull String mappingsText) throws InvalidMappingException;
 
+	/**
+	 * Parses mappings incrementally, passing each entry to the sink as it is read
+	 * so that the full mapping text does not need to be held in memory.
+	 * <p>
+	 * Formats without support for incremental parsing read the full text before passing along any entries.
+	 *
+	 * @param reader
+	 * 		Reader of the mapping text to parse.
+	 * @param sink
+	 * 		Receiver of parsed mapping entries.
+	 *
+	 * @throws InvalidMappingException
+	 * 		When reading the mappings encounters any failure.
+	 */
+	default void parse(@Nonnull Reader reader, @Nonnull MappingSink sink) throws InvalidMappingException {
+		StringWriter writer = new StringWriter();
+		try {
+			reader.transferTo(writer);
+		} catch (IOException ex) {
+			throw new InvalidMappingException(ex);
+		}
+		transfer(parse(writer.toString()), sink);
+	}
+
+	/**
+	 * Parses mappings incrementally from a file, passing each entry to the sink as it is read.
+	 *
+	 * @param path
+	 * 		Path to the mapping file to parse.
+	 * @param sink
+	 * 		Receiver of parsed mapping entries.
+	 *
+	 * @throws InvalidMappingException
+	 * 		When reading the mappings encounters any failure.
+	 * @see #parse(Reader, MappingSink)
+	 */
+	default void parse(@Nonnull Path path, @Nonnull MappingSink sink) throws InvalidMappingException {
+		try (Reader reader = Files.newBufferedReader(path)) {
+			parse(reader, sink);
+		} catch (IOException ex) {
+			throw new InvalidMappingException(ex);
+		}
+	}
+
+	/**
+	 * Formats which support incremental parsing can override this to parse the file through
+	 * {@link #parse(Path, MappingSink)} into {@link #createMappings() new mappings}, without reading the whole
+	 * file into memory first.
+	 *
+	 * @param path
+	 * 		Path to the mapping file to parse.
+	 *
+	 * @return Intermediate mappings from the parsed file.
+	 *
+	 * @throws InvalidMappingException
+	 * 		When reading the mappings encounters any failure.
+	 * @see #parse(String)
+	 */
+	@Nonnull
+	default IntermediateMappings parse(@Nonnull Path path) throws InvalidMappingException {
+		try {
+			return parse(Files.readString(path));
+		} catch (IOException ex) {
+			throw new InvalidMappingException(ex);
+		}
+	}
+
+	/**
+	 * @return New empty mappings to parse entries of this format into.
+	 */
+	@Nonnull
+	default IntermediateMappings createMappings() {
+		return new IntermediateMappings();
+	}
+
 	/**
 	 * Some mapping formats do not include field types since name overloading is illegal at the source level of Java.
 	 * It's valid in the bytecode but the mapping omits this info since it isn't necessary information for mapping
@@ -109,18 +189,37 @@ default String exportText(@Nonnull Mappings mappings) throws InvalidMappingExcep
 	 */
 	@Nonnull
 	static IntermediateMappings parse(@Nonnull String mappingText, @Nonnull MappingTreeReader visitor) throws InvalidMappingException {
+		IntermediateMappings mappings = new IntermediateMappings();
+		parse(new StringReader(mappingText), visitor, mappings);
+		return mappings;
+	}
+
+	/**
+	 * A utility for utilizing mapping-io to parse mapping text formats from a reader.
+	 * <p>
+	 * The mapping-io model is populated directly from the reader, so the text is never held in full.
+	 * However, the model must be complete before entries can be passed along, since descriptors of later
+	 * namespaces are only known once all classes have been read.
+	 *
+	 * @param reader
+	 * 		Reader of the mapping text to parse.
+	 * @param visitor
+	 * 		Visitor pointing to a mapping-io format reader.
+	 * @param mappings
+	 * 		Receiver of parsed mapping entries.
+	 *
+	 * @throws InvalidMappingException
+	 * 		When reading the mappings encounters any failure.
+	 */
+	static void parse(@Nonnull Reader reader, @Nonnull MappingTreeReader visitor, @Nonnull MappingSink mappings) throws InvalidMappingException {
 		// Populate the mapping-io model
 		MemoryMappingTree tree = new MemoryMappingTree();
-		StringReader reader = new StringReader(mappingText);
 		try {
 			visitor.read(reader, tree);
 		} catch (IOException ex) {
 			throw new InvalidMappingException(ex);
 		}
 
-		// Create our mapping model.
-		IntermediateMappings mappings = new IntermediateMappings();
-
 		// Mapping IO supports multiple namespaces for outputs.
 		// This is only really used in the 'tiny' format. Generally speaking the input columns look like:
 		//   obfuscated, intermediate, clean
@@ -163,7 +262,30 @@ static IntermediateMappings parse(@Nonnull String mappingText, @Nonnull MappingT
 						mappings.addMethod(cm.getDstName(i), mm.getDstDesc(i), mm.getDstName(i), finalMethodName);
 			}
 		}
-		return mappings;
+	}
+
+	/**
+	 * @param mappings
+	 * 		Mappings to pass along.
+	 * @param sink
+	 * 		Receiver of mapping entries.
+	 */
+	static void transfer(@Nonnull IntermediateMappings mappings, @Nonnull MappingSink sink) {
+		for (ClassMapping classMapping : mappings.getClasses().values())
+			sink.addClass(classMapping.getOldName(), classMapping.getNewName());
+		for (List<FieldMapping> fieldMappings : mappings.getFields().values())
+			for (FieldMapping fieldMapping : fieldMappings)
+				sink.addField(fieldMapping.getOwnerName(), fieldMapping.getDesc(),
+						fieldMapping.getOldName(), fieldMapping.getNewName());
+		for (List<MethodMapping> methodMappings : mappings.getMethods().values())
+			for (MethodMapping methodMapping : methodMappings)
+				sink.addMethod(methodMapping.getOwnerName(), methodMapping.getDesc(),
+						methodMapping.getOldName(), methodMapping.getNewName());
+		for (List<VariableMapping> variableMappings : mappings.getVariables().values())
+			for (VariableMapping variableMapping : variableMappings)
+				sink.addVariable(variableMapping.getOwnerName(), variableMapping.getMethodName(),
+						variableMapping.getMethodDesc(), variableMapping.getDesc(), variableMapping.getOldName(),
+						variableMapping.getIndex(), variableMapping.getNewName());
 	}
 
 	/**
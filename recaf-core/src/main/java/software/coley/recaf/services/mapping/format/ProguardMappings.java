@@ -6,10 +6,17 @@
 import net.fabricmc.mappingio.format.proguard.ProGuardFileWriter;
 import net.fabricmc.mappingio.format.tiny.Tiny2FileWriter;
 import software.coley.recaf.services.mapping.IntermediateMappings;
+import software.coley.recaf.services.mapping.MappingSink;
 import software.coley.recaf.services.mapping.Mappings;
-import software.coley.recaf.util.StringUtil;
 
-import java.util.Arrays;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,106 +41,140 @@ public ProguardMappings() {
 	@Nonnull
 	@Override
 	public IntermediateMappings parse(@Nonnull String mappingsText) {
-		IntermediateMappings mappings = new IntermediateMappings();
-		List<String> lines = Arrays.asList(StringUtil.splitNewline(mappingsText));
-		Map<String, ProguardClassInfo> classMap = new HashMap<>(16384);
-		StringBuilder firstCache = new StringBuilder();
-		StringBuilder secondCache = new StringBuilder();
-		{
-			// Collect class mappings
-			ProguardClassInfo classInfo = null;
-			int definitionStart = -1;
-			for (int i = 0, j = lines.size(); i < j; i++) {
-				String line = lines.get(i);
-				if (line.isEmpty() || line.trim().charAt(0) == '#') {
-					continue;
-				}
-				int index = line.indexOf(SPLITTER);
-				String left = line.substring(0, index);
-				String right = line.substring(index + SPLITTER.length());
-				// Class mapping lines end with ':'
-				if (right.charAt(right.length() - 1) == ':') {
-					String originalClassName = left.replace('.', '/');
-					String obfuscatedName = right.substring(0, right.length() - 1).replace('.', '/');
-					mappings.addClass(obfuscatedName, originalClassName);
-					if (classInfo != null) {
-						// Record the lines that need to be processed for the prior classInfo entry
-						//  - These lines should include field/method mappings
-						classInfo.toProcess = lines.subList(definitionStart + 1, i);
-					}
-					classInfo = new ProguardClassInfo(obfuscatedName);
-					classMap.put(originalClassName, classInfo);
-					definitionStart = i;
+		IntermediateMappings mappings = createMappings();
+		try {
+			read(new BufferedReader(new StringReader(mappingsText)), mappings);
+		} catch (IOException ex) {
+			// Should not occur when reading from in-memory text
+			throw new UncheckedIOException(ex);
+		}
+		return mappings;
+	}
+
+	@Override
+	public void parse(@Nonnull Reader reader, @Nonnull MappingSink sink) throws InvalidMappingException {
+		try {
+			read(new BufferedReader(reader), sink);
+		} catch (IOException ex) {
+			throw new InvalidMappingException(ex);
+		}
+	}
+
+	@Nonnull
+	@Override
+	public IntermediateMappings parse(@Nonnull Path path) throws InvalidMappingException {
+		IntermediateMappings mappings = createMappings();
+		parse(path, mappings);
+		return mappings;
+	}
+
+	@Override
+	public void parse(@Nonnull Path path, @Nonnull MappingSink sink) throws InvalidMappingException {
+		// Files can be read twice, so rather than holding onto member lines until all classes are known
+		// we collect the classes in a first pass and then handle members in a second pass.
+		try {
+			Map<String, String> classMap = new HashMap<>(16384);
+			try (BufferedReader reader = Files.newBufferedReader(path)) {
+				String line;
+				while ((line = reader.readLine()) != null)
+					if (!isSkipped(line))
+						readClass(line, classMap, sink);
+			}
+			MemberReader memberReader = new MemberReader(classMap, sink);
+			try (BufferedReader reader = Files.newBufferedReader(path)) {
+				String owner = null;
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (isSkipped(line))
+						continue;
+					String className = className(line);
+					if (className != null)
+						owner = className;
+					else if (owner != null)
+						memberReader.read(owner, line);
 				}
 			}
-			// Handle case for recording lines for the last class in the mappings file
-			if (classInfo != null)
-				classInfo.toProcess = lines.subList(definitionStart + 1, lines.size());
+		} catch (IOException ex) {
+			throw new InvalidMappingException(ex);
 		}
-		// Second pass for recording fields and methods
-		for (ProguardClassInfo info : classMap.values()) {
-			List<String> toProcess = info.toProcess;
-			for (String line : toProcess) {
-				if (line.isEmpty() || line.trim().charAt(0) == '#') {
-					continue;
-				}
-				int index = line.indexOf(SPLITTER);
-				String left = line.substring(0, index);
-				String right = line.substring(index + SPLITTER.length());
-				if (left.charAt(left.length() - 1) == ')') {
-					int idx = left.indexOf(':');
-					if (idx != -1) {
-						idx = left.indexOf(':', idx + 1);
-					}
-					String methodInfo = idx == -1 ? left : left.substring(idx + 1);
-					int offset = 0;
-					while (methodInfo.charAt(offset) == ' ') {
-						offset++;
-					}
-					String returnType = denormalizeType(methodInfo.substring(offset, offset = methodInfo.indexOf(' ', offset)), firstCache, classMap);
-					firstCache.setLength(0);
-					firstCache.append('(');
-					String methodName = methodInfo.substring(offset + 1, offset = methodInfo.indexOf('('));
-					int endOffset = methodInfo.indexOf(')', offset);
-					parseDescriptor:
-					{
-						int typeStartOffset = methodInfo.indexOf(',', offset);
-						if (typeStartOffset == -1) {
-							if (endOffset == offset + 1) {
-								break parseDescriptor;
-							}
-						}
-						typeStartOffset = offset + 1;
-						boolean anyLeft = true;
-						do {
-							int typeEndOfsset = methodInfo.indexOf(',', typeStartOffset);
-							if (typeEndOfsset == -1) {
-								anyLeft = false;
-								typeEndOfsset = endOffset;
-							}
-							String type = denormalizeType(methodInfo.substring(typeStartOffset, typeEndOfsset), secondCache, classMap);
-							firstCache.append(type);
-							typeStartOffset = anyLeft ? methodInfo.indexOf(',', typeEndOfsset) + 1 : -1;
-						} while (anyLeft);
-					}
-					firstCache.append(')').append(returnType);
-					mappings.addMethod(info.mappedName, firstCache.toString(), right, methodName);
-				} else {
-					String fieldInfo = left;
-					int offset = 0;
-					while (fieldInfo.charAt(offset) == ' ') {
-						offset++;
-					}
-					String fieldType = denormalizeType(fieldInfo.substring(offset, offset = fieldInfo.indexOf(' ', offset)), firstCache, classMap);
-					String fieldName = fieldInfo.substring(offset + 1);
-					mappings.addField(info.mappedName, fieldType, right, fieldName);
-				}
+	}
+
+	private static void read(@Nonnull BufferedReader reader, @Nonnull MappingSink sink) throws IOException {
+		// Member descriptors refer to classes by their original names, which may be declared later on.
+		// With only a single pass over the input, member lines are held until all classes are known.
+		Map<String, String> classMap = new HashMap<>(16384);
+		List<ProguardClassInfo> classes = new ArrayList<>();
+		ProguardClassInfo classInfo = null;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (isSkipped(line))
+				continue;
+			String className = readClass(line, classMap, sink);
+			if (className != null) {
+				classInfo = new ProguardClassInfo(className);
+				classes.add(classInfo);
+			} else if (classInfo != null) {
+				classInfo.toProcess.add(line);
 			}
 		}
-		return mappings;
+
+		// Second pass for recording fields and methods
+		MemberReader memberReader = new MemberReader(classMap, sink);
+		for (ProguardClassInfo info : classes)
+			for (String memberLine : info.toProcess)
+				memberReader.read(info.mappedName, memberLine);
+	}
+
+	/**
+	 * @param line
+	 * 		Some line of the mappings.
+	 *
+	 * @return {@code true} for empty and comment lines.
+	 */
+	private static boolean isSkipped(@Nonnull String line) {
+		return line.isEmpty() || line.trim().charAt(0) == '#';
+	}
+
+	/**
+	 * @param line
+	 * 		Some line of the mappings.
+	 *
+	 * @return Obfuscated name of the class, if the line is a class mapping line. Otherwise {@code null}.
+	 */
+	@Nullable
+	private static String className(@Nonnull String line) {
+		int index = line.indexOf(SPLITTER);
+		if (index < 0)
+			throw new IllegalArgumentException("Invalid Proguard mapping line: " + line);
+
+		// Class mapping lines end with ':'
+		if (line.charAt(line.length() - 1) != ':')
+			return null;
+		return line.substring(index + SPLITTER.length(), line.length() - 1).replace('.', '/');
+	}
+
+	/**
+	 * @param line
+	 * 		Some line of the mappings.
+	 * @param classMap
+	 * 		Map of original class names to obfuscated names to update.
+	 * @param sink
+	 * 		Receiver of the class mapping.
+	 *
+	 * @return Obfuscated name of the class, if the line is a class mapping line. Otherwise {@code null}.
+	 */
+	@Nullable
+	private static String readClass(@Nonnull String line, @Nonnull Map<String, String> classMap, @Nonnull MappingSink sink) {
+		String obfuscatedName = className(line);
+		if (obfuscatedName != null) {
+			String originalClassName = line.substring(0, line.indexOf(SPLITTER)).replace('.', '/');
+			sink.addClass(obfuscatedName, originalClassName);
+			classMap.put(originalClassName, obfuscatedName);
+		}
+		return obfuscatedName;
 	}
 
-	private static String denormalizeType(String type, StringBuilder stringCache, Map<String, ProguardClassInfo> map) {
+	private static String denormalizeType(String type, StringBuilder stringCache, Map<String, String> map) {
 		int dimensions = 0;
 		int offset = 1;
 		int idx;
@@ -155,9 +196,9 @@ private static String denormalizeType(String type, StringBuilder stringCache, Ma
 			case "boolean" -> type = "Z";
 			default -> {
 				type = type.replace('.', '/');
-				ProguardClassInfo classInfo = map.get(type);
-				if (classInfo != null) {
-					type = classInfo.mappedName;
+				String mappedName = map.get(type);
+				if (mappedName != null) {
+					type = mappedName;
 				}
 				stringCache.append('L').append(type).append(';');
 			}
@@ -181,11 +222,92 @@ public String exportText(@Nonnull Mappings mappings) throws InvalidMappingExcept
 	}
 
 	private static final class ProguardClassInfo {
-		private List<String> toProcess = List.of();
+		private final List<String> toProcess = new ArrayList<>();
 		private final String mappedName;
 
 		ProguardClassInfo(String mappedName) {
 			this.mappedName = mappedName;
 		}
 	}
+
+	/**
+	 * Reader of field and method mapping lines.
+	 */
+	private static final class MemberReader {
+		private final StringBuilder firstCache = new StringBuilder();
+		private final StringBuilder secondCache = new StringBuilder();
+		private final Map<String, String> classMap;
+		private final MappingSink mappings;
+
+		/**
+		 * @param classMap
+		 * 		Map of original class names to obfuscated names.
+		 * @param mappings
+		 * 		Receiver of member mappings.
+		 */
+		MemberReader(@Nonnull Map<String, String> classMap, @Nonnull MappingSink mappings) {
+			this.classMap = classMap;
+			this.mappings = mappings;
+		}
+
+		/**
+		 * @param owner
+		 * 		Obfuscated name of the class declaring the member.
+		 * @param line
+		 * 		Member mapping line.
+		 */
+		void read(@Nonnull String owner, @Nonnull String line) {
+			int index = line.indexOf(SPLITTER);
+			String left = line.substring(0, index);
+			String right = line.substring(index + SPLITTER.length());
+			if (left.charAt(left.length() - 1) == ')') {
+				int idx = left.indexOf(':');
+				if (idx != -1) {
+					idx = left.indexOf(':', idx + 1);
+				}
+				String methodInfo = idx == -1 ? left : left.substring(idx + 1);
+				int offset = 0;
+				while (methodInfo.charAt(offset) == ' ') {
+					offset++;
+				}
+				String returnType = denormalizeType(methodInfo.substring(offset, offset = methodInfo.indexOf(' ', offset)), firstCache, classMap);
+				firstCache.setLength(0);
+				firstCache.append('(');
+				String methodName = methodInfo.substring(offset + 1, offset = methodInfo.indexOf('('));
+				int endOffset = methodInfo.indexOf(')', offset);
+				parseDescriptor:
+				{
+					int typeStartOffset = methodInfo.indexOf(',', offset);
+					if (typeStartOffset == -1) {
+						if (endOffset == offset + 1) {
+							break parseDescriptor;
+						}
+					}
+					typeStartOffset = offset + 1;
+					boolean anyLeft = true;
+					do {
+						int typeEndOfsset = methodInfo.indexOf(',', typeStartOffset);
+						if (typeEndOfsset == -1) {
+							anyLeft = false;
+							typeEndOfsset = endOffset;
+						}
+						String type = denormalizeType(methodInfo.substring(typeStartOffset, typeEndOfsset), secondCache, classMap);
+						firstCache.append(type);
+						typeStartOffset = anyLeft ? methodInfo.indexOf(',', typeEndOfsset) + 1 : -1;
+					} while (anyLeft);
+				}
+				firstCache.append(')').append(returnType);
+				mappings.addMethod(owner, firstCache.toString(), right, methodName);
+			} else {
+				String fieldInfo = left;
+				int offset = 0;
+				while (fieldInfo.charAt(offset) == ' ') {
+					offset++;
+				}
+				String fieldType = denormalizeType(fieldInfo.substring(offset, offset = fieldInfo.indexOf(' ', offset)), firstCache, classMap);
+				String fieldName = fieldInfo.substring(offset + 1);
+				mappings.addField(owner, fieldType, right, fieldName);
+			}
+		}
+	}
 }
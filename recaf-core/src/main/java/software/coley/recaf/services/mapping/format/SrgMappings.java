@@ -9,14 +9,20 @@
 import software.coley.recaf.analytics.logging.Logging;
 import software.coley.recaf.services.mapping.BasicMappingsRemapper;
 import software.coley.recaf.services.mapping.IntermediateMappings;
+import software.coley.recaf.services.mapping.MappingSink;
 import software.coley.recaf.services.mapping.Mappings;
 import software.coley.recaf.services.mapping.data.ClassMapping;
 import software.coley.recaf.services.mapping.data.FieldMapping;
 import software.coley.recaf.services.mapping.data.MethodMapping;
-import software.coley.recaf.util.StringUtil;
 
-import java.util.ArrayList;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The MCP SRG format.
@@ -38,11 +44,43 @@ public SrgMappings() {
 	@Nonnull
 	@Override
 	public IntermediateMappings parse(@Nonnull String mappingText) {
-		List<Pair<String, String>> packages = new ArrayList<>();
-		IntermediateMappings mappings = new SrgIntermediateMappings(packages);
-		String[] lines = StringUtil.splitNewline(mappingText);
+		IntermediateMappings mappings = createMappings();
+		try {
+			read(new BufferedReader(new StringReader(mappingText)), mappings);
+		} catch (IOException ex) {
+			// Should not occur when reading from in-memory text
+			throw new UncheckedIOException(ex);
+		}
+		return mappings;
+	}
+
+	@Override
+	public void parse(@Nonnull Reader reader, @Nonnull MappingSink sink) throws InvalidMappingException {
+		try {
+			read(new BufferedReader(reader), sink);
+		} catch (IOException ex) {
+			throw new InvalidMappingException(ex);
+		}
+	}
+
+	@Nonnull
+	@Override
+	public IntermediateMappings parse(@Nonnull Path path) throws InvalidMappingException {
+		IntermediateMappings mappings = createMappings();
+		parse(path, mappings);
+		return mappings;
+	}
+
+	@Nonnull
+	@Override
+	public IntermediateMappings createMappings() {
+		return new SrgIntermediateMappings();
+	}
+
+	private void read(@Nonnull BufferedReader reader, @Nonnull MappingSink mappings) throws IOException {
 		int line = 0;
-		for (String lineStr : lines) {
+		String lineStr;
+		while ((lineStr = reader.readLine()) != null) {
 			line++;
 			String[] args = lineStr.trim().split(" ");
 			String type = args[0];
@@ -51,7 +89,7 @@ public IntermediateMappings parse(@Nonnull String mappingText) {
 					case "PK:" -> {
 						String obfPackage = args[1];
 						String renamedPackage = args[2];
-						packages.add(new Pair<>(obfPackage, renamedPackage));
+						mappings.addPackage(obfPackage, renamedPackage);
 					}
 					case "CL:" -> {
 						String obfClass = args[1];
@@ -121,7 +159,6 @@ public IntermediateMappings parse(@Nonnull String mappingText) {
 				throw new IllegalArgumentException("Failed parsing line " + line, ex);
 			}
 		}
-		return mappings;
 	}
 
 	@Override
@@ -170,11 +207,11 @@ public String exportText(@Nonnull Mappings mappings) {
 	 * Extension of intermediate mappings to support {@code PK} entries in the mapping file.
 	 */
 	private static class SrgIntermediateMappings extends IntermediateMappings {
-		private final List<Pair<String, String>> packageMappings;
+		private final List<Pair<String, String>> packageMappings = new CopyOnWriteArrayList<>();
 
-		public SrgIntermediateMappings(List<Pair<String, String>> packageMappings) {
-			super();
-			this.packageMappings = packageMappings;
+		@Override
+		public void addPackage(@Nonnull String oldPackage, @Nonnull String newPackage) {
+			packageMappings.add(new Pair<>(oldPackage, newPackage));
 		}
 
 		@Override
@@ -5,8 +5,11 @@
 import net.fabricmc.mappingio.format.tiny.Tiny1FileReader;
 import net.fabricmc.mappingio.format.tiny.Tiny1FileWriter;
 import software.coley.recaf.services.mapping.IntermediateMappings;
+import software.coley.recaf.services.mapping.MappingSink;
 import software.coley.recaf.services.mapping.Mappings;
 
+import java.io.Reader;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -32,6 +35,19 @@ public IntermediateMappings parse(@Nonnull String mappingText) throws InvalidMap
 		return MappingFileFormat.parse(mappingText, Tiny1FileReader::read);
 	}
 
+	@Override
+	public void parse(@Nonnull Reader reader, @Nonnull MappingSink sink) throws InvalidMappingException {
+		MappingFileFormat.parse(reader, Tiny1FileReader::read, sink);
+	}
+
+	@Nonnull
+	@Override
+	public IntermediateMappings parse(@Nonnull Path path) throws InvalidMappingException {
+		IntermediateMappings mappings = createMappings();
+		parse(path, mappings);
+		return mappings;
+	}
+
 	@Override
 	public String exportText(@Nonnull Mappings mappings) throws InvalidMappingException {
 		return MappingFileFormat.export(mappings, "intermediary", List.of("named"), Tiny1FileWriter::new);
@@ -17,6 +17,8 @@
 import software.coley.recaf.services.mapping.gen.filter.ExcludeEnumMethodsFilter;
 import software.coley.recaf.services.mapping.gen.filter.NameGeneratorFilter;
 import software.coley.recaf.services.mapping.gen.naming.NameGenerator;
+import software.coley.recaf.util.threading.ThreadPoolFactory;
+import software.coley.recaf.util.threading.ThreadUtil;
 import software.coley.recaf.workspace.model.Workspace;
 import software.coley.recaf.workspace.model.bundle.Bundle;
 import software.coley.recaf.workspace.model.resource.WorkspaceResource;
@@ -27,6 +29,7 @@
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Mapping generator.
@@ -36,6 +39,7 @@
 @ApplicationScoped
 public class MappingGenerator implements Service {
 	public static final String SERVICE_ID = "mapping-generator";
+	private static final ExecutorService generatorThreadPool = ThreadPoolFactory.newFixedThreadPool(SERVICE_ID);
 	private final MappingGeneratorConfig config;
 
 	@Inject
@@ -68,37 +72,79 @@ public Mappings generate(@Nullable Workspace workspace,
 		filter = new ExcludeEnumMethodsFilter(filter);
 
 		// Setup adapter to store our mappings in.
-		MappingsAdapter mappings = new MappingsAdapter(true, true);
-		mappings.enableHierarchyLookup(inheritanceGraph);
-		if (workspace != null)
-			mappings.enableClassLookup(workspace);
+		MappingsAdapter mappings = newAdapter(workspace, inheritanceGraph);
 		SortedMap<String, ClassInfo> classMap = new TreeMap<>();
 		resource.versionedJvmClassBundleStream()
 				.flatMap(Bundle::stream)
 				.forEach(c -> classMap.put(c.getName(), c));
 		classMap.putAll(resource.getJvmClassBundle());
 
-		// Pull a class, create mappings for its inheritance family, then remove those classes from the map.
-		// When the map is empty everything has been run through the mapping generation process.
+		// Pull a class, record its inheritance family, then remove those classes from the map.
+		// When the map is empty every class has been assigned to a family.
+		List<Set<InheritanceVertex>> families = new ArrayList<>();
 		while (!classMap.isEmpty()) {
 			// Get family from the class.
 			String className = classMap.firstKey();
 			Set<InheritanceVertex> family = inheritanceGraph.getVertexFamily(className, false);
 
-			// Create mappings for the family
-			generateFamilyMappings(mappings, family, generator, filter);
-
 			// Remove all family members from the class map.
-			if (family.isEmpty())
+			if (family.isEmpty()) {
 				classMap.remove(className);
-			else
+			} else {
+				families.add(family);
 				family.forEach(vertex -> classMap.remove(vertex.getName()));
+			}
 		}
+
+		// Create member mappings for each family. Families do not share any classes, so the mappings for each are
+		// independent of one another, and can be generated in parallel if the name generator allows it.
+		// Each family is given its own scope of the name generator, so that the names do not depend on which
+		// order the families are handled in.
+		if (generator.supportsConcurrentGeneration() && families.size() > 1) {
+			MappingsAdapter[] familyMappings = new MappingsAdapter[families.size()];
+			NameGeneratorFilter finalFilter = filter;
+			ExecutorService service = ThreadUtil.phasingService(generatorThreadPool);
+			for (int i = 0; i < familyMappings.length; i++) {
+				int familyIndex = i;
+				service.execute(() -> {
+					MappingsAdapter adapter = newAdapter(workspace, inheritanceGraph);
+					generateFamilyMemberMappings(adapter, families.get(familyIndex), generator.forFamily(), finalFilter);
+					familyMappings[familyIndex] = adapter;
+				});
+			}
+			ThreadUtil.blockUntilComplete(service);
+
+			// Merge in family order so that the output is the same as generating each family one after another.
+			for (int i = 0; i < familyMappings.length; i++) {
+				MappingsAdapter adapter = familyMappings[i];
+				if (adapter == null)
+					throw new IllegalStateException("Failed to generate mappings for family of: " +
+							families.get(i).iterator().next().getName());
+				mappings.importAdapter(adapter);
+			}
+		} else {
+			for (Set<InheritanceVertex> family : families)
+				generateFamilyMemberMappings(mappings, family, generator.forFamily(), filter);
+		}
+
+		// Create class mappings for each family. Class names must be unique across all families,
+		// so these are always generated in family order.
+		for (Set<InheritanceVertex> family : families)
+			generateFamilyClassMappings(mappings, family, generator, filter);
 		return mappings;
 	}
 
-	private void generateFamilyMappings(@Nonnull MappingsAdapter mappings, @Nonnull Set<InheritanceVertex> family,
-	                                    @Nonnull NameGenerator generator, @Nonnull NameGeneratorFilter filter) {
+	@Nonnull
+	private static MappingsAdapter newAdapter(@Nullable Workspace workspace, @Nonnull InheritanceGraph inheritanceGraph) {
+		MappingsAdapter mappings = new MappingsAdapter(true, true);
+		mappings.enableHierarchyLookup(inheritanceGraph);
+		if (workspace != null)
+			mappings.enableClassLookup(workspace);
+		return mappings;
+	}
+
+	private void generateFamilyMemberMappings(@Nonnull MappingsAdapter mappings, @Nonnull Set<InheritanceVertex> family,
+	                                          @Nonnull NameGenerator generator, @Nonnull NameGeneratorFilter filter) {
 		// Collect the members in the family that are inheritable, and methods that are library implementations.
 		// We want this information so that for these members we give them a single name throughout the family.
 		//  - Methods can be indirectly linked by two interfaces describing the same signature,
@@ -245,7 +291,10 @@ private void generateFamilyMappings(@Nonnull MappingsAdapter mappings, @Nonnull
 				}
 			}
 		});
-		// Create mappings for classes.
+	}
+
+	private void generateFamilyClassMappings(@Nonnull MappingsAdapter mappings, @Nonnull Set<InheritanceVertex> family,
+	                                         @Nonnull NameGenerator generator, @Nonnull NameGeneratorFilter filter) {
 		family.forEach(vertex -> {
 			// Skip libraries in the family.
 			if (vertex.isLibraryVertex())
@@ -283,7 +332,7 @@ public MappingGeneratorConfig getServiceConfig() {
 	 * <p/>
 	 * Most importantly the {@link Object#hashCode()} of this type is based only on the name and descriptor.
 	 * This ensures additional data like local variable or generic signature data doesn't interfere with operations
-	 * such as {@link #generateFamilyMappings(MappingsAdapter, Set, NameGenerator, NameGeneratorFilter)}.
+	 * such as {@link #generateFamilyMemberMappings(MappingsAdapter, Set, NameGenerator, NameGeneratorFilter)}.
 	 *
 	 * @param name
 	 * 		Field/method name.
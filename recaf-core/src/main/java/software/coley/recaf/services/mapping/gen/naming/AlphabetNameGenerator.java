@@ -47,6 +47,12 @@ public void setWorkspace(@Nullable Workspace workspace) {
 		this.workspace = workspace;
 	}
 
+	@Override
+	public boolean supportsConcurrentGeneration() {
+		// Names are derived only from inputs, and workspace lookups do not modify anything.
+		return true;
+	}
+
 	@Nonnull
 	@Override
 	public String mapClass(@Nonnull ClassInfo info) {
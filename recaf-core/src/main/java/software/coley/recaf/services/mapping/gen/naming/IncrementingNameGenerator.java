@@ -8,22 +8,44 @@
 import software.coley.recaf.info.member.MethodMember;
 import software.coley.recaf.workspace.model.Workspace;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * Basic name generator using a given alphabet of characters to generate pseudo-random names with.
- * Names will always yield the same value for the same input.
+ * Basic name generator using incrementing counters to generate names with.
+ * <p>
+ * Field, method, and variable names are counted separately for each {@link #forFamily() family} of classes,
+ * while class names are counted across all classes.
  *
  * @author Matt Coley
  */
 public class IncrementingNameGenerator implements DeconflictingNameGenerator {
+	private final AtomicLong classIndex;
 	private Workspace workspace;
-	private long classIndex = 1;
 	private long fieldIndex = 1;
 	private long methodIndex = 1;
 	private long varIndex = 1;
 
+	/**
+	 * New generator with class names starting from one.
+	 */
+	public IncrementingNameGenerator() {
+		this(new AtomicLong(1), null);
+	}
+
+	/**
+	 * @param classIndex
+	 * 		Class name counter, shared with the generator of other families.
+	 * @param workspace
+	 * 		Workspace to deconflict names with.
+	 */
+	private IncrementingNameGenerator(@Nonnull AtomicLong classIndex, @Nullable Workspace workspace) {
+		this.classIndex = classIndex;
+		this.workspace = workspace;
+	}
+
 	@Nonnull
 	private String nextClassName() {
-		return "mapped/Class" + classIndex++;
+		return "mapped/Class" + classIndex.getAndIncrement();
 	}
 
 	@Nonnull
@@ -46,6 +68,18 @@ public void setWorkspace(@Nullable Workspace workspace) {
 		this.workspace = workspace;
 	}
 
+	@Override
+	public boolean supportsConcurrentGeneration() {
+		// Member counters are kept per family, and class names are generated in a fixed order.
+		return true;
+	}
+
+	@Nonnull
+	@Override
+	public NameGenerator forFamily() {
+		return new IncrementingNameGenerator(classIndex, workspace);
+	}
+
 	@Nonnull
 	@Override
 	public String mapClass(@Nonnull ClassInfo info) {
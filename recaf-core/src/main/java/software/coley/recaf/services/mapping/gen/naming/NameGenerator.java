@@ -12,6 +12,33 @@
  * @author Matt Coley
  */
 public interface NameGenerator {
+	/**
+	 * Generators that yield names based only on their inputs can be used by multiple threads at once, allowing
+	 * {@link software.coley.recaf.services.mapping.gen.MappingGenerator} to handle independent class hierarchies
+	 * in parallel. Generators with state that changes between calls, such as counters, must be called in a
+	 * consistent order to yield consistent names. They should only override this if they keep that state
+	 * separately for each class hierarchy via {@link #forFamily()}.
+	 *
+	 * @return {@code true} when this generator supports concurrent use.
+	 */
+	default boolean supportsConcurrentGeneration() {
+		return false;
+	}
+
+	/**
+	 * Field, method, and variable names of each family of classes related by inheritance are generated with
+	 * the generator returned here. Class names are always generated with this generator, one family after another.
+	 * <p>
+	 * Generators with state that changes between calls can return a new scope of that state here,
+	 * so that the names within one family do not depend on the families handled before it.
+	 *
+	 * @return Generator for the member names of a single family of classes.
+	 */
+	@Nonnull
+	default NameGenerator forFamily() {
+		return this;
+	}
+
 	/**
 	 * @param info
 	 * 		Class to rename.
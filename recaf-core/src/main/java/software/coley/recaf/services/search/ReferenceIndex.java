@@ -0,0 +1,215 @@
+package software.coley.recaf.services.search;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import software.coley.recaf.analytics.logging.Logging;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.services.search.query.ReferenceQuery;
+import software.coley.recaf.services.search.result.MemberReferenceResult;
+import software.coley.recaf.util.threading.ThreadUtil;
+import software.coley.recaf.workspace.model.Workspace;
+import software.coley.recaf.workspace.model.WorkspaceModificationListener;
+import software.coley.recaf.workspace.model.bundle.JvmClassBundle;
+import software.coley.recaf.workspace.model.resource.ResourceJvmClassListener;
+import software.coley.recaf.workspace.model.resource.WorkspaceResource;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Inverted index of class and member references to the classes that contain them.
+ * Used to limit {@link ReferenceQuery} searches to classes which contain a matching reference.
+ * <br>
+ * The index is built in parallel when created, and is kept up-to-date with changes to the workspace's resources.
+ *
+ * @author Matt Coley
+ * @see SearchService#getCurrentWorkspaceReferenceIndex()
+ */
+public class ReferenceIndex implements ResourceJvmClassListener, WorkspaceModificationListener {
+	private static final Logger logger = Logging.get(ReferenceIndex.class);
+	private final Map<String, Set<JvmClassInfo>> classReferenceToClasses = new HashMap<>();
+	private final Map<MemberReferenceResult.MemberReference, Set<JvmClassInfo>> memberReferenceToClasses = new HashMap<>();
+	private final Map<JvmClassInfo, ReferenceQuery.ClassReferences> classToReferences = new IdentityHashMap<>();
+	private final Set<JvmClassInfo> unindexedClasses = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Workspace workspace;
+	private final ExecutorService threadPool;
+
+	/**
+	 * @param workspace
+	 * 		Workspace to index.
+	 * @param threadPool
+	 * 		Pool to index classes on.
+	 */
+	public ReferenceIndex(@Nonnull Workspace workspace, @Nonnull ExecutorService threadPool) {
+		this.workspace = workspace;
+		this.threadPool = threadPool;
+
+		// Register listeners before building so that no changes are missed while the index is being built.
+		workspace.addWorkspaceModificationListener(this);
+		List<WorkspaceResource> resources = workspace.getAllResources(false);
+		for (WorkspaceResource resource : resources)
+			resource.addResourceJvmClassListener(this);
+
+		long start = System.currentTimeMillis();
+		for (WorkspaceResource resource : resources)
+			index(resource);
+		logger.debug("Built reference index of {} classes in {}ms", classToReferences.size(), System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Removes the index's listeners from the workspace.
+	 */
+	public void close() {
+		workspace.removeWorkspaceModificationListener(this);
+		for (WorkspaceResource resource : workspace.getAllResources(false))
+			resource.removeResourceJvmClassListener(this);
+		synchronized (this) {
+			classReferenceToClasses.clear();
+			memberReferenceToClasses.clear();
+			classToReferences.clear();
+			unindexedClasses.clear();
+		}
+	}
+
+	/**
+	 * @param query
+	 * 		Query to find candidate classes for.
+	 *
+	 * @return Identity based set of classes containing at least one reference matched by the query.
+	 * Classes not in this set cannot yield any results for the query.
+	 */
+	@Nonnull
+	public synchronized Set<JvmClassInfo> getCandidates(@Nonnull ReferenceQuery query) {
+		// Classes that could not be indexed are always candidates, so they're handled the same as without an index.
+		Set<JvmClassInfo> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+		candidates.addAll(unindexedClasses);
+		if (query.isClassReferenceQuery()) {
+			classReferenceToClasses.forEach((className, classes) -> {
+				if (query.matchesClassReference(className))
+					candidates.addAll(classes);
+			});
+		} else {
+			memberReferenceToClasses.forEach((reference, classes) -> {
+				if (query.matchesMemberReference(reference))
+					candidates.addAll(classes);
+			});
+		}
+		return candidates;
+	}
+
+	/**
+	 * @return Number of classes in the index.
+	 */
+	public synchronized int size() {
+		return classToReferences.size();
+	}
+
+	/**
+	 * Indexes all classes in the given resource, collecting references in parallel.
+	 *
+	 * @param resource
+	 * 		Resource to index.
+	 */
+	private void index(@Nonnull WorkspaceResource resource) {
+		record Collected(JvmClassBundle bundle, JvmClassInfo classInfo, ReferenceQuery.ClassReferences references) {}
+		Queue<Collected> collected = new ConcurrentLinkedQueue<>();
+		ExecutorService service = ThreadUtil.phasingService(threadPool);
+		resource.jvmClassBundleStream().forEach(bundle -> {
+			for (JvmClassInfo classInfo : bundle.values())
+				service.submit(() -> collected.add(new Collected(bundle, classInfo, collect(classInfo))));
+		});
+		ThreadUtil.blockUntilComplete(service);
+
+		synchronized (this) {
+			for (Collected result : collected) {
+				// Skip classes that were replaced or removed while we were collecting references.
+				// Their replacements will have been handled by the listener calls.
+				JvmClassInfo classInfo = result.classInfo();
+				if (result.bundle().get(classInfo.getName()) == classInfo)
+					add(classInfo, result.references());
+			}
+		}
+	}
+
+	@Nullable
+	private static ReferenceQuery.ClassReferences collect(@Nonnull JvmClassInfo classInfo) {
+		try {
+			return ReferenceQuery.collectReferences(classInfo);
+		} catch (Throwable t) {
+			logger.debug("Failed to collect references of '{}', class will not be indexed", classInfo.getName(), t);
+			return null;
+		}
+	}
+
+	private synchronized void add(@Nonnull JvmClassInfo classInfo, @Nullable ReferenceQuery.ClassReferences references) {
+		if (references == null) {
+			unindexedClasses.add(classInfo);
+			return;
+		}
+		if (classToReferences.putIfAbsent(classInfo, references) != null)
+			return;
+		for (String classReference : references.classReferences())
+			classReferenceToClasses.computeIfAbsent(classReference, k -> Collections.newSetFromMap(new IdentityHashMap<>()))
+					.add(classInfo);
+		for (MemberReferenceResult.MemberReference memberReference : references.memberReferences())
+			memberReferenceToClasses.computeIfAbsent(memberReference, k -> Collections.newSetFromMap(new IdentityHashMap<>()))
+					.add(classInfo);
+	}
+
+	private synchronized void remove(@Nonnull JvmClassInfo classInfo) {
+		unindexedClasses.remove(classInfo);
+		ReferenceQuery.ClassReferences references = classToReferences.remove(classInfo);
+		if (references == null)
+			return;
+		for (String classReference : references.classReferences()) {
+			Set<JvmClassInfo> classes = classReferenceToClasses.get(classReference);
+			if (classes != null && classes.remove(classInfo) && classes.isEmpty())
+				classReferenceToClasses.remove(classReference);
+		}
+		for (MemberReferenceResult.MemberReference memberReference : references.memberReferences()) {
+			Set<JvmClassInfo> classes = memberReferenceToClasses.get(memberReference);
+			if (classes != null && classes.remove(classInfo) && classes.isEmpty())
+				memberReferenceToClasses.remove(memberReference);
+		}
+	}
+
+	@Override
+	public void onNewClass(@Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo cls) {
+		add(cls, collect(cls));
+	}
+
+	@Override
+	public void onUpdateClass(@Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle,
+	                          @Nonnull JvmClassInfo oldCls, @Nonnull JvmClassInfo newCls) {
+		ReferenceQuery.ClassReferences references = collect(newCls);
+		synchronized (this) {
+			remove(oldCls);
+			add(newCls, references);
+		}
+	}
+
+	@Override
+	public void onRemoveClass(@Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo cls) {
+		remove(cls);
+	}
+
+	@Override
+	public void onAddLibrary(@Nonnull Workspace workspace, @Nonnull WorkspaceResource library) {
+		library.addResourceJvmClassListener(this);
+		index(library);
+	}
+
+	@Override
+	public void onRemoveLibrary(@Nonnull Workspace workspace, @Nonnull WorkspaceResource library) {
+		library.removeResourceJvmClassListener(this);
+		library.jvmClassBundleStream().forEach(bundle -> bundle.values().forEach(this::remove));
+	}
+}
@@ -54,6 +54,8 @@ default boolean doVisitFile(@Nonnull FileInfo file) {
 	}
 
 	/**
+	 * Called from search worker threads as soon as a result is found, before the search completes.
+	 *
 	 * @param result
 	 * 		Result to consider.
 	 *
@@ -4,6 +4,8 @@
 import jakarta.annotation.Nullable;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import software.coley.recaf.analytics.logging.Logging;
 import software.coley.recaf.info.AndroidClassInfo;
 import software.coley.recaf.info.FileInfo;
 import software.coley.recaf.info.JvmClassInfo;
@@ -11,16 +13,23 @@
 import software.coley.recaf.services.Service;
 import software.coley.recaf.services.search.query.*;
 import software.coley.recaf.services.search.result.*;
+import software.coley.recaf.services.workspace.WorkspaceCloseListener;
+import software.coley.recaf.services.workspace.WorkspaceManager;
 import software.coley.recaf.util.threading.ThreadPoolFactory;
-import software.coley.recaf.util.threading.ThreadUtil;
 import software.coley.recaf.workspace.model.Workspace;
 import software.coley.recaf.workspace.model.bundle.AndroidClassBundle;
 import software.coley.recaf.workspace.model.bundle.FileBundle;
 import software.coley.recaf.workspace.model.resource.WorkspaceResource;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Outline for running various searches.
@@ -33,11 +42,53 @@
 @ApplicationScoped
 public class SearchService implements Service {
 	public static final String SERVICE_ID = "search";
+	private static final Logger logger = Logging.get(SearchService.class);
+	private final ExecutorService searchThreadPool = ThreadPoolFactory.newFixedThreadPool(SERVICE_ID);
 	private final SearchServiceConfig config;
+	private final WorkspaceManager workspaceManager;
+	private ReferenceIndex currentWorkspaceReferenceIndex;
+	private StringIndex currentWorkspaceStringIndex;
 
 	@Inject
-	public SearchService(SearchServiceConfig config) {
+	public SearchService(@Nonnull SearchServiceConfig config, @Nonnull WorkspaceManager workspaceManager) {
 		this.config = config;
+		this.workspaceManager = workspaceManager;
+
+		workspaceManager.addWorkspaceCloseListener(new ListenerHost());
+	}
+
+	/**
+	 * @return Reference index for the {@link WorkspaceManager#getCurrent() current workspace},
+	 * or {@code null} if no workspace is currently open or indexing is disabled.
+	 * The index is built on first access.
+	 */
+	@Nullable
+	public synchronized ReferenceIndex getCurrentWorkspaceReferenceIndex() {
+		Workspace workspace = workspaceManager.getCurrent();
+		if (workspace == null || !config.getIndexReferences().getValue())
+			return null;
+
+		if (currentWorkspaceReferenceIndex == null)
+			currentWorkspaceReferenceIndex = new ReferenceIndex(workspace, searchThreadPool);
+
+		return currentWorkspaceReferenceIndex;
+	}
+
+	/**
+	 * @return String index for the {@link WorkspaceManager#getCurrent() current workspace},
+	 * or {@code null} if no workspace is currently open or indexing is disabled.
+	 * The index is built on first access.
+	 */
+	@Nullable
+	public synchronized StringIndex getCurrentWorkspaceStringIndex() {
+		Workspace workspace = workspaceManager.getCurrent();
+		if (workspace == null || !config.getIndexStrings().getValue())
+			return null;
+
+		if (currentWorkspaceStringIndex == null)
+			currentWorkspaceStringIndex = new StringIndex(workspace, searchThreadPool);
+
+		return currentWorkspaceStringIndex;
 	}
 
 	/**
@@ -93,8 +144,6 @@ public Results search(@Nonnull Workspace workspace, @Nonnull List<Query> queries
 	 */
 	@Nonnull
 	public Results search(@Nonnull Workspace workspace, @Nonnull List<Query> queries, @Nonnull SearchFeedback feedback) {
-		Results results = new Results();
-
 		// Build visitors
 		AndroidClassSearchVisitor androidClassVisitorTemp = null;
 		JvmClassSearchVisitor jvmClassVisitorTemp = null;
@@ -111,8 +160,11 @@ public Results search(@Nonnull Workspace workspace, @Nonnull List<Query> queries
 		JvmClassSearchVisitor jvmClassVisitor = jvmClassVisitorTemp;
 		FileSearchVisitor fileVisitor = fileVisitorTemp;
 
-		// Run visitors on contents of workspace
-		ExecutorService service = ThreadPoolFactory.newFixedThreadPool(SERVICE_ID + ":" + queries.hashCode());
+		// Limit which classes are visited when the queries can be answered with help from an index.
+		Set<JvmClassInfo> jvmClassCandidates = jvmClassVisitor == null ? null : getJvmClassCandidates(workspace, queries);
+
+		// Collect the contents of the workspace to visit
+		List<Visit> visits = new ArrayList<>();
 		WorkspacePathNode workspaceNode = PathNodes.workspacePath(workspace);
 		for (WorkspaceResource resource : workspace.getAllResources(false)) {
 			ResourcePathNode resourceNode = workspaceNode.child(resource);
@@ -121,18 +173,12 @@ public Results search(@Nonnull Workspace workspace, @Nonnull List<Query> queries
 				for (AndroidClassBundle bundle : resource.getAndroidClassBundles().values()) {
 					BundlePathNode bundleNode = resourceNode.child(bundle);
 					for (AndroidClassInfo classInfo : bundle) {
-						if (feedback.hasRequestedCancellation())
-							break;
 						if (!feedback.doVisitClass(classInfo))
 							continue;
 						ClassPathNode classPath = bundleNode
 								.child(classInfo.getPackageName())
 								.child(classInfo);
-						service.submit(() -> {
-							if (feedback.hasRequestedCancellation())
-								return;
-							androidClassVisitor.visit(getResultSink(results, feedback), classPath, classInfo);
-						});
+						visits.add(sink -> androidClassVisitor.visit(sink, classPath, classInfo));
 					}
 				}
 			}
@@ -142,18 +188,14 @@ public Results search(@Nonnull Workspace workspace, @Nonnull List<Query> queries
 				resource.jvmClassBundleStream().forEach(bundle -> {
 					BundlePathNode bundlePathNode = resourceNode.child(bundle);
 					for (JvmClassInfo classInfo : bundle) {
-						if (feedback.hasRequestedCancellation())
-							break;
+						if (jvmClassCandidates != null && !jvmClassCandidates.contains(classInfo))
+							continue;
 						if (!feedback.doVisitClass(classInfo))
 							continue;
 						ClassPathNode classPath = bundlePathNode
 								.child(classInfo.getPackageName())
 								.child(classInfo);
-						service.submit(() -> {
-							if (feedback.hasRequestedCancellation())
-								return;
-							jvmClassVisitor.visit(getResultSink(results, feedback), classPath, classInfo);
-						});
+						visits.add(sink -> jvmClassVisitor.visit(sink, classPath, classInfo));
 					}
 				});
 			}
@@ -163,32 +205,96 @@ public Results search(@Nonnull Workspace workspace, @Nonnull List<Query> queries
 				FileBundle fileBundle = resource.getFileBundle();
 				BundlePathNode bundleNode = resourceNode.child(fileBundle);
 				for (FileInfo fileInfo : fileBundle) {
-					if (feedback.hasRequestedCancellation())
-						break;
 					if (!feedback.doVisitFile(fileInfo))
 						continue;
 					FilePathNode filePath = bundleNode
 							.child(fileInfo.getDirectoryName())
 							.child(fileInfo);
-					service.submit(() -> {
-						if (feedback.hasRequestedCancellation())
-							return;
-						fileVisitor.visit(getResultSink(results, feedback), filePath, fileInfo);
-					});
+					visits.add(sink -> fileVisitor.visit(sink, filePath, fileInfo));
 				}
 			}
 		}
 
-		ThreadUtil.blockUntilComplete(service);
+		// Run visitors on the shared pool. Each worker claims the next visit from the list until none are left,
+		// collecting results into its own buffer so that workers do not contend on the shared results model.
+		AtomicInteger nextVisit = new AtomicInteger();
+		int workerCount = Math.min(visits.size(), Runtime.getRuntime().availableProcessors());
+		List<Future<List<Result<?>>>> workers = new ArrayList<>(workerCount);
+		for (int i = 0; i < workerCount; i++) {
+			workers.add(searchThreadPool.submit(() -> {
+				List<Result<?>> buffer = new ArrayList<>();
+				ResultSink sink = getResultSink(buffer, feedback);
+				int index;
+				while (!feedback.hasRequestedCancellation() && (index = nextVisit.getAndIncrement()) < visits.size()) {
+					try {
+						visits.get(index).run(sink);
+					} catch (Throwable t) {
+						logger.error("Search visitor failed, skipping item", t);
+					}
+				}
+				return buffer;
+			}));
+		}
+
+		// Merge the worker buffers once they are all done
+		Results results = new Results();
+		for (Future<List<Result<?>>> worker : workers) {
+			try {
+				results.addAll(worker.get());
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException ex) {
+				logger.error("Search worker failed", ex.getCause());
+			}
+		}
 		return results;
 	}
 
+	/**
+	 * @param workspace
+	 * 		Workspace being searched.
+	 * @param queries
+	 * 		Queries being searched with.
+	 *
+	 * @return Identity based set of JVM classes which may yield results for the given queries,
+	 * or {@code null} if all classes should be visited.
+	 */
+	@Nullable
+	private Set<JvmClassInfo> getJvmClassCandidates(@Nonnull Workspace workspace, @Nonnull List<Query> queries) {
+		// Only the current workspace is indexed.
+		if (workspace != workspaceManager.getCurrent())
+			return null;
+
+		// Only reference and string queries are indexed. If any other JVM query is present we need to visit everything.
+		Set<JvmClassInfo> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Query query : queries) {
+			Set<JvmClassInfo> queryCandidates;
+			if (query instanceof ReferenceQuery referenceQuery) {
+				ReferenceIndex index = getCurrentWorkspaceReferenceIndex();
+				queryCandidates = index == null ? null : index.getCandidates(referenceQuery);
+			} else if (query instanceof StringQuery stringQuery) {
+				// Check before getting the index so that we don't build it for queries it cannot help with.
+				StringIndex index = StringIndex.supports(stringQuery) ? getCurrentWorkspaceStringIndex() : null;
+				queryCandidates = index == null ? null : index.getCandidates(stringQuery);
+			} else if (query instanceof JvmClassQuery) {
+				queryCandidates = null;
+			} else {
+				continue;
+			}
+			if (queryCandidates == null)
+				return null;
+			candidates.addAll(queryCandidates);
+		}
+		return candidates;
+	}
+
 	@Nonnull
-	private static ResultSink getResultSink(@Nonnull Results results, @Nullable SearchFeedback feedback) {
+	private static ResultSink getResultSink(@Nonnull List<Result<?>> buffer, @Nonnull SearchFeedback feedback) {
 		return (path, value) -> {
 			Result<?> result = createResult(path, value);
-			if (feedback == null || feedback.doAcceptResult(result))
-				results.add(result);
+			if (feedback.doAcceptResult(result))
+				buffer.add(result);
 		};
 	}
 
@@ -218,4 +324,31 @@ public String getServiceId() {
 	public SearchServiceConfig getServiceConfig() {
 		return config;
 	}
+
+	/**
+	 * Visitation of a single item in the workspace.
+	 */
+	private interface Visit {
+		/**
+		 * @param sink
+		 * 		Sink to feed results into.
+		 */
+		void run(@Nonnull ResultSink sink);
+	}
+
+	private class ListenerHost implements WorkspaceCloseListener {
+		@Override
+		public void onWorkspaceClosed(@Nonnull Workspace workspace) {
+			synchronized (SearchService.this) {
+				if (currentWorkspaceReferenceIndex != null) {
+					currentWorkspaceReferenceIndex.close();
+					currentWorkspaceReferenceIndex = null;
+				}
+				if (currentWorkspaceStringIndex != null) {
+					currentWorkspaceStringIndex.close();
+					currentWorkspaceStringIndex = null;
+				}
+			}
+		}
+	}
 }
@@ -1,8 +1,11 @@
 package software.coley.recaf.services.search;
 
+import jakarta.annotation.Nonnull;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import software.coley.observables.ObservableBoolean;
 import software.coley.recaf.config.BasicConfigContainer;
+import software.coley.recaf.config.BasicConfigValue;
 import software.coley.recaf.config.ConfigGroups;
 import software.coley.recaf.services.ServiceConfig;
 
@@ -13,8 +16,32 @@
  */
 @ApplicationScoped
 public class SearchServiceConfig extends BasicConfigContainer implements ServiceConfig {
+	private final ObservableBoolean indexReferences = new ObservableBoolean(true);
+	private final ObservableBoolean indexStrings = new ObservableBoolean(true);
+
 	@Inject
 	public SearchServiceConfig() {
 		super(ConfigGroups.SERVICE_ANALYSIS, SearchService.SERVICE_ID + CONFIG_SUFFIX);
+		// Add values
+		addValue(new BasicConfigValue<>("index-references", boolean.class, indexReferences));
+		addValue(new BasicConfigValue<>("index-strings", boolean.class, indexStrings));
+	}
+
+	/**
+	 * @return {@code true} to maintain a {@link ReferenceIndex} for the current workspace,
+	 * allowing reference searches to skip classes which cannot contain results.
+	 */
+	@Nonnull
+	public ObservableBoolean getIndexReferences() {
+		return indexReferences;
+	}
+
+	/**
+	 * @return {@code true} to maintain a {@link StringIndex} for the current workspace,
+	 * allowing string searches to skip classes which cannot contain results.
+	 */
+	@Nonnull
+	public ObservableBoolean getIndexStrings() {
+		return indexStrings;
 	}
 }
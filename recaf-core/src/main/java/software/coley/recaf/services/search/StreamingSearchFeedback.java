@@ -0,0 +1,78 @@
+package software.coley.recaf.services.search;
+
+import jakarta.annotation.Nonnull;
+import software.coley.recaf.services.search.result.Result;
+import software.coley.recaf.services.search.result.Results;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Feedback that passes results to a consumer as soon as they are found, allowing results to be displayed while
+ * the search is still running. The search can be stopped early once a given number of results have been found.
+ * <br>
+ * The consumer is called from the search's worker threads, so it must be thread-safe.
+ *
+ * @author Matt Coley
+ */
+public class StreamingSearchFeedback extends CancellableSearchFeedback {
+	private final AtomicInteger acceptedCount = new AtomicInteger();
+	private final Consumer<Result<?>> resultConsumer;
+	private final int maxResults;
+	private final boolean collectResults;
+
+	/**
+	 * New feedback which streams all results to the consumer and does not collect them into the final {@link Results}.
+	 *
+	 * @param resultConsumer
+	 * 		Consumer to pass results to.
+	 */
+	public StreamingSearchFeedback(@Nonnull Consumer<Result<?>> resultConsumer) {
+		this(resultConsumer, Integer.MAX_VALUE, false);
+	}
+
+	/**
+	 * @param resultConsumer
+	 * 		Consumer to pass results to.
+	 * @param maxResults
+	 * 		Number of results to stop the search after.
+	 * @param collectResults
+	 * 		{@code true} to also collect streamed results into the final {@link Results} returned by the search.
+	 */
+	public StreamingSearchFeedback(@Nonnull Consumer<Result<?>> resultConsumer, int maxResults, boolean collectResults) {
+		if (maxResults < 1)
+			throw new IllegalArgumentException("Max results must be at least 1");
+		this.resultConsumer = resultConsumer;
+		this.maxResults = maxResults;
+		this.collectResults = collectResults;
+	}
+
+	/**
+	 * @return Number of results passed to the consumer.
+	 */
+	public int getAcceptedCount() {
+		return Math.min(acceptedCount.get(), maxResults);
+	}
+
+	/**
+	 * @return {@code true} when the search was stopped due to reaching the max number of results.
+	 */
+	public boolean isLimitReached() {
+		return acceptedCount.get() >= maxResults;
+	}
+
+	@Override
+	public boolean doAcceptResult(@Nonnull Result<?> result) {
+		if (hasRequestedCancellation())
+			return false;
+
+		// Results beyond the limit may still be found by other workers before they see the cancellation.
+		int count = acceptedCount.incrementAndGet();
+		if (count > maxResults)
+			return false;
+		if (count == maxResults)
+			cancel();
+		resultConsumer.accept(result);
+		return collectResults;
+	}
+}
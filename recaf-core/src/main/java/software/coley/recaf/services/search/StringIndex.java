@@ -0,0 +1,460 @@
+package software.coley.recaf.services.search;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import software.coley.recaf.analytics.logging.Logging;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.services.search.match.StringPredicate;
+import software.coley.recaf.services.search.query.StringQuery;
+import software.coley.recaf.util.threading.ThreadUtil;
+import software.coley.recaf.workspace.model.Workspace;
+import software.coley.recaf.workspace.model.WorkspaceModificationListener;
+import software.coley.recaf.workspace.model.bundle.JvmClassBundle;
+import software.coley.recaf.workspace.model.resource.ResourceJvmClassListener;
+import software.coley.recaf.workspace.model.resource.WorkspaceResource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+import static software.coley.recaf.services.search.match.StringPredicateProvider.*;
+
+/**
+ * Trigram index of the strings in classes, mapping each sequence of three characters to the classes containing it.
+ * Used to limit {@link StringQuery} searches to classes which contain every trigram of the text being searched for.
+ * <br>
+ * Strings are indexed in lower-case form, so that both case-sensitive and case-insensitive predicates can be served
+ * by the same posting lists. The index is built in parallel when created, and is kept up-to-date with changes to the
+ * workspace's resources.
+ *
+ * @author Matt Coley
+ * @see SearchService#getCurrentWorkspaceStringIndex()
+ */
+public class StringIndex implements ResourceJvmClassListener, WorkspaceModificationListener {
+	private static final Logger logger = Logging.get(StringIndex.class);
+	private static final int GRAM_SIZE = 3;
+	private static final String ESCAPED_LITERALS = ".[]()*+?^$|\\/-";
+	private final Map<Long, Posting> trigramToClasses = new HashMap<>();
+	private final Map<JvmClassInfo, IndexedClass> classToEntry = new IdentityHashMap<>();
+	private final Map<Integer, JvmClassInfo> idToClass = new HashMap<>();
+	private final Set<JvmClassInfo> unindexedClasses = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Workspace workspace;
+	private final ExecutorService threadPool;
+	private int nextId;
+
+	/**
+	 * @param workspace
+	 * 		Workspace to index.
+	 * @param threadPool
+	 * 		Pool to index classes on.
+	 */
+	public StringIndex(@Nonnull Workspace workspace, @Nonnull ExecutorService threadPool) {
+		this.workspace = workspace;
+		this.threadPool = threadPool;
+
+		// Register listeners before building so that no changes are missed while the index is being built.
+		workspace.addWorkspaceModificationListener(this);
+		List<WorkspaceResource> resources = workspace.getAllResources(false);
+		for (WorkspaceResource resource : resources)
+			resource.addResourceJvmClassListener(this);
+
+		long start = System.currentTimeMillis();
+		for (WorkspaceResource resource : resources)
+			index(resource);
+		logger.debug("Built string index of {} classes ({} trigrams) in {}ms",
+				classToEntry.size(), trigramToClasses.size(), System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Removes the index's listeners from the workspace.
+	 */
+	public void close() {
+		workspace.removeWorkspaceModificationListener(this);
+		for (WorkspaceResource resource : workspace.getAllResources(false))
+			resource.removeResourceJvmClassListener(this);
+		synchronized (this) {
+			trigramToClasses.clear();
+			classToEntry.clear();
+			idToClass.clear();
+			unindexedClasses.clear();
+		}
+	}
+
+	/**
+	 * @param query
+	 * 		Query to check.
+	 *
+	 * @return {@code true} when the query's predicate requires some text of at least three characters to be present
+	 * in a matched string, allowing {@link #getCandidates(StringQuery)} to narrow down which classes are searched.
+	 */
+	public static boolean supports(@Nonnull StringQuery query) {
+		return queryTrigrams(query) != null;
+	}
+
+	/**
+	 * @param query
+	 * 		Query to find candidate classes for.
+	 *
+	 * @return Identity based set of classes which may contain a string matched by the query.
+	 * Classes not in this set cannot yield any results for the query.
+	 * {@code null} when the query's predicate cannot be narrowed down by the index, see {@link #supports(StringQuery)}.
+	 */
+	@Nullable
+	public Set<JvmClassInfo> getCandidates(@Nonnull StringQuery query) {
+		long[] trigrams = queryTrigrams(query);
+		if (trigrams == null)
+			return null;
+
+		Set<JvmClassInfo> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+		synchronized (this) {
+			// Classes that could not be indexed are always candidates, so they're handled the same as without an index.
+			candidates.addAll(unindexedClasses);
+
+			List<Posting> postings = new ArrayList<>(trigrams.length);
+			for (long trigram : trigrams) {
+				Posting posting = trigramToClasses.get(trigram);
+				if (posting == null)
+					return candidates;
+				postings.add(posting);
+			}
+
+			// Intersect starting from the smallest list, so the working set is as small as possible from the start.
+			postings.sort(Comparator.comparingInt(Posting::size));
+			int[] ids = postings.get(0).toArray();
+			int count = ids.length;
+			for (int i = 1; i < postings.size() && count > 0; i++) {
+				Posting posting = postings.get(i);
+				int kept = 0;
+				for (int j = 0; j < count; j++)
+					if (posting.contains(ids[j]))
+						ids[kept++] = ids[j];
+				count = kept;
+			}
+			for (int i = 0; i < count; i++)
+				candidates.add(idToClass.get(ids[i]));
+		}
+		return candidates;
+	}
+
+	/**
+	 * @return Number of classes in the index.
+	 */
+	public synchronized int size() {
+		return classToEntry.size();
+	}
+
+	/**
+	 * Indexes all classes in the given resource, collecting strings in parallel.
+	 *
+	 * @param resource
+	 * 		Resource to index.
+	 */
+	private void index(@Nonnull WorkspaceResource resource) {
+		record Collected(JvmClassBundle bundle, JvmClassInfo classInfo, long[] trigrams) {}
+		Queue<Collected> collected = new ConcurrentLinkedQueue<>();
+		ExecutorService service = ThreadUtil.phasingService(threadPool);
+		resource.jvmClassBundleStream().forEach(bundle -> {
+			for (JvmClassInfo classInfo : bundle.values())
+				service.submit(() -> collected.add(new Collected(bundle, classInfo, collect(classInfo))));
+		});
+		ThreadUtil.blockUntilComplete(service);
+
+		synchronized (this) {
+			for (Collected result : collected) {
+				// Skip classes that were replaced or removed while we were collecting strings.
+				// Their replacements will have been handled by the listener calls.
+				JvmClassInfo classInfo = result.classInfo();
+				if (result.bundle().get(classInfo.getName()) == classInfo)
+					add(classInfo, result.trigrams());
+			}
+		}
+	}
+
+	/**
+	 * @param classInfo
+	 * 		Class to collect from.
+	 *
+	 * @return Sorted trigrams of all strings in the class, or {@code null} if the class could not be visited.
+	 */
+	@Nullable
+	private static long[] collect(@Nonnull JvmClassInfo classInfo) {
+		try {
+			Set<Long> trigrams = new HashSet<>();
+			for (String string : StringQuery.collectStrings(classInfo)) {
+				// Case-insensitive predicates compare against 'toLowerCase()' which is not always the same as
+				// lowering each character on its own, so we index both forms when they differ.
+				String folded = fold(string);
+				addTrigrams(trigrams, folded);
+				String foldedLower = fold(string.toLowerCase());
+				if (!foldedLower.equals(folded))
+					addTrigrams(trigrams, foldedLower);
+			}
+			long[] array = new long[trigrams.size()];
+			int i = 0;
+			for (long trigram : trigrams)
+				array[i++] = trigram;
+			Arrays.sort(array);
+			return array;
+		} catch (Throwable t) {
+			logger.debug("Failed to collect strings of '{}', class will not be indexed", classInfo.getName(), t);
+			return null;
+		}
+	}
+
+	private synchronized void add(@Nonnull JvmClassInfo classInfo, @Nullable long[] trigrams) {
+		if (trigrams == null) {
+			unindexedClasses.add(classInfo);
+			return;
+		}
+		if (classToEntry.containsKey(classInfo))
+			return;
+
+		// IDs are always increasing, so appending keeps each posting list sorted.
+		int id = nextId++;
+		classToEntry.put(classInfo, new IndexedClass(id, trigrams));
+		idToClass.put(id, classInfo);
+		for (long trigram : trigrams)
+			trigramToClasses.computeIfAbsent(trigram, k -> new Posting()).add(id);
+	}
+
+	private synchronized void remove(@Nonnull JvmClassInfo classInfo) {
+		unindexedClasses.remove(classInfo);
+		IndexedClass entry = classToEntry.remove(classInfo);
+		if (entry == null)
+			return;
+		idToClass.remove(entry.id());
+		for (long trigram : entry.trigrams()) {
+			Posting posting = trigramToClasses.get(trigram);
+			if (posting != null && posting.remove(entry.id()) && posting.size() == 0)
+				trigramToClasses.remove(trigram);
+		}
+	}
+
+	@Override
+	public void onNewClass(@Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo cls) {
+		add(cls, collect(cls));
+	}
+
+	@Override
+	public void onUpdateClass(@Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle,
+	                          @Nonnull JvmClassInfo oldCls, @Nonnull JvmClassInfo newCls) {
+		long[] trigrams = collect(newCls);
+		synchronized (this) {
+			remove(oldCls);
+			add(newCls, trigrams);
+		}
+	}
+
+	@Override
+	public void onRemoveClass(@Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo cls) {
+		remove(cls);
+	}
+
+	@Override
+	public void onAddLibrary(@Nonnull Workspace workspace, @Nonnull WorkspaceResource library) {
+		library.addResourceJvmClassListener(this);
+		index(library);
+	}
+
+	@Override
+	public void onRemoveLibrary(@Nonnull Workspace workspace, @Nonnull WorkspaceResource library) {
+		library.removeResourceJvmClassListener(this);
+		library.jvmClassBundleStream().forEach(bundle -> bundle.values().forEach(this::remove));
+	}
+
+	/**
+	 * @param query
+	 * 		Query to get trigrams of.
+	 *
+	 * @return Trigrams which must all be present in a class for it to contain a match,
+	 * or {@code null} if no such trigrams can be determined for the query's predicate.
+	 */
+	@Nullable
+	private static long[] queryTrigrams(@Nonnull StringQuery query) {
+		List<String> literals = requiredLiterals(query.getPredicate());
+		if (literals == null)
+			return null;
+		Set<Long> trigrams = new HashSet<>();
+		for (String literal : literals)
+			addTrigrams(trigrams, fold(literal));
+		if (trigrams.isEmpty())
+			return null;
+		return trigrams.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	/**
+	 * @param predicate
+	 * 		Predicate to check.
+	 *
+	 * @return Text which must be present in any string the predicate matches,
+	 * or {@code null} if the predicate is not one of the known built-in matchers.
+	 */
+	@Nullable
+	private static List<String> requiredLiterals(@Nonnull StringPredicate predicate) {
+		String key = predicate.getKey();
+		if (key == null)
+			return null;
+		return switch (predicate.getId()) {
+			case KEY_EQUALS, KEY_CONTAINS, KEY_STARTS_WITH, KEY_ENDS_WITH, KEY_EQUALS_IGNORE_CASE -> List.of(key);
+			case KEY_CONTAINS_IGNORE_CASE, KEY_STARTS_WITH_IGNORE_CASE, KEY_ENDS_WITH_IGNORE_CASE -> List.of(key.toLowerCase());
+			case KEY_REGEX_PARTIAL, KEY_REFEX_FULL -> regexLiterals(key);
+			default -> null;
+		};
+	}
+
+	/**
+	 * Extracts runs of literal text from a pattern which any match must contain.
+	 * This is conservative, stopping at any construct which could change which text is required.
+	 *
+	 * @param regex
+	 * 		Pattern text.
+	 *
+	 * @return Literal text required by the pattern, or {@code null} if the pattern uses alternation or flags.
+	 */
+	@Nullable
+	static List<String> regexLiterals(@Nonnull String regex) {
+		// Alternation and inline flags can make any literal optional or change how it is matched.
+		if (regex.indexOf('|') >= 0 || regex.contains("(?"))
+			return null;
+
+		List<String> literals = new ArrayList<>();
+		StringBuilder run = new StringBuilder();
+		int depth = 0;
+		int length = regex.length();
+		scan:
+		for (int i = 0; i < length; i++) {
+			char c = regex.charAt(i);
+			char literal;
+			switch (c) {
+				case '\\' -> {
+					// Escaped meta-characters are literals. Anything else may be a class, back-reference, or character code.
+					if (i + 1 >= length || ESCAPED_LITERALS.indexOf(regex.charAt(i + 1)) < 0)
+						break scan;
+					literal = regex.charAt(++i);
+				}
+				case '[' -> {
+					// Character classes have their own nesting and escaping rules, so we stop here.
+					break scan;
+				}
+				case '{' -> {
+					// Skip over the quantifier bounds.
+					flush(run, literals);
+					int end = regex.indexOf('}', i);
+					if (end < 0)
+						break scan;
+					i = end;
+					continue;
+				}
+				case '(' -> {
+					// Group contents may be quantified after the group closes, so only top-level text is used.
+					flush(run, literals);
+					depth++;
+					continue;
+				}
+				case ')' -> {
+					flush(run, literals);
+					depth--;
+					continue;
+				}
+				case '.', '^', '$', '*', '+', '?' -> {
+					flush(run, literals);
+					continue;
+				}
+				default -> literal = c;
+			}
+			if (depth != 0)
+				continue;
+
+			// Check if the literal is quantified, in which case it may not be present at all,
+			// or is not followed directly by the next literal.
+			char next = i + 1 < length ? regex.charAt(i + 1) : 0;
+			if (next == '*' || next == '?' || next == '{') {
+				flush(run, literals);
+			} else {
+				run.append(literal);
+				if (next == '+')
+					flush(run, literals);
+			}
+		}
+		flush(run, literals);
+		return literals;
+	}
+
+	private static void flush(@Nonnull StringBuilder run, @Nonnull List<String> literals) {
+		if (!run.isEmpty()) {
+			literals.add(run.toString());
+			run.setLength(0);
+		}
+	}
+
+	@Nonnull
+	private static String fold(@Nonnull String text) {
+		// Same per-character folding as 'String.equalsIgnoreCase(...)', so pairs like 'ſ' and 's' fold alike.
+		char[] chars = text.toCharArray();
+		for (int i = 0; i < chars.length; i++)
+			chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+		return new String(chars);
+	}
+
+	private static void addTrigrams(@Nonnull Set<Long> trigrams, @Nonnull String text) {
+		for (int i = 0; i + GRAM_SIZE <= text.length(); i++)
+			trigrams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+	}
+
+	/**
+	 * Index entry of a class.
+	 *
+	 * @param id
+	 * 		Class ID used in posting lists.
+	 * @param trigrams
+	 * 		Trigrams of the class's strings.
+	 */
+	private record IndexedClass(int id, @Nonnull long[] trigrams) {}
+
+	/**
+	 * Sorted list of class IDs containing some trigram.
+	 */
+	private static class Posting {
+		private int[] ids = new int[4];
+		private int size;
+
+		private void add(int id) {
+			if (size == ids.length)
+				ids = Arrays.copyOf(ids, size * 2);
+			ids[size++] = id;
+		}
+
+		private boolean remove(int id) {
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			if (index < 0)
+				return false;
+			System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+			size--;
+			return true;
+		}
+
+		private boolean contains(int id) {
+			return Arrays.binarySearch(ids, 0, size, id) >= 0;
+		}
+
+		private int size() {
+			return size;
+		}
+
+		@Nonnull
+		private int[] toArray() {
+			return Arrays.copyOf(ids, size);
+		}
+	}
+}
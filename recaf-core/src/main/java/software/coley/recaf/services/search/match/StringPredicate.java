@@ -1,6 +1,7 @@
 package software.coley.recaf.services.search.match;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 
 import java.util.function.Predicate;
 
@@ -14,6 +15,7 @@ public class StringPredicate {
 	public static String TRANSLATION_PREFIX = "string.match.";
 	private final Predicate<String> delegate;
 	private final String id;
+	private final String key;
 
 	/**
 	 * @param id
@@ -22,8 +24,21 @@ public class StringPredicate {
 	 * 		Matcher predicate implementation.
 	 */
 	public StringPredicate(@Nonnull String id, @Nonnull Predicate<String> delegate) {
+		this(id, null, delegate);
+	}
+
+	/**
+	 * @param id
+	 * 		Predicate ID.
+	 * @param key
+	 * 		String the predicate matches against, if it is a single-parameter matcher.
+	 * @param delegate
+	 * 		Matcher predicate implementation.
+	 */
+	public StringPredicate(@Nonnull String id, @Nullable String key, @Nonnull Predicate<String> delegate) {
 		this.delegate = delegate;
 		this.id = id;
+		this.key = key;
 	}
 
 	/**
@@ -34,6 +49,14 @@ public String getId() {
 		return id;
 	}
 
+	/**
+	 * @return String the predicate matches against, or {@code null} if not created from a single-parameter matcher.
+	 */
+	@Nullable
+	public String getKey() {
+		return key;
+	}
+
 	/**
 	 * @return Translation key for predicate.
 	 */
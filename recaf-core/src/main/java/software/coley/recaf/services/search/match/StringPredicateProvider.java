@@ -274,7 +274,7 @@ public StringPredicate newFullRegexPredicate(@Nonnull String regex) {
 	public StringPredicate newBiStringPredicate(@Nonnull String id, @Nonnull String key) throws NoSuchElementException {
 		BiStringMatcher matcher = biStringMatchers.get(id);
 		if (matcher != null)
-			return new StringPredicate(id, target -> matcher.test(key, target));
+			return new StringPredicate(id, key, target -> matcher.test(key, target));
 		throw new NoSuchElementException("No such single-parameter matcher: " + id);
 	}
 
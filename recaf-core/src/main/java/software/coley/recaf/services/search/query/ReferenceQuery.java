@@ -28,6 +28,10 @@
 import software.coley.recaf.util.Types;
 import software.coley.recaf.util.visitors.IndexCountingMethodVisitor;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Reference search implementation.
  *
@@ -38,7 +42,7 @@ public class ReferenceQuery implements JvmClassQuery {
 	private final StringPredicate namePredicate;
 	private final StringPredicate descriptorPredicate;
 	private final boolean classRefOnly;
-
+	private final ClassReferences collector;
 
 	/**
 	 * Class reference query.
@@ -50,6 +54,7 @@ public ReferenceQuery(@Nonnull StringPredicate ownerPredicate) {
 		this.ownerPredicate = ownerPredicate;
 		this.namePredicate = null;
 		this.descriptorPredicate = null;
+		this.collector = null;
 		classRefOnly = true;
 	}
 
@@ -76,16 +81,83 @@ public ReferenceQuery(@Nullable StringPredicate ownerPredicate,
 		this.ownerPredicate = ownerPredicate;
 		this.namePredicate = namePredicate;
 		this.descriptorPredicate = descriptorPredicate;
+		this.collector = null;
+		classRefOnly = false;
+	}
+
+	/**
+	 * Collecting query, which records all references checked during visitation and never yields results.
+	 *
+	 * @param collector
+	 * 		References model to collect into.
+	 */
+	private ReferenceQuery(@Nonnull ClassReferences collector) {
+		this.ownerPredicate = null;
+		this.namePredicate = null;
+		this.descriptorPredicate = null;
+		this.collector = collector;
 		classRefOnly = false;
 	}
 
+	/**
+	 * @param classInfo
+	 * 		Class to collect references of.
+	 *
+	 * @return All class and member references that a reference query would check against in the given class.
+	 * A query can only yield results in the class if it {@link #matchesClassReference(String) matches} one of them.
+	 */
+	@Nonnull
+	public static ClassReferences collectReferences(@Nonnull JvmClassInfo classInfo) {
+		ClassReferences references = new ClassReferences(new HashSet<>(), new HashSet<>());
+		ReferenceQuery query = new ReferenceQuery(references);
+		query.visitor(null).visit((path, value) -> {}, new ClassPathNode(classInfo), classInfo);
+		return references.unmodifiable();
+	}
+
+	/**
+	 * @return {@code true} when this query matches only against class references.
+	 * {@code false} when it matches only against member references.
+	 */
+	public boolean isClassReferenceQuery() {
+		return classRefOnly;
+	}
+
+	/**
+	 * @param className
+	 * 		Referenced class name.
+	 *
+	 * @return {@code true} when this query matches a reference to the given class.
+	 */
+	public boolean matchesClassReference(@Nonnull String className) {
+		return collector == null && isClassRefMatch(className);
+	}
+
+	/**
+	 * @param reference
+	 * 		Referenced member.
+	 *
+	 * @return {@code true} when this query matches a reference to the given member.
+	 */
+	public boolean matchesMemberReference(@Nonnull MemberReferenceResult.MemberReference reference) {
+		return collector == null && isMemberRefMatch(reference.getOwner(), reference.getName(), reference.getDesc());
+	}
+
 	private boolean isClassRefMatch(@Nullable String className) {
+		if (collector != null) {
+			if (className != null) collector.classReferences().add(className);
+			return false;
+		}
 		if (!classRefOnly || className == null || ownerPredicate == null) return false;
 		return StringUtil.isNullOrEmpty(className) || ownerPredicate.match(className);
 	}
 
 	//@SuppressWarnings("DataFlowIssue") // The class-ref check addresses this
 	private boolean isMemberRefMatch(@Nullable String owner, @Nullable String name, @Nullable String desc) {
+		if (collector != null) {
+			if (owner != null && name != null && desc != null)
+				collector.memberReferences().add(mref(owner, name, desc));
+			return false;
+		}
 		if (classRefOnly) return false;
 
 		// The parameters are null if we only are searching against a type.
@@ -555,4 +627,20 @@ public void visitEnum(String name, String descriptor, String value) {
 				resultSink.accept(currentAnnoLocation, mref(owner, value, descriptor));
 		}
 	}
+
+	/**
+	 * Model of the references checked by reference queries in a single class.
+	 *
+	 * @param classReferences
+	 * 		Names of referenced classes.
+	 * @param memberReferences
+	 * 		Referenced members.
+	 */
+	public record ClassReferences(@Nonnull Set<String> classReferences,
+	                              @Nonnull Set<MemberReferenceResult.MemberReference> memberReferences) {
+		@Nonnull
+		private ClassReferences unmodifiable() {
+			return new ClassReferences(Collections.unmodifiableSet(classReferences), Collections.unmodifiableSet(memberReferences));
+		}
+	}
 }
@@ -3,11 +3,18 @@
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import software.coley.recaf.info.FileInfo;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.path.ClassPathNode;
 import software.coley.recaf.path.FilePathNode;
 import software.coley.recaf.services.search.FileSearchVisitor;
+import software.coley.recaf.services.search.JvmClassSearchVisitor;
 import software.coley.recaf.services.search.ResultSink;
 import software.coley.recaf.services.search.match.StringPredicate;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * String search implementation.
  *
@@ -15,6 +22,7 @@
  */
 public class StringQuery extends AbstractValueQuery {
 	private final StringPredicate predicate;
+	private final Set<String> collector;
 
 	/**
 	 * @param predicate
@@ -22,12 +30,52 @@ public class StringQuery extends AbstractValueQuery {
 	 */
 	public StringQuery(@Nonnull StringPredicate predicate) {
 		this.predicate = predicate;
+		this.collector = null;
+	}
+
+	/**
+	 * Collecting query, which records all strings checked during visitation and never yields results.
+	 *
+	 * @param collector
+	 * 		Set to collect strings into.
+	 */
+	private StringQuery(@Nonnull Set<String> collector) {
+		this.predicate = null;
+		this.collector = collector;
+	}
+
+	/**
+	 * @param classInfo
+	 * 		Class to collect strings of.
+	 *
+	 * @return All strings that a string query would check against in the given class.
+	 * This includes {@code ldc} constants, field default values, and annotation values.
+	 */
+	@Nonnull
+	public static Set<String> collectStrings(@Nonnull JvmClassInfo classInfo) {
+		Set<String> strings = new HashSet<>();
+		StringQuery query = new StringQuery(strings);
+		query.visitor((JvmClassSearchVisitor) null).visit((path, value) -> {}, new ClassPathNode(classInfo), classInfo);
+		return Collections.unmodifiableSet(strings);
+	}
+
+	/**
+	 * @return String matching predicate.
+	 */
+	@Nonnull
+	public StringPredicate getPredicate() {
+		return predicate;
 	}
 
 	@Override
 	protected boolean isMatch(Object value) {
-		if (value instanceof String text)
+		if (value instanceof String text) {
+			if (collector != null) {
+				collector.add(text);
+				return false;
+			}
 			return predicate.match(text);
+		}
 		return false;
 	}
 
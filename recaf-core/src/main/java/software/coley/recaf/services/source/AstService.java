@@ -7,25 +7,45 @@
 import org.openrewrite.java.internal.JavaTypeCache;
 import software.coley.collections.Unchecked;
 import software.coley.recaf.cdi.WorkspaceScoped;
+import software.coley.recaf.info.AndroidClassInfo;
 import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.path.ClassPathNode;
 import software.coley.recaf.services.Service;
 import software.coley.recaf.util.ReflectUtil;
 import software.coley.recaf.workspace.model.Workspace;
+import software.coley.recaf.workspace.model.WorkspaceModificationListener;
+import software.coley.recaf.workspace.model.bundle.AndroidClassBundle;
+import software.coley.recaf.workspace.model.bundle.JvmClassBundle;
+import software.coley.recaf.workspace.model.resource.ResourceAndroidClassListener;
+import software.coley.recaf.workspace.model.resource.ResourceJvmClassListener;
+import software.coley.recaf.workspace.model.resource.WorkspaceResource;
 
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for tracking shared data for AST parsing.
+ * <br>
+ * Parsers allocated by this service share two workspace scoped caches:
+ * <ul>
+ *     <li>The class-path of each target class, so re-opening a class does not need to look up its references again.</li>
+ *     <li>Attributed types of library classes <i>(Anything outside the primary resource)</i>, so that common types
+ *     are not mapped again by each parser. Types of primary resource classes may differ from their bytecode while
+ *     being edited, so they are kept in each parser's own cache.</li>
+ * </ul>
+ * Both are invalidated per class as classes in the workspace are added, updated, or removed.
  *
  * @author Matt Coley
  */
 @WorkspaceScoped
-public class AstService implements Service {
+public class AstService implements Service, WorkspaceModificationListener, ResourceJvmClassListener, ResourceAndroidClassListener {
 	public static final String ID = "ast";
+	private final Map<String, Classpath> classpathCache = new ConcurrentHashMap<>();
+	private final Map<String, Object> libraryTypeCache = new ConcurrentHashMap<>();
+	private final Map<String, Boolean> libraryTypeNames = new ConcurrentHashMap<>();
 	private final AstServiceConfig config;
-	private final JavaTypeCache javaTypeCache = new JavaTypeCacheExt();
 	private final Workspace workspace;
 
 	@Inject
@@ -33,6 +53,13 @@ public AstService(@Nonnull AstServiceConfig config,
 					  @Nonnull Workspace workspace) {
 		this.config = config;
 		this.workspace = workspace;
+
+		// Add listeners so when classes update we can invalidate cached data relating to them.
+		workspace.addWorkspaceModificationListener(this);
+		for (WorkspaceResource resource : workspace.getAllResources(false)) {
+			resource.addResourceJvmClassListener(this);
+			resource.addResourceAndroidClassListener(this);
+		}
 	}
 
 	// TODO: Expose code-formatting system, which we can use to post-process code in decompilers
@@ -49,21 +76,158 @@ public AstService(@Nonnull AstServiceConfig config,
 	 */
 	@Nonnull
 	public JavaParser newParser(@Nonnull JvmClassInfo target) {
+		JavaParser parser = JavaParser.fromJavaVersion()
+				.classpath(getClasspath(target))
+				.typeCache(new JavaTypeCacheExt())
+				.build();
+		return new DelegatingJavaParser(parser);
+	}
+
+	/**
+	 * @param target
+	 * 		Class to target.
+	 *
+	 * @return Bytecode of all classes referenced by the target class.
+	 */
+	@Nonnull
+	private byte[][] getClasspath(@Nonnull JvmClassInfo target) {
 		// Collect names of classes referenced.
 		Set<String> classNames = target.getReferencedClasses();
 
+		// Reuse the prior class-path if the references have not changed since.
+		// Changes to any referenced class will have removed the entry.
+		Classpath classpath = classpathCache.get(target.getName());
+		if (classpath != null && classpath.classNames().equals(classNames))
+			return classpath.classpath();
+
 		// Collect bytes of all referenced classes.
 		// For android classes, it is assumed 'asJvmClass()' will lazily convert to JVM classes.
-		byte[][] classpath = classNames.stream()
+		byte[][] bytecode = classNames.stream()
 				.map(workspace::findClass)
 				.filter(Objects::nonNull)
 				.map(path -> path.getValue().asJvmClass().getBytecode())
 				.toArray(byte[][]::new);
-		JavaParser parser = JavaParser.fromJavaVersion()
-				.classpath(classpath)
-				.typeCache(javaTypeCache)
-				.build();
-		return new DelegatingJavaParser(parser);
+		classpathCache.put(target.getName(), new Classpath(classNames, bytecode));
+		return bytecode;
+	}
+
+	/**
+	 * @param signature
+	 * 		Type signature.
+	 *
+	 * @return {@code true} when all types named in the signature are library classes.
+	 * {@code false} when any are in the primary resource, or are not in the workspace at all.
+	 */
+	private boolean isLibrarySignature(@Nonnull String signature) {
+		// Signatures are made up of qualified type names, separated by syntax characters such as:
+		//  java.util.List<java.lang.String>
+		//  java.lang.String{name=valueOf,return=java.lang.String,parameters=[int]}
+		int length = signature.length();
+		int start = -1;
+		for (int i = 0; i <= length; i++) {
+			char c = i < length ? signature.charAt(i) : ' ';
+			if (Character.isJavaIdentifierPart(c) || c == '.') {
+				if (start < 0) start = i;
+			} else if (start >= 0) {
+				String token = signature.substring(start, i);
+				start = -1;
+				if (!libraryTypeNames.computeIfAbsent(token, this::isLibraryToken))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param token
+	 * 		Name token from a type signature.
+	 *
+	 * @return {@code true} when the token names a class outside the primary resource, or is an unqualified
+	 * name not found in the workspace <i>(Such as {@code name} or {@code int} in signatures)</i>.
+	 * {@code false} when the token names a class in the primary resource, or is a qualified name not found
+	 * in the workspace.
+	 */
+	private boolean isLibraryToken(@Nonnull String token) {
+		ClassPathNode path = workspace.findClass(token.replace('.', '/'));
+		if (path == null)
+			return token.indexOf('.') < 0;
+
+		// Check the root resource, since the class may be in a resource embedded in the primary resource.
+		WorkspaceResource resource = path.getValueOfType(WorkspaceResource.class);
+		while (resource != null && resource.isEmbeddedResource())
+			resource = resource.getContainingResource();
+		return resource != workspace.getPrimaryResource();
+	}
+
+	/**
+	 * Removes cached data relating to the given class.
+	 *
+	 * @param name
+	 * 		Internal name of class that was added, updated, or removed.
+	 */
+	private void invalidate(@Nonnull String name) {
+		classpathCache.values().removeIf(classpath -> classpath.classNames().contains(name));
+
+		// Only signatures made up of library tokens are cached in the shared type cache, so if the
+		// class name was not previously recognized as one there is nothing else to remove.
+		String typeName = name.replace('/', '.');
+		if (Boolean.TRUE.equals(libraryTypeNames.remove(typeName)))
+			libraryTypeCache.keySet().removeIf(signature -> signature.contains(typeName));
+	}
+
+	/**
+	 * Removes all cached data.
+	 */
+	private void invalidateAll() {
+		classpathCache.clear();
+		libraryTypeNames.clear();
+		libraryTypeCache.clear();
+	}
+
+	@Override
+	public void onAddLibrary(@Nonnull Workspace workspace, @Nonnull WorkspaceResource library) {
+		library.addResourceJvmClassListener(this);
+		library.addResourceAndroidClassListener(this);
+		invalidateAll();
+	}
+
+	@Override
+	public void onRemoveLibrary(@Nonnull Workspace workspace, @Nonnull WorkspaceResource library) {
+		library.removeResourceJvmClassListener(this);
+		library.removeResourceAndroidClassListener(this);
+		invalidateAll();
+	}
+
+	@Override
+	public void onNewClass(@Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo cls) {
+		invalidate(cls.getName());
+	}
+
+	@Override
+	public void onUpdateClass(@Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle,
+							  @Nonnull JvmClassInfo oldCls, @Nonnull JvmClassInfo newCls) {
+		invalidate(newCls.getName());
+	}
+
+	@Override
+	public void onRemoveClass(@Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo cls) {
+		invalidate(cls.getName());
+	}
+
+	@Override
+	public void onNewClass(@Nonnull WorkspaceResource resource, @Nonnull AndroidClassBundle bundle, @Nonnull AndroidClassInfo cls) {
+		invalidate(cls.getName());
+	}
+
+	@Override
+	public void onUpdateClass(@Nonnull WorkspaceResource resource, @Nonnull AndroidClassBundle bundle,
+							  @Nonnull AndroidClassInfo oldCls, @Nonnull AndroidClassInfo newCls) {
+		invalidate(newCls.getName());
+	}
+
+	@Override
+	public void onRemoveClass(@Nonnull WorkspaceResource resource, @Nonnull AndroidClassBundle bundle, @Nonnull AndroidClassInfo cls) {
+		invalidate(cls.getName());
 	}
 
 	@Nonnull
@@ -78,11 +242,22 @@ public AstServiceConfig getServiceConfig() {
 		return config;
 	}
 
+	/**
+	 * @param classNames
+	 * 		Names of classes referenced by a target class.
+	 * @param classpath
+	 * 		Bytecode of the referenced classes found in the workspace.
+	 */
+	private record Classpath(@Nonnull Set<String> classNames, @Nonnull byte[][] classpath) {}
+
 	/**
 	 * Modified cache impl that does not compress keys.
 	 * For more memory cost, we get some additional performance.
+	 * <br>
+	 * Types of library classes are delegated to the service's shared cache. All other types are stored in the
+	 * parser's own cache, which is cleared when the parser is reset.
 	 */
-	private static class JavaTypeCacheExt extends JavaTypeCache {
+	private class JavaTypeCacheExt extends JavaTypeCache {
 		private final Map<Object, Object> internalCache;
 
 		@SuppressWarnings("unchecked")
@@ -94,12 +269,18 @@ private JavaTypeCacheExt() {
 		@Nullable
 		@SuppressWarnings("unchecked")
 		public <T> T get(@Nonnull String signature) {
-			return (T) internalCache.get(signature);
+			Object value = internalCache.get(signature);
+			if (value == null)
+				value = libraryTypeCache.get(signature);
+			return (T) value;
 		}
 
 		@Override
 		public void put(@Nonnull String signature, @Nonnull Object o) {
-			internalCache.put(signature, o);
+			if (isLibrarySignature(signature))
+				libraryTypeCache.put(signature, o);
+			else
+				internalCache.put(signature, o);
 		}
 	}
 }
@@ -12,6 +12,16 @@
 
 /**
  * Outlines the base JVM transformation contract.
+ * <p>
+ * Each transformer {@link #transform(JvmTransformerContext, Workspace, WorkspaceResource, JvmClassBundle, JvmClassInfo)
+ * transforms} every class before the next transformer starts, and {@link #dependencies() dependencies} always run
+ * before their dependants. By default a transformer is given one class at a time. Transformers which
+ * {@link #supportsConcurrentTransform() support concurrent transformation} are given multiple classes at once
+ * from different threads, and must then:
+ * <ul>
+ *     <li>Store any state shared across classes in a thread safe manner</li>
+ *     <li>Only modify the transformation state of the class they are given in the {@link JvmTransformerContext}</li>
+ * </ul>
  *
  * @author Matt Coley
  */
@@ -55,6 +65,14 @@ void transform(@Nonnull JvmTransformerContext context, @Nonnull Workspace worksp
 	               @Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle,
 	               @Nonnull JvmClassInfo classInfo) throws TransformationException;
 
+	/**
+	 * @return {@code true} when this transformer can transform multiple classes concurrently.
+	 * See the class documentation for the requirements this places on the implementation.
+	 */
+	default boolean supportsConcurrentTransform() {
+		return false;
+	}
+
 	/**
 	 * @return Name of the transformer.
 	 */
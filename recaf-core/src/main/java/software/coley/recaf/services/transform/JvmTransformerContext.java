@@ -14,13 +14,21 @@
 import software.coley.recaf.workspace.model.bundle.JvmClassBundle;
 import software.coley.recaf.workspace.model.resource.WorkspaceResource;
 
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Context for holding a number of JVM class transformers and shared state for transformation.
@@ -28,8 +36,11 @@
  * @author Matt Coley
  */
 public class JvmTransformerContext {
+	private static final int MAX_RETAINED_NODES = 1024;
 	private final Map<Class<? extends JvmClassTransformer>, JvmClassTransformer> transformerMap;
 	private final Map<String, JvmClassData> classData = new ConcurrentHashMap<>();
+	private final Set<JvmClassData> retainedNodes = new LinkedHashSet<>();
+	private final ThreadLocal<Set<JvmClassData>> taskClassData = ThreadLocal.withInitial(HashSet::new);
 	private final Workspace workspace;
 	private final WorkspaceResource resource;
 
@@ -75,32 +86,18 @@ protected Map<ClassPathNode, JvmClassInfo> buildChangeMap(@Nonnull InheritanceGr
 		Map<ClassPathNode, JvmClassInfo> map = new HashMap<>();
 		for (JvmClassData data : classData.values()) {
 			if (data.isDirty()) {
-				if (data.node != null) {
-					// Emit bytecode from the current node
-					ClassWriter writer = new WorkspaceClassWriter(inheritanceGraph, data.initialClass.getClassReader(), 0);
-					data.node.accept(writer);
-					byte[] modifiedBytes = writer.toByteArray();
+				// Emit bytecode from the current node if it has changes not yet written back
+				byte[] bytecode = data.getBytecode(() -> new WorkspaceClassWriter(inheritanceGraph, data.initialClass.getClassReader(), 0));
 
-					// Update output map
+				// Update output map if the bytecode is not the same as the initial state
+				if (!Arrays.equals(bytecode, data.initialClass.getBytecode())) {
 					JvmClassInfo modifiedClass = data.initialClass.toJvmClassBuilder()
-							.adaptFrom(modifiedBytes)
+							.adaptFrom(bytecode)
 							.build();
 					ClassPathNode classPath = resourcePath.child(data.bundle)
 							.child(modifiedClass.getPackageName())
 							.child(modifiedClass);
 					map.put(classPath, modifiedClass);
-				} else {
-					// Update output map if the bytecode is not the same as the initial state
-					byte[] bytecode = data.getBytecode();
-					if (!Arrays.equals(bytecode, data.initialClass.getBytecode())) {
-						JvmClassInfo modifiedClass = data.initialClass.toJvmClassBuilder()
-								.adaptFrom(bytecode)
-								.build();
-						ClassPathNode classPath = resourcePath.child(data.bundle)
-								.child(modifiedClass.getPackageName())
-								.child(modifiedClass);
-						map.put(classPath, modifiedClass);
-					}
 				}
 			}
 		}
@@ -111,6 +108,9 @@ protected Map<ClassPathNode, JvmClassInfo> buildChangeMap(@Nonnull InheritanceGr
 	 * Gets the current ASM node representation of the given class.
 	 * Transformers can update the <i>"current"</i> state of the node via
 	 * {@link #setNode(JvmClassBundle, JvmClassInfo, ClassNode)}.
+	 * <p>
+	 * The returned node may be modified in place, so it is kept as the current state of the class
+	 * until it is written back to bytecode.
 	 *
 	 * @param bundle
 	 * 		Bundle containing the class.
@@ -123,13 +123,15 @@ protected Map<ClassPathNode, JvmClassInfo> buildChangeMap(@Nonnull InheritanceGr
 	 */
 	@Nonnull
 	public ClassNode getNode(@Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo info) {
-		return getJvmClassData(bundle, info).getOrCreateNode();
+		return acquire(getJvmClassData(bundle, info)).getOrCreateNode();
 	}
 
 	/**
 	 * Gets the current bytecode of the given class.
 	 * Transformers can update the <i>"current"</i> state of the bytecode via
-	 * {@link #setBytecode(JvmClassBundle, JvmClassInfo, byte[])}.
+	 * {@link #setBytecode(JvmClassBundle, JvmClassInfo, byte[])}. If a node was handed out by
+	 * {@link #getNode(JvmClassBundle, JvmClassInfo)} or recorded via {@link #setNode(JvmClassBundle, JvmClassInfo, ClassNode)}
+	 * it is written back to bytecode first.
 	 *
 	 * @param bundle
 	 * 		Bundle containing the class.
@@ -142,7 +144,8 @@ public ClassNode getNode(@Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo i
 	 */
 	@Nonnull
 	public byte[] getBytecode(@Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo info) {
-		return getJvmClassData(bundle, info).getBytecode();
+		JvmClassData data = getJvmClassData(bundle, info);
+		return data.getBytecode(data::newWriter);
 	}
 
 	/**
@@ -160,7 +163,7 @@ public byte[] getBytecode(@Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo
 	 * @see #getNode(JvmClassBundle, JvmClassInfo)
 	 */
 	public void setNode(@Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo info, @Nonnull ClassNode node) {
-		getJvmClassData(bundle, info).setNode(node);
+		acquire(getJvmClassData(bundle, info)).setNode(node);
 	}
 
 	/**
@@ -191,8 +194,42 @@ public void setBytecode(@Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo in
 	 */
 	public void clear(@Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo info) {
 		JvmClassData data = getJvmClassData(bundle, info);
-		data.setBytecode(data.initialClass.getBytecode());
-		data.dirty = false;
+		synchronized (data) {
+			data.setBytecode(data.initialClass.getBytecode());
+			data.dirty = false;
+		}
+	}
+
+	/**
+	 * Signals that the current thread's transformation task is done with the nodes it has taken via
+	 * {@link #getNode(JvmClassBundle, JvmClassInfo)} or {@link #setNode(JvmClassBundle, JvmClassInfo, ClassNode)}.
+	 * Nodes no longer used by any task are kept as-is up to a limit, past which the least recently released ones are
+	 * written back to bytecode and then only kept softly reachable, so they can be collected under heap pressure.
+	 */
+	protected void releaseNodes() {
+		Set<JvmClassData> taskData = taskClassData.get();
+		taskClassData.remove();
+
+		// Track nodes no longer in use, evicting the oldest ones when we hold too many.
+		List<JvmClassData> evicted = null;
+		for (JvmClassData data : taskData) {
+			if (!data.release())
+				continue;
+			synchronized (retainedNodes) {
+				retainedNodes.remove(data);
+				retainedNodes.add(data);
+				Iterator<JvmClassData> it = retainedNodes.iterator();
+				while (retainedNodes.size() > MAX_RETAINED_NODES && it.hasNext()) {
+					if (evicted == null)
+						evicted = new ArrayList<>();
+					evicted.add(it.next());
+					it.remove();
+				}
+			}
+		}
+		if (evicted != null)
+			for (JvmClassData evictedData : evicted)
+				evictedData.evict();
 	}
 
 	/**
@@ -221,6 +258,19 @@ private JvmClassData getJvmClassData(@Nonnull JvmClassBundle bundle, @Nonnull Jv
 		return classData.computeIfAbsent(info.getName(), ignored -> new JvmClassData(bundle, info));
 	}
 
+	/**
+	 * @param data
+	 * 		Class data to record as used by the current thread's transformation task.
+	 *
+	 * @return Same class data.
+	 */
+	@Nonnull
+	private JvmClassData acquire(@Nonnull JvmClassData data) {
+		if (taskClassData.get().add(data))
+			data.acquire();
+		return data;
+	}
+
 	@Nonnull
 	private static Map<Class<? extends JvmClassTransformer>, JvmClassTransformer> buildMap(@Nonnull Collection<? extends JvmClassTransformer> transformers) {
 		Map<Class<? extends JvmClassTransformer>, JvmClassTransformer> map = new IdentityHashMap<>();
@@ -231,12 +281,20 @@ private static Map<Class<? extends JvmClassTransformer>, JvmClassTransformer> bu
 
 	/**
 	 * Container of per-class transformation state.
+	 * <p>
+	 * The class is held either as bytecode, or as a node which may have changes not yet written back to bytecode.
+	 * Since transformers can modify nodes in place, any node that has been handed out is written back before
+	 * it is dropped. Written back nodes are kept softly, so they can be reused by later transformers without
+	 * re-parsing the bytecode, unless the heap runs low.
 	 */
 	private static class JvmClassData {
 		private final JvmClassBundle bundle;
 		private final JvmClassInfo initialClass;
 		private byte[] bytecode;
-		private volatile ClassNode node;
+		private ClassNode node;
+		private SoftReference<ClassNode> releasedNode;
+		private boolean nodeModified;
+		private int users;
 		private boolean dirty;
 
 		/**
@@ -252,29 +310,42 @@ public JvmClassData(@Nonnull JvmClassBundle bundle, @Nonnull JvmClassInfo initia
 		}
 
 		/**
-		 * @return Node representation of the {@link #getBytecode() current bytecode}.
+		 * @return Node representation of the {@link #getBytecode(Supplier) current bytecode}.
 		 */
 		@Nonnull
-		public ClassNode getOrCreateNode() {
+		public synchronized ClassNode getOrCreateNode() {
+			if (node == null && releasedNode != null)
+				node = releasedNode.get();
 			if (node == null) {
-				synchronized (this) {
-					if (node == null) {
-						node = new ClassNode();
-						new ClassReader(bytecode).accept(node, 0);
-					}
-				}
+				node = new ClassNode();
+				new ClassReader(bytecode).accept(node, 0);
 			}
+			releasedNode = null;
+
+			// The caller may modify the node in place, so it must be written back before it can be dropped.
+			nodeModified = true;
 			return node;
 		}
 
 		/**
-		 * The current bytecode of the class as set by {@link JvmTransformerContext#setBytecode(JvmClassBundle, JvmClassInfo, byte[])}.
-		 * This value does not update when using {@link JvmTransformerContext#setNode(JvmClassBundle, JvmClassInfo, ClassNode)}.
+		 * The current bytecode of the class as set by {@link JvmTransformerContext#setBytecode(JvmClassBundle, JvmClassInfo, byte[])},
+		 * or as written from the current node.
+		 *
+		 * @param writerSupplier
+		 * 		Supplier of a writer to emit the node with, if the node may have changes not yet written back to bytecode.
 		 *
 		 * @return Current bytecode of the class.
 		 */
 		@Nonnull
-		public byte[] getBytecode() {
+		public synchronized byte[] getBytecode(@Nonnull Supplier<ClassWriter> writerSupplier) {
+			if (nodeModified) {
+				ClassWriter writer = writerSupplier.get();
+				node.accept(writer);
+				bytecode = writer.toByteArray();
+
+				// Tasks still using the node may continue to modify it
+				nodeModified = users > 0;
+			}
 			return bytecode;
 		}
 
@@ -282,8 +353,10 @@ public byte[] getBytecode() {
 		 * @param node
 		 * 		Current node representation to set for this class.
 		 */
-		public void setNode(@Nonnull ClassNode node) {
+		public synchronized void setNode(@Nonnull ClassNode node) {
 			this.node = node;
+			releasedNode = null;
+			nodeModified = true;
 			dirty = true;
 		}
 
@@ -291,16 +364,56 @@ public void setNode(@Nonnull ClassNode node) {
 		 * @param bytecode
 		 * 		Current bytecode to set for this class.
 		 */
-		public void setBytecode(@Nonnull byte[] bytecode) {
+		public synchronized void setBytecode(@Nonnull byte[] bytecode) {
 			this.bytecode = bytecode;
 			node = null; // Invalidate node state
+			releasedNode = null;
+			nodeModified = false;
 			dirty = true;
 		}
 
+		/**
+		 * Marks the node as used by another transformation task.
+		 */
+		public synchronized void acquire() {
+			users++;
+		}
+
+		/**
+		 * Marks the node as no longer used by one of its transformation tasks.
+		 *
+		 * @return {@code true} when no tasks use the node anymore, and it is still strongly held.
+		 */
+		public synchronized boolean release() {
+			if (users > 0)
+				users--;
+			return users == 0 && node != null;
+		}
+
+		/**
+		 * Writes back node changes to bytecode, and then only keeps the node softly.
+		 * Skipped if the node has been taken up again since it was last released.
+		 */
+		public synchronized void evict() {
+			if (users > 0 || node == null)
+				return;
+			getBytecode(this::newWriter);
+			releasedNode = new SoftReference<>(node);
+			node = null;
+		}
+
+		/**
+		 * @return Writer for emitting nodes of this class, without frame computation.
+		 */
+		@Nonnull
+		private ClassWriter newWriter() {
+			return new ClassWriter(initialClass.getClassReader(), 0);
+		}
+
 		/**
 		 * @return {@code true} when changes have been applied to this class.
 		 */
-		public boolean isDirty() {
+		public synchronized boolean isDirty() {
 			return dirty;
 		}
 	}
@@ -12,25 +12,34 @@
 import software.coley.recaf.path.PathNodes;
 import software.coley.recaf.path.ResourcePathNode;
 import software.coley.recaf.services.inheritance.InheritanceGraph;
+import software.coley.recaf.util.threading.ThreadPoolFactory;
+import software.coley.recaf.util.threading.ThreadUtil;
 import software.coley.recaf.workspace.model.Workspace;
 import software.coley.recaf.workspace.model.bundle.JvmClassBundle;
 import software.coley.recaf.workspace.model.resource.WorkspaceResource;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Applies transformations to workspaces.
+ * <p>
+ * Transformers are run in an order where their {@link JvmClassTransformer#dependencies()} come first, with each
+ * transformer visiting all classes before the next one starts. Transformers which
+ * {@link JvmClassTransformer#supportsConcurrentTransform() support concurrent transformation} visit the classes
+ * in parallel, while all others visit them one at a time.
  *
  * @author Matt Coley
  * @see TransformationManager
  */
 public class TransformationApplier {
 	private static final Logger logger = Logging.get(TransformationApplier.class);
+	private static final ExecutorService transformThreadPool = ThreadPoolFactory.newFixedThreadPool(TransformationApplierService.SERVICE_ID);
 	private final TransformationManager transformationManager;
 	private final InheritanceGraph inheritanceGraph;
 	private final Workspace workspace;
@@ -86,7 +95,7 @@ public TransformResult transformJvm(@Nonnull List<Class<? extends JvmClassTransf
 		TransformerQueue queue = buildQueue(transformerClasses);
 
 		// Map to hold transformation errors for each class:transformer
-		Map<ClassPathNode, Map<Class<? extends JvmClassTransformer>, Throwable>> transformJvmFailures = new HashMap<>();
+		Map<ClassPathNode, Map<Class<? extends JvmClassTransformer>, Throwable>> transformJvmFailures = new ConcurrentHashMap<>();
 
 		// Build the transformer context and apply all transformations in order
 		WorkspaceResource resource = workspace.getPrimaryResource();
@@ -102,25 +111,41 @@ public TransformResult transformJvm(@Nonnull List<Class<? extends JvmClassTransf
 				throw new TransformationException(message, t);
 			}
 		}
-		resource.jvmClassBundleStreamRecursive().forEach(bundle -> {
-			BundlePathNode bundlePathNode = resourcePath.child(bundle);
-			for (JvmClassTransformer transformer : queue.transformers) {
+		context.releaseNodes();
+		for (JvmClassTransformer transformer : queue.transformers) {
+			// Each transformer visits every class before the next one starts, so that transformers always see
+			// the complete results of the ones before them. Only transformers that opt in visit classes in parallel.
+			ExecutorService service = transformer.supportsConcurrentTransform() ?
+					ThreadUtil.phasingService(transformThreadPool) : null;
+			resource.jvmClassBundleStreamRecursive().forEach(bundle -> {
+				BundlePathNode bundlePathNode = resourcePath.child(bundle);
 				bundle.forEach(cls -> {
 					// Skip if the class does not pass the predicate
 					if (predicate != null && !predicate.shouldTransform(workspace, resource, bundle, cls))
 						return;
 
-					try {
-						transformer.transform(context, workspace, resource, bundle, cls);
-					} catch (Throwable t) {
-						logger.error("Transformer '{}' failed on class '{}'", transformer.name(), cls.getName(), t);
-						ClassPathNode path = bundlePathNode.child(cls.getPackageName()).child(cls);
-						var transformerToThrowable = transformJvmFailures.computeIfAbsent(path, p -> new HashMap<>());
-						transformerToThrowable.put(transformer.getClass(), t);
-					}
+					Runnable task = () -> {
+						try {
+							transformer.transform(context, workspace, resource, bundle, cls);
+						} catch (Throwable t) {
+							logger.error("Transformer '{}' failed on class '{}'", transformer.name(), cls.getName(), t);
+							ClassPathNode path = bundlePathNode.child(cls.getPackageName()).child(cls);
+							var transformerToThrowable = transformJvmFailures.computeIfAbsent(path, p -> new ConcurrentHashMap<>());
+							transformerToThrowable.put(transformer.getClass(), t);
+						}
+
+						// Allow the nodes taken by this task to be dropped until the next transformer needs them
+						context.releaseNodes();
+					};
+					if (service == null)
+						task.run();
+					else
+						service.submit(task);
 				});
-			}
-		});
+			});
+			if (service != null)
+				ThreadUtil.blockUntilComplete(service);
+		}
 
 		// Update the workspace contents with the transformation results
 		Map<ClassPathNode, JvmClassInfo> transformedJvmClasses = context.buildChangeMap(inheritanceGraph);
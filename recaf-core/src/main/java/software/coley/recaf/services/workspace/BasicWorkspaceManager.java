@@ -1,6 +1,7 @@
 package software.coley.recaf.services.workspace;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.Dependent;
 import jakarta.enterprise.inject.Produces;
@@ -11,6 +12,8 @@
 import software.coley.recaf.workspace.model.EmptyWorkspace;
 import software.coley.recaf.workspace.model.Workspace;
 import software.coley.recaf.workspace.model.WorkspaceModificationListener;
+import software.coley.recaf.workspace.model.bundle.BasicBundle;
+import software.coley.recaf.workspace.model.bundle.HistoryPolicy;
 import software.coley.recaf.workspace.model.resource.WorkspaceResource;
 
 import java.util.List;
@@ -34,6 +37,21 @@ public class BasicWorkspaceManager implements WorkspaceManager {
 	@Inject
 	public BasicWorkspaceManager(@Nonnull WorkspaceManagerConfig config) {
 		this.config = config;
+
+		// Apply history limits to libraries added to the workspace, and update the current workspace on config changes.
+		defaultModificationListeners.add(new WorkspaceModificationListener() {
+			@Override
+			public void onAddLibrary(@Nonnull Workspace workspace, @Nonnull WorkspaceResource library) {
+				applyHistoryPolicy(library);
+			}
+
+			@Override
+			public void onRemoveLibrary(@Nonnull Workspace workspace, @Nonnull WorkspaceResource library) {
+				// no-op
+			}
+		});
+		config.getMaxHistoryEntries().addChangeListener((ob, old, cur) -> applyHistoryPolicy(current));
+		config.getHistorySpillThresholdMb().addChangeListener((ob, old, cur) -> applyHistoryPolicy(current));
 	}
 
 	@Override
@@ -55,12 +73,40 @@ public void setCurrentIgnoringConditions(Workspace workspace) {
 		}
 		current = workspace;
 		if (workspace != null) {
+			applyHistoryPolicy(workspace);
 			defaultModificationListeners.forEach(workspace::addWorkspaceModificationListener);
 			Unchecked.checkedForEach(openListeners, listener -> listener.onWorkspaceOpened(workspace),
 					(listener, t) -> logger.error("Exception thrown by when opening workspace", t));
 		}
 	}
 
+	/**
+	 * Applies the configured history limits to all bundles in the given workspace.
+	 *
+	 * @param workspace
+	 * 		Workspace to update, or {@code null} for no-op.
+	 */
+	private void applyHistoryPolicy(@Nullable Workspace workspace) {
+		if (workspace == null)
+			return;
+		for (WorkspaceResource resource : workspace.getAllResources(false))
+			applyHistoryPolicy(resource);
+	}
+
+	/**
+	 * Applies the configured history limits to all bundles in the given resource.
+	 *
+	 * @param resource
+	 * 		Resource to update.
+	 */
+	private void applyHistoryPolicy(@Nonnull WorkspaceResource resource) {
+		HistoryPolicy policy = config.getHistoryPolicy();
+		resource.bundleStreamRecursive().forEach(bundle -> {
+			if (bundle instanceof BasicBundle<?> basicBundle)
+				basicBundle.setHistoryPolicy(policy);
+		});
+	}
+
 	@Nonnull
 	@Override
 	public List<WorkspaceCloseCondition> getWorkspaceCloseConditions() {
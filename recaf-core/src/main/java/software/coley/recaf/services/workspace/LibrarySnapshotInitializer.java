@@ -0,0 +1,33 @@
+package software.coley.recaf.services.workspace;
+
+import jakarta.annotation.Nonnull;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import software.coley.recaf.cdi.EagerInitialization;
+import software.coley.recaf.services.file.RecafDirectoriesConfig;
+import software.coley.recaf.util.TestEnvironment;
+import software.coley.recaf.workspace.model.resource.AndroidApiResource;
+import software.coley.recaf.workspace.model.resource.RuntimeWorkspaceResource;
+
+import java.nio.file.Path;
+
+/**
+ * Points the shared {@link RuntimeWorkspaceResource} and {@link AndroidApiResource} to a snapshot directory
+ * in the Recaf directory, so that the headers of their classes can be persisted between sessions.
+ *
+ * @author Matt Coley
+ */
+@EagerInitialization
+@ApplicationScoped
+public class LibrarySnapshotInitializer {
+	@Inject
+	public LibrarySnapshotInitializer(@Nonnull RecafDirectoriesConfig directoriesConfig) {
+		// Skip persisting snapshots in test environment
+		if (TestEnvironment.isTestEnv())
+			return;
+
+		Path directory = directoriesConfig.getBaseDirectory().resolve("cache").resolve("snapshots");
+		RuntimeWorkspaceResource.initSnapshot(directory);
+		AndroidApiResource.initSnapshot(directory);
+	}
+}
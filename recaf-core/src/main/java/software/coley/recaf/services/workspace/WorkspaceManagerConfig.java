@@ -1,10 +1,14 @@
 package software.coley.recaf.services.workspace;
 
+import jakarta.annotation.Nonnull;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import software.coley.observables.ObservableInteger;
 import software.coley.recaf.config.BasicConfigContainer;
+import software.coley.recaf.config.BasicConfigValue;
 import software.coley.recaf.config.ConfigGroups;
 import software.coley.recaf.services.ServiceConfig;
+import software.coley.recaf.workspace.model.bundle.HistoryPolicy;
 
 /**
  * Config for {@link WorkspaceManager}
@@ -13,8 +17,40 @@
  */
 @ApplicationScoped
 public class WorkspaceManagerConfig extends BasicConfigContainer implements ServiceConfig {
+	private final ObservableInteger maxHistoryEntries = new ObservableInteger(0);
+	private final ObservableInteger historySpillThresholdMb = new ObservableInteger(0);
+
 	@Inject
 	public WorkspaceManagerConfig() {
 		super(ConfigGroups.SERVICE_IO, WorkspaceManager.SERVICE_ID + CONFIG_SUFFIX);
+
+		addValue(new BasicConfigValue<>("max-history-entries", int.class, maxHistoryEntries));
+		addValue(new BasicConfigValue<>("history-spill-threshold-mb", int.class, historySpillThresholdMb));
+	}
+
+	/**
+	 * @return Max number of states to keep in the history of each workspace item. {@code 0} for no limit.
+	 * A value of {@code 1} acts as {@code 2}, since the initial and current states are always kept.
+	 */
+	@Nonnull
+	public ObservableInteger getMaxHistoryEntries() {
+		return maxHistoryEntries;
+	}
+
+	/**
+	 * @return Megabytes of compressed history to keep in memory per bundle, before moving further history to disk.
+	 * {@code 0} to always keep history in memory.
+	 */
+	@Nonnull
+	public ObservableInteger getHistorySpillThresholdMb() {
+		return historySpillThresholdMb;
+	}
+
+	/**
+	 * @return History policy to apply to bundles in opened workspaces.
+	 */
+	@Nonnull
+	public HistoryPolicy getHistoryPolicy() {
+		return new HistoryPolicy(maxHistoryEntries.getValue(), historySpillThresholdMb.getValue() * 1024L * 1024L);
 	}
-}
\ No newline at end of file
+}
@@ -6,7 +6,9 @@
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import software.coley.collections.Unchecked;
+import software.coley.lljzip.format.compression.ZipCompressions;
 import software.coley.lljzip.format.model.CentralDirectoryFileHeader;
+import software.coley.lljzip.format.model.LocalFileHeader;
 import software.coley.lljzip.format.model.ZipArchive;
 import software.coley.lljzip.util.ExtraFieldTime;
 import software.coley.lljzip.util.MemorySegmentUtil;
@@ -22,17 +24,23 @@
 import software.coley.recaf.util.io.ByteSource;
 import software.coley.recaf.util.io.ByteSources;
 import software.coley.recaf.util.io.LocalFileHeaderSource;
+import software.coley.recaf.util.threading.ThreadPoolFactory;
 import software.coley.recaf.workspace.model.bundle.*;
 import software.coley.recaf.workspace.model.resource.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.lang.foreign.MemorySegment;
 import java.net.URI;
 import java.net.URL;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
 
 /**
  * Basic implementation of the resource importer.
@@ -45,6 +53,7 @@ public class BasicResourceImporter implements ResourceImporter, Service {
 	private static final Logger logger = Logging.get(BasicResourceImporter.class);
 	private final InfoImporter infoImporter;
 	private final ResourceImporterConfig config;
+	private final ExecutorService zipReadPool = ThreadPoolFactory.newFixedThreadPool(SERVICE_ID + "-zip");
 
 	@Inject
 	public BasicResourceImporter(@Nonnull InfoImporter infoImporter,
@@ -153,60 +162,34 @@ private WorkspaceFileResource handleZip(WorkspaceFileResourceBuilder builder, Zi
 			ZipPrefixDataProperty.set(zipInfo, MemorySegmentUtil.toByteArray(prefixData));
 		}
 
-		// Build model from the contained files in the ZIP
-		archive.getLocalFiles().forEach(header -> {
-			LocalFileHeaderSource headerSource = new LocalFileHeaderSource(header, isAndroid);
-			String entryName = header.getFileNameAsString();
-
-			// Skip directories. There is no such thing as a 'directory' entry in ZIP files.
-			// The only thing we can say is that if it ends with a '/' and has no data associated with it,
-			// then it is probably a directory.
-			if (entryName.endsWith("/") && Unchecked.getOr(headerSource::isEmpty, false))
-				return;
-
-			// Read the value of the entry to figure out how to handle adding it to the resource builder.
-			Info info;
+		// Build model from the contained files in the ZIP.
+		// Entries are decoded either in parallel or sequentially, but are always added in the order they appear
+		// in the archive so that duplicate entry handling behaves the same in both cases.
+		List<LocalFileHeader> headers = archive.getLocalFiles();
+		if (config.getParallelZipReading().getValue() && headers.size() > 1) {
+			List<Future<ReadEntry>> futures = new ArrayList<>(headers.size());
+			for (LocalFileHeader header : headers)
+				futures.add(zipReadPool.submit(() -> readEntry(header, isAndroid)));
 			try {
-				info = infoImporter.readInfo(entryName, headerSource);
-			} catch (IOException ex) {
-				logger.error("IO error reading ZIP entry '{}' - skipping", entryName, ex);
-				return;
-			}
-
-			// Record common entry attributes
-			ZipCompressionProperty.set(info, header.getCompressionMethod());
-			ExtraFieldTime.TimeWrapper extraTimes = ExtraFieldTime.read(header);
-			CentralDirectoryFileHeader centralHeader = header.getLinkedDirectoryFileHeader();
-			if (centralHeader != null) {
-				if (centralHeader.getFileCommentLength() > 0)
-					ZipCommentProperty.set(info, centralHeader.getFileCommentAsString());
-				if (extraTimes == null)
-					extraTimes = ExtraFieldTime.read(centralHeader);
-			}
-			if (extraTimes != null) {
-				ZipCreationTimeProperty.set(info, extraTimes.getCreationMs());
-				ZipModificationTimeProperty.set(info, extraTimes.getModifyMs());
-				ZipAccessTimeProperty.set(info, extraTimes.getAccessMs());
-			}
-
-			// Skipping ZIP bombs
-			if (info.isFile() && info.asFile().isZipFile()) {
-				ZipFileInfo zipFile = info.asFile().asZipFile();
-				if (Arrays.equals(zipFile.getRawContent(), zipInfo.getRawContent())) {
-					logger.warn("Skip self-extracting ZIP bomb: {}", entryName);
-					return;
-				} else if (Arrays.stream(Thread.currentThread().getStackTrace())
-						.filter(trace -> trace.getMethodName().equals("handleZip"))
-						.count() > MAX_ZIP_DEPTH) {
-					logger.warn("Skip extracting embedded ZIP after {} levels: {}", MAX_ZIP_DEPTH, entryName);
-					return;
+				for (Future<ReadEntry> future : futures) {
+					ReadEntry entry = getEntry(future);
+					if (entry != null)
+						addEntry(classes, files, androidClassBundles, versionedJvmClassBundles, embeddedResources,
+								zipInfo, entry);
 				}
+			} finally {
+				// Don't leave decoding work running if we've bailed out early.
+				for (Future<ReadEntry> future : futures)
+					future.cancel(false);
 			}
-
-			// Add the info to the appropriate bundle
-			addInfo(classes, files, androidClassBundles, versionedJvmClassBundles, embeddedResources,
-					headerSource, entryName, info);
-		});
+		} else {
+			for (LocalFileHeader header : headers) {
+				ReadEntry entry = readEntry(header, isAndroid);
+				if (entry != null)
+					addEntry(classes, files, androidClassBundles, versionedJvmClassBundles, embeddedResources,
+							zipInfo, entry);
+			}
+		}
 		return builder
 				.withJvmClassBundle(classes)
 				.withAndroidClassBundles(androidClassBundles)
@@ -217,6 +200,135 @@ private WorkspaceFileResource handleZip(WorkspaceFileResourceBuilder builder, Zi
 				.build();
 	}
 
+	/**
+	 * Records the compressed data of a ZIP entry, so that it can be copied as-is when exporting if the entry
+	 * is not modified. Android archives are skipped as their entries may not match their declared compression.
+	 *
+	 * @param info
+	 * 		Info read from the entry.
+	 * @param header
+	 * 		ZIP entry header.
+	 * @param headerSource
+	 * 		Source of the entry's decompressed data.
+	 */
+	private static void recordOriginalData(@Nonnull Info info, @Nonnull LocalFileHeader header,
+	                                       @Nonnull LocalFileHeaderSource headerSource) {
+		int method = header.getCompressionMethod();
+		if (method != ZipCompressions.STORED && method != ZipCompressions.DEFLATED)
+			return;
+		MemorySegment compressedData = header.getFileData();
+		try {
+			// The recorded CRC and size are of the data we actually decoded, not what the headers claim.
+			MemorySegment data = headerSource.mmap();
+			if (compressedData.byteSize() > Integer.MAX_VALUE || data.byteSize() > Integer.MAX_VALUE)
+				return;
+			CRC32 crc = new CRC32();
+			crc.update(data.asByteBuffer());
+			ZipOriginalDataProperty.set(info, new ZipOriginalDataProperty.Data(method, crc.getValue(),
+					data.byteSize(), compressedData));
+		} catch (IOException ignored) {
+			// Should not occur since the content was already decoded, but if it does the entry is just recompressed.
+		}
+	}
+
+	/**
+	 * Decodes a ZIP entry into an info model. This does not modify any shared state, and is safe to call
+	 * from multiple threads at once.
+	 *
+	 * @param header
+	 * 		ZIP entry header.
+	 * @param isAndroid
+	 * 		Flag indicating the containing archive is an APK.
+	 *
+	 * @return Decoded entry, or {@code null} if the entry should be skipped.
+	 */
+	@Nullable
+	private ReadEntry readEntry(@Nonnull LocalFileHeader header, boolean isAndroid) {
+		LocalFileHeaderSource headerSource = new LocalFileHeaderSource(header, isAndroid);
+		String entryName = header.getFileNameAsString();
+
+		// Skip directories. There is no such thing as a 'directory' entry in ZIP files.
+		// The only thing we can say is that if it ends with a '/' and has no data associated with it,
+		// then it is probably a directory.
+		if (entryName.endsWith("/") && Unchecked.getOr(headerSource::isEmpty, false))
+			return null;
+
+		// Read the value of the entry to figure out how to handle adding it to the resource builder.
+		Info info;
+		try {
+			info = infoImporter.readInfo(entryName, headerSource);
+		} catch (IOException ex) {
+			logger.error("IO error reading ZIP entry '{}' - skipping", entryName, ex);
+			return null;
+		}
+
+		// Record common entry attributes
+		ZipCompressionProperty.set(info, header.getCompressionMethod());
+		if (!isAndroid && config.getKeepOriginalZipData().getValue())
+			recordOriginalData(info, header, headerSource);
+		ExtraFieldTime.TimeWrapper extraTimes = ExtraFieldTime.read(header);
+		CentralDirectoryFileHeader centralHeader = header.getLinkedDirectoryFileHeader();
+		if (centralHeader != null) {
+			if (centralHeader.getFileCommentLength() > 0)
+				ZipCommentProperty.set(info, centralHeader.getFileCommentAsString());
+			if (extraTimes == null)
+				extraTimes = ExtraFieldTime.read(centralHeader);
+		}
+		if (extraTimes != null) {
+			ZipCreationTimeProperty.set(info, extraTimes.getCreationMs());
+			ZipModificationTimeProperty.set(info, extraTimes.getModifyMs());
+			ZipAccessTimeProperty.set(info, extraTimes.getAccessMs());
+		}
+		return new ReadEntry(entryName, headerSource, info);
+	}
+
+	/**
+	 * Adds a decoded ZIP entry to the appropriate bundle. Must be called on the thread handling the containing ZIP.
+	 */
+	private void addEntry(BasicJvmClassBundle classes,
+	                      BasicFileBundle files,
+	                      Map<String, AndroidClassBundle> androidClassBundles,
+	                      NavigableMap<Integer, VersionedJvmClassBundle> versionedJvmClassBundles,
+	                      Map<String, WorkspaceFileResource> embeddedResources,
+	                      ZipFileInfo zipInfo,
+	                      ReadEntry entry) {
+		String entryName = entry.name();
+		Info info = entry.info();
+
+		// Skipping ZIP bombs
+		if (info.isFile() && info.asFile().isZipFile()) {
+			ZipFileInfo zipFile = info.asFile().asZipFile();
+			if (Arrays.equals(zipFile.getRawContent(), zipInfo.getRawContent())) {
+				logger.warn("Skip self-extracting ZIP bomb: {}", entryName);
+				return;
+			} else if (Arrays.stream(Thread.currentThread().getStackTrace())
+					.filter(trace -> trace.getMethodName().equals("handleZip"))
+					.count() > MAX_ZIP_DEPTH) {
+				logger.warn("Skip extracting embedded ZIP after {} levels: {}", MAX_ZIP_DEPTH, entryName);
+				return;
+			}
+		}
+
+		// Add the info to the appropriate bundle
+		addInfo(classes, files, androidClassBundles, versionedJvmClassBundles, embeddedResources,
+				entry.source(), entryName, info);
+	}
+
+	@Nullable
+	private static ReadEntry getEntry(@Nonnull Future<ReadEntry> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while reading ZIP entries");
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+			if (cause instanceof Error error) throw error;
+			throw new IOException("Failed reading ZIP entry", cause);
+		}
+	}
+
 	private WorkspaceDirectoryResource handleDirectory(WorkspaceResourceBuilder builder, Path directoryPath) throws IOException {
 		logger.info("Reading input from directory '{}'", directoryPath);
 		BasicJvmClassBundle classes = new BasicJvmClassBundle();
@@ -549,7 +661,7 @@ private WorkspaceResource handleModules(WorkspaceResourceBuilder builder, Module
 					ByteSource moduleFileSource = entry.getByteSource();
 					Info info;
 					try {
-						info = infoImporter.readInfo(moduleEntry.getFileName(), moduleFileSource);
+						info = readModulesEntry(moduleEntry.getFileName(), moduleFileSource);
 					} catch (IOException ex) {
 						logger.error("IO error reading modules entry '{}' - skipping", moduleEntry.getOriginalPath());
 						return;
@@ -574,6 +686,34 @@ private WorkspaceResource handleModules(WorkspaceResourceBuilder builder, Module
 				.build();
 	}
 
+	/**
+	 * Classes in the modules file are read lazily, since the file is large and only a small portion of the
+	 * classes within are usually looked at. The entry sources point into the mapped modules file, so the
+	 * content of classes that are never looked at is never copied onto the heap.
+	 *
+	 * @param fileName
+	 * 		Entry file name.
+	 * @param source
+	 * 		Entry content source.
+	 *
+	 * @return Read info.
+	 *
+	 * @throws IOException
+	 * 		When the entry could not be read.
+	 */
+	@Nonnull
+	private Info readModulesEntry(@Nonnull String fileName, @Nonnull ByteSource source) throws IOException {
+		if (fileName.endsWith(".class")) {
+			try {
+				return new LazyJvmClassInfo(source);
+			} catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+				// Not something ASM can read the header of, handle it as any other input.
+				logger.debug("Failed to lazily read modules class '{}', falling back to regular reading", fileName);
+			}
+		}
+		return infoImporter.readInfo(fileName, source);
+	}
+
 	@Nonnull
 	@Override
 	public WorkspaceResource importResource(@Nonnull ByteSource source) throws IOException {
@@ -626,6 +766,18 @@ public ResourceImporterConfig getServiceConfig() {
 		return config;
 	}
 
+	/**
+	 * Decoded ZIP entry, awaiting being added to a bundle.
+	 *
+	 * @param name
+	 * 		Entry name.
+	 * @param source
+	 * 		Entry content source.
+	 * @param info
+	 * 		Decoded entry info.
+	 */
+	private record ReadEntry(@Nonnull String name, @Nonnull ByteSource source, @Nonnull Info info) {}
+
 	private record PathAndName(@Nullable Path path, @Nonnull String name) {
 		@Nonnull
 		private static PathAndName fromString(@Nonnull String pathName) {
@@ -3,18 +3,27 @@
 import jakarta.annotation.Nonnull;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 
 /**
  * Export consumer to write to a given {@link Path}, either as a single file or as the root of a directory of items.
+ * <p>
+ * Single file content is written to a temporary file next to the path, which replaces the path on {@link #commit()}.
+ * This way an existing file at the path is left intact if the export fails.
  *
  * @author Matt Coley
  */
 public class PathWorkspaceExportConsumer implements WorkspaceExportConsumer {
 	private final Path path;
-	private boolean firstSingleWrite = true;
+	private Path tempPath;
+	private FileChannel channel;
 
 	/**
 	 * @param path
@@ -26,12 +35,26 @@ public PathWorkspaceExportConsumer(@Nonnull Path path) {
 
 	@Override
 	public void write(@Nonnull byte[] bytes) throws IOException {
-		if (firstSingleWrite) {
-			Files.write(path, bytes);
-			firstSingleWrite = false;
-		} else {
-			Files.write(path, bytes, StandardOpenOption.APPEND);
+		WritableByteChannel channel = openChannel();
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+	}
+
+	@Nonnull
+	@Override
+	public WritableByteChannel openChannel() throws IOException {
+		if (channel == null) {
+			Path directory = path.toAbsolutePath().getParent();
+			tempPath = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+			try {
+				channel = FileChannel.open(tempPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			} catch (IOException ex) {
+				deleteTemp(ex);
+				throw ex;
+			}
 		}
+		return channel;
 	}
 
 	@Override
@@ -45,6 +68,61 @@ public void writeRelative(@Nonnull String relativePath, @Nonnull byte[] bytes) t
 
 	@Override
 	public void commit() throws IOException {
-		// No-need to do anything
+		if (channel == null)
+			return;
+		try {
+			channel.close();
+			channel = null;
+			try {
+				Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException ex) {
+				Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+			tempPath = null;
+		} catch (IOException ex) {
+			abort(ex);
+			throw ex;
+		}
+	}
+
+	@Override
+	public void abort() throws IOException {
+		IOException ex = new IOException("Failed to discard partial export of: " + path);
+		abort(ex);
+		if (ex.getSuppressed().length > 0)
+			throw ex;
+	}
+
+	/**
+	 * Closes the channel if still open, and deletes the temporary file.
+	 *
+	 * @param ex
+	 * 		Exception to add any failures as suppressed exceptions to.
+	 */
+	private void abort(@Nonnull Exception ex) {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException closeEx) {
+				ex.addSuppressed(closeEx);
+			}
+			channel = null;
+		}
+		deleteTemp(ex);
+	}
+
+	/**
+	 * @param ex
+	 * 		Exception to add any failure of deleting the temporary file to as a suppressed exception.
+	 */
+	private void deleteTemp(@Nonnull Exception ex) {
+		if (tempPath == null)
+			return;
+		try {
+			Files.deleteIfExists(tempPath);
+		} catch (IOException deleteEx) {
+			ex.addSuppressed(deleteEx);
+		}
+		tempPath = null;
 	}
 }
@@ -14,6 +14,7 @@
 import software.coley.recaf.config.BasicConfigContainer;
 import software.coley.recaf.config.BasicConfigValue;
 import software.coley.recaf.config.ConfigGroups;
+import software.coley.recaf.info.properties.builtin.ZipOriginalDataProperty;
 import software.coley.recaf.services.ServiceConfig;
 
 /**
@@ -25,6 +26,8 @@
 public class ResourceImporterConfig extends BasicConfigContainer implements ServiceConfig {
 	private final ObservableObject<ZipStrategy> zipStrategy = new ObservableObject<>(ZipStrategy.JVM);
 	private final ObservableBoolean skipRevisitedCenToLocalLinks = new ObservableBoolean(true);
+	private final ObservableBoolean parallelZipReading = new ObservableBoolean(true);
+	private final ObservableBoolean keepOriginalZipData = new ObservableBoolean(false);
 
 	@Inject
 	public ResourceImporterConfig() {
@@ -32,6 +35,8 @@ public ResourceImporterConfig() {
 
 		addValue(new BasicConfigValue<>("zip-strategy", ZipStrategy.class, zipStrategy));
 		addValue(new BasicConfigValue<>("skip-revisited-cen-to-local-links", boolean.class, skipRevisitedCenToLocalLinks));
+		addValue(new BasicConfigValue<>("parallel-zip-reading", boolean.class, parallelZipReading));
+		addValue(new BasicConfigValue<>("keep-original-zip-data", boolean.class, keepOriginalZipData));
 	}
 
 	/**
@@ -55,6 +60,31 @@ public ObservableBoolean getSkipRevisitedCenToLocalLinks() {
 		return skipRevisitedCenToLocalLinks;
 	}
 
+	/**
+	 * Toggles decoding ZIP entries in parallel. Entries are still added to the resulting bundles in the order
+	 * they appear in the archive, so the result is the same either way. Enabled by default.
+	 *
+	 * @return {@code true} when ZIP entries are decoded in parallel.
+	 */
+	@Nonnull
+	public ObservableBoolean getParallelZipReading() {
+		return parallelZipReading;
+	}
+
+	/**
+	 * Toggles recording the original compressed data of ZIP entries, allowing unmodified entries to be copied
+	 * as-is when exporting instead of being compressed again. This keeps the imported archive's data in memory
+	 * for as long as the entries are in the workspace, so it is disabled by default.
+	 *
+	 * @return {@code true} when the original compressed data of ZIP entries is recorded.
+	 *
+	 * @see ZipOriginalDataProperty
+	 */
+	@Nonnull
+	public ObservableBoolean getKeepOriginalZipData() {
+		return keepOriginalZipData;
+	}
+
 	/**
 	 * @return Mapping of input bytes to a ZIP archive model.
 	 */
@@ -1,8 +1,10 @@
 package software.coley.recaf.services.workspace.io;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 
 import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * Outline of IO writing for {@link WorkspaceExporter} output.
@@ -22,6 +24,21 @@ public interface WorkspaceExportConsumer {
 	 */
 	void write(@Nonnull byte[] bytes) throws IOException;
 
+	/**
+	 * Called when writing content to a single given location, for consumers which can take content incrementally.
+	 * Content written to the channel is treated the same as content passed to {@link #write(byte[])}.
+	 * The channel is owned by the consumer, and should be closed by it on {@link #commit()} or {@link #abort()}.
+	 *
+	 * @return Channel to stream content into, or {@code null} when only {@link #write(byte[])} is supported.
+	 *
+	 * @throws IOException
+	 * 		When the channel cannot be opened.
+	 */
+	@Nullable
+	default WritableByteChannel openChannel() throws IOException {
+		return null;
+	}
+
 	/**
 	 * Called when writing content to a relative location based on the implementation.
 	 * This may be called multiple times for a given relative path before {@link #commit()} is invoked.
@@ -43,4 +60,15 @@ public interface WorkspaceExportConsumer {
 	 * 		When the content couldn't be committed.
 	 */
 	void commit() throws IOException;
+
+	/**
+	 * Called when the export process fails before {@link #commit()} is invoked.
+	 * Any resources held for writing should be released, and content written so far discarded where possible.
+	 *
+	 * @throws IOException
+	 * 		When the content couldn't be discarded.
+	 */
+	default void abort() throws IOException {
+		// no-op by default
+	}
 }
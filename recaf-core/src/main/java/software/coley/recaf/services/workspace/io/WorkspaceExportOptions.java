@@ -1,12 +1,14 @@
 package software.coley.recaf.services.workspace.io;
 
 import jakarta.annotation.Nonnull;
-import software.coley.collections.Unchecked;
+import jakarta.annotation.Nullable;
 import software.coley.recaf.info.*;
 import software.coley.recaf.info.properties.builtin.*;
-import software.coley.recaf.util.ZipCreationUtils;
+import software.coley.recaf.util.ParallelZipWriter;
+import software.coley.recaf.util.threading.ThreadPoolFactory;
 import software.coley.recaf.workspace.model.Workspace;
 import software.coley.recaf.workspace.model.bundle.AndroidClassBundle;
+import software.coley.recaf.workspace.model.bundle.FileBundle;
 import software.coley.recaf.workspace.model.bundle.VersionedJvmClassBundle;
 import software.coley.recaf.workspace.model.resource.WorkspaceFileResource;
 import software.coley.recaf.workspace.model.resource.WorkspaceResource;
@@ -15,10 +17,15 @@
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.DeflaterOutputStream;
 
 import static software.coley.lljzip.format.compression.ZipCompressions.DEFLATED;
@@ -30,6 +37,7 @@
  * @author Matt Coley
  */
 public class WorkspaceExportOptions {
+	private static final ExecutorService exportThreadPool = ThreadPoolFactory.newFixedThreadPool("workspace-export");
 	private final WorkspaceCompressType compressType;
 	private final WorkspaceOutputType outputType;
 	private final WorkspaceExportConsumer consumer;
@@ -88,14 +96,16 @@ public WorkspaceExporter create() {
 
 	/**
 	 * Basic implementation of {@link WorkspaceExporter} that pulls from the options defined here.
+	 * <p>
+	 * Only references to the contents of the workspace are collected before writing. When the consumer offers a
+	 * {@link WorkspaceExportConsumer#openChannel() channel}, archives are streamed into it so that the complete
+	 * output never needs to be held in memory.
+	 * <p>
+	 * Entries which are unmodified since they were imported from an archive have their original compressed data
+	 * copied into the output as-is, so only modified entries are compressed again.
 	 */
 	private class WorkspaceExporterImpl implements WorkspaceExporter {
-		private final Map<String, byte[]> contents = new TreeMap<>();
-		private final Map<String, Integer> compression = new HashMap<>();
-		private final Map<String, String> comments = new HashMap<>();
-		private final Map<String, Long> modifyTimes = new HashMap<>();
-		private final Map<String, Long> createTimes = new HashMap<>();
-		private final Map<String, Long> accessTimes = new HashMap<>();
+		private final Map<String, ExportEntry> contents = new TreeMap<>();
 		private byte[] prefix;
 
 		@Override
@@ -103,47 +113,120 @@ public void export(@Nonnull Workspace workspace) throws IOException {
 			populate(workspace);
 			switch (outputType) {
 				case FILE:
-					ZipCreationUtils.ZipBuilder zipBuilder = ZipCreationUtils.builder();
-					if (createZipDirEntries)
-						zipBuilder = zipBuilder.createDirectories();
-
-					// Final copy for lambda, write all contents to ZIP buffer
-					ZipCreationUtils.ZipBuilder finalZipBuilder = zipBuilder;
-					contents.forEach((name, content) -> {
-						// Cannot mirror exact compression type, so we'll just do binary "is this compressed or nah?"
-						boolean compress = compression.getOrDefault(name, STORED) > STORED;
-
-						// Other properties
-						String comment = comments.getOrDefault(name, null);
-						long modifyTime = modifyTimes.getOrDefault(name, -1L);
-						long createTime = createTimes.getOrDefault(name, -1L);
-						long accessTime = accessTimes.getOrDefault(name, -1L);
-
-						// Adding the entry
-						finalZipBuilder.add(name, content, compress, comment, createTime, modifyTime, accessTime);
-					});
-
-					// Write buffer to path
-					if (prefix != null) {
-						consumer.write(prefix);
-						consumer.write(zipBuilder.bytes());
+					WritableByteChannel channel = consumer.openChannel();
+					if (channel != null) {
+						// Stream the archive into the consumer, after any prefix data
+						try {
+							if (prefix != null) {
+								ByteBuffer prefixBuffer = ByteBuffer.wrap(prefix);
+								while (prefixBuffer.hasRemaining())
+									channel.write(prefixBuffer);
+							}
+							writeZip(channel, contents, createZipDirEntries);
+						} catch (IOException | RuntimeException ex) {
+							// The consumer closes the channel on commit, which will not happen if writing fails.
+							try {
+								consumer.abort();
+							} catch (IOException abortEx) {
+								ex.addSuppressed(abortEx);
+							}
+							throw ex;
+						}
 					} else {
-						consumer.write(zipBuilder.bytes());
+						// The consumer only takes complete content, so the archive needs to be built in memory
+						ByteArrayOutputStream out = new ByteArrayOutputStream();
+						writeZip(Channels.newChannel(out), contents, createZipDirEntries);
+						if (prefix != null)
+							consumer.write(prefix);
+						consumer.write(out.toByteArray());
 					}
 					consumer.commit();
 					break;
 				case DIRECTORY:
-					for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+					for (Map.Entry<String, ExportEntry> entry : contents.entrySet()) {
 						// Write everything relative to the path
 						String relativePath = entry.getKey();
-						byte[] content = entry.getValue();
-						consumer.writeRelative(relativePath, content);
+						ExportEntry content = entry.getValue();
+						if (content.embeddedResource() != null) {
+							ByteArrayOutputStream out = new ByteArrayOutputStream();
+							writeEmbedded(Channels.newChannel(out), content.embeddedResource());
+							consumer.writeRelative(relativePath, out.toByteArray());
+						} else {
+							consumer.writeRelative(relativePath, content.content());
+						}
 					}
 					consumer.commit();
 					break;
 			}
 		}
 
+		/**
+		 * @param channel
+		 * 		Channel to write the archive to.
+		 * @param entries
+		 * 		Entries to write into the archive.
+		 * @param createDirEntries
+		 *        {@code true} to create directory entries in the archive.
+		 *
+		 * @throws IOException
+		 * 		When the archive cannot be written.
+		 */
+		private void writeZip(@Nonnull WritableByteChannel channel, @Nonnull Map<String, ExportEntry> entries,
+		                      boolean createDirEntries) throws IOException {
+			ParallelZipWriter writer = new ParallelZipWriter(channel, exportThreadPool);
+			if (createDirEntries)
+				writer.createDirectories();
+			for (Map.Entry<String, ExportEntry> mapEntry : entries.entrySet()) {
+				String name = mapEntry.getKey();
+				ExportEntry entry = mapEntry.getValue();
+				Info info = entry.info();
+
+				// Original compressed data can be used only if the content still matches what it decompresses to.
+				ZipOriginalDataProperty.Data original = entry.original();
+				if (original != null && (entry.content() == null || !original.matches(entry.content())))
+					original = null;
+
+				// Cannot mirror exact compression type, so we'll just do binary "is this compressed or nah?"
+				boolean compress = getCompression(info, original) > STORED;
+
+				// Other properties
+				String comment = ZipCommentProperty.get(info);
+				long modifyTime = Objects.requireNonNullElse(ZipModificationTimeProperty.get(info), -1L);
+				long createTime = Objects.requireNonNullElse(ZipCreationTimeProperty.get(info), -1L);
+				long accessTime = Objects.requireNonNullElse(ZipAccessTimeProperty.get(info), -1L);
+
+				// Adding the entry, streaming embedded archives into it as they are created
+				WorkspaceFileResource embeddedResource = entry.embeddedResource();
+				if (embeddedResource != null) {
+					try (OutputStream out = writer.openEntry(name, compress, comment, createTime, modifyTime, accessTime)) {
+						writeEmbedded(Channels.newChannel(out), embeddedResource);
+					}
+				} else if (original != null && original.method() == (compress ? DEFLATED : STORED)) {
+					writer.addCompressed(name, original.compressedData().asByteBuffer(), compress,
+							original.crc(), original.size(), comment, createTime, modifyTime, accessTime);
+				} else {
+					writer.add(name, entry.content(), compress, comment, createTime, modifyTime, accessTime);
+				}
+			}
+			writer.finish();
+		}
+
+		/**
+		 * @param channel
+		 * 		Channel to write the archive to.
+		 * @param embeddedResource
+		 * 		Embedded resource to write as an archive.
+		 *
+		 * @throws IOException
+		 * 		When the archive cannot be written.
+		 */
+		private void writeEmbedded(@Nonnull WritableByteChannel channel,
+		                           @Nonnull WorkspaceFileResource embeddedResource) throws IOException {
+			Map<String, ExportEntry> embeddedMap = new TreeMap<>();
+			mapInto(embeddedMap, embeddedResource);
+			writeZip(channel, embeddedMap, false);
+		}
+
 		/**
 		 * @param workspace
 		 * 		Workspace to pull data from.
@@ -172,9 +255,10 @@ private void populate(@Nonnull Workspace workspace) {
 		 * @param resource
 		 * 		Resource to pull values from.
 		 */
-		private void mapInto(@Nonnull Map<String, byte[]> map, @Nonnull WorkspaceResource resource) {
+		private void mapInto(@Nonnull Map<String, ExportEntry> map, @Nonnull WorkspaceResource resource) {
 			// Place classes into map
 			resource.jvmClassBundleStream().forEach(bundle -> {
+				Set<String> dirtyKeys = bundle.getDirtyKeys();
 				for (JvmClassInfo classInfo : bundle) {
 					String key;
 					String originalName = PathOriginalNameProperty.get(classInfo);
@@ -187,19 +271,20 @@ private void mapInto(@Nonnull Map<String, byte[]> map, @Nonnull WorkspaceResourc
 					} else {
 						key = originalName;
 					}
-					map.put(key, classInfo.getBytecode());
-					updateProperties(key, classInfo);
+					map.put(key, new ExportEntry(classInfo, classInfo.getBytecode(),
+							original(dirtyKeys, classInfo.getName(), classInfo), null));
 				}
 			});
 
 			// Place versioned files into map
 			for (Map.Entry<Integer, VersionedJvmClassBundle> entry : resource.getVersionedJvmClassBundles().entrySet()) {
 				String versionPath = JarFileInfo.MULTI_RELEASE_PREFIX + entry.getKey() + "/";
+				Set<String> dirtyKeys = entry.getValue().getDirtyKeys();
 				for (Map.Entry<String, JvmClassInfo> classEntry : entry.getValue().entrySet()) {
 					String key = versionPath + classEntry.getKey() + ".class";
 					JvmClassInfo value = classEntry.getValue();
-					map.put(key, value.getBytecode());
-					updateProperties(key, value);
+					map.put(key, new ExportEntry(value, value.getBytecode(),
+							original(dirtyKeys, classEntry.getKey(), value), null));
 				}
 			}
 
@@ -209,63 +294,59 @@ private void mapInto(@Nonnull Map<String, byte[]> map, @Nonnull WorkspaceResourc
 			}
 
 			// Place files into map
-			for (FileInfo fileInfo : resource.getFileBundle()) {
-				map.put(fileInfo.getName(), fileInfo.getRawContent());
-				updateProperties(fileInfo.getName(), fileInfo);
+			FileBundle fileBundle = resource.getFileBundle();
+			Set<String> dirtyFileKeys = fileBundle.getDirtyKeys();
+			for (FileInfo fileInfo : fileBundle) {
+				String name = fileInfo.getName();
+				map.put(name, new ExportEntry(fileInfo, fileInfo.getRawContent(),
+						original(dirtyFileKeys, name, fileInfo), null));
 			}
 
-			// Recreate embedded resources as ZIP files with the original file paths
+			// Embedded resources are recreated as ZIP files with the original file paths when written
 			for (Map.Entry<String, WorkspaceFileResource> entry : resource.getEmbeddedResources().entrySet()) {
 				String embeddedFilePath = entry.getKey();
 				WorkspaceFileResource embeddedResource = entry.getValue();
-				Map<String, byte[]> embeddedMap = new TreeMap<>();
-				mapInto(embeddedMap, embeddedResource);
-				byte[] embeddedBytes = Unchecked.get(() -> ZipCreationUtils.createZip(embeddedMap));
-				map.put(embeddedFilePath, embeddedBytes);
-				FileInfo embeddedFile = embeddedResource.getFileInfo();
-				updateProperties(embeddedFilePath, embeddedFile);
+				map.put(embeddedFilePath, new ExportEntry(embeddedResource.getFileInfo(), null, null, embeddedResource));
 			}
 		}
 
 		/**
-		 * @param name
-		 * 		Map key.
+		 * @param dirtyKeys
+		 * 		Keys of modified items in the bundle holding the info.
+		 * @param key
+		 * 		Key of the info in its bundle.
 		 * @param info
-		 * 		Info to pull properties from.
+		 * 		Info to get the original compressed data of.
+		 *
+		 * @return Original compressed data of the info, or {@code null} if the info has been modified or has no such data.
 		 */
-		private void updateProperties(@Nonnull String name, @Nonnull Info info) {
-			compression.put(name, getCompression(info));
-
-			Long createTime = ZipCreationTimeProperty.get(info);
-			if (createTime != null)
-				createTimes.put(name, createTime);
-
-			Long modifyTime = ZipModificationTimeProperty.get(info);
-			if (modifyTime != null)
-				modifyTimes.put(name, modifyTime);
-
-			Long accessTime = ZipAccessTimeProperty.get(info);
-			if (accessTime != null)
-				accessTimes.put(name, accessTime);
-
-			String comment = ZipCommentProperty.get(info);
-			if (comment != null)
-				comments.put(name, comment);
+		@Nullable
+		private static ZipOriginalDataProperty.Data original(@Nonnull Set<String> dirtyKeys, @Nonnull String key,
+		                                                     @Nonnull Info info) {
+			if (dirtyKeys.contains(key))
+				return null;
+			return ZipOriginalDataProperty.get(info);
 		}
 
 		/**
 		 * @param info
 		 * 		Info to get compression for.
+		 * @param original
+		 * 		Original compressed data matching the content of the info, if any.
 		 *
 		 * @return Compression type for into value.
 		 */
-		private int getCompression(@Nonnull Info info) {
+		private int getCompression(@Nonnull Info info, @Nullable ZipOriginalDataProperty.Data original) {
 			switch (compressType) {
 				case ALWAYS:
 					return DEFLATED;
 				case NEVER:
 					return STORED;
 				case SMART:
+					// We already know how well the content deflates if the original data is deflated
+					if (original != null && original.method() == DEFLATED)
+						return original.compressedData().byteSize() < original.size() ? DEFLATED : STORED;
+
 					// Get content from info
 					byte[] content = null;
 					if (info.isFile())
@@ -305,4 +386,20 @@ else if (info.isClass()) {
 			}
 		}
 	}
+
+	/**
+	 * Content to write for a single path in the output.
+	 *
+	 * @param info
+	 * 		Info to pull output properties from.
+	 * @param content
+	 * 		Content to write. {@code null} for embedded resources.
+	 * @param original
+	 * 		Original compressed data of the content, if the content is unmodified since being imported.
+	 * @param embeddedResource
+	 * 		Embedded resource to recreate as an archive. {@code null} for other content.
+	 */
+	private record ExportEntry(@Nonnull Info info, @Nullable byte[] content,
+	                           @Nullable ZipOriginalDataProperty.Data original,
+	                           @Nullable WorkspaceFileResource embeddedResource) {}
 }
@@ -0,0 +1,35 @@
+package software.coley.recaf.services.workspace.patch;
+
+import software.coley.recaf.services.workspace.patch.model.WorkspacePatch;
+import software.coley.recaf.workspace.model.Workspace;
+
+/**
+ * System for observing and cancelling {@link PatchProvider#createPatch(Workspace, PatchGenerationFeedback) patch generation}.
+ *
+ * @author Matt Coley
+ */
+public interface PatchGenerationFeedback {
+	/**
+	 * Default implementation that runs patch generation to completion.
+	 */
+	PatchGenerationFeedback NO_OP = new PatchGenerationFeedback() {
+	};
+
+	/**
+	 * @return {@code true} to request {@link PatchProvider} stops generating the {@link WorkspacePatch}.
+	 * {@code false} to continue.
+	 */
+	default boolean hasRequestedCancellation() {
+		return false;
+	}
+
+	/**
+	 * Called from patch worker threads as each modified class or file is handled.
+	 *
+	 * @param completed
+	 * 		Number of modified items handled so far.
+	 * @param total
+	 * 		Total number of modified items to handle.
+	 */
+	default void onProgress(int completed, int total) {}
+}
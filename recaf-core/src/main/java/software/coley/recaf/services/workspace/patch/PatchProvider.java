@@ -1,6 +1,9 @@
 package software.coley.recaf.services.workspace.patch;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import me.darknet.assembler.error.Result;
@@ -10,20 +13,29 @@
 import software.coley.recaf.path.*;
 import software.coley.recaf.services.Service;
 import software.coley.recaf.services.assembler.AssemblerPipelineManager;
+import software.coley.recaf.services.assembler.JvmAssemblerPipeline;
+import software.coley.recaf.services.assembler.JvmAssemblerPipelineConfig;
 import software.coley.recaf.services.workspace.patch.model.JvmAssemblerPatch;
 import software.coley.recaf.services.workspace.patch.model.RemovePath;
 import software.coley.recaf.services.workspace.patch.model.TextFilePatch;
 import software.coley.recaf.services.workspace.patch.model.WorkspacePatch;
 import software.coley.recaf.util.StringDiff;
+import software.coley.recaf.util.StringUtil;
+import software.coley.recaf.util.threading.ThreadPoolFactory;
 import software.coley.recaf.workspace.model.Workspace;
 import software.coley.recaf.workspace.model.bundle.Bundle;
 import software.coley.recaf.workspace.model.bundle.ClassBundle;
 import software.coley.recaf.workspace.model.resource.WorkspaceResource;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service to provide and handle serialization of {@link WorkspacePatch}s.
@@ -34,8 +46,14 @@
 public class PatchProvider implements Service {
 	public static final String SERVICE_ID = "resource-patch-provider";
 	private static final Logger logger = Logging.get(PatchProvider.class);
+	private static final ExecutorService patchThreadPool = ThreadPoolFactory.newFixedThreadPool(SERVICE_ID);
+	private static final long MAX_CACHED_DISASSEMBLY_LENGTH = 32 * 1024 * 1024;
+	// Disassembled classes keyed by the hash of their bytecode and the disassembly format, in LRU order.
+	// Repeated patch generation then only has to disassemble classes which have changed since.
+	private final Map<String, String> disassemblyCache = new LinkedHashMap<>(16, 0.75f, true);
 	private final AssemblerPipelineManager assemblerPipelineManager;
 	private final ResourcePatchProviderConfig config;
+	private long cachedDisassemblyLength;
 
 	@Inject
 	public PatchProvider(@Nonnull AssemblerPipelineManager assemblerPipelineManager,
@@ -108,42 +126,56 @@ public WorkspacePatch deserializePatch(@Nonnull Workspace workspace, @Nonnull St
 	 */
 	@Nonnull
 	public WorkspacePatch createPatch(@Nonnull Workspace workspace) throws PatchGenerationException {
-		List<RemovePath> removals = new ArrayList<>();
-		List<JvmAssemblerPatch> jvmAssemblerPatches = new ArrayList<>();
-		List<TextFilePatch> textFilePatches = new ArrayList<>();
-		PatchConsumer<ClassPathNode, JvmClassInfo> classConsumer = (classPath, initial, current) -> {
+		return createPatch(workspace, PatchGenerationFeedback.NO_OP);
+	}
+
+	/**
+	 * Creates a patch which models all changes in the given workspace.
+	 * Modified classes and files are diffed in parallel.
+	 *
+	 * @param workspace
+	 * 		Workspace to generate a patch for.
+	 * @param feedback
+	 * 		Feedback to report progress to, and to check for cancellation.
+	 *
+	 * @return Patch modeling all changes made in the workspace.
+	 *
+	 * @throws PatchGenerationException
+	 * 		When the patch couldn't be made for any reason, or generation was cancelled.
+	 */
+	@Nonnull
+	public WorkspacePatch createPatch(@Nonnull Workspace workspace,
+	                                  @Nonnull PatchGenerationFeedback feedback) throws PatchGenerationException {
+		JvmAssemblerPipeline pipeline = assemblerPipelineManager.getJvmAssemblerPipeline();
+		String disassemblyFormat = disassemblyFormat(pipeline);
+		PatchTask<ClassPathNode, JvmClassInfo, JvmAssemblerPatch> classTask = (classPath, initial, current) -> {
 			DirectoryPathNode parent = Objects.requireNonNull(classPath.getParent());
 			ClassPathNode initialPath = parent.child(initial);
 			ClassPathNode currentPath = parent.child(current);
-			Result<String> initialDisassembleRes = assemblerPipelineManager.getJvmAssemblerPipeline().disassemble(initialPath);
-			Result<String> currentDisassembleRes = assemblerPipelineManager.getJvmAssemblerPipeline().disassemble(currentPath);
-			if (!initialDisassembleRes.hasValue())
-				throw new PatchGenerationException("Failed to disassemble initial state of '" + initial.getName() + "'");
-			if (initialDisassembleRes.hasErr())
-				throw new PatchGenerationException("Initial state of '" + initial.getName() + "' has assembler errors");
-			if (!currentDisassembleRes.hasValue())
-				throw new PatchGenerationException("Failed to disassemble current state of '" + initial.getName() + "'");
-			if (currentDisassembleRes.hasErr())
-				throw new PatchGenerationException("Current state of '" + initial.getName() + "' has assembler errors");
-			String initialDisassemble = initialDisassembleRes.get();
-			String currentDisassemble = currentDisassembleRes.get();
+			String initialDisassemble = disassemble(pipeline, disassemblyFormat, initialPath, initial, "initial");
+			String currentDisassemble = disassemble(pipeline, disassemblyFormat, currentPath, current, "current");
 			List<StringDiff.Diff> assemblerDiffs = StringDiff.diff(initialDisassemble, currentDisassemble);
-			if (!assemblerDiffs.isEmpty())
-				jvmAssemblerPatches.add(new JvmAssemblerPatch(initialPath, assemblerDiffs));
+			if (assemblerDiffs.isEmpty())
+				return null;
+			return new JvmAssemblerPatch(initialPath, assemblerDiffs);
 		};
-		PatchConsumer<FilePathNode, FileInfo> fileConsumer = (filePath, initial, current) -> {
+		PatchTask<FilePathNode, FileInfo, TextFilePatch> fileTask = (filePath, initial, current) -> {
 			if (initial.isTextFile() && current.isTextFile()) {
 				String initialText = initial.asTextFile().getText();
 				String currentText = current.asTextFile().getText();
 				List<StringDiff.Diff> textDiffs = StringDiff.diff(initialText, currentText);
 				if (!textDiffs.isEmpty())
-					textFilePatches.add(new TextFilePatch(filePath, textDiffs));
+					return new TextFilePatch(filePath, textDiffs);
 			} else {
 				// TODO: Support binary patches of non-text files
 				logger.debug("Skipping file diff for '{}' as it is not a text file", initial.getName());
 			}
+			return null;
 		};
 
+		List<RemovePath> removals = new ArrayList<>();
+		List<DirtyItem<ClassPathNode, JvmClassInfo>> dirtyClasses = new ArrayList<>();
+		List<DirtyItem<FilePathNode, FileInfo>> dirtyFiles = new ArrayList<>();
 		try {
 			WorkspaceResource resource = workspace.getPrimaryResource();
 			ResourcePathNode resourcePath = PathNodes.resourcePath(workspace, resource);
@@ -162,45 +194,176 @@ public WorkspacePatch createPatch(@Nonnull Workspace workspace) throws PatchGene
 					}
 				}
 			});
-			visitDirtyItems(workspace, resource, resource.getJvmClassBundle(), classConsumer);
+			collectDirtyItems(workspace, resource, resource.getJvmClassBundle(), dirtyClasses);
 			for (var entry : resource.getVersionedJvmClassBundles().entrySet()) {
-				visitDirtyItems(workspace, resource, entry.getValue(), classConsumer);
+				collectDirtyItems(workspace, resource, entry.getValue(), dirtyClasses);
 			}
-			visitDirtyItems(workspace, resource, resource.getFileBundle(), fileConsumer);
+			collectDirtyItems(workspace, resource, resource.getFileBundle(), dirtyFiles);
 		} catch (Throwable t) {
 			throw new PatchGenerationException(t);
 		}
 
+		// Diff all modified items in parallel. The results are collected in the same order the items were visited,
+		// so the patch contents are consistent between runs.
+		int total = dirtyClasses.size() + dirtyFiles.size();
+		AtomicInteger completed = new AtomicInteger();
+		List<Future<?>> futures = new ArrayList<>(total);
+		List<Future<JvmAssemblerPatch>> classFutures = submit(dirtyClasses, classTask, feedback, completed, total, futures);
+		List<Future<TextFilePatch>> fileFutures = submit(dirtyFiles, fileTask, feedback, completed, total, futures);
+		List<JvmAssemblerPatch> jvmAssemblerPatches = collect(classFutures, feedback, futures);
+		List<TextFilePatch> textFilePatches = collect(fileFutures, feedback, futures);
+		if (feedback.hasRequestedCancellation())
+			throw new PatchGenerationException("Patch generation was cancelled");
+
 		return new WorkspacePatch(workspace,
 				Collections.unmodifiableList(removals),
 				Collections.unmodifiableList(jvmAssemblerPatches),
 				Collections.unmodifiableList(textFilePatches));
 	}
 
+	/**
+	 * @param pipeline
+	 * 		Pipeline to disassemble with.
+	 * @param format
+	 * 		Disassembly format, see {@link #disassemblyFormat(JvmAssemblerPipeline)}.
+	 * @param path
+	 * 		Path to the class to disassemble.
+	 * @param cls
+	 * 		Class to disassemble.
+	 * @param state
+	 * 		Name of the history state of the class, for error messages.
+	 *
+	 * @return Disassembled class, either from the cache or freshly disassembled.
+	 *
+	 * @throws PatchGenerationException
+	 * 		When the class could not be disassembled.
+	 */
+	@Nonnull
+	private String disassemble(@Nonnull JvmAssemblerPipeline pipeline, @Nonnull String format,
+	                           @Nonnull ClassPathNode path, @Nonnull JvmClassInfo cls,
+	                           @Nonnull String state) throws PatchGenerationException {
+		Hasher hasher = Hashing.sha256().newHasher(cls.getBytecode().length + 64);
+		hasher.putBytes(cls.getBytecode());
+		hasher.putString(format, StandardCharsets.UTF_8);
+		String key = hasher.hash().toString();
+		synchronized (disassemblyCache) {
+			String cached = disassemblyCache.get(key);
+			if (cached != null)
+				return cached;
+		}
+
+		Result<String> disassembleRes = pipeline.disassemble(path);
+		if (!disassembleRes.hasValue())
+			throw new PatchGenerationException("Failed to disassemble " + state + " state of '" + cls.getName() + "'");
+		if (disassembleRes.hasErr())
+			throw new PatchGenerationException(StringUtil.uppercaseFirstChar(state) + " state of '" + cls.getName() + "' has assembler errors");
+		String disassembly = disassembleRes.get();
+		synchronized (disassemblyCache) {
+			if (disassemblyCache.put(key, disassembly) == null)
+				cachedDisassemblyLength += disassembly.length();
+
+			// Drop the least recently used entries until we're back within bounds
+			Iterator<String> it = disassemblyCache.values().iterator();
+			while (cachedDisassemblyLength > MAX_CACHED_DISASSEMBLY_LENGTH && it.hasNext()) {
+				cachedDisassemblyLength -= it.next().length();
+				it.remove();
+			}
+		}
+		return disassembly;
+	}
+
+	/**
+	 * @param pipeline
+	 * 		Pipeline to disassemble with.
+	 *
+	 * @return Key outlining config which affects the disassembly of classes.
+	 */
+	@Nonnull
+	private String disassemblyFormat(@Nonnull JvmAssemblerPipeline pipeline) {
+		String indent = assemblerPipelineManager.getServiceConfig().getDisassemblyIndent().getValue();
+		boolean tryRangeComments = pipeline.getConfig() instanceof JvmAssemblerPipelineConfig jvmConfig
+				&& jvmConfig.emitTryRangeComments();
+		return indent + ':' + tryRangeComments;
+	}
+
 	@SuppressWarnings({"unchecked", "DataFlowIssue"})
-	private <I extends Info, P extends PathNode<?>> void visitDirtyItems(@Nonnull Workspace workspace,
-	                                                                     @Nonnull WorkspaceResource resource,
-	                                                                     @Nonnull Bundle<I> bundle,
-	                                                                     @Nonnull PatchConsumer<P, I> consumer) throws Throwable {
+	private <I extends Info, P extends PathNode<?>> void collectDirtyItems(@Nonnull Workspace workspace,
+	                                                                       @Nonnull WorkspaceResource resource,
+	                                                                       @Nonnull Bundle<I> bundle,
+	                                                                       @Nonnull List<DirtyItem<P, I>> items) {
 		BundlePathNode bundlePath = PathNodes.bundlePath(workspace, resource, bundle);
 		Set<String> dirtyKeys = bundle.getDirtyKeys();
 		for (String dirtyKey : dirtyKeys) {
-			Stack<I> history = bundle.getHistory(dirtyKey);
-			I current = history.peek();
-			I oldest = history.elementAt(0);
+			// Only the initial and current states are needed, so we can skip decoding the full history.
+			I current = bundle.get(dirtyKey);
+			I oldest = bundle.getInitial(dirtyKey);
+			if (current == null || oldest == null)
+				continue;
 			int lastDirSeparator = dirtyKey.lastIndexOf('/');
 			String directoryName = lastDirSeparator >= 0 ? dirtyKey.substring(0, lastDirSeparator) : null;
 			DirectoryPathNode directoryPath = bundlePath.child(directoryName);
 			if (current instanceof ClassInfo currentClass) {
 				ClassPathNode classPath = directoryPath.child(currentClass);
-				consumer.accept((P) classPath, oldest, current);
+				items.add(new DirtyItem<>((P) classPath, oldest, current));
 			} else if (current instanceof FileInfo currentFile) {
 				FilePathNode filePath = directoryPath.child(currentFile);
-				consumer.accept((P) filePath, oldest, current);
+				items.add(new DirtyItem<>((P) filePath, oldest, current));
 			}
 		}
 	}
 
+	@Nonnull
+	private static <P extends PathNode<?>, I extends Info, R> List<Future<R>> submit(@Nonnull List<DirtyItem<P, I>> items,
+	                                                                                 @Nonnull PatchTask<P, I, R> task,
+	                                                                                 @Nonnull PatchGenerationFeedback feedback,
+	                                                                                 @Nonnull AtomicInteger completed, int total,
+	                                                                                 @Nonnull List<Future<?>> allFutures) {
+		List<Future<R>> futures = new ArrayList<>(items.size());
+		for (DirtyItem<P, I> item : items) {
+			Future<R> future = patchThreadPool.submit(() -> {
+				// Skip remaining work once cancelled, the caller will discard the results anyways.
+				if (feedback.hasRequestedCancellation())
+					return null;
+				try {
+					return task.apply(item.path(), item.initial(), item.current());
+				} finally {
+					feedback.onProgress(completed.incrementAndGet(), total);
+				}
+			});
+			futures.add(future);
+			allFutures.add(future);
+		}
+		return futures;
+	}
+
+	@Nonnull
+	private static <R> List<R> collect(@Nonnull List<Future<R>> futures, @Nonnull PatchGenerationFeedback feedback,
+	                                   @Nonnull List<Future<?>> allFutures) throws PatchGenerationException {
+		List<R> results = new ArrayList<>();
+		for (Future<R> future : futures) {
+			try {
+				if (feedback.hasRequestedCancellation())
+					throw new PatchGenerationException("Patch generation was cancelled");
+				R result = future.get();
+				if (result != null)
+					results.add(result);
+			} catch (InterruptedException ex) {
+				allFutures.forEach(f -> f.cancel(true));
+				Thread.currentThread().interrupt();
+				throw new PatchGenerationException(ex, "Interrupted while generating patch");
+			} catch (ExecutionException ex) {
+				allFutures.forEach(f -> f.cancel(true));
+				if (ex.getCause() instanceof PatchGenerationException pge)
+					throw pge;
+				throw new PatchGenerationException(ex.getCause());
+			} catch (PatchGenerationException ex) {
+				allFutures.forEach(f -> f.cancel(true));
+				throw ex;
+			}
+		}
+		return results;
+	}
+
 	@Nonnull
 	@Override
 	public String getServiceId() {
@@ -214,7 +377,11 @@ public ResourcePatchProviderConfig getServiceConfig() {
 	}
 
 	@FunctionalInterface
-	private interface PatchConsumer<P extends PathNode<?>, I extends Info> {
-		void accept(P path, I initial, I current) throws Throwable;
+	private interface PatchTask<P extends PathNode<?>, I extends Info, R> {
+		@Nullable
+		R apply(@Nonnull P path, @Nonnull I initial, @Nonnull I current) throws Exception;
 	}
+
+	private record DirtyItem<P extends PathNode<?>, I extends Info>(@Nonnull P path, @Nonnull I initial,
+	                                                                @Nonnull I current) {}
 }
@@ -1,12 +1,14 @@
 package software.coley.recaf.util;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
- * Memoized functions.
+ * Memoized functions. The memoized functions are safe to use from multiple threads.
+ * Values are computed outside of any lock, so the wrapped function may be called more than once for the same key
+ * when threads race, but only one result is kept. {@code null} results are not cached.
  *
  * @author Amejonah
  */
@@ -20,7 +22,7 @@ public static <KeyA, KeyB, Value> BiFunction<KeyA, KeyB, Value> memoize(BiFuncti
 	}
 
 	private static class MemoizedFunction<Key, Value> implements Function<Key, Value> {
-		private final Map<Key, Value> cache = new HashMap<>();
+		private final Map<Key, Value> cache = new ConcurrentHashMap<>();
 		private final Function<Key, Value> function;
 
 		private MemoizedFunction(Function<Key, Value> function) {
@@ -29,22 +31,36 @@ private MemoizedFunction(Function<Key, Value> function) {
 
 		@Override
 		public Value apply(Key key) {
-			return cache.computeIfAbsent(key, function);
+			return lookup(cache, key, function);
 		}
 	}
 
 	private static class BiMemoizedFunction<KeyA, KeyB, Value> implements BiFunction<KeyA, KeyB, Value> {
-		private final Map<KeyA, Map<KeyB, Value>> cache = new HashMap<>();
+		private final Map<KeyA, Map<KeyB, Value>> cache = new ConcurrentHashMap<>();
 		private final BiFunction<KeyA, KeyB, Value> function;
 
 		private BiMemoizedFunction(BiFunction<KeyA, KeyB, Value> function) {
 			this.function = function;
 		}
 
-
 		@Override
 		public Value apply(KeyA keyA, KeyB keyB) {
-			return cache.computeIfAbsent(keyA, __ -> new HashMap<>()).computeIfAbsent(keyB, k -> function.apply(keyA, keyB));
+			Map<KeyB, Value> inner = cache.computeIfAbsent(keyA, __ -> new ConcurrentHashMap<>());
+			return lookup(inner, keyB, k -> function.apply(keyA, k));
+		}
+	}
+
+	private static <Key, Value> Value lookup(Map<Key, Value> cache, Key key, Function<Key, Value> function) {
+		// Not using 'computeIfAbsent' since the functions may recursively use other memoized functions,
+		// and we do not want to hold the map's bin lock while that happens.
+		Value value = cache.get(key);
+		if (value == null) {
+			value = function.apply(key);
+			if (value != null) {
+				Value existing = cache.putIfAbsent(key, value);
+				if (existing != null) value = existing;
+			}
 		}
+		return value;
 	}
 }
\ No newline at end of file
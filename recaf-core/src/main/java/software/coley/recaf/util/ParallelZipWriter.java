@@ -0,0 +1,773 @@
+package software.coley.recaf.util;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * ZIP writer which streams entries to a channel, compressing them in parallel.
+ * <p>
+ * The content of each compressed entry is split into chunks which are deflated independently on a thread pool.
+ * All but the last chunk of an entry end with a sync-flush, so the compressed chunks concatenate into a single
+ * valid deflate stream. Chunks are written to the channel in order as they complete, and only a bounded number of
+ * chunks are in flight at once. Memory use thus does not grow with the size of the output, beyond a small amount of
+ * central directory data per entry.
+ * <p>
+ * Entries can be given as complete content via {@link #add(String, byte[], boolean, String, long, long, long)},
+ * as already compressed data via {@link #addCompressed(String, ByteBuffer, boolean, long, long, String, long, long, long)},
+ * or streamed via {@link #openEntry(String, boolean, String, long, long, long)}, which allows nesting one writer's
+ * output as an entry of another.
+ *
+ * @author Matt Coley
+ */
+public class ParallelZipWriter {
+	private static final int CHUNK_SIZE = 256 * 1024;
+	private static final int MAX_DIR_DEPTH = 64;
+	private static final int LOCAL_HEADER = 0x04034b50;
+	private static final int DATA_DESCRIPTOR = 0x08074b50;
+	private static final int CENTRAL_HEADER = 0x02014b50;
+	private static final int ZIP64_END = 0x06064b50;
+	private static final int ZIP64_LOCATOR = 0x07064b50;
+	private static final int END = 0x06054b50;
+	private static final int FLAG_DESCRIPTOR = 0x08;
+	private static final int FLAG_UTF8 = 0x800;
+	private static final int METHOD_STORED = 0;
+	private static final int METHOD_DEFLATED = 8;
+	private static final int EXTRA_ZIP64 = 0x0001;
+	private static final int EXTRA_TIMESTAMP = 0x5455;
+	private static final long MAX_U32 = 0xFFFFFFFFL;
+	private static final int MAX_U16 = 0xFFFF;
+	private static final ThreadLocal<Deflater> DEFLATERS =
+			ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+	private final List<Entry> centralEntries = new ArrayList<>();
+	private final Deque<Step> steps = new ArrayDeque<>();
+	private final Set<String> dirsVisited = new HashSet<>();
+	private final WritableByteChannel channel;
+	private final ExecutorService service;
+	private final int maxInFlight;
+	private final long basePosition;
+	private String openEntry;
+	private boolean createDirectories;
+	private boolean finished;
+	private int inFlight;
+	private long position;
+
+	/**
+	 * @param channel
+	 * 		Channel to write to. When it is a {@link FileChannel}, headers of streamed stored entries are
+	 * 		updated in place once their content is known. Otherwise, their content is buffered until the entry is closed.
+	 * @param service
+	 * 		Executor to compress chunks on.
+	 *
+	 * @throws IOException
+	 * 		When the position of a file channel cannot be read.
+	 */
+	public ParallelZipWriter(@Nonnull WritableByteChannel channel, @Nonnull ExecutorService service) throws IOException {
+		this.channel = channel;
+		this.service = service;
+		maxInFlight = Math.max(4, Runtime.getRuntime().availableProcessors() * 4);
+		basePosition = channel instanceof FileChannel fileChannel ? fileChannel.position() : -1;
+	}
+
+	/**
+	 * Enables creation of directory entries.
+	 *
+	 * @return Writer.
+	 */
+	@Nonnull
+	public ParallelZipWriter createDirectories() {
+		createDirectories = true;
+		return this;
+	}
+
+	/**
+	 * @param name
+	 * 		Entry name.
+	 * @param content
+	 * 		Entry contents. Must not be modified until the writer is {@link #finish() finished}.
+	 * @param compression
+	 * 		Compression flag.
+	 * @param comment
+	 * 		Optional comment.
+	 * @param createTime
+	 * 		Creation time.
+	 * @param modifyTime
+	 * 		Modification time.
+	 * @param accessTime
+	 * 		Access time.
+	 *
+	 * @throws IOException
+	 * 		When prior content could not be written.
+	 */
+	public void add(@Nonnull String name, @Nonnull byte[] content, boolean compression,
+	                @Nullable String comment, long createTime, long modifyTime, long accessTime) throws IOException {
+		ensureOpen();
+		addParentDirectories(name);
+
+		// Always use STORED for empty files to save space.
+		boolean doStore = content.length == 0 || !compression;
+		Entry entry = new Entry(name, comment, doStore ? METHOD_STORED : METHOD_DEFLATED, createTime, modifyTime, accessTime);
+		CRC32 crc = new CRC32();
+		crc.update(content);
+		entry.crc = crc.getValue();
+		entry.size = content.length;
+		if (doStore) {
+			entry.compressedSize = content.length;
+			enqueue(new HeaderStep(entry));
+			enqueue(new DataStep(entry, CompletableFuture.completedFuture(ByteBuffer.wrap(content)), false));
+		} else {
+			// Compressed size is not known until all chunks are done, so it follows the content in a data descriptor.
+			entry.flags |= FLAG_DESCRIPTOR;
+			enqueue(new HeaderStep(entry));
+			int offset = 0;
+			do {
+				int length = Math.min(CHUNK_SIZE, content.length - offset);
+				boolean last = offset + length == content.length;
+				int chunkOffset = offset;
+				enqueue(new DataStep(entry, service.submit(() -> deflate(content, chunkOffset, length, last)), true));
+				offset += length;
+			} while (offset < content.length);
+		}
+		enqueue(new EndStep(entry));
+	}
+
+	/**
+	 * Adds an entry from already compressed data, which is written as-is.
+	 *
+	 * @param name
+	 * 		Entry name.
+	 * @param compressedData
+	 * 		Entry data as it should appear in the ZIP. Must not be modified until the writer is {@link #finish() finished}.
+	 * @param deflated
+	 * 		Flag indicating the data is deflated rather than stored.
+	 * @param crc
+	 * 		CRC32 of the decompressed data.
+	 * @param size
+	 * 		Length of the decompressed data.
+	 * @param comment
+	 * 		Optional comment.
+	 * @param createTime
+	 * 		Creation time.
+	 * @param modifyTime
+	 * 		Modification time.
+	 * @param accessTime
+	 * 		Access time.
+	 *
+	 * @throws IOException
+	 * 		When prior content could not be written.
+	 */
+	public void addCompressed(@Nonnull String name, @Nonnull ByteBuffer compressedData, boolean deflated,
+	                          long crc, long size, @Nullable String comment,
+	                          long createTime, long modifyTime, long accessTime) throws IOException {
+		ensureOpen();
+		addParentDirectories(name);
+
+		Entry entry = new Entry(name, comment, deflated ? METHOD_DEFLATED : METHOD_STORED, createTime, modifyTime, accessTime);
+		entry.crc = crc;
+		entry.size = size;
+		entry.compressedSize = compressedData.remaining();
+		enqueue(new HeaderStep(entry));
+		enqueue(new DataStep(entry, CompletableFuture.completedFuture(compressedData.slice()), false));
+		enqueue(new EndStep(entry));
+	}
+
+	/**
+	 * Opens an entry whose content is streamed. The returned stream must be closed before adding other entries.
+	 *
+	 * @param name
+	 * 		Entry name.
+	 * @param compression
+	 * 		Compression flag.
+	 * @param comment
+	 * 		Optional comment.
+	 * @param createTime
+	 * 		Creation time.
+	 * @param modifyTime
+	 * 		Modification time.
+	 * @param accessTime
+	 * 		Access time.
+	 *
+	 * @return Stream to write the entry content to.
+	 *
+	 * @throws IOException
+	 * 		When prior content could not be written.
+	 */
+	@Nonnull
+	public OutputStream openEntry(@Nonnull String name, boolean compression, @Nullable String comment,
+	                              long createTime, long modifyTime, long accessTime) throws IOException {
+		ensureOpen();
+		addParentDirectories(name);
+
+		// Sizes and CRC are unknown until the stream is closed. For stored content we can update the local header
+		// after the fact if the channel allows it. Otherwise, the stored content is buffered and added once complete,
+		// since many readers (such as 'ZipInputStream') do not support data descriptors for stored entries.
+		// Deflated content always has a data descriptor after it.
+		openEntry = name;
+		if (!compression && basePosition < 0)
+			return new BufferedEntryOutputStream(name, comment, createTime, modifyTime, accessTime);
+		int method = compression ? METHOD_DEFLATED : METHOD_STORED;
+		Entry entry = new Entry(name, comment, method, createTime, modifyTime, accessTime);
+		if (method == METHOD_DEFLATED)
+			entry.flags |= FLAG_DESCRIPTOR;
+		enqueue(new HeaderStep(entry));
+		return new EntryOutputStream(entry);
+	}
+
+	/**
+	 * Writes all remaining content and the central directory. The channel is left open.
+	 *
+	 * @throws IOException
+	 * 		When the content cannot be written.
+	 */
+	public void finish() throws IOException {
+		ensureOpen();
+		while (!steps.isEmpty())
+			writeNext();
+		finished = true;
+
+		// Write central directory
+		long centralOffset = position;
+		for (Entry entry : centralEntries)
+			writeCentralHeader(entry);
+		long centralSize = position - centralOffset;
+
+		// Write end of central directory, using the ZIP64 variant if values do not fit in the regular one
+		int count = centralEntries.size();
+		if (count > MAX_U16 || centralOffset >= MAX_U32 || centralSize >= MAX_U32) {
+			long zip64EndOffset = position;
+			ByteBuffer buffer = buffer(56 + 20);
+			buffer.putInt(ZIP64_END);
+			buffer.putLong(44);
+			buffer.putShort((short) 45);
+			buffer.putShort((short) 45);
+			buffer.putInt(0);
+			buffer.putInt(0);
+			buffer.putLong(count);
+			buffer.putLong(count);
+			buffer.putLong(centralSize);
+			buffer.putLong(centralOffset);
+			buffer.putInt(ZIP64_LOCATOR);
+			buffer.putInt(0);
+			buffer.putLong(zip64EndOffset);
+			buffer.putInt(1);
+			write(buffer.flip());
+		}
+		ByteBuffer buffer = buffer(22);
+		buffer.putInt(END);
+		buffer.putShort((short) 0);
+		buffer.putShort((short) 0);
+		buffer.putShort((short) Math.min(count, MAX_U16));
+		buffer.putShort((short) Math.min(count, MAX_U16));
+		buffer.putInt((int) Math.min(centralSize, MAX_U32));
+		buffer.putInt((int) Math.min(centralOffset, MAX_U32));
+		buffer.putShort((short) 0);
+		write(buffer.flip());
+	}
+
+	/**
+	 * @return Number of bytes written so far.
+	 */
+	public long getWrittenBytes() {
+		return position;
+	}
+
+	private void ensureOpen() throws IOException {
+		if (finished)
+			throw new IOException("ZIP writer already finished");
+		if (openEntry != null)
+			throw new IOException("Prior streamed entry '" + openEntry + "' was not closed");
+	}
+
+	private void addParentDirectories(@Nonnull String name) throws IOException {
+		if (!createDirectories || !name.contains("/"))
+			return;
+
+		// Record directories
+		String parent = name;
+		List<String> toAdd = new ArrayList<>();
+		do {
+			// Abort if the max-dir depth is reached.
+			if (toAdd.size() > MAX_DIR_DEPTH) {
+				toAdd.clear();
+				break;
+			}
+			parent = parent.substring(0, parent.lastIndexOf('/'));
+			if (dirsVisited.add(parent)) {
+				toAdd.add(0, parent + '/');
+			} else break;
+		} while (parent.contains("/"));
+
+		// Put directories in order of depth
+		for (String dir : toAdd) {
+			Entry entry = new Entry(dir, null, METHOD_STORED, -1, -1, -1);
+			enqueue(new HeaderStep(entry));
+			enqueue(new EndStep(entry));
+		}
+	}
+
+	private void enqueue(@Nonnull Step step) throws IOException {
+		steps.add(step);
+		if (step.isChunk())
+			inFlight++;
+
+		// Write out completed work in order until we are back within bounds
+		while (inFlight > maxInFlight)
+			writeNext();
+	}
+
+	private void writeNext() throws IOException {
+		Step step = steps.poll();
+		if (step == null)
+			return;
+		if (step.isChunk())
+			inFlight--;
+		step.write();
+	}
+
+	private void writeLocalHeader(@Nonnull Entry entry) throws IOException {
+		boolean descriptor = (entry.flags & FLAG_DESCRIPTOR) != 0;
+		byte[] extra = entry.localExtra();
+		ByteBuffer buffer = buffer(30 + entry.name.length + extra.length);
+		buffer.putInt(LOCAL_HEADER);
+		buffer.putShort((short) entry.version());
+		buffer.putShort((short) entry.flags);
+		buffer.putShort((short) entry.method);
+		buffer.putInt(entry.dosTime);
+		buffer.putInt(descriptor ? 0 : (int) entry.crc);
+		buffer.putInt(descriptor ? 0 : (int) entry.compressedSize);
+		buffer.putInt(descriptor ? 0 : (int) entry.size);
+		buffer.putShort((short) entry.name.length);
+		buffer.putShort((short) extra.length);
+		buffer.put(entry.name);
+		buffer.put(extra);
+		write(buffer.flip());
+	}
+
+	private void writeEntryEnd(@Nonnull Entry entry) throws IOException {
+		if (entry.size > MAX_U32 || entry.compressedSize > MAX_U32)
+			throw new IOException("Entry '" + new String(entry.name, StandardCharsets.UTF_8) + "' exceeds the ZIP size limit");
+		if ((entry.flags & FLAG_DESCRIPTOR) != 0) {
+			ByteBuffer buffer = buffer(16);
+			buffer.putInt(DATA_DESCRIPTOR);
+			buffer.putInt((int) entry.crc);
+			buffer.putInt((int) entry.compressedSize);
+			buffer.putInt((int) entry.size);
+			write(buffer.flip());
+		} else if (entry.streamed) {
+			// Fill in the values of the local header now that they are known
+			ByteBuffer buffer = buffer(12);
+			buffer.putInt((int) entry.crc);
+			buffer.putInt((int) entry.compressedSize);
+			buffer.putInt((int) entry.size);
+			buffer.flip();
+			long headerValuesPosition = basePosition + entry.offset + 14;
+			while (buffer.hasRemaining())
+				headerValuesPosition += ((FileChannel) channel).write(buffer, headerValuesPosition);
+		}
+		centralEntries.add(entry);
+	}
+
+	private void writeCentralHeader(@Nonnull Entry entry) throws IOException {
+		byte[] extra = entry.centralExtra();
+		byte[] comment = entry.comment;
+		int version = entry.offset >= MAX_U32 ? 45 : entry.version();
+		ByteBuffer buffer = buffer(46 + entry.name.length + extra.length + comment.length);
+		buffer.putInt(CENTRAL_HEADER);
+		buffer.putShort((short) version);
+		buffer.putShort((short) version);
+		buffer.putShort((short) entry.flags);
+		buffer.putShort((short) entry.method);
+		buffer.putInt(entry.dosTime);
+		buffer.putInt((int) entry.crc);
+		buffer.putInt((int) entry.compressedSize);
+		buffer.putInt((int) entry.size);
+		buffer.putShort((short) entry.name.length);
+		buffer.putShort((short) extra.length);
+		buffer.putShort((short) comment.length);
+		buffer.putShort((short) 0);
+		buffer.putShort((short) 0);
+		buffer.putInt(0);
+		buffer.putInt((int) Math.min(entry.offset, MAX_U32));
+		buffer.put(entry.name);
+		buffer.put(extra);
+		buffer.put(comment);
+		write(buffer.flip());
+	}
+
+	private void write(@Nonnull ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining())
+			position += channel.write(buffer);
+	}
+
+	@Nonnull
+	private static ByteBuffer buffer(int size) {
+		return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * @param data
+	 * 		Data to compress.
+	 * @param offset
+	 * 		Offset into the data of the chunk to compress.
+	 * @param length
+	 * 		Length of the chunk to compress.
+	 * @param last
+	 * 		Flag indicating the chunk is the last of an entry, and should finish the deflate stream.
+	 * 		Otherwise, the output is sync-flushed so that the next chunk can be appended to it.
+	 *
+	 * @return Raw deflate data of the chunk.
+	 */
+	@Nonnull
+	private static ByteBuffer deflate(@Nonnull byte[] data, int offset, int length, boolean last) {
+		Deflater deflater = DEFLATERS.get();
+		deflater.reset();
+		deflater.setInput(data, offset, length);
+		if (last)
+			deflater.finish();
+		byte[] output = new byte[length + (length >> 4) + 64];
+		int outputLength = 0;
+		while (true) {
+			if (outputLength == output.length)
+				output = Arrays.copyOf(output, output.length * 2);
+			int space = output.length - outputLength;
+			int written = deflater.deflate(output, outputLength, space, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+			outputLength += written;
+			if (last ? deflater.finished() : written < space)
+				break;
+		}
+		return ByteBuffer.wrap(output, 0, outputLength);
+	}
+
+	/**
+	 * @param millis
+	 * 		Java time in milliseconds.
+	 *
+	 * @return MS-DOS date and time, with the date in the upper 16 bits.
+	 */
+	private static int dosTime(long millis) {
+		LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+		int year = time.getYear();
+		if (year < 1980)
+			return (1 << 21) | (1 << 16); // 1980-01-01
+		year = Math.min(year, 2107);
+		return (year - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+				| time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+	}
+
+	/**
+	 * Single action of writing out an entry, run in order.
+	 */
+	private interface Step {
+		/**
+		 * @throws IOException
+		 * 		When the content cannot be written.
+		 */
+		void write() throws IOException;
+
+		/**
+		 * @return {@code true} when the step holds a chunk of content counting towards the in-flight limit.
+		 */
+		default boolean isChunk() {
+			return false;
+		}
+	}
+
+	/**
+	 * Step writing the local header of an entry.
+	 */
+	private class HeaderStep implements Step {
+		private final Entry entry;
+
+		private HeaderStep(@Nonnull Entry entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public void write() throws IOException {
+			entry.offset = position;
+			writeLocalHeader(entry);
+		}
+	}
+
+	/**
+	 * Step writing a piece of the content of an entry.
+	 */
+	private class DataStep implements Step {
+		private final Entry entry;
+		private final Future<ByteBuffer> data;
+		private final boolean chunk;
+
+		private DataStep(@Nonnull Entry entry, @Nonnull Future<ByteBuffer> data, boolean chunk) {
+			this.entry = entry;
+			this.data = data;
+			this.chunk = chunk;
+		}
+
+		@Override
+		public void write() throws IOException {
+			ByteBuffer buffer;
+			try {
+				buffer = data.get();
+			} catch (InterruptedException ex) {
+				throw new InterruptedIOException("Interrupted while compressing ZIP entry");
+			} catch (ExecutionException ex) {
+				throw new IOException("Failed to compress ZIP entry", ex.getCause());
+			}
+			if (chunk && entry.method == METHOD_DEFLATED)
+				entry.compressedSize += buffer.remaining();
+			ParallelZipWriter.this.write(buffer);
+		}
+
+		@Override
+		public boolean isChunk() {
+			return chunk;
+		}
+	}
+
+	/**
+	 * Step completing an entry after its content is written.
+	 */
+	private class EndStep implements Step {
+		private final Entry entry;
+
+		private EndStep(@Nonnull Entry entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public void write() throws IOException {
+			writeEntryEnd(entry);
+		}
+	}
+
+	/**
+	 * Stream which chunks up written content of an entry.
+	 */
+	private class EntryOutputStream extends OutputStream {
+		private final CRC32 crc = new CRC32();
+		private final Entry entry;
+		private byte[] chunk = new byte[CHUNK_SIZE];
+		private int chunkLength;
+		private boolean closed;
+
+		private EntryOutputStream(@Nonnull Entry entry) {
+			this.entry = entry;
+			entry.streamed = true;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+			if (closed)
+				throw new IOException("Stream closed");
+			crc.update(b, off, len);
+			entry.size += len;
+			while (len > 0) {
+				// A full chunk is only submitted once more content follows it, so that the last chunk
+				// can be flagged as such when the stream is closed.
+				if (chunkLength == CHUNK_SIZE)
+					submitChunk(false);
+				int copied = Math.min(len, CHUNK_SIZE - chunkLength);
+				System.arraycopy(b, off, chunk, chunkLength, copied);
+				chunkLength += copied;
+				off += copied;
+				len -= copied;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed)
+				return;
+			closed = true;
+
+			// Deflate content always needs a final chunk to end the stream, even if it is empty.
+			if (entry.method == METHOD_DEFLATED || chunkLength > 0)
+				submitChunk(true);
+			chunk = null;
+			entry.crc = crc.getValue();
+			openEntry = null;
+			enqueue(new EndStep(entry));
+		}
+
+		private void submitChunk(boolean last) throws IOException {
+			byte[] data = chunk;
+			int length = chunkLength;
+			Future<ByteBuffer> future;
+			if (entry.method == METHOD_STORED) {
+				entry.compressedSize += length;
+				future = CompletableFuture.completedFuture(ByteBuffer.wrap(data, 0, length));
+			} else {
+				future = service.submit(() -> deflate(data, 0, length, last));
+			}
+			chunk = new byte[CHUNK_SIZE];
+			chunkLength = 0;
+			enqueue(new DataStep(entry, future, true));
+		}
+	}
+
+	/**
+	 * Stream which collects the content of a stored entry, adding it once the content is complete.
+	 */
+	private class BufferedEntryOutputStream extends ByteArrayOutputStream {
+		private final String name;
+		private final String comment;
+		private final long createTime;
+		private final long modifyTime;
+		private final long accessTime;
+		private boolean closed;
+
+		private BufferedEntryOutputStream(@Nonnull String name, @Nullable String comment,
+		                                  long createTime, long modifyTime, long accessTime) {
+			this.name = name;
+			this.comment = comment;
+			this.createTime = createTime;
+			this.modifyTime = modifyTime;
+			this.accessTime = accessTime;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed)
+				return;
+			closed = true;
+			openEntry = null;
+			add(name, toByteArray(), false, comment, createTime, modifyTime, accessTime);
+		}
+	}
+
+	/**
+	 * Entry details, kept for writing the central directory once all content is written.
+	 */
+	private static class Entry {
+		private final byte[] name;
+		private final byte[] comment;
+		private final int method;
+		private final int dosTime;
+		private final long createTime;
+		private final long modifyTime;
+		private final long accessTime;
+		private int flags = FLAG_UTF8;
+		private boolean streamed;
+		private long crc;
+		private long size;
+		private long compressedSize;
+		private long offset;
+
+		private Entry(@Nonnull String name, @Nullable String comment, int method,
+		              long createTime, long modifyTime, long accessTime) {
+			this.name = name.getBytes(StandardCharsets.UTF_8);
+			this.comment = comment == null ? new byte[0] : comment.getBytes(StandardCharsets.UTF_8);
+			this.method = method;
+			this.createTime = toUnixTime(createTime);
+			this.modifyTime = toUnixTime(modifyTime);
+			this.accessTime = toUnixTime(accessTime);
+			dosTime = dosTime(modifyTime >= 0 ? modifyTime : System.currentTimeMillis());
+		}
+
+		/**
+		 * @return Version needed to extract the entry.
+		 */
+		private int version() {
+			return method == METHOD_STORED ? 10 : 20;
+		}
+
+		/**
+		 * @return Extra field data for the local header, holding the extended timestamps of the entry.
+		 */
+		@Nonnull
+		private byte[] localExtra() {
+			int timeFlags = 0;
+			int length = 1;
+			if (modifyTime >= 0) {
+				timeFlags |= 1;
+				length += 4;
+			}
+			if (accessTime >= 0) {
+				timeFlags |= 2;
+				length += 4;
+			}
+			if (createTime >= 0) {
+				timeFlags |= 4;
+				length += 4;
+			}
+			if (timeFlags == 0)
+				return new byte[0];
+			ByteBuffer buffer = buffer(4 + length);
+			buffer.putShort((short) EXTRA_TIMESTAMP);
+			buffer.putShort((short) length);
+			buffer.put((byte) timeFlags);
+			if (modifyTime >= 0) buffer.putInt((int) modifyTime);
+			if (accessTime >= 0) buffer.putInt((int) accessTime);
+			if (createTime >= 0) buffer.putInt((int) createTime);
+			return buffer.array();
+		}
+
+		/**
+		 * @return Extra field data for the central header, holding the ZIP64 offset if needed
+		 * and the modification time of the entry.
+		 */
+		@Nonnull
+		private byte[] centralExtra() {
+			int timeFlags = (modifyTime >= 0 ? 1 : 0) | (accessTime >= 0 ? 2 : 0) | (createTime >= 0 ? 4 : 0);
+			boolean zip64 = offset >= MAX_U32;
+			int length = (zip64 ? 12 : 0) + (timeFlags != 0 ? 5 + (modifyTime >= 0 ? 4 : 0) : 0);
+			ByteBuffer buffer = buffer(length);
+			if (zip64) {
+				buffer.putShort((short) EXTRA_ZIP64);
+				buffer.putShort((short) 8);
+				buffer.putLong(offset);
+			}
+			if (timeFlags != 0) {
+				// Only the modification time is held in the central header, though the flags match the local header.
+				buffer.putShort((short) EXTRA_TIMESTAMP);
+				buffer.putShort((short) (1 + (modifyTime >= 0 ? 4 : 0)));
+				buffer.put((byte) timeFlags);
+				if (modifyTime >= 0) buffer.putInt((int) modifyTime);
+			}
+			return buffer.array();
+		}
+
+		/**
+		 * @param millis
+		 * 		Java time in milliseconds, or negative when not set.
+		 *
+		 * @return Unix time in seconds, or {@code -1} when not set or not representable in the extended timestamp field.
+		 */
+		private static long toUnixTime(long millis) {
+			if (millis < 0)
+				return -1;
+			long seconds = millis / 1000;
+			return seconds > Integer.MAX_VALUE ? -1 : seconds;
+		}
+	}
+}
@@ -6,14 +6,18 @@
 import org.openrewrite.Tree;
 import org.openrewrite.jgit.diff.*;
 
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
 /**
  * Wrapping around JGit diff logic.
+ * <p>
+ * Texts are compared line by line, directly on their characters. Leading and trailing lines which are identical in
+ * both inputs are skipped before handing the remaining lines to the diff algorithm, so the cost of a diff mostly
+ * scales with the size of the changed region rather than the size of the input.
  *
  * @author Matt Coley
  */
@@ -28,98 +32,183 @@ public class StringDiff {
 	 */
 	@Nonnull
 	public static List<Diff> diff(@Nonnull String a, @Nonnull String b) {
-		// Use JGit to diff.
-		EditList diffs = DiffAlgorithm.getAlgorithm(DiffAlgorithm.SupportedAlgorithm.MYERS)
-				.diff(RawTextComparator.DEFAULT,
-						new RawText(a.getBytes(StandardCharsets.UTF_8)),
-						new RawText(b.getBytes(StandardCharsets.UTF_8)));
+		return diff(a, b, Algorithm.MYERS);
+	}
+
+	/**
+	 * @param a
+	 * 		Input.
+	 * @param b
+	 * 		Modified input.
+	 * @param algorithm
+	 * 		Line diff algorithm to use.
+	 *
+	 * @return Diffs from {@code a} --> {@code b}.
+	 */
+	@Nonnull
+	public static List<Diff> diff(@Nonnull String a, @Nonnull String b, @Nonnull Algorithm algorithm) {
+		// Skip over the lines both inputs start and end with.
+		int lengthA = a.length();
+		int lengthB = b.length();
+		int maxCommon = Math.min(lengthA, lengthB);
+		int prefix = 0;
+		while (prefix < maxCommon && a.charAt(prefix) == b.charAt(prefix))
+			prefix++;
+		if (prefix == lengthA && prefix == lengthB)
+			return Collections.emptyList();
+		int suffix = 0;
+		while (suffix < maxCommon - prefix && a.charAt(lengthA - suffix - 1) == b.charAt(lengthB - suffix - 1))
+			suffix++;
+
+		// Align the skipped regions to whole lines. The newline ending the skipped prefix, and the one ending the
+		// line before the skipped suffix must be within the common regions, so that both inputs agree on them.
+		int commonLinesPrefix = prefix == 0 ? 0 : a.lastIndexOf('\n', prefix - 1) + 1;
+		int suffixNewline = a.indexOf('\n', lengthA - suffix);
+		int commonLinesSuffix = suffixNewline < 0 ? 0 : lengthA - suffixNewline - 1;
 
-		int[] newlineOffsetsA = computeNewlineOffsets(a);
-		int[] newlineOffsetsB = computeNewlineOffsets(b);
+		// Diff the remaining lines.
+		LineSequence linesA = new LineSequence(a, commonLinesPrefix, lengthA - commonLinesSuffix);
+		LineSequence linesB = new LineSequence(b, commonLinesPrefix, lengthB - commonLinesSuffix);
+		EditList diffs = DiffAlgorithm.getAlgorithm(algorithm.jgitAlgorithm)
+				.diff(LineComparator.INSTANCE, linesA, linesB);
 
 		// Map to diff types that are easier to use.
 		// We want raw positions, not line numbers, so we can do replace operations easily.
 		List<Diff> ret = new ArrayList<>(diffs.size());
-		for (Edit diff : diffs) {
-			int newlineStartA = diff.getBeginA(); // Line start of diff-A
-			int newlineEndA = diff.getEndA(); // Line end of diff-A
-			int offsetStartA = newlineOffsetsA[newlineStartA]; // Starting text offset of diff-A
-			int offsetEndA = newlineOffsetsA[newlineEndA]; // Ending text offset of diff-A
-			String contentA = a.substring(offsetStartA, offsetEndA);
-
-			int newlineStartB = diff.getBeginB(); // Line start of diff-B
-			int newlineEndB = diff.getEndB(); // Line end of diff-B
-			int offsetStartB = newlineOffsetsB[newlineStartB]; // Starting text offset of diff-B
-			int offsetEndB = newlineOffsetsB[newlineEndB]; // Ending text offset of diff-B
-			String contentB = b.substring(offsetStartB, offsetEndB);
+		for (int i = 0; i < diffs.size(); i++) {
+			// Edits can directly follow one another, such as an insertion followed by a removal.
+			// These are merged so that no two of our diffs start at the same position.
+			Edit diff = diffs.get(i);
+			while (i + 1 < diffs.size() && diffs.get(i + 1).getBeginA() == diff.getEndA()
+					&& diffs.get(i + 1).getBeginB() == diff.getEndB()) {
+				Edit next = diffs.get(++i);
+				diff = new Edit(diff.getBeginA(), next.getEndA(), diff.getBeginB(), next.getEndB());
+			}
+			int offsetStartA = linesA.lineStart(diff.getBeginA());
+			int offsetEndA = linesA.lineStart(diff.getEndA());
+			int offsetStartB = linesB.lineStart(diff.getBeginB());
+			int offsetEndB = linesB.lineStart(diff.getEndB());
 
 			// Shrink difference by trimming out the common prefix and suffix.
-			String commonPrefix = StringUtil.getCommonPrefix(contentA, contentB);
-			if (!commonPrefix.isEmpty()) {
-				int common = commonPrefix.length();
-				offsetStartA += common;
-				offsetStartB += common;
-				contentA = a.substring(offsetStartA, offsetEndA);
-				contentB = b.substring(offsetStartB, offsetEndB);
+			while (offsetStartA < offsetEndA && offsetStartB < offsetEndB
+					&& a.charAt(offsetStartA) == b.charAt(offsetStartB)) {
+				offsetStartA++;
+				offsetStartB++;
 			}
-			String commonSuffix = StringUtil.getCommonSuffix(contentA, contentB);
-			if (!commonSuffix.isEmpty()) {
-				int common = commonSuffix.length();
-				offsetEndA -= common;
-				offsetEndB -= common;
-				contentA = a.substring(offsetStartA, offsetEndA);
-				contentB = b.substring(offsetStartB, offsetEndB);
+			while (offsetStartA < offsetEndA && offsetStartB < offsetEndB
+					&& a.charAt(offsetEndA - 1) == b.charAt(offsetEndB - 1)) {
+				offsetEndA--;
+				offsetEndB--;
 			}
 
 			// Compute the diff type. It will have changed from what JGit reports if our
 			// shrinking has shrunk either 'A' or 'B' to an empty string.
 			DiffType type = DiffType.from(diff.getType());
-			if (contentA.isEmpty() && !contentB.isEmpty())
+			if (offsetStartA == offsetEndA && offsetStartB != offsetEndB)
 				type = DiffType.INSERT;
-			else if (!contentA.isEmpty() && contentB.isEmpty())
+			else if (offsetStartA != offsetEndA && offsetStartB == offsetEndB)
 				type = DiffType.REMOVE;
 
 			// Add our mapped diff.
-			ret.add(new Diff(type, offsetStartA, offsetStartB, offsetEndA, offsetEndB, contentA, contentB));
+			ret.add(new Diff(type, offsetStartA, offsetStartB, offsetEndA, offsetEndB,
+					a.substring(offsetStartA, offsetEndA), b.substring(offsetStartB, offsetEndB)));
 		}
 		return ret;
 	}
 
 	/**
-	 * @param text
-	 * 		Text to scan.
-	 *
-	 * @return Offsets of newline separators, with included cases for the start and end of
-	 * the string even if {@code "\n"} does not prefix or suffix the string.
+	 * Available line diff algorithms.
 	 */
-	@Nonnull
-	private static int[] computeNewlineOffsets(@Nonnull String text) {
-		// Find existing newline offsets.
-		int[] offsets = StringUtil.indicesOf(text, '\n');
-
-		int textLength = text.length();
-		if (offsets.length == 0) {
-			// Base cases for strings without newlines.
-			return text.isEmpty() ? new int[]{0} : new int[]{0, textLength};
-		} else {
-			// Ensure we start with a newline offset.
-			if (offsets[0] != 0) {
-				int[] newOffsets = new int[offsets.length + 1];
-				newOffsets[0] = 0;
-				System.arraycopy(offsets, 0, newOffsets, 1, offsets.length);
-				offsets = newOffsets;
-			}
+	public enum Algorithm {
+		/**
+		 * Myers' diff algorithm. Yields minimal diffs, but can be slow on inputs with many changes.
+		 */
+		MYERS(DiffAlgorithm.SupportedAlgorithm.MYERS),
+		/**
+		 * Histogram diff, an extension of patience diff which anchors on lines that are rare in both inputs.
+		 * Generally faster than Myers on large inputs, and tends to align changes with the structure of code.
+		 */
+		HISTOGRAM(DiffAlgorithm.SupportedAlgorithm.HISTOGRAM);
 
-			// Ensure we end with a newline offset.
-			if (offsets[offsets.length - 1] != textLength - 1) {
-				int[] newOffsets = new int[offsets.length + 1];
-				newOffsets[offsets.length] = textLength;
-				System.arraycopy(offsets, 0, newOffsets, 0, offsets.length);
-				offsets = newOffsets;
-			}
+		private final DiffAlgorithm.SupportedAlgorithm jgitAlgorithm;
+
+		Algorithm(@Nonnull DiffAlgorithm.SupportedAlgorithm jgitAlgorithm) {
+			this.jgitAlgorithm = jgitAlgorithm;
 		}
+	}
 
-		return offsets;
+	/**
+	 * Lines in a range of a string. Each line includes its terminating {@code '\n'} if it has one.
+	 */
+	private static class LineSequence extends Sequence {
+		private final String text;
+		private final int[] lineStarts;
+
+		/**
+		 * @param text
+		 * 		Text to split into lines.
+		 * @param start
+		 * 		Offset of the first line in the text.
+		 * @param end
+		 * 		Offset of the end of the last line in the text.
+		 */
+		private LineSequence(@Nonnull String text, int start, int end) {
+			this.text = text;
+
+			int lines = 0;
+			for (int i = start; i < end; i++)
+				if (text.charAt(i) == '\n')
+					lines++;
+			if (end > start && text.charAt(end - 1) != '\n')
+				lines++;
+			lineStarts = new int[lines + 1];
+			lineStarts[0] = start;
+			int line = 1;
+			for (int i = start; i < end && line < lines; i++)
+				if (text.charAt(i) == '\n')
+					lineStarts[line++] = i + 1;
+			lineStarts[lines] = end;
+		}
+
+		/**
+		 * @param line
+		 * 		Line index, where {@link #size()} denotes the end of the last line.
+		 *
+		 * @return Offset in the text of the start of the line.
+		 */
+		private int lineStart(int line) {
+			return lineStarts[line];
+		}
+
+		@Override
+		public int size() {
+			return lineStarts.length - 1;
+		}
+	}
+
+	/**
+	 * Comparator for lines of {@link LineSequence}.
+	 */
+	private static class LineComparator extends SequenceComparator<LineSequence> {
+		private static final LineComparator INSTANCE = new LineComparator();
+
+		@Override
+		public boolean equals(LineSequence a, int ai, LineSequence b, int bi) {
+			int startA = a.lineStarts[ai];
+			int length = a.lineStarts[ai + 1] - startA;
+			int startB = b.lineStarts[bi];
+			return length == b.lineStarts[bi + 1] - startB && a.text.regionMatches(startA, b.text, startB, length);
+		}
+
+		@Override
+		public int hash(LineSequence seq, int ptr) {
+			String text = seq.text;
+			int end = seq.lineStarts[ptr + 1];
+			int hash = 5381;
+			for (int i = seq.lineStarts[ptr]; i < end; i++)
+				hash = ((hash << 5) + hash) + text.charAt(i);
+			return hash;
+		}
 	}
 
 	/**
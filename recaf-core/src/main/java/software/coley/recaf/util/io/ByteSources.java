@@ -93,6 +93,19 @@ public static ByteSource forPath(Path path) {
 		return new PathByteSource(path);
 	}
 
+	/**
+	 * Creates new byte source from a system class-loader resource.
+	 * The resource is looked up each time the source is read.
+	 *
+	 * @param name
+	 * 		Name of the resource, such as {@code java/lang/String.class}.
+	 *
+	 * @return New byte source.
+	 */
+	public static ByteSource forSystemResource(String name) {
+		return new SystemResourceByteSource(name);
+	}
+
 	/**
 	 * Creates new byte source from lljzip byte data.
 	 *
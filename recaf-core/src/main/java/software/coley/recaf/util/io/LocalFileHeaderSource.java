@@ -18,6 +18,7 @@
 public final class LocalFileHeaderSource implements ByteSource {
 	private final LocalFileHeader fileHeader;
 	private final boolean isAndroid;
+	private final boolean cacheDecompressed;
 	private MemorySegment decompressed;
 
 	public LocalFileHeaderSource(LocalFileHeader fileHeader) {
@@ -25,8 +26,23 @@ public LocalFileHeaderSource(LocalFileHeader fileHeader) {
 	}
 
 	public LocalFileHeaderSource(LocalFileHeader fileHeader, boolean isAndroid) {
+		this(fileHeader, isAndroid, true);
+	}
+
+	/**
+	 * @param fileHeader
+	 * 		Header to read content from.
+	 * @param isAndroid
+	 * 		Flag to fall back to the raw data when decompression fails, as Android does.
+	 * @param cacheDecompressed
+	 * 		Flag to hold onto decompressed content between reads.
+	 * 		When {@code false} the content is decompressed again on each read, which is preferable when
+	 * 		the source is kept around for a long time but rarely read.
+	 */
+	public LocalFileHeaderSource(LocalFileHeader fileHeader, boolean isAndroid, boolean cacheDecompressed) {
 		this.fileHeader = fileHeader;
 		this.isAndroid = isAndroid;
+		this.cacheDecompressed = cacheDecompressed;
 	}
 
 	@Nonnull
@@ -73,19 +89,25 @@ public boolean isEmpty() throws IOException {
 	private MemorySegment decompress() throws IOException {
 		MemorySegment decompressed = this.decompressed;
 		if (decompressed == null) {
-			// From: https://cs.android.com/android/_/android/platform/frameworks/base/+/b3559643b946829933a76ed45750d13edfefad30:tools/aapt/ZipFile.cpp;l=436
-			//  - If the compression mode given fails, it will get treated as STORED as a fallback
-			if (isAndroid) {
-				try {
-					return this.decompressed = ZipCompressions.decompress(fileHeader);
-				} catch (IOException ex) {
-					return this.decompressed = fileHeader.getFileData();
-				}
-			}
-
-			// In other cases, malformed content should throw an exception and be handled by the caller.
-			return this.decompressed = ZipCompressions.decompress(fileHeader);
+			decompressed = decompressUncached();
+			if (cacheDecompressed)
+				this.decompressed = decompressed;
 		}
 		return decompressed;
 	}
+
+	private MemorySegment decompressUncached() throws IOException {
+		// From: https://cs.android.com/android/_/android/platform/frameworks/base/+/b3559643b946829933a76ed45750d13edfefad30:tools/aapt/ZipFile.cpp;l=436
+		//  - If the compression mode given fails, it will get treated as STORED as a fallback
+		if (isAndroid) {
+			try {
+				return ZipCompressions.decompress(fileHeader);
+			} catch (IOException ex) {
+				return fileHeader.getFileData();
+			}
+		}
+
+		// In other cases, malformed content should throw an exception and be handled by the caller.
+		return ZipCompressions.decompress(fileHeader);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package software.coley.recaf.util.io;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * System class-loader resource byte source.
+ *
+ * @author Matt Coley
+ */
+final class SystemResourceByteSource implements ByteSource {
+	private final String name;
+
+	/**
+	 * @param name
+	 * 		Name of the resource to read, as passed to {@link ClassLoader#getSystemResourceAsStream(String)}.
+	 */
+	SystemResourceByteSource(String name) {
+		this.name = name;
+	}
+
+	@Nonnull
+	@Override
+	public byte[] readAll() throws IOException {
+		try (InputStream in = openStream()) {
+			return in.readAllBytes();
+		}
+	}
+
+	@Nonnull
+	@Override
+	public byte[] peek(int count) throws IOException {
+		try (InputStream in = openStream()) {
+			return in.readNBytes(count);
+		}
+	}
+
+	@Nonnull
+	@Override
+	public InputStream openStream() throws IOException {
+		InputStream in = ClassLoader.getSystemResourceAsStream(name);
+		if (in == null)
+			throw new FileNotFoundException("System resource not found: " + name);
+		return in;
+	}
+
+	@Nonnull
+	@Override
+	public MemorySegment mmap() throws IOException {
+		return MemorySegment.ofArray(readAll());
+	}
+}
@@ -1,10 +1,13 @@
 package software.coley.recaf.workspace.model;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import org.slf4j.Logger;
 import software.coley.collections.Unchecked;
 import software.coley.recaf.analytics.logging.Logging;
 import software.coley.recaf.behavior.Closing;
+import software.coley.recaf.path.ClassPathNode;
+import software.coley.recaf.path.DirectoryPathNode;
 import software.coley.recaf.services.workspace.WorkspaceManager;
 import software.coley.recaf.workspace.model.resource.AndroidApiResource;
 import software.coley.recaf.workspace.model.resource.RuntimeWorkspaceResource;
@@ -27,6 +30,7 @@ public class BasicWorkspace implements Workspace {
 	private final WorkspaceResource primary;
 	private final List<WorkspaceResource> supporting = new ArrayList<>();
 	private final List<WorkspaceResource> internal;
+	private final WorkspaceLookupIndex lookupIndex = new WorkspaceLookupIndex(this);
 
 	/**
 	 * @param primary
@@ -76,6 +80,7 @@ public List<WorkspaceResource> getInternalSupportingResources() {
 	@Override
 	public void addSupportingResource(@Nonnull WorkspaceResource resource) {
 		supporting.add(resource);
+		lookupIndex.invalidate();
 		Unchecked.checkedForEach(modificationListeners, listener -> listener.onAddLibrary(this, resource),
 				(listener, t) -> logger.error("Exception thrown when adding supporting resource", t));
 	}
@@ -84,6 +89,7 @@ public void addSupportingResource(@Nonnull WorkspaceResource resource) {
 	public boolean removeSupportingResource(@Nonnull WorkspaceResource resource) {
 		boolean remove = supporting.remove(resource);
 		if (remove) {
+			lookupIndex.invalidate();
 			Unchecked.checkedForEach(modificationListeners, listener -> listener.onRemoveLibrary(this, resource),
 					(listener, t) -> logger.error("Exception thrown when removing supporting resource", t));
 		}
@@ -106,11 +112,28 @@ public void removeWorkspaceModificationListener(@Nonnull WorkspaceModificationLi
 		modificationListeners.remove(listener);
 	}
 
+	@Nullable
+	@Override
+	public ClassPathNode findJvmClass(@Nonnull String name) {
+		return lookupIndex.findJvmClass(name);
+	}
+
+	@Nullable
+	@Override
+	public DirectoryPathNode findPackage(@Nonnull String name) {
+		// Map '.' to '/' in case users pass in the common dot format instead, and drop any trailing '/'.
+		name = name.replace('.', '/');
+		if (name.endsWith("/"))
+			name = name.substring(0, name.length() - 1);
+		return lookupIndex.findPackage(name);
+	}
+
 	/**
 	 * Called by {@link WorkspaceManager} when the workspace is closed.
 	 */
 	@Override
 	public void close() {
+		lookupIndex.invalidate();
 		modificationListeners.clear();
 		supporting.forEach(Closing::close);
 		primary.close();
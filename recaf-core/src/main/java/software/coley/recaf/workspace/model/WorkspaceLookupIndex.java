@@ -0,0 +1,268 @@
+package software.coley.recaf.workspace.model;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import software.coley.collections.Unchecked;
+import software.coley.recaf.info.ClassInfo;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.path.ClassPathNode;
+import software.coley.recaf.path.DirectoryPathNode;
+import software.coley.recaf.path.PathNodes;
+import software.coley.recaf.workspace.model.bundle.BundleListener;
+import software.coley.recaf.workspace.model.bundle.ClassBundle;
+import software.coley.recaf.workspace.model.bundle.JvmClassBundle;
+import software.coley.recaf.workspace.model.resource.WorkspaceResource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of class names and packages across the primary and supporting resources of a workspace.
+ * Backs {@link BasicWorkspace#findJvmClass(String)} and {@link BasicWorkspace#findPackage(String)} so that
+ * lookups do not need to check every bundle of every resource.
+ * <br>
+ * The index is built on first use, and kept up-to-date by listening to the contents of the indexed bundles.
+ * Changes to the set of resources in the workspace {@link #invalidate() invalidate} the index,
+ * which is then rebuilt on the next lookup.
+ * <br>
+ * Internal supporting resources are not indexed since they load their contents lazily, so they are checked
+ * directly when a class is not found in the index.
+ *
+ * @author Matt Coley
+ */
+class WorkspaceLookupIndex {
+	private final Workspace workspace;
+	private volatile State state;
+
+	/**
+	 * @param workspace
+	 * 		Workspace to index.
+	 */
+	WorkspaceLookupIndex(@Nonnull Workspace workspace) {
+		this.workspace = workspace;
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return Path to <i>the first</i> JVM class matching the given name, following the same resource and bundle
+	 * order as {@link Workspace#findJvmClass(String)}.
+	 */
+	@Nullable
+	ClassPathNode findJvmClass(@Nonnull String name) {
+		for (int attempt = 0; attempt < 2; attempt++) {
+			BundleLocation location = getState().classLocations.get(name);
+			if (location == null)
+				break;
+			JvmClassInfo classInfo = ((JvmClassBundle) location.bundle).get(name);
+			if (classInfo != null)
+				return PathNodes.classPath(workspace, location.resource, location.bundle, classInfo);
+
+			// Bundles can be modified without notifying listeners in a few cases, like 'clear()'.
+			// The index is out of date, so we rebuild it and try again.
+			invalidate();
+		}
+
+		// Not in any indexed resource, so check the internal ones.
+		for (WorkspaceResource resource : workspace.getInternalSupportingResources()) {
+			for (JvmClassBundle bundle : resource.jvmClassBundleStreamRecursive().toList()) {
+				JvmClassInfo classInfo = bundle.get(name);
+				if (classInfo != null)
+					return PathNodes.classPath(workspace, resource, bundle, classInfo);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param name
+	 * 		Package name, in internal format, without any trailing {@code '/'}.
+	 *
+	 * @return Path to <i>the first</i> package matching the given name, following the same resource and bundle
+	 * order as {@link Workspace#findPackage(String)}.
+	 */
+	@Nullable
+	DirectoryPathNode findPackage(@Nonnull String name) {
+		for (BundleLocation location : getState().packageLocations)
+			if (location.packageCounts.containsKey(name))
+				return PathNodes.directoryPath(workspace, location.resource, location.bundle, name);
+		return null;
+	}
+
+	/**
+	 * Removes listeners from indexed bundles and drops the index. It will be rebuilt on the next lookup.
+	 */
+	synchronized void invalidate() {
+		State current = state;
+		if (current != null) {
+			state = null;
+			for (BundleLocation location : current.locations)
+				location.bundle.removeBundleListener(Unchecked.cast(location));
+		}
+	}
+
+	@Nonnull
+	private State getState() {
+		State current = state;
+		if (current == null) {
+			synchronized (this) {
+				current = state;
+				if (current == null)
+					state = current = new State();
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Snapshot of the index for the current set of resources in the workspace.
+	 */
+	private class State {
+		private final List<BundleLocation> locations = new ArrayList<>();
+		private final List<BundleLocation> classLocationsOrder = new ArrayList<>();
+		private final List<BundleLocation> packageLocations = new ArrayList<>();
+		private final Map<String, BundleLocation> classLocations = new ConcurrentHashMap<>();
+
+		private State() {
+			Map<ClassBundle<?>, BundleLocation> bundleToLocation = new IdentityHashMap<>();
+			List<WorkspaceResource> resources = new ArrayList<>();
+			resources.add(workspace.getPrimaryResource());
+			resources.addAll(workspace.getSupportingResources());
+			for (WorkspaceResource resource : resources) {
+				// Class lookups include JVM bundles in embedded resources
+				resource.jvmClassBundleStreamRecursive().forEach(bundle -> {
+					BundleLocation location = bundleToLocation.computeIfAbsent(bundle, b -> new BundleLocation(this, resource, b));
+					location.classRank = classLocationsOrder.size();
+					classLocationsOrder.add(location);
+				});
+
+				// Package lookups include all immediate class bundles
+				resource.classBundleStream().forEach(bundle -> {
+					BundleLocation location = bundleToLocation.computeIfAbsent(bundle, b -> new BundleLocation(this, resource, b));
+					location.packageCounts = new ConcurrentHashMap<>();
+					packageLocations.add(location);
+				});
+			}
+			locations.addAll(bundleToLocation.values());
+
+			// Add listeners before populating so that no changes are missed. This is only called while holding
+			// the index lock, so the listeners will wait until the initial state is populated. Any changes
+			// that are seen by both the population pass and a listener are only counted once.
+			for (BundleLocation location : locations)
+				location.bundle.addBundleListener(Unchecked.cast(location));
+			for (BundleLocation location : locations)
+				for (String key : location.bundle.keySet())
+					location.onNewKey(key);
+		}
+
+		/**
+		 * Updates the class location of the given name after it was removed from a bundle.
+		 *
+		 * @param name
+		 * 		Class name.
+		 * @param removedFrom
+		 * 		Location the class was removed from.
+		 */
+		private void onClassRemoved(@Nonnull String name, @Nonnull BundleLocation removedFrom) {
+			if (classLocations.get(name) != removedFrom)
+				return;
+
+			// Find the next bundle in lookup order which has the class, if any
+			for (int i = removedFrom.classRank + 1; i < classLocationsOrder.size(); i++) {
+				BundleLocation location = classLocationsOrder.get(i);
+				if (location.bundle.containsKey(name)) {
+					classLocations.put(name, location);
+					return;
+				}
+			}
+			classLocations.remove(name);
+		}
+	}
+
+	/**
+	 * Indexed bundle, which listens for changes to its contents to update the index.
+	 */
+	private class BundleLocation implements BundleListener<ClassInfo> {
+		private final State owner;
+		private final WorkspaceResource resource;
+		private final ClassBundle<?> bundle;
+		/** Order of the bundle in class lookups, or {@code -1} if not used for class lookups. */
+		private int classRank = -1;
+		/** Counts of classes in each package of the bundle, or {@code null} if not used for package lookups. */
+		private Map<String, Integer> packageCounts;
+		/** Keys which have been recorded in the index. */
+		private final Set<String> indexedKeys = ConcurrentHashMap.newKeySet();
+
+		private BundleLocation(@Nonnull State owner, @Nonnull WorkspaceResource resource, @Nonnull ClassBundle<?> bundle) {
+			this.owner = owner;
+			this.resource = resource;
+			this.bundle = bundle;
+		}
+
+		private void onNewKey(@Nonnull String key) {
+			if (!indexedKeys.add(key))
+				return;
+			if (classRank >= 0) {
+				BundleLocation existing = owner.classLocations.get(key);
+				if (existing == null || existing.classRank > classRank)
+					owner.classLocations.put(key, this);
+			}
+			if (packageCounts != null)
+				for (String packageName : packagesOf(key))
+					packageCounts.merge(packageName, 1, Integer::sum);
+		}
+
+		private void onRemovedKey(@Nonnull String key) {
+			if (!indexedKeys.remove(key))
+				return;
+			if (classRank >= 0)
+				owner.onClassRemoved(key, this);
+			if (packageCounts != null)
+				for (String packageName : packagesOf(key))
+					packageCounts.computeIfPresent(packageName, (k, count) -> count > 1 ? count - 1 : null);
+		}
+
+		@Override
+		public void onNewItem(@Nonnull String key, @Nonnull ClassInfo value) {
+			synchronized (WorkspaceLookupIndex.this) {
+				onNewKey(key);
+			}
+		}
+
+		@Override
+		public void onUpdateItem(@Nonnull String key, @Nonnull ClassInfo oldValue, @Nonnull ClassInfo newValue) {
+			// Names are the same, so nothing to update.
+		}
+
+		@Override
+		public void onRemoveItem(@Nonnull String key, @Nonnull ClassInfo value) {
+			synchronized (WorkspaceLookupIndex.this) {
+				onRemovedKey(key);
+			}
+		}
+	}
+
+	/**
+	 * @param className
+	 * 		Class name.
+	 *
+	 * @return All packages containing the class, from outermost to innermost.
+	 * For instance {@code a/b/C} yields {@code a} and {@code a/b}.
+	 */
+	@Nonnull
+	private static List<String> packagesOf(@Nonnull String className) {
+		int slash = className.indexOf('/');
+		if (slash < 0)
+			return Collections.emptyList();
+		List<String> packages = new ArrayList<>();
+		for (; slash >= 0; slash = className.indexOf('/', slash + 1))
+			packages.add(className.substring(0, slash));
+		return packages;
+	}
+}
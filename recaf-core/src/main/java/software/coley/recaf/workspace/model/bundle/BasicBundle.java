@@ -1,6 +1,7 @@
 package software.coley.recaf.workspace.model.bundle;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import org.slf4j.Logger;
 import software.coley.collections.Unchecked;
 import software.coley.recaf.analytics.logging.Logging;
@@ -21,7 +22,8 @@
  */
 public class BasicBundle<I extends Info> implements Bundle<I> {
 	private static final Logger logger = Logging.get(BasicBundle.class);
-	private final Map<String, Stack<I>> history = new ConcurrentHashMap<>();
+	private final Map<String, ItemHistory<I>> history = new ConcurrentHashMap<>();
+	private final HistoryStore<I> historyStore = new HistoryStore<>(getHistoryCodec());
 	private final List<BundleListener<I>> listeners = new CopyOnWriteArrayList<>();
 	private final Map<String, I> backing = new ConcurrentHashMap<>();
 	private final Set<String> initialKeys = ConcurrentHashMap.newKeySet();
@@ -34,9 +36,34 @@
 	 * 		Origin item.
 	 */
 	private void initHistory(@Nonnull I info) {
-		Stack<I> itemHistory = new Stack<>();
-		itemHistory.push(info);
-		history.put(info.getName(), itemHistory);
+		ItemHistory<I> prior = history.put(info.getName(), new ItemHistory<>(historyStore, info));
+		if (prior != null)
+			prior.release();
+	}
+
+	/**
+	 * @return Codec to compactly store past item states with, or {@code null} to keep past states as-is.
+	 * Called when the bundle is constructed.
+	 */
+	@Nullable
+	protected HistoryCodec<I> getHistoryCodec() {
+		return null;
+	}
+
+	/**
+	 * @return Limits on the history kept by this bundle.
+	 */
+	@Nonnull
+	public HistoryPolicy getHistoryPolicy() {
+		return historyStore.getPolicy();
+	}
+
+	/**
+	 * @param policy
+	 * 		Limits on the history kept by this bundle. Applies to changes made after this call.
+	 */
+	public void setHistoryPolicy(@Nonnull HistoryPolicy policy) {
+		historyStore.setPolicy(policy);
 	}
 
 	/**
@@ -76,19 +103,38 @@ public I put(@Nonnull I info) {
 	}
 
 	/**
-	 * History contains a stack of prior states of items.
-	 * If an item has not been modified there is no entry in this map.
+	 * History contains the prior states of items.
+	 * Items are given a history when they are added, which is dropped when they are removed.
 	 *
 	 * @return Map of historical states of items within this bundle.
 	 */
 	@Nonnull
-	protected Map<String, Stack<I>> getHistory() {
+	protected Map<String, ItemHistory<I>> getHistory() {
 		return history;
 	}
 
+	/**
+	 * @param key
+	 * 		Item key.
+	 *
+	 * @return History of the item, or {@code null} if no such item exists.
+	 * Unlike {@link #getHistory(String)} this does not need to decode all past states of the item.
+	 */
+	@Nullable
+	public ItemHistory<I> getItemHistory(@Nonnull String key) {
+		return history.get(key);
+	}
+
 	@Override
 	public Stack<I> getHistory(@Nonnull String key) {
-		return history.get(key);
+		ItemHistory<I> itemHistory = history.get(key);
+		return itemHistory == null ? null : itemHistory.toStack();
+	}
+
+	@Override
+	public I getInitial(@Nonnull String key) {
+		ItemHistory<I> itemHistory = history.get(key);
+		return itemHistory == null ? null : itemHistory.getInitial();
 	}
 
 	@Nonnull
@@ -112,14 +158,14 @@ public Set<String> getRemovedKeys() {
 	@Override
 	public boolean hasHistory(@Nonnull String key) {
 		// History implies there are past entries for the current value, hence more than one entry.
-		Stack<I> stack = history.get(key);
-		return stack != null && stack.size() > 1;
+		ItemHistory<I> itemHistory = history.get(key);
+		return itemHistory != null && itemHistory.size() > 1;
 	}
 
 	@Override
 	public void incrementHistory(@Nonnull I info) {
 		String key = info.getName();
-		Stack<I> itemHistory = getHistory(key);
+		ItemHistory<I> itemHistory = history.get(key);
 		if (itemHistory == null) {
 			throw new IllegalStateException("Failed history increment, no prior history to build on for: " + key);
 		}
@@ -129,21 +175,14 @@ public void incrementHistory(@Nonnull I info) {
 
 	@Override
 	public void decrementHistory(@Nonnull String key) {
-		Stack<I> itemHistory = getHistory(key);
+		ItemHistory<I> itemHistory = history.get(key);
 		if (itemHistory == null) {
 			throw new IllegalStateException("Failed history decrement, no prior history to read from for: " + key);
 		}
-		int size = itemHistory.size();
 
 		// Update map with prior entry
 		I currentItem = get(key);
-		I priorItem;
-		if (size > 1) {
-			itemHistory.pop(); // Pop current value off stack.
-			priorItem = itemHistory.peek(); // Yield prior value.
-		} else {
-			priorItem = itemHistory.peek();
-		}
+		I priorItem = itemHistory.pop();
 		backing.put(key, priorItem);
 
 		// Notify listeners
@@ -232,7 +271,9 @@ public I remove(@Nonnull Object key) {
 					(listener, t) -> logger.error("Exception thrown when removing bundle item", t));
 
 			// Update history
-			history.remove(key);
+			ItemHistory<I> itemHistory = history.remove(key);
+			if (itemHistory != null)
+				itemHistory.release();
 		}
 		return info;
 	}
@@ -246,6 +287,7 @@ public void putAll(@Nonnull Map<? extends String, ? extends I> map) {
 	public void clear() {
 		removed.addAll(initialKeys);
 		backing.clear();
+		history.values().forEach(ItemHistory::release);
 		history.clear();
 	}
 
@@ -268,6 +310,7 @@ public Set<Entry<String, I>> entrySet() {
 	public void close() {
 		listeners.clear();
 		clear();
+		historyStore.close();
 	}
 
 	@Override
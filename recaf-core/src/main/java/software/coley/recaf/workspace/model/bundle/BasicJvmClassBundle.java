@@ -1,5 +1,6 @@
 package software.coley.recaf.workspace.model.bundle;
 
+import jakarta.annotation.Nonnull;
 import software.coley.recaf.info.JvmClassInfo;
 
 /**
@@ -8,4 +9,9 @@
  * @author Matt Coley
  */
 public class BasicJvmClassBundle extends BasicBundle<JvmClassInfo> implements JvmClassBundle {
+	@Nonnull
+	@Override
+	protected HistoryCodec<JvmClassInfo> getHistoryCodec() {
+		return JvmClassHistoryCodec.INSTANCE;
+	}
 }
@@ -18,7 +18,10 @@
  */
 public interface Bundle<I extends Info> extends Map<String, I>, Iterable<I>, Closing {
 	/**
-	 * History stack for the given item key.
+	 * History stack for the given item key. The stack is a copy, so modifying it does not affect the bundle.
+	 * <br>
+	 * Past states may be held in a compressed form, or on disk, so each call decodes every state of the item.
+	 * When only the initial or current states are needed, use {@link #getInitial(String)} and {@link #get(Object)}.
 	 *
 	 * @param key
 	 * 		Item key.
@@ -28,6 +31,16 @@
 	@Nullable
 	Stack<I> getHistory(String key);
 
+	/**
+	 * @param key
+	 * 		Item key.
+	 *
+	 * @return Initial state of the item, the bottom of its {@link #getHistory(String) history}.
+	 * {@code null} if no such item exists.
+	 */
+	@Nullable
+	I getInitial(String key);
+
 	/**
 	 * @return Keys of items that have been modified <i>(Containing any history values)</i>.
 	 */
@@ -0,0 +1,43 @@
+package software.coley.recaf.workspace.model.bundle;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import software.coley.recaf.info.Info;
+import software.coley.recaf.info.properties.Property;
+
+import java.util.Map;
+
+/**
+ * Compact encoding of past item states in a bundle's history, relative to the item's initial state.
+ *
+ * @param <I>
+ * 		Item type.
+ *
+ * @author Matt Coley
+ * @see JvmClassHistoryCodec
+ */
+public interface HistoryCodec<I extends Info> {
+	/**
+	 * @param reference
+	 * 		Initial state of the item, which is always kept in full.
+	 * @param item
+	 * 		State of the item to encode.
+	 *
+	 * @return Encoded content of the item, or {@code null} if the item should be kept as-is.
+	 */
+	@Nullable
+	byte[] encode(@Nonnull I reference, @Nonnull I item);
+
+	/**
+	 * @param reference
+	 * 		Initial state of the item, the same as was passed to {@link #encode(Info, Info)}.
+	 * @param data
+	 * 		Encoded content of the item.
+	 * @param properties
+	 * 		Properties of the item at the time it was encoded.
+	 *
+	 * @return Decoded item.
+	 */
+	@Nonnull
+	I decode(@Nonnull I reference, @Nonnull byte[] data, @Nonnull Map<String, Property<?>> properties);
+}
@@ -0,0 +1,41 @@
+package software.coley.recaf.workspace.model.bundle;
+
+/**
+ * Limits on how much item history a {@link BasicBundle} keeps, and where it keeps it.
+ *
+ * @param maxEntries
+ * 		Max number of states to keep per item, including the initial and current states.
+ * 		When exceeded, the oldest state after the initial state is dropped. Since the initial and current states are
+ * 		always kept, a value of {@code 1} is raised to {@code 2}. Values less than {@code 1} disable the limit.
+ * @param spillThreshold
+ * 		Max number of bytes of compressed history states to keep in memory per bundle.
+ * 		Further states are written to a temporary file instead. Values less than {@code 1} disable spilling.
+ *
+ * @author Matt Coley
+ * @see BasicBundle#setHistoryPolicy(HistoryPolicy)
+ */
+public record HistoryPolicy(int maxEntries, long spillThreshold) {
+	/**
+	 * Policy with no limits, keeping all history in memory.
+	 */
+	public static final HistoryPolicy UNLIMITED = new HistoryPolicy(0, 0);
+
+	public HistoryPolicy {
+		if (maxEntries == 1)
+			maxEntries = 2;
+	}
+
+	/**
+	 * @return {@code true} when the number of states per item is limited.
+	 */
+	public boolean hasEntryLimit() {
+		return maxEntries > 0;
+	}
+
+	/**
+	 * @return {@code true} when history can be written to disk.
+	 */
+	public boolean canSpill() {
+		return spillThreshold > 0;
+	}
+}
@@ -0,0 +1,255 @@
+package software.coley.recaf.workspace.model.bundle;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import software.coley.recaf.analytics.logging.Logging;
+import software.coley.recaf.info.Info;
+import software.coley.recaf.info.properties.Property;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Storage of past item states for all items in a {@link BasicBundle}.
+ * Handles encoding states with the bundle's {@link HistoryCodec}, and spilling encoded states to disk
+ * according to the bundle's {@link HistoryPolicy}.
+ *
+ * @param <I>
+ * 		Item type.
+ *
+ * @author Matt Coley
+ */
+class HistoryStore<I extends Info> {
+	private static final Logger logger = Logging.get(HistoryStore.class);
+	private final AtomicLong inMemoryBytes = new AtomicLong();
+	private final HistoryCodec<I> codec;
+	private volatile HistoryPolicy policy = HistoryPolicy.UNLIMITED;
+	private FileChannel spillChannel;
+	private Path spillPath;
+	private long spillSize;
+
+	/**
+	 * @param codec
+	 * 		Codec to encode past states with, or {@code null} to keep past states as-is.
+	 */
+	HistoryStore(@Nullable HistoryCodec<I> codec) {
+		this.codec = codec;
+	}
+
+	/**
+	 * @return Current policy.
+	 */
+	@Nonnull
+	HistoryPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * @param policy
+	 * 		New policy. Applies to states recorded after this call.
+	 */
+	void setPolicy(@Nonnull HistoryPolicy policy) {
+		this.policy = policy;
+	}
+
+	/**
+	 * @return Number of bytes of encoded states held in memory.
+	 */
+	long getInMemoryBytes() {
+		return inMemoryBytes.get();
+	}
+
+	/**
+	 * @param reference
+	 * 		Initial state of the item.
+	 * @param item
+	 * 		Past state of the item to store.
+	 *
+	 * @return Stored form of the past state.
+	 */
+	@Nonnull
+	Entry<I> store(@Nonnull I reference, @Nonnull I item) {
+		if (codec == null)
+			return new Full<>(item);
+		byte[] data;
+		try {
+			data = codec.encode(reference, item);
+		} catch (Throwable t) {
+			logger.debug("Failed to encode history of '{}', keeping it as-is", item.getName(), t);
+			data = null;
+		}
+		if (data == null)
+			return new Full<>(item);
+
+		Map<String, Property<?>> properties = Map.copyOf(item.getProperties());
+		SoftReference<I> cached = new SoftReference<>(item);
+		HistoryPolicy currentPolicy = policy;
+		if (currentPolicy.canSpill() && inMemoryBytes.get() + data.length > currentPolicy.spillThreshold()) {
+			try {
+				return new Spilled<>(spill(data), data.length, properties, cached);
+			} catch (IOException ex) {
+				logger.warn("Failed to write history of '{}' to disk, keeping it in memory", item.getName(), ex);
+			}
+		}
+		inMemoryBytes.addAndGet(data.length);
+		return new Encoded<>(data, properties, cached);
+	}
+
+	/**
+	 * @param reference
+	 * 		Initial state of the item.
+	 * @param entry
+	 * 		Stored form of a past state of the item.
+	 *
+	 * @return Past state of the item.
+	 */
+	@Nonnull
+	I load(@Nonnull I reference, @Nonnull Entry<I> entry) {
+		// Yield the original instance if it has not yet been collected.
+		if (entry instanceof Compact<I> compact) {
+			I cached = compact.cached().get();
+			if (cached != null)
+				return cached;
+		}
+		return switch (entry) {
+			case Full<I> full -> full.item();
+			case Encoded<I> encoded -> codec.decode(reference, encoded.data(), encoded.properties());
+			case Spilled<I> spilled -> {
+				try {
+					yield codec.decode(reference, readSpilled(spilled.offset(), spilled.length()), spilled.properties());
+				} catch (IOException ex) {
+					throw new UncheckedIOException("Failed to read history of '" + reference.getName() + "' from disk", ex);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Called when a stored state is dropped from history.
+	 *
+	 * @param entry
+	 * 		Stored form of the dropped state.
+	 */
+	void release(@Nonnull Entry<I> entry) {
+		// Spilled entries are not reclaimed until the store is closed, since the spill file is append-only.
+		if (entry instanceof Encoded<I> encoded)
+			inMemoryBytes.addAndGet(-encoded.data().length);
+	}
+
+	/**
+	 * Drops any spilled history.
+	 */
+	synchronized void close() {
+		inMemoryBytes.set(0);
+		if (spillChannel != null) {
+			try {
+				spillChannel.close();
+				Files.deleteIfExists(spillPath);
+			} catch (IOException ex) {
+				logger.warn("Failed to delete bundle history spill file: {}", spillPath, ex);
+			}
+			spillChannel = null;
+			spillPath = null;
+			spillSize = 0;
+		}
+	}
+
+	private synchronized long spill(@Nonnull byte[] data) throws IOException {
+		if (spillChannel == null) {
+			spillPath = Files.createTempFile("recaf-history", ".bin");
+			spillPath.toFile().deleteOnExit();
+			spillChannel = FileChannel.open(spillPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		long offset = spillSize;
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		while (buffer.hasRemaining())
+			spillChannel.write(buffer, offset + buffer.position());
+		spillSize += data.length;
+		return offset;
+	}
+
+	@Nonnull
+	private synchronized byte[] readSpilled(long offset, int length) throws IOException {
+		if (spillChannel == null)
+			throw new IOException("History spill file was closed");
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining())
+			if (spillChannel.read(buffer, offset + buffer.position()) < 0)
+				throw new IOException("Unexpected end of history spill file");
+		return buffer.array();
+	}
+
+	/**
+	 * Stored form of a past item state.
+	 *
+	 * @param <I>
+	 * 		Item type.
+	 */
+	sealed interface Entry<I extends Info> permits Full, Compact {}
+
+	/**
+	 * Stored form of a past item state which must be decoded to be restored.
+	 *
+	 * @param <I>
+	 * 		Item type.
+	 */
+	sealed interface Compact<I extends Info> extends Entry<I> permits Encoded, Spilled {
+		/**
+		 * @return Soft reference to the original item state, so that it can be restored as the same instance
+		 * when it has not yet been collected.
+		 */
+		@Nonnull
+		SoftReference<I> cached();
+	}
+
+	/**
+	 * State kept as-is.
+	 *
+	 * @param item
+	 * 		Item state.
+	 * @param <I>
+	 * 		Item type.
+	 */
+	record Full<I extends Info>(@Nonnull I item) implements Entry<I> {}
+
+	/**
+	 * State encoded and held in memory.
+	 *
+	 * @param data
+	 * 		Encoded content.
+	 * @param properties
+	 * 		Properties of the item state.
+	 * @param cached
+	 * 		Soft reference to the original item state.
+	 * @param <I>
+	 * 		Item type.
+	 */
+	record Encoded<I extends Info>(@Nonnull byte[] data, @Nonnull Map<String, Property<?>> properties,
+	                               @Nonnull SoftReference<I> cached) implements Compact<I> {}
+
+	/**
+	 * State encoded and written to the spill file.
+	 *
+	 * @param offset
+	 * 		Offset of the encoded content in the spill file.
+	 * @param length
+	 * 		Length of the encoded content.
+	 * @param properties
+	 * 		Properties of the item state.
+	 * @param cached
+	 * 		Soft reference to the original item state.
+	 * @param <I>
+	 * 		Item type.
+	 */
+	record Spilled<I extends Info>(long offset, int length, @Nonnull Map<String, Property<?>> properties,
+	                               @Nonnull SoftReference<I> cached) implements Compact<I> {}
+}
@@ -0,0 +1,134 @@
+package software.coley.recaf.workspace.model.bundle;
+
+import jakarta.annotation.Nonnull;
+import software.coley.recaf.info.Info;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * History of a single item in a {@link BasicBundle}.
+ * <br>
+ * The initial and current states are always kept as-is. States in between are kept in the compact form
+ * provided by the bundle's {@link HistoryStore}, and are only decoded when they become the current state again,
+ * or a full {@link #toStack() copy} of the history is requested.
+ *
+ * @param <I>
+ * 		Item type.
+ *
+ * @author Matt Coley
+ */
+public class ItemHistory<I extends Info> {
+	private final HistoryStore<I> store;
+	private final I initial;
+	private final List<HistoryStore.Entry<I>> intermediate = new ArrayList<>();
+	private I current;
+	private boolean modified;
+
+	/**
+	 * @param store
+	 * 		Store to encode past states with.
+	 * @param initial
+	 * 		Initial item state.
+	 */
+	ItemHistory(@Nonnull HistoryStore<I> store, @Nonnull I initial) {
+		this.store = store;
+		this.initial = initial;
+		this.current = initial;
+	}
+
+	/**
+	 * @return Number of states in the history, including the initial and current states.
+	 */
+	public synchronized int size() {
+		return modified ? intermediate.size() + 2 : 1;
+	}
+
+	/**
+	 * @return Initial item state.
+	 */
+	@Nonnull
+	public I getInitial() {
+		return initial;
+	}
+
+	/**
+	 * @return Current item state.
+	 */
+	@Nonnull
+	public synchronized I getCurrent() {
+		return current;
+	}
+
+	/**
+	 * @param item
+	 * 		New current item state.
+	 */
+	synchronized void push(@Nonnull I item) {
+		if (modified)
+			intermediate.add(store.store(initial, current));
+		current = item;
+		modified = true;
+
+		// Drop the oldest states after the initial one if we're over the limit.
+		HistoryPolicy policy = store.getPolicy();
+		if (policy.hasEntryLimit())
+			while (!intermediate.isEmpty() && intermediate.size() + 2 > policy.maxEntries())
+				store.release(intermediate.removeFirst());
+	}
+
+	/**
+	 * Drops the current state, restoring the prior state.
+	 * If there is only the initial state, nothing is dropped.
+	 *
+	 * @return New current state.
+	 */
+	@Nonnull
+	synchronized I pop() {
+		if (intermediate.isEmpty()) {
+			current = initial;
+			modified = false;
+		} else {
+			HistoryStore.Entry<I> entry = intermediate.removeLast();
+			current = store.load(initial, entry);
+			store.release(entry);
+		}
+		return current;
+	}
+
+	/**
+	 * Called when the history is dropped from the bundle.
+	 */
+	synchronized void release() {
+		for (HistoryStore.Entry<I> entry : intermediate)
+			store.release(entry);
+		intermediate.clear();
+	}
+
+	/**
+	 * @return Copy of the history, with the initial state at the bottom and the current state at the top.
+	 */
+	@Nonnull
+	public synchronized Stack<I> toStack() {
+		Stack<I> stack = new Stack<>();
+		stack.push(initial);
+		for (HistoryStore.Entry<I> entry : intermediate)
+			stack.push(store.load(initial, entry));
+		if (modified)
+			stack.push(current);
+		return stack;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof ItemHistory<?> other)) return false;
+		return toStack().equals(other.toStack());
+	}
+
+	@Override
+	public int hashCode() {
+		return toStack().hashCode();
+	}
+}
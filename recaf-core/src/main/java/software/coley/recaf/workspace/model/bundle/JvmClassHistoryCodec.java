@@ -0,0 +1,84 @@
+package software.coley.recaf.workspace.model.bundle;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import software.coley.recaf.info.BasicJvmClassInfo;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.info.LazyJvmClassInfo;
+import software.coley.recaf.info.builder.JvmClassInfoBuilder;
+import software.coley.recaf.info.properties.BasicPropertyContainer;
+import software.coley.recaf.info.properties.Property;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * History codec for JVM classes. Bytecode is deflated with the initial state's bytecode as a preset dictionary.
+ * Edits usually leave most of the constant pool and method bodies unchanged, which then compress down to
+ * back-references into the initial state rather than being stored again.
+ * <br>
+ * Only {@link BasicJvmClassInfo} states are encoded, since decoding rebuilds them through {@link JvmClassInfoBuilder}.
+ * Other implementations, such as {@link LazyJvmClassInfo}, are kept as-is so that their type is not lost.
+ *
+ * @author Matt Coley
+ */
+class JvmClassHistoryCodec implements HistoryCodec<JvmClassInfo> {
+	static final JvmClassHistoryCodec INSTANCE = new JvmClassHistoryCodec();
+
+	private JvmClassHistoryCodec() {}
+
+	@Nullable
+	@Override
+	public byte[] encode(@Nonnull JvmClassInfo reference, @Nonnull JvmClassInfo item) {
+		if (item.getClass() != BasicJvmClassInfo.class)
+			return null;
+		byte[] bytecode = item.getBytecode();
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setDictionary(reference.getBytecode());
+			deflater.setInput(bytecode);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytecode.length / 4));
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished()) {
+				int length = deflater.deflate(buffer);
+				out.write(buffer, 0, length);
+			}
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	@Nonnull
+	@Override
+	public JvmClassInfo decode(@Nonnull JvmClassInfo reference, @Nonnull byte[] data,
+	                           @Nonnull Map<String, Property<?>> properties) {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(data);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+			byte[] buffer = new byte[8192];
+			while (!inflater.finished()) {
+				int length = inflater.inflate(buffer);
+				if (length == 0) {
+					if (inflater.needsDictionary())
+						inflater.setDictionary(reference.getBytecode());
+					else if (inflater.needsInput())
+						throw new IllegalStateException("Truncated class history entry for: " + reference.getName());
+				}
+				out.write(buffer, 0, length);
+			}
+			return new JvmClassInfoBuilder(out.toByteArray())
+					.withPropertyContainer(new BasicPropertyContainer(properties))
+					.build();
+		} catch (DataFormatException ex) {
+			throw new IllegalStateException("Corrupt class history entry for: " + reference.getName(), ex);
+		} finally {
+			inflater.end();
+		}
+	}
+}
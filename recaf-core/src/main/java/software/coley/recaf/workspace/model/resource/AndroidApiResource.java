@@ -8,54 +8,96 @@
 import software.coley.lljzip.format.model.ZipArchive;
 import software.coley.recaf.analytics.logging.Logging;
 import software.coley.recaf.info.JvmClassInfo;
-import software.coley.recaf.info.builder.JvmClassInfoBuilder;
+import software.coley.recaf.info.LazyJvmClassInfo;
 import software.coley.recaf.info.properties.BasicPropertyContainer;
 import software.coley.recaf.util.io.LocalFileHeaderSource;
+import software.coley.recaf.util.threading.ThreadUtil;
 import software.coley.recaf.workspace.model.bundle.*;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Map;
 import java.util.NavigableMap;
+import java.util.zip.CRC32;
 
 /**
  * Implementation of a workspace resource sourced from the Android API.
  * This is a special case of resource which is automatically added to all workspaces with android content.
  * Listeners and such are not implemented and are ignored by design.
+ * <p>
+ * Headers of the API classes are recorded in a {@link ClassHeaderSnapshot} in the directory given to
+ * {@link #initSnapshot(Path)} the first time the resource is loaded. Later loads take class headers from the snapshot
+ * instead of decompressing every class.
  *
  * @author Matt Coley
  */
 public class AndroidApiResource extends BasicPropertyContainer implements WorkspaceResource {
 	private static final Logger logger = Logging.get(AndroidApiResource.class);
+	private static final int API_LEVEL = 30;
 	private static AndroidApiResource instance;
+	private static Path snapshotDirectory;
 	private final FileBundle files = new BasicFileBundle();
 	private final JvmClassBundle bundle;
+	private final String snapshotKey;
+	private final String snapshotName;
 
-	private AndroidApiResource(@Nonnull JvmClassBundle bundle) {
+	private AndroidApiResource(@Nonnull JvmClassBundle bundle, @Nonnull String snapshotKey, @Nonnull String snapshotName) {
 		this.bundle = bundle;
+		this.snapshotKey = snapshotKey;
+		this.snapshotName = snapshotName;
 	}
 
 	/**
 	 * @return Shared instance of the Android API resource.
 	 */
 	@Nonnull
-	public static AndroidApiResource getInstance() {
+	public static synchronized AndroidApiResource getInstance() {
 		if (instance == null) {
 			logger.info("Initializing Android API support resource...");
 			try {
 				// We provide our own archive containing Android API classes.
 				JvmClassBundle bundle = new BasicJvmClassBundle();
-				byte[] jar = AndroidApiResource.class.getResourceAsStream("/android/api-outline-30.jar").readAllBytes();
+				byte[] jar = AndroidApiResource.class.getResourceAsStream("/android/api-outline-" + API_LEVEL + ".jar").readAllBytes();
+				CRC32 crc = new CRC32();
+				crc.update(jar);
+				String key = "android:" + API_LEVEL + ":" + Long.toHexString(crc.getValue());
+				String snapshotName = "android-api-" + API_LEVEL + "-" + Long.toHexString(crc.getValue()) + ".snapshot";
+				Path snapshotPath = snapshotDirectory == null ? null : snapshotDirectory.resolve(snapshotName);
+				ClassHeaderSnapshot snapshot = snapshotPath == null ? null : ClassHeaderSnapshot.load(snapshotPath, key);
+				ClassHeaderSnapshot.Builder builder = snapshot == null && snapshotPath != null ?
+						new ClassHeaderSnapshot.Builder() : null;
+
 				ZipArchive archive = ZipIO.readJvm(jar);
 				for (LocalFileHeader fileEntry : archive.getLocalFiles()) {
 					String name = fileEntry.getFileNameAsString();
 					if (name.endsWith(".class")) {
-						byte[] bytecode = new LocalFileHeaderSource(fileEntry).readAll();
-						JvmClassInfo info = new JvmClassInfoBuilder(bytecode).build();
+						// Most of the API is never looked at beyond the class hierarchy, so we only
+						// build the full class model when it is first requested.
+						LocalFileHeaderSource source = new LocalFileHeaderSource(fileEntry, false, false);
+						LazyJvmClassInfo.Header header = snapshot == null ? null :
+								snapshot.get(name.substring(0, name.length() - ".class".length()));
+						JvmClassInfo info;
+						if (header != null) {
+							info = new LazyJvmClassInfo(source, header);
+						} else {
+							info = new LazyJvmClassInfo(source);
+							if (builder != null)
+								builder.add(source.readAll());
+						}
 						bundle.put(info);
 					}
 				}
-				instance = new AndroidApiResource(bundle);
+				instance = new AndroidApiResource(bundle, key, snapshotName);
+
+				// Record the snapshot for the next time the resource is loaded.
+				if (builder != null) {
+					try {
+						builder.write(snapshotPath, key);
+					} catch (IOException ex) {
+						logger.warn("Failed to write Android API class header snapshot", ex);
+					}
+				}
 			} catch (IOException ex) {
 				throw new IllegalStateException(ex);
 			}
@@ -63,6 +105,36 @@ public static AndroidApiResource getInstance() {
 		return instance;
 	}
 
+	/**
+	 * Sets the directory to load the snapshot of the API's class headers from. Only the first call has any effect.
+	 * If the resource was already loaded without a snapshot, one is recorded in the background for later loads.
+	 *
+	 * @param directory
+	 * 		Directory to store snapshot files in.
+	 */
+	public static synchronized void initSnapshot(@Nonnull Path directory) {
+		if (snapshotDirectory != null)
+			return;
+		snapshotDirectory = directory;
+
+		AndroidApiResource current = instance;
+		if (current == null)
+			return;
+		Path path = directory.resolve(current.snapshotName);
+		if (ClassHeaderSnapshot.load(path, current.snapshotKey) != null)
+			return;
+		ThreadUtil.run(() -> {
+			try {
+				ClassHeaderSnapshot.Builder builder = new ClassHeaderSnapshot.Builder();
+				for (JvmClassInfo info : current.bundle.values())
+					builder.add(info.getBytecode());
+				builder.write(path, current.snapshotKey);
+			} catch (Throwable t) {
+				logger.warn("Failed to write Android API class header snapshot", t);
+			}
+		});
+	}
+
 	@Override
 	public void close() {
 		// no-op
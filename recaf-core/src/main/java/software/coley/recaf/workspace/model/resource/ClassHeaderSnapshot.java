@@ -0,0 +1,398 @@
+package software.coley.recaf.workspace.model.resource;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.slf4j.Logger;
+import software.coley.recaf.RecafConstants;
+import software.coley.recaf.analytics.logging.Logging;
+import software.coley.recaf.info.LazyJvmClassInfo;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persisted snapshot of class headers <i>(Names, super-types, interfaces, access, and declared member outlines)</i>
+ * of a large library resource that is the same between sessions, such as the runtime or the Android API.
+ * <p>
+ * Snapshots are written once by a {@link Builder} and are memory mapped when loaded. Lookups read directly from the
+ * mapped file through an open-addressing table of class name hashes, so loading a snapshot does not allocate per-class
+ * data, and looking up a class only allocates what the caller asks for.
+ * <p>
+ * Each snapshot is tagged with a key describing the content it was built from. Loading with a different key,
+ * such as after a JDK update, yields no snapshot so that a new one is built.
+ *
+ * @author Matt Coley
+ */
+class ClassHeaderSnapshot {
+	private static final Logger logger = Logging.get(ClassHeaderSnapshot.class);
+	private static final int MAGIC = 0x52434853; // RCHS
+	private static final int FORMAT_VERSION = 1;
+	private static final int SLOT_SIZE = 8;
+	private static final int MEMBER_SIZE = 12;
+	private final ByteBuffer buffer;
+	private final int classCount;
+	private final int slotCount;
+	private final int slotsBase;
+	private final int recordsBase;
+	private final int stringsBase;
+
+	private ClassHeaderSnapshot(@Nonnull ByteBuffer buffer, @Nonnull String key) throws IOException {
+		ByteBuffer header = buffer.duplicate();
+		if (header.getInt() != MAGIC)
+			throw new IOException("Not a class header snapshot");
+		if (header.getInt() != FORMAT_VERSION)
+			throw new IOException("Unsupported snapshot format");
+		byte[] keyBytes = new byte[header.getInt()];
+		header.get(keyBytes);
+		if (!key.equals(new String(keyBytes, StandardCharsets.UTF_8)))
+			throw new IOException("Snapshot key mismatch");
+		classCount = header.getInt();
+		slotCount = header.getInt();
+		int recordsSize = header.getInt();
+		int stringsSize = header.getInt();
+		slotsBase = header.position();
+		recordsBase = slotsBase + slotCount * SLOT_SIZE;
+		stringsBase = recordsBase + recordsSize;
+		if (Integer.bitCount(slotCount) != 1 || (long) stringsBase + stringsSize != buffer.capacity())
+			throw new IOException("Snapshot is truncated or corrupt");
+		this.buffer = buffer;
+	}
+
+	/**
+	 * @param path
+	 * 		Path of snapshot file.
+	 * @param key
+	 * 		Expected key of the snapshot.
+	 *
+	 * @return Loaded snapshot, or {@code null} if no snapshot with the given key exists at the path.
+	 */
+	@Nullable
+	static ClassHeaderSnapshot load(@Nonnull Path path, @Nonnull String key) {
+		if (!Files.isRegularFile(path))
+			return null;
+		try (FileChannel channel = FileChannel.open(path)) {
+			// The mapping stays valid after the channel is closed.
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new ClassHeaderSnapshot(buffer, key);
+		} catch (IOException | RuntimeException ex) {
+			logger.debug("Ignoring class header snapshot '{}': {}", path.getFileName(), ex.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * @return Number of classes in the snapshot.
+	 */
+	int size() {
+		return classCount;
+	}
+
+	/**
+	 * @param name
+	 * 		Class name.
+	 *
+	 * @return Header of the class, or {@code null} if the class is not in the snapshot.
+	 */
+	@Nullable
+	LazyJvmClassInfo.Header get(@Nonnull String name) {
+		byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+		int hash = name.hashCode();
+		int mask = slotCount - 1;
+		int index = mix(hash) & mask;
+		for (int i = 0; i < slotCount; i++) {
+			int slot = slotsBase + index * SLOT_SIZE;
+			int record = buffer.getInt(slot + 4);
+			if (record < 0)
+				return null;
+			if (buffer.getInt(slot) == hash && stringEquals(buffer.getInt(recordsBase + record), encoded))
+				return new Entry(recordsBase + record);
+			index = (index + 1) & mask;
+		}
+		return null;
+	}
+
+	@Nonnull
+	private String string(int ref) {
+		int offset = stringsBase + ref;
+		byte[] bytes = new byte[buffer.getShort(offset) & 0xFFFF];
+		buffer.get(offset + 2, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private boolean stringEquals(int ref, @Nonnull byte[] encoded) {
+		int offset = stringsBase + ref;
+		if ((buffer.getShort(offset) & 0xFFFF) != encoded.length)
+			return false;
+		offset += 2;
+		for (int i = 0; i < encoded.length; i++)
+			if (buffer.get(offset + i) != encoded[i])
+				return false;
+		return true;
+	}
+
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * View of a class record in the mapped snapshot.
+	 * <p>
+	 * Record layout:
+	 * <ul>
+	 *     <li>{@code int} name, super-name <i>(or {@code -1})</i>, access, version</li>
+	 *     <li>{@code u2} interface count, followed by {@code int} interface names</li>
+	 *     <li>{@code u2} field count, followed by {@code int} access, name, descriptor of each field</li>
+	 *     <li>{@code u2} method count, followed by {@code int} access, name, descriptor of each method</li>
+	 * </ul>
+	 * Names are offsets into the string pool.
+	 */
+	private class Entry implements LazyJvmClassInfo.Header {
+		private final int offset;
+
+		private Entry(int offset) {
+			this.offset = offset;
+		}
+
+		@Nonnull
+		@Override
+		public String name() {
+			return string(buffer.getInt(offset));
+		}
+
+		@Nullable
+		@Override
+		public String superName() {
+			int ref = buffer.getInt(offset + 4);
+			return ref < 0 ? null : string(ref);
+		}
+
+		@Nonnull
+		@Override
+		public List<String> interfaces() {
+			int count = buffer.getShort(interfacesOffset()) & 0xFFFF;
+			if (count == 0)
+				return List.of();
+			String[] interfaces = new String[count];
+			for (int i = 0; i < count; i++)
+				interfaces[i] = string(buffer.getInt(interfacesOffset() + 2 + i * 4));
+			return List.of(interfaces);
+		}
+
+		@Override
+		public int access() {
+			return buffer.getInt(offset + 8);
+		}
+
+		@Override
+		public int version() {
+			return buffer.getInt(offset + 12);
+		}
+
+		@Override
+		public boolean hasField(@Nonnull String name, @Nonnull String descriptor) {
+			return hasMember(fieldsOffset(), name, descriptor);
+		}
+
+		@Override
+		public boolean hasMethod(@Nonnull String name, @Nonnull String descriptor) {
+			int fieldsOffset = fieldsOffset();
+			int fieldCount = buffer.getShort(fieldsOffset) & 0xFFFF;
+			return hasMember(fieldsOffset + 2 + fieldCount * MEMBER_SIZE, name, descriptor);
+		}
+
+		private boolean hasMember(int membersOffset, @Nonnull String name, @Nonnull String descriptor) {
+			int count = buffer.getShort(membersOffset) & 0xFFFF;
+			if (count == 0)
+				return false;
+			byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+			byte[] encodedDescriptor = descriptor.getBytes(StandardCharsets.UTF_8);
+			for (int i = 0; i < count; i++) {
+				int member = membersOffset + 2 + i * MEMBER_SIZE;
+				if (stringEquals(buffer.getInt(member + 4), encodedName)
+						&& stringEquals(buffer.getInt(member + 8), encodedDescriptor))
+					return true;
+			}
+			return false;
+		}
+
+		private int interfacesOffset() {
+			return offset + 16;
+		}
+
+		private int fieldsOffset() {
+			int interfacesOffset = interfacesOffset();
+			return interfacesOffset + 2 + (buffer.getShort(interfacesOffset) & 0xFFFF) * 4;
+		}
+	}
+
+	/**
+	 * Builder for writing new snapshots. Not thread safe.
+	 */
+	static class Builder {
+		private final Map<String, ClassData> classes = new LinkedHashMap<>();
+
+		/**
+		 * @param classFile
+		 * 		Class file content to record the header of.
+		 * 		Classes with the same name as a prior recorded class are ignored.
+		 *
+		 * @throws IllegalArgumentException
+		 * 		When the content is not a class file that ASM can read.
+		 */
+		void add(@Nonnull byte[] classFile) {
+			ClassReader reader = new ClassReader(classFile);
+			if (classes.containsKey(reader.getClassName()))
+				return;
+			ClassData data = new ClassData(reader.getClassName(), reader.getSuperName(),
+					List.of(reader.getInterfaces()), reader.getAccess(),
+					reader.readUnsignedShort(6) & 0xFF, new ArrayList<>(), new ArrayList<>());
+			reader.accept(new ClassVisitor(RecafConstants.getAsmVersion()) {
+				@Override
+				public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+					data.fields().add(new MemberData(access, name, descriptor));
+					return null;
+				}
+
+				@Override
+				public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+					data.methods().add(new MemberData(access, name, descriptor));
+					return null;
+				}
+			}, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+			classes.put(data.name(), data);
+		}
+
+		/**
+		 * @return Number of recorded classes.
+		 */
+		int size() {
+			return classes.size();
+		}
+
+		/**
+		 * Writes the snapshot to a temporary file, then moves it to the given path.
+		 *
+		 * @param path
+		 * 		Path to write to.
+		 * @param key
+		 * 		Key describing the content the snapshot was built from.
+		 *
+		 * @throws IOException
+		 * 		When the snapshot could not be written.
+		 */
+		void write(@Nonnull Path path, @Nonnull String key) throws IOException {
+			Map<String, Integer> stringRefs = new HashMap<>();
+			ByteArrayOutputStream stringsOut = new ByteArrayOutputStream();
+			DataOutputStream strings = new DataOutputStream(stringsOut);
+			ByteArrayOutputStream recordsOut = new ByteArrayOutputStream();
+			DataOutputStream records = new DataOutputStream(recordsOut);
+			int slotCount = Integer.highestOneBit(Math.max(2, classes.size() * 2) - 1) << 1;
+			int[] slotHashes = new int[slotCount];
+			int[] slotRecords = new int[slotCount];
+			Arrays.fill(slotRecords, -1);
+
+			for (ClassData data : classes.values()) {
+				int record = records.size();
+				records.writeInt(stringRef(stringRefs, strings, data.name()));
+				records.writeInt(data.superName() == null ? -1 : stringRef(stringRefs, strings, data.superName()));
+				records.writeInt(data.access());
+				records.writeInt(data.version());
+				writeCount(records, data.interfaces().size());
+				for (String itf : data.interfaces())
+					records.writeInt(stringRef(stringRefs, strings, itf));
+				for (List<MemberData> members : List.of(data.fields(), data.methods())) {
+					writeCount(records, members.size());
+					for (MemberData member : members) {
+						records.writeInt(member.access());
+						records.writeInt(stringRef(stringRefs, strings, member.name()));
+						records.writeInt(stringRef(stringRefs, strings, member.descriptor()));
+					}
+				}
+
+				int hash = data.name().hashCode();
+				int index = mix(hash) & (slotCount - 1);
+				while (slotRecords[index] >= 0)
+					index = (index + 1) & (slotCount - 1);
+				slotHashes[index] = hash;
+				slotRecords[index] = record;
+			}
+
+			Files.createDirectories(path.getParent());
+			Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+			try {
+				try (OutputStream fileOut = Files.newOutputStream(temp);
+				     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+					byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+					out.writeInt(MAGIC);
+					out.writeInt(FORMAT_VERSION);
+					out.writeInt(keyBytes.length);
+					out.write(keyBytes);
+					out.writeInt(classes.size());
+					out.writeInt(slotCount);
+					out.writeInt(records.size());
+					out.writeInt(strings.size());
+					for (int i = 0; i < slotCount; i++) {
+						out.writeInt(slotHashes[i]);
+						out.writeInt(slotRecords[i]);
+					}
+					recordsOut.writeTo(out);
+					stringsOut.writeTo(out);
+				}
+				try {
+					Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException ex) {
+					Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		}
+
+		private static int stringRef(@Nonnull Map<String, Integer> refs, @Nonnull DataOutputStream strings,
+		                             @Nonnull String value) throws IOException {
+			Integer ref = refs.get(value);
+			if (ref == null) {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				if (bytes.length > 0xFFFF)
+					throw new IOException("String too long for snapshot: " + value.substring(0, 64) + "...");
+				ref = strings.size();
+				strings.writeShort(bytes.length);
+				strings.write(bytes);
+				refs.put(value, ref);
+			}
+			return ref;
+		}
+
+		private static void writeCount(@Nonnull DataOutputStream out, int count) throws IOException {
+			if (count > 0xFFFF)
+				throw new IOException("Too many items for snapshot record: " + count);
+			out.writeShort(count);
+		}
+	}
+
+	private record ClassData(@Nonnull String name, @Nullable String superName, @Nonnull List<String> interfaces,
+	                         int access, int version, @Nonnull List<MemberData> fields,
+	                         @Nonnull List<MemberData> methods) {}
+
+	private record MemberData(int access, @Nonnull String name, @Nonnull String descriptor) {}
+}
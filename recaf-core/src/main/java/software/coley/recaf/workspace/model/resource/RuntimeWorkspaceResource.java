@@ -5,9 +5,12 @@
 import org.slf4j.Logger;
 import software.coley.recaf.analytics.logging.Logging;
 import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.info.LazyJvmClassInfo;
 import software.coley.recaf.info.builder.JvmClassInfoBuilder;
 import software.coley.recaf.info.properties.BasicPropertyContainer;
 import software.coley.recaf.util.IOUtil;
+import software.coley.recaf.util.io.ByteSources;
+import software.coley.recaf.util.threading.ThreadUtil;
 import software.coley.recaf.workspace.model.bundle.AndroidClassBundle;
 import software.coley.recaf.workspace.model.bundle.BasicFileBundle;
 import software.coley.recaf.workspace.model.bundle.BasicJvmClassBundle;
@@ -17,22 +20,34 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReader;
+import java.lang.module.ModuleReference;
+import java.nio.file.Path;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of a workspace resource sourced from runtime classes.
  * This is a special case of resource which is automatically added to all workspaces.
  * Listeners and such are not implemented and are ignored by design.
+ * <p>
+ * Headers of runtime classes are recorded in a {@link ClassHeaderSnapshot} in the directory given to
+ * {@link #initSnapshot(Path)}, built in the background the first time a given runtime is used. When available,
+ * lookups of runtime classes are served from the snapshot, and the class bytecode is only read when it is first needed.
  *
  * @author Matt Coley
  */
 public class RuntimeWorkspaceResource extends BasicPropertyContainer implements WorkspaceResource {
 	private static final Object STUB = new Object();
 	private static final Logger logger = Logging.get(RuntimeWorkspaceResource.class);
-	private static final Map<String, Object> cache = new HashMap<>();
+	private static final Map<String, Object> cache = new ConcurrentHashMap<>();
+	private static volatile ClassHeaderSnapshot snapshot;
+	private static boolean snapshotRequested;
 	private static RuntimeWorkspaceResource instance;
 	private final JvmClassBundle classes;
 	private final FileBundle files;
@@ -46,6 +61,68 @@ public static RuntimeWorkspaceResource getInstance() {
 		return instance;
 	}
 
+	/**
+	 * Loads the snapshot of the current runtime's class headers, or builds it in the background if it does not exist.
+	 * Only the first call has any effect. Until the snapshot is available, runtime classes are read directly.
+	 *
+	 * @param directory
+	 * 		Directory to store snapshot files in.
+	 */
+	public static synchronized void initSnapshot(@Nonnull Path directory) {
+		if (snapshotRequested)
+			return;
+		snapshotRequested = true;
+
+		List<ModuleReference> modules = getBootSystemModules();
+		String key = "jdk:" + System.getProperty("java.vendor") + ":" + Runtime.version() + ":" +
+				String.join(",", modules.stream().map(m -> m.descriptor().name()).sorted().toList());
+		Path path = directory.resolve("runtime-" + Runtime.version().feature() + "-" +
+				Integer.toHexString(key.hashCode()) + ".snapshot");
+		snapshot = ClassHeaderSnapshot.load(path, key);
+		if (snapshot != null)
+			return;
+
+		ThreadUtil.run(() -> {
+			try {
+				long start = System.currentTimeMillis();
+				ClassHeaderSnapshot.Builder builder = new ClassHeaderSnapshot.Builder();
+				for (ModuleReference module : modules) {
+					try (ModuleReader reader = module.open()) {
+						for (String name : reader.list().toList()) {
+							if (!name.endsWith(".class") || name.indexOf('-') >= 0)
+								continue;
+							Optional<InputStream> in = reader.open(name);
+							if (in.isEmpty())
+								continue;
+							try (InputStream classIn = in.get()) {
+								builder.add(classIn.readAllBytes());
+							} catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+								logger.debug("Skipping unreadable runtime class in snapshot: {}", name);
+							}
+						}
+					}
+				}
+				builder.write(path, key);
+				snapshot = ClassHeaderSnapshot.load(path, key);
+				logger.debug("Built runtime class header snapshot of {} classes in {}ms",
+						builder.size(), System.currentTimeMillis() - start);
+			} catch (Throwable t) {
+				logger.warn("Failed to build runtime class header snapshot", t);
+			}
+		});
+	}
+
+	/**
+	 * @return System modules that are part of the boot layer, and thus visible to the system class loader.
+	 */
+	@Nonnull
+	private static List<ModuleReference> getBootSystemModules() {
+		ModuleLayer boot = ModuleLayer.boot();
+		return ModuleFinder.ofSystem().findAll().stream()
+				.filter(module -> boot.findModule(module.descriptor().name()).isPresent())
+				.toList();
+	}
+
 	private RuntimeWorkspaceResource() {
 		classes = new BasicJvmClassBundle() {
 			@Override
@@ -58,6 +135,14 @@ public JvmClassInfo get(@Nonnull Object name) {
 					return null;
 				if (present instanceof JvmClassInfo)
 					return (JvmClassInfo) present;
+				// Use the snapshot header when available, deferring reading the class until its contents are needed.
+				ClassHeaderSnapshot currentSnapshot = snapshot;
+				LazyJvmClassInfo.Header header = currentSnapshot == null ? null : currentSnapshot.get(key);
+				if (header != null) {
+					JvmClassInfo info = new LazyJvmClassInfo(ByteSources.forSystemResource(key + ".class"), header);
+					Object existing = cache.putIfAbsent(key, info);
+					return existing instanceof JvmClassInfo existingInfo ? existingInfo : info;
+				}
 				// Can't do "computeIfAbsent" since we also want to store null values.
 				byte[] value = null;
 				try (InputStream in = ClassLoader.getSystemResourceAsStream(key + ".class")) {
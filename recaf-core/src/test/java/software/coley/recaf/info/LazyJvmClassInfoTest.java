@@ -0,0 +1,66 @@
+package software.coley.recaf.info;
+
+import org.junit.jupiter.api.Test;
+import software.coley.recaf.info.member.ClassMember;
+import software.coley.recaf.test.TestClassUtils;
+import software.coley.recaf.test.dummy.AccessibleFields;
+import software.coley.recaf.test.dummy.HelloWorld;
+import software.coley.recaf.util.io.ByteSources;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link LazyJvmClassInfo}
+ */
+class LazyJvmClassInfoTest {
+	@Test
+	void headerDoesNotMaterialize() throws IOException {
+		JvmClassInfo expected = TestClassUtils.fromRuntimeClass(AccessibleFields.class);
+		LazyJvmClassInfo lazy = new LazyJvmClassInfo(ByteSources.wrap(expected.getBytecode()));
+
+		assertEquals(expected.getName(), lazy.getName());
+		assertEquals(expected.getSuperName(), lazy.getSuperName());
+		assertEquals(expected.getInterfaces(), lazy.getInterfaces());
+		assertEquals(expected.getAccess(), lazy.getAccess());
+		assertEquals(expected.getVersion(), lazy.getVersion());
+		assertFalse(lazy.isMaterialized(), "Header values should not need the full class model");
+	}
+
+	@Test
+	void materializedMatchesEager() throws IOException {
+		JvmClassInfo expected = TestClassUtils.fromRuntimeClass(AccessibleFields.class);
+		LazyJvmClassInfo lazy = new LazyJvmClassInfo(ByteSources.wrap(expected.getBytecode()));
+
+		assertEquals(expected.getFields(), lazy.getFields());
+		assertEquals(expected.getMethods(), lazy.getMethods());
+		assertTrue(lazy.isMaterialized());
+		assertEquals(expected, lazy);
+		assertEquals(lazy, expected);
+		assertEquals(expected.hashCode(), lazy.hashCode());
+
+		// Members should belong to the lazy class, not its internal model
+		for (ClassMember member : lazy.fieldAndMethodStream().toList())
+			assertSame(lazy, member.getDeclaringClass());
+	}
+
+	@Test
+	void equalityDoesNotMaterialize() throws IOException {
+		JvmClassInfo expected = TestClassUtils.fromRuntimeClass(AccessibleFields.class);
+		LazyJvmClassInfo lazy = new LazyJvmClassInfo(ByteSources.wrap(expected.getBytecode()));
+		LazyJvmClassInfo otherLazy = new LazyJvmClassInfo(ByteSources.wrap(expected.getBytecode()));
+
+		assertEquals(expected.hashCode(), lazy.hashCode());
+		assertEquals(lazy, otherLazy);
+		assertEquals(lazy, expected);
+		assertNotEquals(lazy, TestClassUtils.fromRuntimeClass(HelloWorld.class));
+		assertFalse(lazy.isMaterialized(), "Hashing and equality should not need the full class model");
+		assertFalse(otherLazy.isMaterialized(), "Hashing and equality should not need the full class model");
+	}
+
+	@Test
+	void invalidInputFails() {
+		assertThrows(IllegalArgumentException.class, () -> new LazyJvmClassInfo(ByteSources.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8})));
+	}
+}
@@ -93,6 +93,44 @@ void testUnresolvedCall() {
 		//  We probably want to prune the call-graph model when things get removed.
 	}
 
+	@Test
+	@Timeout(30)
+	void testManyClasses() {
+		// Chain of classes where each 'call' invokes the 'call' of the next class
+		int count = 500;
+		JvmClassInfo[] classes = new JvmClassInfo[count];
+		for (int i = 0; i < count; i++) {
+			ClassWriter cw = new ClassWriter(0);
+			cw.visit(V1_8, ACC_PUBLIC, "Chain" + i, null, "java/lang/Object", null);
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "call", "()V", null, null);
+			mv.visitCode();
+			if (i + 1 < count)
+				mv.visitMethodInsn(INVOKESTATIC, "Chain" + (i + 1), "call", "()V", false);
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+			cw.visitEnd();
+			classes[i] = new JvmClassInfoBuilder(cw.toByteArray()).build();
+		}
+		Workspace workspace = TestClassUtils.fromBundle(TestClassUtils.fromClasses(classes));
+
+		CallGraph callGraph = newCallGraph(workspace);
+		assertEquals(1, callGraph.getBuildProgress());
+		CallGraph.BuildTimings timings = callGraph.getBuildTimings();
+		assertNotNull(timings, "Missing build timings");
+		assertEquals(count, timings.classCount());
+		assertEquals(count - 1, timings.callCount());
+		assertEquals(0, timings.unresolvedCallCount());
+
+		for (int i = 0; i < count; i++) {
+			JvmClassInfo cls = workspace.findJvmClass("Chain" + i).getValue().asJvmClass();
+			MethodVertex vertex = callGraph.getClassMethodsContainer(cls).getVertex("call", "()V");
+			assertNotNull(vertex, "Missing method vertex for 'call'");
+			assertEquals(i + 1 < count ? 1 : 0, vertex.getCalls().size());
+			assertEquals(i > 0 ? 1 : 0, vertex.getCallers().size());
+		}
+	}
+
 	@Nonnull
 	static CallGraph newCallGraph(@Nonnull Workspace workspace) {
 		CallGraph callGraph = new CallGraph(workspace);
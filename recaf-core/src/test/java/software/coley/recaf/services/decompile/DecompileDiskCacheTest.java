@@ -0,0 +1,70 @@
+package software.coley.recaf.services.decompile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link DecompileDiskCache}.
+ */
+class DecompileDiskCacheTest {
+	private static final JvmDecompiler DECOMPILER = NoopJvmDecompiler.getInstance();
+
+	@Test
+	void testRoundTrip(@TempDir Path dir) {
+		DecompileDiskCache cache = new DecompileDiskCache(dir, () -> Long.MAX_VALUE);
+		String key = DecompileDiskCache.key(new byte[]{1, 2, 3}, DECOMPILER);
+		assertNull(cache.get(key), "Cache should start empty");
+
+		cache.put(key, "class Foo {}");
+		assertEquals("class Foo {}", cache.get(key));
+
+		// A new cache instance over the same directory should see the prior session's entry
+		DecompileDiskCache warmCache = new DecompileDiskCache(dir, () -> Long.MAX_VALUE);
+		assertEquals("class Foo {}", warmCache.get(key));
+
+		cache.remove(key);
+		assertNull(cache.get(key), "Entry should have been removed");
+	}
+
+	@Test
+	void testKeyDependsOnInputs() {
+		String key = DecompileDiskCache.key(new byte[]{1, 2, 3}, DECOMPILER);
+		assertEquals(key, DecompileDiskCache.key(new byte[]{1, 2, 3}, DECOMPILER));
+		assertNotEquals(key, DecompileDiskCache.key(new byte[]{1, 2, 4}, DECOMPILER));
+
+		// Changes to inner classes should also be reflected in the key
+		String withInner = DecompileDiskCache.key(new byte[]{1, 2, 3}, List.of(new byte[]{4}), DECOMPILER);
+		assertNotEquals(key, withInner);
+		assertEquals(withInner, DecompileDiskCache.key(new byte[]{1, 2, 3}, List.of(new byte[]{4}), DECOMPILER));
+		assertNotEquals(withInner, DecompileDiskCache.key(new byte[]{1, 2, 3}, List.of(new byte[]{5}), DECOMPILER));
+		assertNotEquals(DecompileDiskCache.key(new byte[]{1}, List.of(new byte[]{2, 3}), DECOMPILER),
+				DecompileDiskCache.key(new byte[]{1}, List.of(new byte[]{2}, new byte[]{3}), DECOMPILER));
+	}
+
+	@Test
+	void testEvictsLeastRecentlyUsed(@TempDir Path dir) throws InterruptedException {
+		long maxSize = 1024;
+		DecompileDiskCache cache = new DecompileDiskCache(dir, () -> maxSize);
+		String first = DecompileDiskCache.key(new byte[]{0}, DECOMPILER);
+		cache.put(first, "first");
+		for (int i = 1; i < 100; i++) {
+			cache.put(DecompileDiskCache.key(new byte[]{(byte) i}, DECOMPILER), "entry-" + i);
+
+			// Keep the first entry as the most recently used one
+			assertNotNull(cache.get(first));
+		}
+
+		// Compaction runs in the background, so wait for it to bring the cache under its limit
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (cache.getSize() > maxSize && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+		assertTrue(cache.getSize() <= maxSize, "Cache was not compacted");
+		assertTrue(cache.getEntryCount() < 100, "No entries were evicted");
+		assertEquals("first", cache.get(first), "Recently used entry should not be evicted");
+	}
+}
@@ -13,16 +13,22 @@
 import software.coley.recaf.services.decompile.filter.OutputTextFilter;
 import software.coley.recaf.services.decompile.procyon.ProcyonDecompiler;
 import software.coley.recaf.services.decompile.vineflower.VineflowerDecompiler;
+import software.coley.recaf.services.workspace.io.ByteArrayWorkspaceExportConsumer;
+import software.coley.recaf.services.workspace.io.WorkspaceOutputType;
 import software.coley.recaf.test.TestBase;
 import software.coley.recaf.test.TestClassUtils;
 import software.coley.recaf.test.dummy.HelloWorld;
 import software.coley.recaf.util.ReflectUtil;
 import software.coley.recaf.workspace.model.Workspace;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -137,6 +143,35 @@ void testCaching() {
 		assertNotSame(direct1, direct2, "Direct decompiler use cached results unexpectedly");
 	}
 
+	@Test
+	void testBatchExport() {
+		JvmDecompiler decompiler = decompilerManager.getJvmDecompiler(CfrDecompiler.NAME);
+		BatchDecompileTask task = decompilerManager.newBatch(decompiler, workspace)
+				.withParallelism(2)
+				.withMaxInFlight(1);
+		ByteArrayWorkspaceExportConsumer consumer = new ByteArrayWorkspaceExportConsumer();
+		assertDoesNotThrow(() -> task.export(WorkspaceOutputType.FILE, consumer));
+
+		// Check progress counters
+		assertTrue(task.isDone());
+		assertEquals(1, task.getTotal());
+		assertEquals(1, task.getCompleted());
+		assertEquals(0, task.getFailed());
+		assertTrue(task.getBytesWritten() > 0);
+
+		// Check the output ZIP has the decompiled class
+		byte[] output = consumer.getOutput();
+		assertNotNull(output, "No output written");
+		assertDoesNotThrow(() -> {
+			try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(output))) {
+				ZipEntry entry = zip.getNextEntry();
+				assertNotNull(entry, "Missing decompiled source in output");
+				assertEquals(classHelloWorld.getName() + ".java", entry.getName());
+				assertTrue(new String(zip.readAllBytes(), StandardCharsets.UTF_8).contains("\"Hello world\""));
+			}
+		});
+	}
+
 	@Test
 	void testFilterHollow() {
 		String decompilationBefore = assertDoesNotThrow(() -> decompilerManager.decompile(workspace, classHelloWorld).get().getText());
@@ -1,9 +1,12 @@
 package software.coley.recaf.services.inheritance;
 
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
 import software.coley.recaf.info.ClassInfo;
 import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.info.builder.JvmClassInfoBuilder;
 import software.coley.recaf.path.ClassPathNode;
 import software.coley.recaf.test.TestBase;
 import software.coley.recaf.test.TestClassUtils;
@@ -12,14 +15,20 @@
 import software.coley.recaf.util.Types;
 import software.coley.recaf.workspace.model.Workspace;
 import software.coley.recaf.workspace.model.bundle.BasicJvmClassBundle;
+import software.coley.recaf.workspace.model.bundle.JvmClassBundle;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.objectweb.asm.Opcodes.*;
 
 /**
  * Tests for {@link InheritanceGraph}
@@ -91,6 +100,60 @@ void getVertexFamily() {
 		assertEquals(names, family.stream().map(InheritanceVertex::getName).collect(Collectors.toSet()));
 	}
 
+	@Test
+	void getVertexFamilyMatchesHierarchyWalk() {
+		List<String> names = new ArrayList<>();
+		for (Class<?> cls : Inheritance.class.getClasses())
+			names.add(cls.getName().replace('.', '/'));
+		names.addAll(List.of(StringConsumer.class.getName().replace('.', '/'), "java/util/function/Consumer",
+				"java/lang/Exception", "java/lang/Throwable", "java/lang/Object"));
+
+		// Compare against walking the vertex hierarchy, which was how the graph used to answer these queries.
+		for (String name : names) {
+			InheritanceVertex vertex = inheritanceGraph.getVertex(name);
+			assertNotNull(vertex, "Missing vertex: " + name);
+			assertEquals(vertex.getFamily(true), inheritanceGraph.getVertexFamily(name, true),
+					"Mismatched family of " + name);
+			assertEquals(vertex.getFamily(false), inheritanceGraph.getVertexFamily(name, false),
+					"Mismatched family of " + name + " without object");
+		}
+	}
+
+	@Test
+	void getVertexFamilyUpdatesWithHierarchy() {
+		byte[] aBytes = createClass("A", "java/lang/Object");
+		byte[] bBytes = createClass("B", "java/lang/Object");
+		byte[] cBytes = createClass("C", "B");
+		byte[] bChildOfABytes = createClass("B", "A");
+		Workspace localWorkspace = TestClassUtils.fromBundle(TestClassUtils.fromClasses(
+				new JvmClassInfoBuilder(aBytes).build(),
+				new JvmClassInfoBuilder(bBytes).build()
+		));
+		JvmClassBundle bundle = localWorkspace.getPrimaryResource().getJvmClassBundle();
+		InheritanceGraph graph = recaf.get(InheritanceGraphService.class).newInheritanceGraph(localWorkspace);
+		assertEquals(Set.of("A"), familyNames(graph, "A"));
+		assertEquals(Set.of("B"), familyNames(graph, "B"));
+
+		// Adding 'C' as a child of 'B' should join their families
+		bundle.put(new JvmClassInfoBuilder(cBytes).build());
+		assertEquals(Set.of("B", "C"), familyNames(graph, "B"));
+
+		// Update 'B' to extend 'A', which should join all three
+		bundle.put(new JvmClassInfoBuilder(bChildOfABytes).build());
+		assertEquals(Set.of("A", "B", "C"), familyNames(graph, "A"));
+		assertEquals(Set.of("A", "B", "C"), familyNames(graph, "C"));
+
+		// Reverting the update should split the family again
+		bundle.put(new JvmClassInfoBuilder(bBytes).build());
+		assertEquals(Set.of("A"), familyNames(graph, "A"));
+		assertEquals(Set.of("B", "C"), familyNames(graph, "C"));
+
+		// Removing 'B' leaves 'C' on its own
+		bundle.remove("B");
+		assertEquals(Set.of("C"), familyNames(graph, "C"));
+		assertTrue(graph.getVertexFamily("B", true).isEmpty());
+	}
+
 	@Test
 	void getCommon() {
 		String edibleName = Inheritance.Edible.class.getName().replace('.', '/');
@@ -122,6 +185,72 @@ void isAssignableFrom() {
 		assertFalse(inheritanceGraph.isAssignableFrom(grapeName, edibleName), "Grape should not be assignable from Edible");
 	}
 
+	@Test
+	void getCommonAndAssignableMatchHierarchyWalk() {
+		List<String> names = queryTypeNames();
+
+		// Compare against walking the vertex hierarchy, which was how the graph used to answer these queries.
+		for (String first : names) {
+			for (String second : names) {
+				assertEquals(getCommonByWalk(first, second), inheritanceGraph.getCommon(first, second),
+						"Mismatched common type of " + first + " and " + second);
+				assertEquals(isAssignableFromByWalk(first, second), inheritanceGraph.isAssignableFrom(first, second),
+						"Mismatched assignability of " + first + " from " + second);
+			}
+		}
+	}
+
+	@Test
+	@Disabled("Benchmark, run manually")
+	void benchmarkGetCommonAndAssignable() {
+		List<String> names = queryTypeNames();
+		int rounds = 200;
+
+		// Walking the vertex hierarchy, which was how the graph used to answer these queries.
+		long start = System.nanoTime();
+		for (int i = 0; i < rounds; i++)
+			for (String first : names)
+				for (String second : names) {
+					getCommonByWalk(first, second);
+					isAssignableFromByWalk(first, second);
+				}
+		long walkTime = (System.nanoTime() - start) / 1_000_000;
+
+		// Fresh graph so that the first round includes building the ancestry of each type.
+		InheritanceGraph graph = recaf.get(InheritanceGraphService.class).newInheritanceGraph(workspace);
+		start = System.nanoTime();
+		for (int i = 0; i < rounds; i++)
+			for (String first : names)
+				for (String second : names) {
+					graph.getCommon(first, second);
+					graph.isAssignableFrom(first, second);
+				}
+		long indexTime = (System.nanoTime() - start) / 1_000_000;
+		System.out.printf("%d queries - hierarchy walk: %dms, ancestry index: %dms%n",
+				rounds * names.size() * names.size() * 2, walkTime, indexTime);
+	}
+
+	@Test
+	void getCommonUpdatesWithHierarchy() {
+		byte[] aBytes = createClass("A", "java/lang/Object");
+		byte[] bBytes = createClass("B", "java/lang/Object");
+		byte[] bChildOfABytes = createClass("B", "A");
+		Workspace localWorkspace = TestClassUtils.fromBundle(TestClassUtils.fromClasses(
+				new JvmClassInfoBuilder(aBytes).build(),
+				new JvmClassInfoBuilder(bBytes).build()
+		));
+		InheritanceGraph graph = recaf.get(InheritanceGraphService.class).newInheritanceGraph(localWorkspace);
+		assertEquals("java/lang/Object", graph.getCommon("A", "B"));
+		assertFalse(graph.isAssignableFrom("A", "B"));
+
+		// Update 'B' to extend 'A', which should invalidate prior answers
+		localWorkspace.getPrimaryResource().getJvmClassBundle().put(new JvmClassInfoBuilder(bChildOfABytes).build());
+		assertEquals("A", graph.getCommon("A", "B"));
+		assertEquals("A", graph.getCommon("B", "A"));
+		assertTrue(graph.isAssignableFrom("A", "B"));
+		assertFalse(graph.isAssignableFrom("B", "A"));
+	}
+
 	@Test
 	void getFamilyOfThrowable() {
 		String notFoodExceptionName = Inheritance.NotFoodException.class.getName().replace('.', '/');
@@ -140,4 +269,67 @@ void getFamilyOfThrowable() {
 				.toList();
 		assertTrue(throwableClasses.contains(notFoodException), "Subtypes of 'Throwable' did not yield 'NotFoodException'");
 	}
-}
\ No newline at end of file
+
+	private static List<String> queryTypeNames() {
+		List<String> names = new ArrayList<>();
+		for (Class<?> cls : Inheritance.class.getClasses())
+			names.add(cls.getName().replace('.', '/'));
+		names.addAll(List.of("java/util/ArrayList", "java/util/LinkedList", "java/util/HashSet", "java/util/TreeSet",
+				"java/util/ArrayDeque", "java/util/HashMap", "java/util/TreeMap", "java/util/Collection",
+				"java/util/List", "java/util/Set", "java/util/Deque", "java/util/Map", "java/lang/Integer",
+				"java/lang/Long", "java/lang/String", "java/lang/StringBuilder", "java/lang/Exception",
+				"java/lang/RuntimeException", "java/io/IOException", "java/lang/Object"));
+		return names;
+	}
+
+	private static byte[] createClass(String name, String superName) {
+		ClassWriter cw = new ClassWriter(0);
+		cw.visit(V1_8, ACC_PUBLIC, name, null, superName, null);
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static Set<String> familyNames(InheritanceGraph graph, String name) {
+		return graph.getVertexFamily(name, false).stream()
+				.map(InheritanceVertex::getName)
+				.collect(Collectors.toSet());
+	}
+
+	private static String getCommonByWalk(String first, String second) {
+		String object = "java/lang/Object";
+		InheritanceVertex vertex = inheritanceGraph.getVertex(first);
+		if (vertex == null || object.equals(first) || object.equals(second))
+			return object;
+		Set<String> firstParents = vertex.allParents()
+				.map(InheritanceVertex::getName)
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+		firstParents.add(first);
+		if (firstParents.contains(second))
+			return second;
+		Queue<String> queue = new LinkedList<>();
+		queue.add(second);
+		while (!queue.isEmpty()) {
+			InheritanceVertex nextVertex = inheritanceGraph.getVertex(queue.poll());
+			if (nextVertex == null)
+				break;
+			for (InheritanceVertex parent : nextVertex.getParents()) {
+				String parentName = parent.getName();
+				if (!parentName.equals(object)) {
+					if (firstParents.contains(parentName))
+						return parentName;
+					queue.add(parentName);
+				}
+			}
+		}
+		return object;
+	}
+
+	private static boolean isAssignableFromByWalk(String first, String second) {
+		if ("java/lang/Object".equals(first))
+			return true;
+		InheritanceVertex secondVertex = inheritanceGraph.getVertex(second);
+		if (secondVertex == null)
+			return false;
+		return secondVertex.allParents().anyMatch(v -> v.getName().equals(first));
+	}
+}
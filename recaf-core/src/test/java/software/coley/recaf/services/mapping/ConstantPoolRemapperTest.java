@@ -0,0 +1,159 @@
+package software.coley.recaf.services.mapping;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.util.Textifier;
+import org.objectweb.asm.util.TraceClassVisitor;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.info.member.FieldMember;
+import software.coley.recaf.info.member.LocalVariable;
+import software.coley.recaf.info.member.MethodMember;
+import software.coley.recaf.test.TestClassUtils;
+import software.coley.recaf.test.dummy.*;
+import software.coley.recaf.workspace.model.Workspace;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ConstantPoolRemapper}
+ */
+class ConstantPoolRemapperTest {
+	private static final Class<?>[] DUMMY_CLASSES = {
+			AnnotationImpl.class, AnonymousLambda.class, ClassWithAnnotation.class, ClassWithAnonymousInner.class,
+			ClassWithEmbeddedInners.class, ClassWithExceptions.class, ClassWithInner.class, ClassWithInnerAndMembers.class,
+			ClassWithLambda.class, DummyEnum.class, DummyEnumPrinter.class, OverlapCaller.class, OverlapClassAB.class,
+			OverlapInterfaceA.class, OverlapInterfaceB.class, StringList.class, StringListUser.class, StringSupplier.class,
+			TypeAnnotationImpl.class
+	};
+	private static final Class<?>[] RUNTIME_CLASSES = {
+			ArrayList.class, HashMap.class, Optional.class
+	};
+
+	@Test
+	void matchesVisitorRemapping() throws IOException {
+		List<JvmClassInfo> classes = loadClasses();
+		Workspace workspace = TestClassUtils.fromBundle(TestClassUtils.fromClasses(classes.toArray(JvmClassInfo[]::new)));
+		MappingsAdapter mappings = createMappings(classes);
+
+		for (JvmClassInfo cls : classes) {
+			ClassWriter cw = new ClassWriter(0);
+			WorkspaceClassRemapper visitorRemapper = new WorkspaceClassRemapper(cw, workspace, mappings);
+			cls.getClassReader().accept(visitorRemapper, 0);
+			byte[] expected = cw.toByteArray();
+			ConstantPoolRemapper poolRemapper = new ConstantPoolRemapper(workspace, mappings);
+			byte[] actual = poolRemapper.remap(cls);
+
+			assertNotNull(actual, "Failed to remap: " + cls.getName());
+			assertEquals(visitorRemapper.hasMappingBeenApplied(), poolRemapper.hasMappingBeenApplied(),
+					"Mismatched mapping application state: " + cls.getName());
+			assertEquals(textify(expected), textify(actual), "Mismatched remapping output: " + cls.getName());
+		}
+	}
+
+	@Test
+	@Disabled("Benchmark, run manually")
+	void benchmarkAgainstVisitorRemapping() throws IOException {
+		List<JvmClassInfo> classes = loadClasses();
+		Workspace workspace = TestClassUtils.fromBundle(TestClassUtils.fromClasses(classes.toArray(JvmClassInfo[]::new)));
+		MappingsAdapter mappings = createMappings(classes);
+		int rounds = 500;
+
+		// Run each once beforehand, so that neither is measured while classes are still being loaded.
+		long visitorTime = 0;
+		long poolTime = 0;
+		for (int i = 0; i <= rounds; i++) {
+			long start = System.nanoTime();
+			for (JvmClassInfo cls : classes) {
+				ClassWriter cw = new ClassWriter(0);
+				cls.getClassReader().accept(new WorkspaceClassRemapper(cw, workspace, mappings), 0);
+				cw.toByteArray();
+			}
+			long mid = System.nanoTime();
+			for (JvmClassInfo cls : classes)
+				new ConstantPoolRemapper(workspace, mappings).remap(cls);
+			long end = System.nanoTime();
+			if (i > 0) {
+				visitorTime += mid - start;
+				poolTime += end - mid;
+			}
+		}
+		System.out.printf("%d classes x %d - visitor: %dms, constant pool: %dms%n", classes.size(), rounds,
+				visitorTime / 1_000_000, poolTime / 1_000_000);
+	}
+
+	@Test
+	void unmappedClassIsUnchanged() throws IOException {
+		JvmClassInfo cls = TestClassUtils.fromRuntimeClass(HelloWorld.class);
+		Workspace workspace = TestClassUtils.fromBundle(TestClassUtils.fromClasses(cls));
+		MappingsAdapter mappings = new MappingsAdapter(true, true);
+		mappings.addClass("does/not/Exist", "mapped/Exist");
+
+		ConstantPoolRemapper remapper = new ConstantPoolRemapper(workspace, mappings);
+		assertSame(cls.getBytecode(), remapper.remap(cls), "Unaffected class should not be copied");
+		assertFalse(remapper.hasMappingBeenApplied());
+	}
+
+	@Test
+	void moduleIsNotSupported() {
+		JvmClassInfo cls = TestClassUtils.createClass("module-info", node -> {
+			node.version = Opcodes.V9;
+			node.access = Opcodes.ACC_MODULE;
+			node.superName = null;
+			node.visitModule("example", 0, null);
+		});
+		Workspace workspace = TestClassUtils.fromBundle(TestClassUtils.fromClasses(cls));
+
+		ConstantPoolRemapper remapper = new ConstantPoolRemapper(workspace, new MappingsAdapter(true, true));
+		assertNull(remapper.remap(cls), "Module classes should require the visitor based remapper");
+	}
+
+	private static List<JvmClassInfo> loadClasses() throws IOException {
+		List<JvmClassInfo> classes = new ArrayList<>();
+		for (Class<?> cls : DUMMY_CLASSES)
+			classes.add(TestClassUtils.fromRuntimeClass(cls));
+		for (Class<?> cls : RUNTIME_CLASSES)
+			classes.add(TestClassUtils.fromRuntimeClass(cls));
+		return classes;
+	}
+
+	private static MappingsAdapter createMappings(List<JvmClassInfo> classes) {
+		// Rename the dummy classes and all their members, plus some commonly used runtime types.
+		MappingsAdapter mappings = new MappingsAdapter(true, true);
+		for (JvmClassInfo cls : classes.subList(0, DUMMY_CLASSES.length)) {
+			String name = cls.getName();
+			mappings.addClass(name, "mapped/" + name.substring(name.lastIndexOf('/') + 1));
+			for (FieldMember field : cls.getFields())
+				mappings.addField(name, field.getName(), field.getDescriptor(), field.getName() + "Mapped");
+			for (MethodMember method : cls.getMethods()) {
+				if (method.getName().startsWith("<"))
+					continue;
+				mappings.addMethod(name, method.getName(), method.getDescriptor(), method.getName() + "Mapped");
+				for (LocalVariable variable : method.getLocalVariables())
+					mappings.addVariable(name, method.getName(), method.getDescriptor(), variable.getName(),
+							variable.getDescriptor(), variable.getIndex(), variable.getName() + "Mapped");
+			}
+		}
+		mappings.addClass("java/util/List", "mapped/List");
+		mappings.addClass("java/util/Map$Entry", "mapped/Map$Entry");
+		mappings.addMethod("java/util/Map", "get", "(Ljava/lang/Object;)Ljava/lang/Object;", "lookup");
+		mappings.addMethod("java/lang/Object", "hashCode", "()I", "hash");
+		return mappings;
+	}
+
+	private static String textify(byte[] bytecode) {
+		StringWriter writer = new StringWriter();
+		new ClassReader(bytecode).accept(new TraceClassVisitor(null, new Textifier(), new PrintWriter(writer)), 0);
+		return writer.toString();
+	}
+}
@@ -0,0 +1,180 @@
+package software.coley.recaf.services.mapping;
+
+import org.junit.jupiter.api.Test;
+import software.coley.recaf.services.mapping.data.FieldMapping;
+import software.coley.recaf.services.mapping.data.MethodMapping;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link IntermediateMappings}
+ */
+class IntermediateMappingsTest {
+	private static final int OWNERS = 200;
+	private static final int MEMBERS = 40;
+	private static final String[] DESCS = {"I", "J", "Ljava/lang/String;", "[B"};
+
+	@Test
+	void lookupsMatchLinearScan() {
+		IntermediateMappings mappings = new IntermediateMappings();
+		LegacyMappings legacy = new LegacyMappings();
+		populate(mappings, legacy);
+
+		// Compare hits and misses against scanning the mappings of each owner, which was how lookups used to work.
+		for (int i = 0; i < OWNERS; i++) {
+			String owner = owner(i);
+			for (int j = 0; j < MEMBERS + 2; j++) {
+				for (String desc : DESCS) {
+					assertEquals(legacy.getMappedFieldName(owner, "f" + j, desc),
+							mappings.getMappedFieldName(owner, "f" + j, desc));
+					String methodDesc = "(" + desc + ")V";
+					assertEquals(legacy.getMappedMethodName(owner, "m" + j, methodDesc),
+							mappings.getMappedMethodName(owner, "m" + j, methodDesc));
+				}
+			}
+		}
+	}
+
+	@Test
+	void firstAddedMappingTakesPrecedence() {
+		IntermediateMappings mappings = new IntermediateMappings();
+		mappings.addField("Owner", "I", "a", "first");
+		mappings.addField("Owner", "I", "a", "second");
+		mappings.addField("Owner", null, "a", "noDesc");
+		mappings.addMethod("Owner", "()V", "b", "first");
+		mappings.addMethod("Owner", "()V", "b", "second");
+		assertEquals("first", mappings.getMappedFieldName("Owner", "a", "I"));
+		assertEquals("noDesc", mappings.getMappedFieldName("Owner", "a", "J"));
+
+		// A descriptor-less mapping added before one with a descriptor also takes precedence
+		mappings.addField("Owner", null, "c", "noDesc");
+		mappings.addField("Owner", "I", "c", "withDesc");
+		assertEquals("noDesc", mappings.getMappedFieldName("Owner", "c", "I"));
+		assertEquals("noDesc", mappings.getMappedFieldName("Owner", "c", "J"));
+		assertEquals("first", mappings.getMappedMethodName("Owner", "b", "()V"));
+		assertNull(mappings.getMappedMethodName("Owner", "b", "()I"));
+
+		// Removing the first mapping should reveal the next one
+		mappings.removeMember(new FieldMapping("Owner", "a", "I", "first"));
+		mappings.removeMember(new MethodMapping("Owner", "b", "()V", "first"));
+		assertEquals("second", mappings.getMappedFieldName("Owner", "a", "I"));
+		assertEquals("second", mappings.getMappedMethodName("Owner", "b", "()V"));
+		assertEquals(4, mappings.getClassFieldMappings("Owner").size());
+		assertEquals(1, mappings.getClassMethodMappings("Owner").size());
+	}
+
+	@Test
+	void clearRemovesAllMappings() {
+		IntermediateMappings mappings = new IntermediateMappings();
+		populate(mappings, null);
+		mappings.clear();
+		assertTrue(mappings.getClassesWithMappings().isEmpty());
+		assertNull(mappings.getMappedMethodName(owner(0), "m1", "(J)V"));
+
+		// Mappings added afterward should be found again
+		mappings.addMethod(owner(0), "(J)V", "m1", "again");
+		assertEquals("again", mappings.getMappedMethodName(owner(0), "m1", "(J)V"));
+		assertEquals(1, mappings.getClassMethodMappings(owner(0)).size());
+	}
+
+	@Test
+	void concurrentReadsDuringWrites() throws Exception {
+		IntermediateMappings mappings = new IntermediateMappings();
+		ExecutorService service = Executors.newFixedThreadPool(4);
+		try {
+			Future<?> writer = service.submit(() -> populate(mappings, null));
+			List<Future<?>> readers = new ArrayList<>();
+			for (int r = 0; r < 3; r++)
+				readers.add(service.submit(() -> {
+					while (!writer.isDone())
+						for (int i = 0; i < OWNERS; i += 7) {
+							String name = mappings.getMappedMethodName(owner(i), "m1", "(J)V");
+							if (name != null)
+								assertEquals(owner(i) + ".m1", name);
+						}
+				}));
+			writer.get();
+			for (Future<?> reader : readers)
+				reader.get();
+		} finally {
+			service.shutdown();
+			assertTrue(service.awaitTermination(10, TimeUnit.SECONDS));
+		}
+		for (int i = 0; i < OWNERS; i++)
+			assertEquals(owner(i) + ".m1", mappings.getMappedMethodName(owner(i), "m1", "(J)V"));
+	}
+
+	/**
+	 * Adds the same set of mappings to each given target. Names are freshly allocated per mapping,
+	 * as they would be when read from a mapping file.
+	 */
+	private static void populate(IntermediateMappings mappings, LegacyMappings legacy) {
+		for (int i = 0; i < OWNERS; i++) {
+			for (int j = 0; j < MEMBERS; j++) {
+				String fieldDesc = j % 10 == 0 ? null : new String(DESCS[j % DESCS.length]);
+				String methodDesc = "(" + DESCS[j % DESCS.length] + ")V";
+				if (mappings != null) {
+					mappings.addField(owner(i), fieldDesc, "f" + j, owner(i) + ".f" + j);
+					mappings.addMethod(owner(i), methodDesc, "m" + j, owner(i) + ".m" + j);
+				}
+				if (legacy != null) {
+					legacy.addField(owner(i), fieldDesc, "f" + j, owner(i) + ".f" + j);
+					legacy.addMethod(owner(i), methodDesc, "m" + j, owner(i) + ".m" + j);
+				}
+
+				// Some fields have both descriptor-less and descriptor mappings, in either order
+				if (j % 10 == 0 || j % 10 == 5) {
+					String otherDesc = fieldDesc == null ? "I" : null;
+					if (mappings != null)
+						mappings.addField(owner(i), otherDesc, "f" + j, owner(i) + ".other" + j);
+					if (legacy != null)
+						legacy.addField(owner(i), otherDesc, "f" + j, owner(i) + ".other" + j);
+				}
+			}
+		}
+	}
+
+	private static String owner(int i) {
+		return "com/example/pkg" + (i % 20) + "/Class" + i;
+	}
+
+	/**
+	 * Prior storage of member mappings, scanning all mappings of an owner for each lookup.
+	 */
+	private static class LegacyMappings {
+		private final Map<String, List<FieldMapping>> fields = new HashMap<>();
+		private final Map<String, List<MethodMapping>> methods = new HashMap<>();
+
+		private void addField(String owner, String desc, String oldName, String newName) {
+			fields.computeIfAbsent(owner, n -> new ArrayList<>()).add(new FieldMapping(owner, oldName, desc, newName));
+		}
+
+		private void addMethod(String owner, String desc, String oldName, String newName) {
+			methods.computeIfAbsent(owner, n -> new ArrayList<>()).add(new MethodMapping(owner, oldName, desc, newName));
+		}
+
+		private String getMappedFieldName(String owner, String name, String desc) {
+			for (FieldMapping field : fields.getOrDefault(owner, List.of()))
+				if ((field.getDesc() == null || Objects.equals(desc, field.getDesc())) && field.getOldName().equals(name))
+					return field.getNewName();
+			return null;
+		}
+
+		private String getMappedMethodName(String owner, String name, String desc) {
+			for (MethodMapping method : methods.getOrDefault(owner, List.of()))
+				if (desc.equals(method.getDesc()) && method.getOldName().equals(name))
+					return method.getNewName();
+			return null;
+		}
+	}
+}
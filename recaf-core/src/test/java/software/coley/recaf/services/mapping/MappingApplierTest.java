@@ -281,6 +281,43 @@ public boolean shouldMapMethod(@Nonnull ClassInfo owner, @Nonnull MethodMember m
 		runMapped(OverlapCaller.class, "run");
 	}
 
+	@Test
+	void prefilterSkipsUnaffectedClasses() {
+		String overlapInterfaceBName = OverlapInterfaceB.class.getName().replace('.', '/');
+		String stringSupplierName = StringSupplier.class.getName().replace('.', '/');
+		MappingsAdapter mappings = new MappingsAdapter(true, true);
+		mappings.addMethod(overlapInterfaceBName, "methodB", "()V", "renamedB");
+		mappings.addClass(stringSupplierName, "renamed/Supplier");
+
+		// Classes referencing the mapped method name or class should pass the filter, others should not.
+		MappingPrefilter prefilter = MappingPrefilter.of(mappings);
+		assertNotNull(prefilter, "Adapter mappings should be filterable");
+		assertTrue(prefilter.mayAffect(get(OverlapInterfaceB.class)), "Declaring class of mapped method was filtered");
+		assertTrue(prefilter.mayAffect(get(OverlapClassAB.class)), "Implementation of mapped method was filtered");
+		assertTrue(prefilter.mayAffect(get(OverlapCaller.class)), "Caller of mapped method was filtered");
+		assertTrue(prefilter.mayAffect(get(StringSupplier.class)), "Mapped class was filtered");
+		assertTrue(prefilter.mayAffect(get(AnonymousLambda.class)), "User of mapped class was filtered");
+		assertFalse(prefilter.mayAffect(get(DummyEnum.class)), "Unrelated class passed the filter");
+		assertFalse(prefilter.mayAffect(get(OverlapInterfaceA.class)), "Unrelated class passed the filter");
+
+		// Results should be unaffected by filtering.
+		MappingResults results = mappingApplierService.inCurrentWorkspace().applyToPrimaryResource(mappings);
+		assertTrue(results.wasMapped(overlapInterfaceBName));
+		assertTrue(results.wasMapped(OverlapClassAB.class.getName().replace('.', '/')));
+		assertTrue(results.wasMapped(OverlapCaller.class.getName().replace('.', '/')));
+		assertTrue(results.wasMapped(stringSupplierName));
+		assertTrue(results.wasMapped(AnonymousLambda.class.getName().replace('.', '/')));
+		assertFalse(results.wasMapped(DummyEnum.class.getName().replace('.', '/')));
+		assertFalse(results.wasMapped(OverlapInterfaceA.class.getName().replace('.', '/')));
+
+		// Unknown mapping implementations cannot be filtered.
+		assertNull(MappingPrefilter.of(mappings.exportIntermediate()));
+	}
+
+	private JvmClassInfo get(Class<?> cls) {
+		return resource.getJvmClassBundle().get(cls.getName().replace('.', '/'));
+	}
+
 	private String runMapped(Class<?> cls, String methodName) {
 		String className = cls.getName();
 		ClassDefiner definer = newDefinerFromWorkspace();
@@ -0,0 +1,175 @@
+package software.coley.recaf.services.mapping.format;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.coley.recaf.services.mapping.IntermediateMappings;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for incremental parsing of {@link MappingFileFormat} implementations.
+ */
+class MappingStreamingTest {
+	private static final int CLASSES = 100;
+	private static final int MEMBERS = 10;
+
+	@Test
+	void proguard(@TempDir Path dir) throws Exception {
+		// Method descriptors refer to classes declared later in the file
+		Path path = write(dir, CLASSES, i -> proguardClass(i, CLASSES));
+		IntermediateMappings expected = assertMatchesTextParse(new ProguardMappings(), path);
+		assertEquals("named/pkg/Class1", expected.getMappedClassName("a1"));
+		assertEquals("method0", expected.getMappedMethodName("a0", "m0", "(I[La2;)La1;"));
+
+		// Single pass reading should yield the same result as reading the file twice
+		IntermediateMappings singlePass = new IntermediateMappings();
+		new ProguardMappings().parse(new StringReader(Files.readString(path)), singlePass);
+		assertSameMappings(expected, singlePass);
+	}
+
+	@Test
+	void srg(@TempDir Path dir) throws Exception {
+		Path path = write(dir, CLASSES, MappingStreamingTest::srgClass);
+		assertMatchesTextParse(new SrgMappings(), path);
+	}
+
+	@Test
+	void srgPackages(@TempDir Path dir) throws Exception {
+		Path path = dir.resolve("packages.srg");
+		Files.writeString(path, """
+				PK: obf/pkg clean/pkg
+				CL: obf/pkg/a clean/pkg/Named""");
+		IntermediateMappings mappings = new SrgMappings().parse(path);
+		assertEquals("clean/pkg/Named", mappings.getMappedClassName("obf/pkg/a"));
+		assertEquals("clean/pkg/b", mappings.getMappedClassName("obf/pkg/b"));
+	}
+
+	@Test
+	void enigma(@TempDir Path dir) throws Exception {
+		Path path = write(dir, CLASSES, i -> {
+			StringBuilder sb = new StringBuilder();
+			sb.append("CLASS a").append(i).append(" pkg/Class").append(i).append('\n');
+			for (int j = 0; j < MEMBERS; j++) {
+				sb.append("\tFIELD f").append(j).append(" field").append(j).append(" I\n");
+				sb.append("\tMETHOD m").append(j).append(" method").append(j)
+						.append(" (La").append((i + 1) % CLASSES).append(";)V\n");
+				sb.append("\t\tARG 1 arg\n");
+			}
+			return sb;
+		});
+		assertMatchesTextParse(new EnigmaMappings(), path);
+	}
+
+	@Test
+	void tinyV2(@TempDir Path dir) throws Exception {
+		Path path = write(dir, CLASSES, i -> {
+			StringBuilder sb = new StringBuilder();
+			if (i == 0)
+				sb.append("tiny\t2\t0\tofficial\tnamed\n");
+			sb.append("c\ta").append(i).append("\tpkg/Class").append(i).append('\n');
+			for (int j = 0; j < MEMBERS; j++) {
+				sb.append("\tf\tI\tf").append(j).append("\tfield").append(j).append('\n');
+				sb.append("\tm\t(La").append((i + 1) % CLASSES).append(";)V\tm").append(j)
+						.append("\tmethod").append(j).append('\n');
+			}
+			return sb;
+		});
+		assertMatchesTextParse(new TinyV2Mappings(), path);
+	}
+
+	@Test
+	@Disabled("Benchmark, run manually")
+	void benchmarkThroughput(@TempDir Path dir) throws Exception {
+		int classes = 20_000;
+		benchmark("Proguard", new ProguardMappings(), write(dir, classes, i -> proguardClass(i, classes)));
+		benchmark("SRG", new SrgMappings(), write(dir, classes, MappingStreamingTest::srgClass));
+	}
+
+	private static void benchmark(String name, MappingFileFormat format, Path path) throws Exception {
+		double megabytes = Files.size(path) / (1024.0 * 1024.0);
+
+		// Best of several runs, after a few warmup runs
+		long bestStreamed = Long.MAX_VALUE;
+		long bestText = Long.MAX_VALUE;
+		for (int i = 0; i < 8; i++) {
+			long start = System.nanoTime();
+			format.parse(path);
+			long mid = System.nanoTime();
+			format.parse(Files.readString(path));
+			long end = System.nanoTime();
+			if (i >= 3) {
+				bestStreamed = Math.min(bestStreamed, mid - start);
+				bestText = Math.min(bestText, end - mid);
+			}
+		}
+		System.out.printf("%s (%.1f MB) - streamed: %.1f MB/s, text: %.1f MB/s%n", name, megabytes,
+				megabytes / (bestStreamed / 1e9), megabytes / (bestText / 1e9));
+	}
+
+	private static IntermediateMappings assertMatchesTextParse(MappingFileFormat format, Path path) throws Exception {
+		IntermediateMappings streamed = format.parse(path);
+		IntermediateMappings parsed = format.parse(Files.readString(path));
+		assertSameMappings(parsed, streamed);
+		assertFalse(streamed.getClasses().isEmpty());
+		return streamed;
+	}
+
+	private static void assertSameMappings(IntermediateMappings expected, IntermediateMappings actual) {
+		assertEquals(new HashSet<>(expected.getClasses().values()), new HashSet<>(actual.getClasses().values()));
+		assertEquals(flatten(expected.getFields()), flatten(actual.getFields()));
+		assertEquals(flatten(expected.getMethods()), flatten(actual.getMethods()));
+		assertEquals(flatten(expected.getVariables()), flatten(actual.getVariables()));
+	}
+
+	private static <T> Set<T> flatten(Map<String, List<T>> map) {
+		Set<T> set = new HashSet<>();
+		for (Collection<T> values : map.values())
+			set.addAll(values);
+		return set;
+	}
+
+	private static CharSequence proguardClass(int i, int classes) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("named.pkg.Class").append(i).append(" -> a").append(i).append(":\n");
+		for (int j = 0; j < MEMBERS; j++) {
+			sb.append("    int field").append(j).append(" -> f").append(j).append('\n');
+			sb.append("    named.pkg.Class").append((i + 1) % classes).append(" method").append(j)
+					.append("(int,named.pkg.Class").append((i + 2) % classes).append("[]) -> m").append(j).append('\n');
+		}
+		return sb;
+	}
+
+	private static CharSequence srgClass(int i) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("CL: a").append(i).append(" pkg/Class").append(i).append('\n');
+		for (int j = 0; j < MEMBERS; j++) {
+			sb.append("FD: a").append(i).append("/f").append(j)
+					.append(" pkg/Class").append(i).append("/field").append(j).append('\n');
+			sb.append("MD: a").append(i).append("/m").append(j).append(" (La").append(i).append(";)V")
+					.append(" pkg/Class").append(i).append("/method").append(j)
+					.append(" (Lpkg/Class").append(i).append(";)V\n");
+		}
+		return sb;
+	}
+
+	private static Path write(Path dir, int classes, IntFunction<CharSequence> classText) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < classes; i++)
+			sb.append(classText.apply(i));
+		Path path = dir.resolve("mappings.txt");
+		Files.writeString(path, sb);
+		return path;
+	}
+}
@@ -20,6 +20,7 @@
 import software.coley.recaf.services.mapping.gen.filter.IncludeModifiersNameFilter;
 import software.coley.recaf.services.mapping.gen.filter.IncludeNameFilter;
 import software.coley.recaf.services.mapping.gen.filter.NameGeneratorFilter;
+import software.coley.recaf.services.mapping.gen.naming.IncrementingNameGenerator;
 import software.coley.recaf.services.mapping.gen.naming.NameGenerator;
 import software.coley.recaf.services.search.match.StringPredicate;
 import software.coley.recaf.services.search.match.StringPredicateProvider;
@@ -35,7 +36,9 @@
 import software.coley.recaf.workspace.model.resource.WorkspaceResource;
 
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -114,6 +117,82 @@ void testGeneral() {
 		assertNotNull(mappings.getMappedVariableName(className, "main", "([Ljava/lang/String;)V", "args", "[Ljava/lang/String;", 0));
 	}
 
+	@Test
+	void testConcurrentGenerationMatchesSequential() {
+		NameGenerator concurrentNameGenerator = new NameGenerator() {
+			@Override
+			public boolean supportsConcurrentGeneration() {
+				return true;
+			}
+
+			@Nonnull
+			@Override
+			public String mapClass(@Nonnull ClassInfo info) {
+				return nameGenerator.mapClass(info);
+			}
+
+			@Nonnull
+			@Override
+			public String mapField(@Nonnull ClassInfo owner, @Nonnull FieldMember field) {
+				return nameGenerator.mapField(owner, field);
+			}
+
+			@Nonnull
+			@Override
+			public String mapMethod(@Nonnull ClassInfo owner, @Nonnull MethodMember method) {
+				return nameGenerator.mapMethod(owner, method);
+			}
+
+			@Nonnull
+			@Override
+			public String mapVariable(@Nonnull ClassInfo owner, @Nonnull MethodMember declaringMethod, @Nonnull LocalVariable variable) {
+				return nameGenerator.mapVariable(owner, declaringMethod, variable);
+			}
+		};
+
+		// Families are generated independently, so the results should be the same as when generating them in sequence.
+		Mappings sequential = mappingGenerator.generate(workspace, resource, inheritanceGraph, nameGenerator, null);
+		Mappings concurrent = mappingGenerator.generate(workspace, resource, inheritanceGraph, concurrentNameGenerator, null);
+		resource.getJvmClassBundle().forEach(cls -> {
+			String name = cls.getName();
+			assertEquals(sequential.getMappedClassName(name), concurrent.getMappedClassName(name));
+			for (FieldMember field : cls.getFields())
+				assertEquals(sequential.getMappedFieldName(name, field.getName(), field.getDescriptor()),
+						concurrent.getMappedFieldName(name, field.getName(), field.getDescriptor()));
+			for (MethodMember method : cls.getMethods()) {
+				assertEquals(sequential.getMappedMethodName(name, method.getName(), method.getDescriptor()),
+						concurrent.getMappedMethodName(name, method.getName(), method.getDescriptor()));
+				for (LocalVariable variable : method.getLocalVariables())
+					assertEquals(sequential.getMappedVariableName(name, method.getName(), method.getDescriptor(),
+									variable.getName(), variable.getDescriptor(), variable.getIndex()),
+							concurrent.getMappedVariableName(name, method.getName(), method.getDescriptor(),
+									variable.getName(), variable.getDescriptor(), variable.getIndex()));
+			}
+		});
+	}
+
+	@Test
+	void testIncrementingGenerationIsConsistent() {
+		// Member names are counted per family and class names in family order,
+		// so generating in parallel should always yield the same names.
+		Mappings first = mappingGenerator.generate(workspace, resource, inheritanceGraph, new IncrementingNameGenerator(), null);
+		Mappings second = mappingGenerator.generate(workspace, resource, inheritanceGraph, new IncrementingNameGenerator(), null);
+		Set<String> mappedClassNames = new HashSet<>();
+		resource.getJvmClassBundle().forEach(cls -> {
+			String name = cls.getName();
+			String mappedName = first.getMappedClassName(name);
+			assertNotNull(mappedName);
+			assertEquals(mappedName, second.getMappedClassName(name));
+			assertTrue(mappedClassNames.add(mappedName), "Class name generated twice: " + mappedName);
+			for (MethodMember method : cls.getMethods())
+				assertEquals(first.getMappedMethodName(name, method.getName(), method.getDescriptor()),
+						second.getMappedMethodName(name, method.getName(), method.getDescriptor()));
+			for (FieldMember field : cls.getFields())
+				assertEquals(first.getMappedFieldName(name, field.getName(), field.getDescriptor()),
+						second.getMappedFieldName(name, field.getName(), field.getDescriptor()));
+		});
+	}
+
 	@Nested
 	class Filters {
 		@Test
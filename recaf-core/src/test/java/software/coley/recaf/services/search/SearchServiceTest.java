@@ -3,7 +3,10 @@
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.objectweb.asm.MethodVisitor;
 import software.coley.recaf.info.BasicTextFileInfo;
+import software.coley.recaf.info.ClassInfo;
+import software.coley.recaf.info.JvmClassInfo;
 import software.coley.recaf.info.annotation.AnnotationInfo;
 import software.coley.recaf.info.builder.TextFileInfoBuilder;
 import software.coley.recaf.info.member.ClassMember;
@@ -30,16 +33,20 @@
 import software.coley.recaf.test.dummy.HelloWorld;
 import software.coley.recaf.test.dummy.StringConsumer;
 import software.coley.recaf.test.dummy.TypeAnnotationImpl;
+import software.coley.recaf.util.threading.ThreadPoolFactory;
 import software.coley.recaf.workspace.model.EmptyWorkspace;
 import software.coley.recaf.workspace.model.Workspace;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.*;
 import static software.coley.recaf.test.TestClassUtils.*;
 
 /**
@@ -51,6 +58,7 @@ public class SearchServiceTest extends TestBase {
 	static SearchService searchService;
 	static Workspace classesWorkspace;
 	static Workspace filesWorkspace;
+	static ExecutorService indexThreadPool = ThreadPoolFactory.newFixedThreadPool("test-search-index");
 
 	@BeforeAll
 	static void setup() throws IOException {
@@ -129,6 +137,20 @@ void testClassStrings() {
 			assertEquals(1, results.size());
 		}
 
+		@Test
+		void testStreamingStopsAtLimit() {
+			Set<Result<?>> streamed = ConcurrentHashMap.newKeySet();
+			StreamingSearchFeedback feedback = new StreamingSearchFeedback(streamed::add, 3, true);
+			Results results = searchService.search(classesWorkspace, new NumberQuery(numMatchProvider.newNotEqualsPredicate(4)), feedback);
+
+			// The full search yields more results than the limit, but only the first few should be passed along
+			assertTrue(feedback.isLimitReached());
+			assertTrue(feedback.hasRequestedCancellation());
+			assertEquals(3, feedback.getAcceptedCount());
+			assertEquals(3, streamed.size());
+			assertEquals(streamed, Set.copyOf(results));
+		}
+
 		@Test
 		void testFieldPath() {
 			// Used only in constant-value attribute for field 'CONSTANT_FIELD'
@@ -247,6 +269,109 @@ void testMemberReferenceSearchSysOut() {
 			assertEquals(2, results.size());
 		}
 
+		@Test
+		void testReferenceIndexCandidates() {
+			ReferenceIndex index = new ReferenceIndex(classesWorkspace, indexThreadPool);
+			try {
+				ReferenceQuery sysOutQuery = new ReferenceQuery(
+						strMatchProvider.newEqualPredicate("java/lang/System"),
+						strMatchProvider.newEqualPredicate("out"),
+						strMatchProvider.newEqualPredicate("Ljava/io/PrintStream;"));
+
+				// Every class with a result must be a candidate in the index
+				Set<JvmClassInfo> candidates = index.getCandidates(sysOutQuery);
+				Results results = searchService.search(classesWorkspace, sysOutQuery);
+				assertFalse(results.isEmpty());
+				for (Result<?> result : results) {
+					ClassInfo resultClass = result.getPath().getValueOfType(ClassInfo.class);
+					assertNotNull(resultClass);
+					assertTrue(candidates.contains(resultClass.asJvmClass()), "Class with result not a candidate: " + resultClass.getName());
+				}
+
+				// Classes without any matching reference should not be candidates
+				assertTrue(index.getCandidates(new ReferenceQuery(
+						strMatchProvider.newEqualPredicate("does/not/Exist")
+				)).isEmpty());
+			} finally {
+				index.close();
+			}
+		}
+
+		@Test
+		void testStringIndexCandidates() {
+			StringIndex index = new StringIndex(classesWorkspace, indexThreadPool);
+			try {
+				// Every class with a result must be a candidate in the index
+				for (StringQuery query : List.of(
+						new StringQuery(strMatchProvider.newContainsPredicate("llo wo")),
+						new StringQuery(strMatchProvider.newContainsPredicate("HELLO WORLD", false)),
+						new StringQuery(strMatchProvider.newStartsWithPredicate("Hello")),
+						new StringQuery(strMatchProvider.newPartialRegexPredicate("Hel+o\\s+world")))) {
+					assertTrue(StringIndex.supports(query));
+					Set<JvmClassInfo> candidates = index.getCandidates(query);
+					assertNotNull(candidates);
+					Results results = searchService.search(classesWorkspace, query);
+					assertFalse(results.isEmpty());
+					for (Result<?> result : results) {
+						ClassInfo resultClass = result.getPath().getValueOfType(ClassInfo.class);
+						assertNotNull(resultClass);
+						assertTrue(candidates.contains(resultClass.asJvmClass()), "Class with result not a candidate: " + resultClass.getName());
+					}
+				}
+
+				// Classes without any matching string should not be candidates
+				Set<JvmClassInfo> candidates = index.getCandidates(new StringQuery(strMatchProvider.newContainsPredicate("does not exist")));
+				assertNotNull(candidates);
+				assertTrue(candidates.isEmpty());
+
+				// Predicates which do not require some text to be present cannot be narrowed down
+				assertFalse(StringIndex.supports(new StringQuery(strMatchProvider.newContainsPredicate(":"))));
+				assertFalse(StringIndex.supports(new StringQuery(strMatchProvider.newPartialRegexPredicate("Hello|World"))));
+				assertFalse(StringIndex.supports(new StringQuery(strMatchProvider.newAnythingPredicate())));
+			} finally {
+				index.close();
+			}
+		}
+
+		@Test
+		void testStringIndexCaseFolding() {
+			// Some characters only match their ASCII counterparts once upper-cased, like 'ſ' to 'S' and 'ı' to 'I'
+			Workspace workspace = fromBundle(fromClasses(createClass("Folding", node -> {
+				MethodVisitor mv = node.visitMethod(ACC_STATIC, "strings", "()V", null, null);
+				mv.visitCode();
+				mv.visitLdcInsn("ſecret");
+				mv.visitInsn(POP);
+				mv.visitLdcInsn("faılure");
+				mv.visitInsn(POP);
+				mv.visitInsn(RETURN);
+				mv.visitMaxs(1, 0);
+				mv.visitEnd();
+			})));
+			StringIndex index = new StringIndex(workspace, indexThreadPool);
+			try {
+				for (StringQuery query : List.of(
+						new StringQuery(strMatchProvider.newEqualPredicate("SECRET", false)),
+						new StringQuery(strMatchProvider.newEqualPredicate("failure", false)))) {
+					assertFalse(searchService.search(workspace, query).isEmpty());
+					Set<JvmClassInfo> candidates = index.getCandidates(query);
+					assertNotNull(candidates);
+					assertEquals(1, candidates.size(), "Class with case-insensitive match not a candidate");
+				}
+			} finally {
+				index.close();
+			}
+		}
+
+		@Test
+		void testRegexLiterals() {
+			assertEquals(List.of("Hello world"), StringIndex.regexLiterals("Hello world"));
+			assertEquals(List.of("He", "o w", "orld"), StringIndex.regexLiterals("Hel*o wx?orld+"));
+			assertEquals(List.of("a.b"), StringIndex.regexLiterals("a\\.b(xyz)?c{2}"));
+			assertEquals(List.of("prefix"), StringIndex.regexLiterals("^prefix\\d+suffix"));
+			assertEquals(List.of(), StringIndex.regexLiterals("[abc]def"));
+			assertNull(StringIndex.regexLiterals("(?i)hello"));
+		}
+
 		@Test
 		void testClassReferenceToNumberFormatException() throws IOException {
 			Workspace workspace = fromBundle(fromClasses(
@@ -1,6 +1,7 @@
 package software.coley.recaf.services.source;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import org.junit.jupiter.api.*;
 import org.objectweb.asm.Type;
 import org.openrewrite.Cursor;
@@ -8,6 +9,7 @@
 import org.openrewrite.InMemoryExecutionContext;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
 import software.coley.collections.Unchecked;
 import software.coley.recaf.info.ClassInfo;
 import software.coley.recaf.info.JvmClassInfo;
@@ -878,6 +880,60 @@ static void main(String[] args) {
 		}
 	}
 
+	@Nested
+	class Caching {
+		@Test
+		void testLibraryTypesAreSharedBetweenParsers() {
+			String source = """
+					package software.coley.recaf.test.dummy;
+					class HelloWorld {
+						String value;
+					}
+					""";
+			JavaType.FullyQualified[] types = new JavaType.FullyQualified[2];
+			handleUnit(source, (unit, ctx) -> types[0] = getFirstFieldType(unit));
+
+			// A new parser should re-use the type attributed by the prior parser
+			cleanup();
+			handleUnit(source, (unit, ctx) -> types[1] = getFirstFieldType(unit));
+			assertNotNull(types[0]);
+			assertEquals("java.lang.String", types[0].getFullyQualifiedName());
+			assertSame(types[0], types[1], "Library type was not shared");
+		}
+
+		@Test
+		void testPrimaryTypesAreNotSharedBetweenParsers() {
+			handleUnit("""
+					package software.coley.recaf.test.dummy;
+					class HelloWorld {
+						int first;
+					}
+					""", (unit, ctx) -> assertEquals(List.of("first"), getFieldNames(unit)));
+
+			// The type of the class declared in the source should reflect the new source, not the prior one
+			cleanup();
+			handleUnit("""
+					package software.coley.recaf.test.dummy;
+					class HelloWorld {
+						int second;
+					}
+					""", (unit, ctx) -> assertEquals(List.of("second"), getFieldNames(unit)));
+		}
+
+		@Nonnull
+		private static List<String> getFieldNames(@Nonnull J.CompilationUnit unit) {
+			return unit.getClasses().getFirst().getType().getMembers().stream()
+					.map(JavaType.Variable::getName)
+					.toList();
+		}
+
+		@Nullable
+		private static JavaType.FullyQualified getFirstFieldType(@Nonnull J.CompilationUnit unit) {
+			J.VariableDeclarations field = (J.VariableDeclarations) unit.getClasses().getFirst().getBody().getStatements().getFirst();
+			return field.getTypeAsFullyQualified();
+		}
+	}
+
 	@Nested
 	@SuppressWarnings("deprecation")
 	class ErroneousInput {
@@ -0,0 +1,108 @@
+package software.coley.recaf.services.transform;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.path.ClassPathNode;
+import software.coley.recaf.services.inheritance.InheritanceGraph;
+import software.coley.recaf.services.inheritance.InheritanceGraphService;
+import software.coley.recaf.test.TestBase;
+import software.coley.recaf.test.TestClassUtils;
+import software.coley.recaf.test.dummy.HelloWorld;
+import software.coley.recaf.workspace.model.Workspace;
+import software.coley.recaf.workspace.model.bundle.JvmClassBundle;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link JvmTransformerContext}
+ */
+class JvmTransformerContextTest extends TestBase {
+	private JvmClassBundle bundle;
+	private JvmClassInfo cls;
+	private InheritanceGraph inheritanceGraph;
+	private JvmTransformerContext context;
+
+	@BeforeEach
+	void setup() throws Exception {
+		cls = TestClassUtils.fromRuntimeClass(HelloWorld.class);
+		bundle = TestClassUtils.fromClasses(cls);
+		Workspace workspace = TestClassUtils.fromBundle(bundle);
+		inheritanceGraph = recaf.get(InheritanceGraphService.class).newInheritanceGraph(workspace);
+		context = new JvmTransformerContext(workspace, workspace.getPrimaryResource());
+	}
+
+	@Test
+	void nodeIsReusedAfterRelease() {
+		ClassNode node = context.getNode(bundle, cls);
+		context.releaseNodes();
+
+		// Nothing has been recorded, so there is nothing to emit
+		assertSame(node, context.getNode(bundle, cls), "Released node should be reused while still reachable");
+		assertTrue(context.buildChangeMap(inheritanceGraph).isEmpty());
+	}
+
+	@Test
+	void inPlaceNodeChangesAreNotLostOnRelease() {
+		ClassNode node = context.getNode(bundle, cls);
+		context.setNode(bundle, cls, node);
+		context.releaseNodes();
+
+		// Modify the node in place in a later task, without recording it again
+		context.getNode(bundle, cls).fields.add(new FieldNode(Opcodes.ACC_STATIC, "added", "I", null, null));
+		context.releaseNodes();
+
+		// The in-place changes should be part of the current state
+		assertTrue(hasAddedField(context.getBytecode(bundle, cls)));
+		Map<ClassPathNode, JvmClassInfo> changes = context.buildChangeMap(inheritanceGraph);
+		assertEquals(1, changes.size());
+		assertTrue(hasAddedField(changes.values().iterator().next().getBytecode()));
+	}
+
+	@Test
+	void nodeChangesAreWrittenBackOnDemand() {
+		ClassNode node = context.getNode(bundle, cls);
+		node.fields.add(new FieldNode(Opcodes.ACC_STATIC, "added", "I", null, null));
+		context.setNode(bundle, cls, node);
+		context.releaseNodes();
+
+		// Bytecode requests should reflect the recorded node
+		assertTrue(hasAddedField(context.getBytecode(bundle, cls)));
+
+		// The written back state should be the one emitted
+		Map<ClassPathNode, JvmClassInfo> changes = context.buildChangeMap(inheritanceGraph);
+		assertEquals(1, changes.size());
+		assertTrue(hasAddedField(changes.values().iterator().next().getBytecode()));
+	}
+
+	@Test
+	void setBytecodeReplacesNode() {
+		ClassNode node = context.getNode(bundle, cls);
+		node.fields.add(new FieldNode(Opcodes.ACC_STATIC, "added", "I", null, null));
+		context.setNode(bundle, cls, node);
+		byte[] modified = context.getBytecode(bundle, cls);
+
+		// Restoring the initial bytecode should drop the node changes
+		context.setBytecode(bundle, cls, cls.getBytecode());
+		assertFalse(hasAddedField(context.getBytecode(bundle, cls)));
+		assertTrue(context.buildChangeMap(inheritanceGraph).isEmpty());
+
+		// Clearing should also drop the node changes
+		context.setBytecode(bundle, cls, modified);
+		context.clear(bundle, cls);
+		assertSame(cls.getBytecode(), context.getBytecode(bundle, cls));
+		assertTrue(context.buildChangeMap(inheritanceGraph).isEmpty());
+	}
+
+	private static boolean hasAddedField(byte[] bytecode) {
+		ClassNode node = new ClassNode();
+		new ClassReader(bytecode).accept(node, ClassReader.SKIP_CODE);
+		return node.fields.stream().anyMatch(f -> f.name.equals("added"));
+	}
+}
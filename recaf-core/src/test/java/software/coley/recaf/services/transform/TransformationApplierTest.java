@@ -7,7 +7,11 @@
 import software.coley.recaf.services.inheritance.InheritanceGraphService;
 import software.coley.recaf.test.TestBase;
 import software.coley.recaf.test.TestClassUtils;
+import software.coley.recaf.test.dummy.ClassWithInner;
+import software.coley.recaf.test.dummy.DummyEnum;
 import software.coley.recaf.test.dummy.HelloWorld;
+import software.coley.recaf.test.dummy.OverlapClassAB;
+import software.coley.recaf.test.dummy.StringSupplier;
 import software.coley.recaf.workspace.model.Workspace;
 import software.coley.recaf.workspace.model.bundle.JvmClassBundle;
 import software.coley.recaf.workspace.model.resource.WorkspaceResource;
@@ -15,12 +19,16 @@
 import java.io.IOException;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -85,6 +93,50 @@ void dependentAB() {
 		verify(transformerB, times(1)).transform(any(), same(workspace), any(), any(), any());
 	}
 
+	@Test
+	void dependenciesAreBarriers() throws Exception {
+		Workspace classesWorkspace = TestClassUtils.fromBundle(TestClassUtils.fromClasses(HelloWorld.class, StringSupplier.class,
+				ClassWithInner.class, ClassWithInner.TheInner.class, DummyEnum.class, OverlapClassAB.class));
+		int classCount = classesWorkspace.getPrimaryResource().getJvmClassBundle().size();
+		JvmCollector collector = new JvmCollector();
+		JvmCollectorUser user = new JvmCollectorUser();
+
+		// Build transformer map with two items
+		//  - Collector
+		//  - User --> Collector
+		Map<Class<? extends JvmClassTransformer>, Supplier<JvmClassTransformer>> map = new IdentityHashMap<>();
+		map.put(JvmCollector.class, () -> collector);
+		map.put(JvmCollectorUser.class, () -> user);
+
+		// Classes are visited in parallel, but the user should only run once the collector has seen every class.
+		TransformationManager manager = new TransformationManager(map);
+		TransformationApplier applier = new TransformationApplier(manager, inheritanceGraph, classesWorkspace);
+		TransformResult result = applier.transformJvm(Collections.singletonList(JvmCollectorUser.class));
+		assertEquals(classCount, collector.visited.size());
+		assertEquals(Collections.nCopies(classCount, classCount), List.copyOf(user.observedCounts));
+		assertTrue(result.getJvmTransformerFailures().isEmpty());
+	}
+
+	@Test
+	void transformersWithoutConcurrentSupportSeeOneClassAtATime() throws Exception {
+		Workspace classesWorkspace = TestClassUtils.fromBundle(TestClassUtils.fromClasses(HelloWorld.class, StringSupplier.class,
+				ClassWithInner.class, ClassWithInner.TheInner.class, DummyEnum.class, OverlapClassAB.class));
+		int classCount = classesWorkspace.getPrimaryResource().getJvmClassBundle().size();
+		JvmSequential sequential = new JvmSequential();
+
+		// Build transformer map with one item
+		Map<Class<? extends JvmClassTransformer>, Supplier<JvmClassTransformer>> map = new IdentityHashMap<>();
+		map.put(JvmSequential.class, () -> sequential);
+
+		// The transformer does not opt into concurrent transformation, so it should never be entered twice at once.
+		TransformationManager manager = new TransformationManager(map);
+		TransformationApplier applier = new TransformationApplier(manager, inheritanceGraph, classesWorkspace);
+		TransformResult result = applier.transformJvm(Collections.singletonList(JvmSequential.class));
+		assertEquals(classCount, sequential.visited);
+		assertFalse(sequential.overlapped);
+		assertTrue(result.getJvmTransformerFailures().isEmpty());
+	}
+
 	@Test
 	void cycleAB() {
 		JvmCycleA transformerA = spy(new JvmCycleA());
@@ -184,6 +236,79 @@ public String name() {
 		}
 	}
 
+	static class JvmCollector implements JvmClassTransformer {
+		private final Set<String> visited = ConcurrentHashMap.newKeySet();
+
+		@Override
+		public void transform(@Nonnull JvmTransformerContext context, @Nonnull Workspace workspace,
+		                      @Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle,
+		                      @Nonnull JvmClassInfo classInfo) {
+			visited.add(classInfo.getName());
+		}
+
+		@Override
+		public boolean supportsConcurrentTransform() {
+			return true;
+		}
+
+		@Nonnull
+		@Override
+		public String name() {
+			return "jvm-collector";
+		}
+	}
+
+	static class JvmCollectorUser implements JvmClassTransformer {
+		private final Queue<Integer> observedCounts = new ConcurrentLinkedQueue<>();
+
+		@Override
+		public void transform(@Nonnull JvmTransformerContext context, @Nonnull Workspace workspace,
+		                      @Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle,
+		                      @Nonnull JvmClassInfo classInfo) throws TransformationException {
+			observedCounts.add(context.getJvmTransformer(JvmCollector.class).visited.size());
+		}
+
+		@Override
+		public boolean supportsConcurrentTransform() {
+			return true;
+		}
+
+		@Nonnull
+		@Override
+		public Set<Class<? extends JvmClassTransformer>> dependencies() {
+			return Collections.singleton(JvmCollector.class);
+		}
+
+		@Nonnull
+		@Override
+		public String name() {
+			return "jvm-collector-user";
+		}
+	}
+
+	static class JvmSequential implements JvmClassTransformer {
+		private final AtomicBoolean active = new AtomicBoolean();
+		private volatile boolean overlapped;
+		private int visited;
+
+		@Override
+		public void transform(@Nonnull JvmTransformerContext context, @Nonnull Workspace workspace,
+		                      @Nonnull WorkspaceResource resource, @Nonnull JvmClassBundle bundle,
+		                      @Nonnull JvmClassInfo classInfo) {
+			if (!active.compareAndSet(false, true))
+				overlapped = true;
+			visited++;
+			Thread.yield();
+			active.set(false);
+		}
+
+		@Nonnull
+		@Override
+		public String name() {
+			return "jvm-sequential";
+		}
+	}
+
 	static class JvmCycleSingle implements JvmClassTransformer {
 
 		@Override
@@ -1,7 +1,11 @@
 package software.coley.recaf.services.workspace.io;
 
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 import software.coley.recaf.info.FileInfo;
 import software.coley.recaf.info.JarFileInfo;
 import software.coley.recaf.info.JvmClassInfo;
@@ -449,4 +453,90 @@ void testZipProperties() throws IOException {
 		assertEquals(timeModify, ZipModificationTimeProperty.get(fileInfo), "Missing modification time");
 		assertEquals(timeAccess, ZipAccessTimeProperty.get(fileInfo), "Missing access time");
 	}
-}
\ No newline at end of file
+
+	@Test
+	void testParallelAndSequentialReadingMatch() throws IOException {
+		// Create a synthetic JAR with many classes and files, including duplicate and mis-named class entries
+		// so that the order entries are handled in matters for deduplication.
+		ZipCreationUtils.ZipBuilder builder = ZipCreationUtils.builder();
+		for (int i = 0; i < 200; i++) {
+			String className = "synthetic/pkg" + (i % 20) + "/Class" + i;
+			builder.add(className + ".class", createClass(className, i));
+			builder.add("synthetic/pkg" + (i % 20) + "/file" + i + ".txt", ("file" + i).getBytes(StandardCharsets.UTF_8));
+		}
+		for (int i = 0; i < 200; i += 10) {
+			String className = "synthetic/pkg" + (i % 20) + "/Class" + i;
+			builder.add(className + ".class", createClass(className, -i));
+			builder.add("wrong/path/Class" + i + ".class", createClass(className, i + 1));
+		}
+		byte[] zipBytes = builder.bytes();
+
+		ResourceImporterConfig sequentialConfig = new ResourceImporterConfig();
+		sequentialConfig.getParallelZipReading().setValue(false);
+		ResourceImporter sequentialImporter = new BasicResourceImporter(
+				new BasicInfoImporter(new InfoImporterConfig(), new BasicClassPatcher()), sequentialConfig);
+		ResourceImporterConfig parallelConfig = new ResourceImporterConfig();
+		parallelConfig.getParallelZipReading().setValue(true);
+		ResourceImporter parallelImporter = new BasicResourceImporter(
+				new BasicInfoImporter(new InfoImporterConfig(), new BasicClassPatcher()), parallelConfig);
+
+		WorkspaceResource sequential = sequentialImporter.importResource(ByteSources.wrap(zipBytes));
+		WorkspaceResource parallel = parallelImporter.importResource(ByteSources.wrap(zipBytes));
+
+		// Both modes should yield the same content, including which duplicates were kept as classes
+		JvmClassBundle sequentialClasses = sequential.getJvmClassBundle();
+		JvmClassBundle parallelClasses = parallel.getJvmClassBundle();
+		assertEquals(200, sequentialClasses.size());
+		assertEquals(sequentialClasses.keySet(), parallelClasses.keySet());
+		for (JvmClassInfo classInfo : sequentialClasses)
+			assertArrayEquals(classInfo.getBytecode(), parallelClasses.get(classInfo.getName()).getBytecode(),
+					"Mismatched class content: " + classInfo.getName());
+		assertEquals(sequential.getFileBundle().keySet(), parallel.getFileBundle().keySet());
+		for (FileInfo fileInfo : sequential.getFileBundle())
+			assertArrayEquals(fileInfo.getRawContent(), parallel.getFileBundle().get(fileInfo.getName()).getRawContent(),
+					"Mismatched file content: " + fileInfo.getName());
+	}
+
+	@Test
+	@Disabled("Benchmark, run manually")
+	void benchmarkParallelAndSequentialReading() throws IOException {
+		ZipCreationUtils.ZipBuilder builder = ZipCreationUtils.builder();
+		for (int i = 0; i < 20_000; i++) {
+			String className = "synthetic/pkg" + (i % 100) + "/Class" + i;
+			builder.add(className + ".class", createClass(className, i));
+		}
+		byte[] zipBytes = builder.bytes();
+
+		for (boolean parallel : new boolean[]{false, true}) {
+			ResourceImporterConfig config = new ResourceImporterConfig();
+			config.getParallelZipReading().setValue(parallel);
+			ResourceImporter modeImporter = new BasicResourceImporter(
+					new BasicInfoImporter(new InfoImporterConfig(), new BasicClassPatcher()), config);
+
+			// Best of several runs, after a few warmup runs
+			long best = Long.MAX_VALUE;
+			for (int i = 0; i < 8; i++) {
+				long start = System.nanoTime();
+				modeImporter.importResource(ByteSources.wrap(zipBytes));
+				if (i >= 3)
+					best = Math.min(best, System.nanoTime() - start);
+			}
+			System.out.printf("%s reading of %d classes: %dms%n", parallel ? "Parallel" : "Sequential",
+					20_000, best / 1_000_000);
+		}
+	}
+
+	private static byte[] createClass(String name, int value) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+		cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "VALUE", "I", null, value).visitEnd();
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "describe", "()Ljava/lang/String;", null, null);
+		mv.visitCode();
+		mv.visitLdcInsn(name + ":" + value);
+		mv.visitInsn(Opcodes.ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+}
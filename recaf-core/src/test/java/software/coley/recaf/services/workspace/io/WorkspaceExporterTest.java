@@ -4,24 +4,36 @@
 import jakarta.annotation.Nonnull;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import software.coley.lljzip.ZipIO;
+import software.coley.lljzip.format.model.LocalFileHeader;
+import software.coley.lljzip.util.MemorySegmentUtil;
 import software.coley.recaf.info.JarFileInfo;
+import software.coley.recaf.info.properties.builtin.ZipCommentProperty;
 import software.coley.recaf.test.TestClassUtils;
 import software.coley.recaf.test.dummy.HelloWorld;
 import software.coley.recaf.util.ZipCreationUtils;
 import software.coley.recaf.util.io.ByteSources;
 import software.coley.recaf.workspace.model.BasicWorkspace;
 import software.coley.recaf.workspace.model.Workspace;
+import software.coley.recaf.workspace.model.bundle.FileBundle;
 import software.coley.recaf.workspace.model.resource.WorkspaceResource;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -107,6 +119,135 @@ private static void testExportDoesNotTamperResourceModel(WorkspaceOutputType out
 		assertEquals(targetResource.getEmbeddedResources(), importedResource.getEmbeddedResources());
 	}
 
+	@Test
+	void testStreamedExportMatchesBufferedExport() throws IOException {
+		// Entries are given modification times, so both exports do not fall back to the current time
+		long time = 1_000_000_000_000L;
+		byte[] nestedZipBytes = ZipCreationUtils.builder()
+				.add("deepest.txt", new byte[100_000], true, null, -1, time, -1)
+				.bytes();
+		byte[] embeddedZipBytes = ZipCreationUtils.builder()
+				.add("inside.txt", "inside".getBytes(StandardCharsets.UTF_8), true, null, -1, time, -1)
+				.add("nested.zip", nestedZipBytes, false, null, -1, time, -1)
+				.bytes();
+		byte[] largeContent = new byte[3_000_000];
+		new Random(2410L).nextBytes(largeContent);
+		byte[] targetZipBytes = ZipCreationUtils.builder()
+				.add("a/b/hello.txt", "hello world".getBytes(StandardCharsets.UTF_8), true, "comment", -1, time, -1)
+				.add("a/large.bin", largeContent, true, null, -1, time, -1)
+				.add("test.zip", embeddedZipBytes, false, null, -1, time, -1)
+				.bytes();
+		WorkspaceResource targetResource = importer.importResource(ByteSources.wrap(targetZipBytes));
+		Workspace workspace = new BasicWorkspace(targetResource);
+
+		// Consumers without channel support are given the archive as a whole
+		ByteArrayWorkspaceExportConsumer bytesExport = new ByteArrayWorkspaceExportConsumer();
+		new WorkspaceExportOptions(WorkspaceOutputType.FILE, bytesExport).create().export(workspace);
+
+		// Path consumers have the archive streamed into them, which should yield the same contents
+		Path temp = Files.createTempFile("recaf", "test.zip");
+		temp.toFile().deleteOnExit();
+		new WorkspaceExportOptions(WorkspaceOutputType.FILE, new PathWorkspaceExportConsumer(temp)).create().export(workspace);
+		assertNotNull(bytesExport.getOutput(), "Failed to export workspace to archive");
+		WorkspaceResource bufferedResource = importer.importResource(ByteSources.wrap(bytesExport.getOutput()));
+		WorkspaceResource streamedResource = importer.importResource(temp);
+		for (WorkspaceResource importedResource : List.of(bufferedResource, streamedResource)) {
+			assertEquals(targetResource.getFileBundle(), importedResource.getFileBundle());
+			assertEquals(targetResource.getEmbeddedResources(), importedResource.getEmbeddedResources());
+		}
+		assertEquals("comment", ZipCommentProperty.get(streamedResource.getFileBundle().get("a/b/hello.txt")));
+	}
+
+	@Test
+	void testFailedPathExportKeepsExistingFile() throws IOException {
+		Path directory = Files.createTempDirectory("recaf");
+		directory.toFile().deleteOnExit();
+		Path target = directory.resolve("existing.zip");
+		byte[] existing = "existing".getBytes(StandardCharsets.UTF_8);
+		Files.write(target, existing);
+
+		// Partially written content should be discarded when the export is aborted
+		PathWorkspaceExportConsumer consumer = new PathWorkspaceExportConsumer(target);
+		consumer.write("partial".getBytes(StandardCharsets.UTF_8));
+		consumer.abort();
+		assertArrayEquals(existing, Files.readAllBytes(target));
+		try (var files = Files.list(directory)) {
+			assertEquals(List.of(target), files.toList(), "Temporary export file was not removed");
+		}
+
+		// Committed content should replace the existing file
+		byte[] replacement = "replacement".getBytes(StandardCharsets.UTF_8);
+		consumer = new PathWorkspaceExportConsumer(target);
+		consumer.write(replacement);
+		assertArrayEquals(existing, Files.readAllBytes(target), "Existing file was modified before commit");
+		consumer.commit();
+		assertArrayEquals(replacement, Files.readAllBytes(target));
+		try (var files = Files.list(directory)) {
+			assertEquals(List.of(target), files.toList(), "Temporary export file was not removed");
+		}
+		Files.delete(target);
+	}
+
+	@Test
+	void testUnmodifiedEntriesAreCopiedVerbatim() throws IOException {
+		// Compressed with a different level than export uses, so recompressed entries would differ in their data
+		String helloWorldPath = HelloWorld.class.getName().replace(".", "/") + ".class";
+		byte[] largeContent = new byte[1_000_000];
+		Random random = new Random(2210L);
+		for (int i = 0; i < largeContent.length; i++)
+			largeContent[i] = (byte) ('a' + random.nextInt(8));
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+			zos.setLevel(Deflater.BEST_SPEED);
+			zos.putNextEntry(new ZipEntry(helloWorldPath));
+			zos.write(TestClassUtils.fromRuntimeClass(HelloWorld.class).getBytecode());
+			zos.putNextEntry(new ZipEntry("large.txt"));
+			zos.write(largeContent);
+			zos.putNextEntry(new ZipEntry("modified.txt"));
+			zos.write(largeContent);
+		}
+		byte[] targetZipBytes = baos.toByteArray();
+		ResourceImporterConfig keepingConfig = new ResourceImporterConfig();
+		keepingConfig.getKeepOriginalZipData().setValue(true);
+		ResourceImporter keepingImporter = new BasicResourceImporter(
+				new BasicInfoImporter(new InfoImporterConfig(), new BasicClassPatcher()),
+				keepingConfig
+		);
+		WorkspaceResource targetResource = keepingImporter.importResource(ByteSources.wrap(targetZipBytes));
+		Workspace workspace = new BasicWorkspace(targetResource);
+
+		// Modify one of the entries
+		byte[] modifiedContent = "modified".getBytes(StandardCharsets.UTF_8);
+		FileBundle files = targetResource.getFileBundle();
+		files.put(files.get("modified.txt").toFileBuilder().withRawContent(modifiedContent).build());
+
+		// Export the workspace, matching the original compression
+		ByteArrayWorkspaceExportConsumer export = new ByteArrayWorkspaceExportConsumer();
+		new WorkspaceExportOptions(WorkspaceCompressType.MATCH_ORIGINAL, WorkspaceOutputType.FILE, export)
+				.create().export(workspace);
+		assertNotNull(export.getOutput(), "Failed to export workspace to archive");
+
+		// Unmodified entries should have the exact same compressed data, while modified ones are compressed again
+		Map<String, byte[]> originalData = compressedData(targetZipBytes);
+		Map<String, byte[]> exportedData = compressedData(export.getOutput());
+		assertArrayEquals(originalData.get(helloWorldPath), exportedData.get(helloWorldPath));
+		assertArrayEquals(originalData.get("large.txt"), exportedData.get("large.txt"));
+		assertFalse(Arrays.equals(originalData.get("modified.txt"), exportedData.get("modified.txt")));
+
+		// And the contents should all read back as expected
+		WorkspaceResource importedResource = importer.importResource(ByteSources.wrap(export.getOutput()));
+		assertEquals(targetResource.getJvmClassBundle(), importedResource.getJvmClassBundle());
+		assertArrayEquals(largeContent, importedResource.getFileBundle().get("large.txt").getRawContent());
+		assertArrayEquals(modifiedContent, importedResource.getFileBundle().get("modified.txt").getRawContent());
+	}
+
+	private static Map<String, byte[]> compressedData(byte[] zip) throws IOException {
+		Map<String, byte[]> map = new HashMap<>();
+		for (LocalFileHeader header : ZipIO.readJvm(zip).getLocalFiles())
+			map.put(header.getFileNameAsString(), MemorySegmentUtil.toByteArray(header.getFileData()));
+		return map;
+	}
+
 	/**
 	 * There's a lombok fabric mod which bundles some classes with tampered names. The file contents are normal classes.
 	 * When we re-export the workspace we need to ensure the classes are written back to where they originally came from.
@@ -12,6 +12,9 @@
 import software.coley.recaf.services.workspace.patch.model.WorkspacePatch;
 import software.coley.recaf.test.TestBase;
 import software.coley.recaf.test.TestClassUtils;
+import software.coley.recaf.test.dummy.ClassWithFieldsAndMethods;
+import software.coley.recaf.test.dummy.ClassWithMultipleMethods;
+import software.coley.recaf.test.dummy.ClassWithStaticInit;
 import software.coley.recaf.test.dummy.HelloWorld;
 import software.coley.recaf.util.visitors.MethodNoopingVisitor;
 import software.coley.recaf.util.visitors.MethodPredicate;
@@ -21,6 +24,7 @@
 import software.coley.recaf.workspace.model.bundle.JvmClassBundle;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -71,6 +75,64 @@ void testClass_methodNoop() throws Throwable {
 		assertNotSame(initialClass, patchedClassInfo, "Class bundle post-patch yielded initial class state");
 	}
 
+	@Test
+	void testClass_multipleClassesWithProgress() throws Throwable {
+		List<JvmClassInfo> initialClasses = List.of(
+				TestClassUtils.fromRuntimeClass(HelloWorld.class),
+				TestClassUtils.fromRuntimeClass(ClassWithMultipleMethods.class),
+				TestClassUtils.fromRuntimeClass(ClassWithFieldsAndMethods.class),
+				TestClassUtils.fromRuntimeClass(ClassWithStaticInit.class));
+		BasicJvmClassBundle classes = TestClassUtils.fromClasses(initialClasses.toArray(JvmClassInfo[]::new));
+		Workspace workspace = TestClassUtils.fromBundle(classes);
+
+		// Modify each class by no-oping a method.
+		for (JvmClassInfo initialClass : initialClasses) {
+			ClassWriter writer = new ClassWriter(0);
+			MethodNoopingVisitor visitor = new MethodNoopingVisitor(writer, MethodPredicate.of(initialClass.getMethods().getLast()));
+			initialClass.getClassReader().accept(visitor, 0);
+			classes.put(initialClass.toJvmClassBuilder().adaptFrom(writer.toByteArray()).build());
+		}
+
+		// Build the patch, tracking progress as classes are handled.
+		AtomicInteger progress = new AtomicInteger();
+		WorkspacePatch patch = patchProvider.createPatch(workspace, new PatchGenerationFeedback() {
+			@Override
+			public void onProgress(int completed, int total) {
+				assertEquals(initialClasses.size(), total);
+				progress.accumulateAndGet(completed, Math::max);
+			}
+		});
+		assertEquals(initialClasses.size(), progress.get(), "Progress did not reach the total");
+		assertEquals(initialClasses.size(), patch.jvmAssemblerPatches().size());
+
+		// Patches are ordered by class name, regardless of which finished first.
+		List<String> patchedNames = patch.jvmAssemblerPatches().stream()
+				.map(p -> p.path().getValue().getName())
+				.toList();
+		assertEquals(patchedNames.stream().sorted().toList(), patchedNames);
+
+		// Generating the patch again should yield the same result, with disassembly pulled from the cache.
+		assertEquals(patch, patchProvider.createPatch(workspace));
+	}
+
+	@Test
+	void testClass_cancelledGeneration() throws Throwable {
+		JvmClassInfo initialClass = TestClassUtils.fromRuntimeClass(HelloWorld.class);
+		BasicJvmClassBundle classes = TestClassUtils.fromClasses(initialClass);
+		Workspace workspace = TestClassUtils.fromBundle(classes);
+		ClassWriter writer = new ClassWriter(0);
+		initialClass.getClassReader().accept(new MethodNoopingVisitor(writer, MethodPredicate.of(initialClass.getMethods().getLast())), 0);
+		classes.put(initialClass.toJvmClassBuilder().adaptFrom(writer.toByteArray()).build());
+
+		// Patch generation should stop when cancellation is requested.
+		assertThrows(PatchGenerationException.class, () -> patchProvider.createPatch(workspace, new PatchGenerationFeedback() {
+			@Override
+			public boolean hasRequestedCancellation() {
+				return true;
+			}
+		}));
+	}
+
 	@Test
 	void testFile_textDiff() throws PatchGenerationException {
 		TextFileInfo textFile = new StubFileInfo("foo.txt").withText("""
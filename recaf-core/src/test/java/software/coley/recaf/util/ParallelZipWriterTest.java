@@ -0,0 +1,255 @@
+package software.coley.recaf.util;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ParallelZipWriter}
+ */
+class ParallelZipWriterTest {
+	private static final ExecutorService service = Executors.newFixedThreadPool(4);
+
+	@AfterAll
+	static void shutdown() {
+		service.shutdownNow();
+	}
+
+	@Test
+	void entriesMatchInput(@TempDir Path dir) throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("empty.txt", new byte[0]);
+		entries.put("small.txt", "hello world".getBytes(StandardCharsets.UTF_8));
+		entries.put("dir/large.bin", content(1_000_000, 1));
+		entries.put("dir/sub/exact.bin", content(256 * 1024, 2));
+		entries.put("dir/sub/unicode-é.txt", "é".getBytes(StandardCharsets.UTF_8));
+
+		// Write each entry both compressed and stored
+		Path path = dir.resolve("out.zip");
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+			ParallelZipWriter writer = new ParallelZipWriter(channel, service).createDirectories();
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				writer.add(entry.getKey(), entry.getValue(), true, "comment", -1, 1_000_000_000_000L, -1);
+				writer.add("stored/" + entry.getKey(), entry.getValue(), false, null, -1, -1, -1);
+			}
+			writer.finish();
+		}
+
+		try (ZipFile zip = new ZipFile(path.toFile())) {
+			assertEquals(entries.size() * 2 + 5, zip.size(), "Expected entries plus the 5 parent directories");
+			assertNotNull(zip.getEntry("dir/sub/"));
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				ZipEntry compressed = zip.getEntry(entry.getKey());
+				assertArrayEquals(entry.getValue(), zip.getInputStream(compressed).readAllBytes());
+				assertEquals("comment", compressed.getComment());
+				assertEquals(1_000_000_000_000L, compressed.getLastModifiedTime().toMillis());
+				assertEquals(entry.getValue().length == 0 ? ZipEntry.STORED : ZipEntry.DEFLATED, compressed.getMethod());
+
+				ZipEntry stored = zip.getEntry("stored/" + entry.getKey());
+				assertArrayEquals(entry.getValue(), zip.getInputStream(stored).readAllBytes());
+				assertEquals(ZipEntry.STORED, stored.getMethod());
+			}
+		}
+
+		// Local headers should also be readable when scanning the file sequentially
+		int count = 0;
+		try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(path))) {
+			ZipEntry entry;
+			while ((entry = zis.getNextEntry()) != null) {
+				byte[] expected = entries.get(entry.getName().replace("stored/", ""));
+				if (!entry.isDirectory())
+					assertArrayEquals(expected, zis.readAllBytes(), entry.getName());
+				count++;
+			}
+		}
+		assertEquals(entries.size() * 2 + 5, count);
+	}
+
+	@Test
+	void streamedNestedEntries(@TempDir Path dir) throws IOException {
+		byte[] large = content(700_000, 3);
+
+		// Outer archive with a stored and a compressed nested archive, the latter having another nested archive.
+		Path path = dir.resolve("out.zip");
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+			ParallelZipWriter writer = new ParallelZipWriter(channel, service);
+			writer.add("first.txt", "first".getBytes(StandardCharsets.UTF_8), true, null, -1, -1, -1);
+			try (OutputStream out = writer.openEntry("stored.jar", false, null, -1, -1, -1)) {
+				writeNested(out, large, false);
+			}
+			try (OutputStream out = writer.openEntry("deflated.jar", true, null, -1, -1, -1)) {
+				writeNested(out, large, true);
+			}
+			writer.add("last.txt", "last".getBytes(StandardCharsets.UTF_8), false, null, -1, -1, -1);
+			writer.finish();
+		}
+
+		try (ZipFile zip = new ZipFile(path.toFile())) {
+			assertEquals("first", new String(zip.getInputStream(zip.getEntry("first.txt")).readAllBytes(), StandardCharsets.UTF_8));
+			assertEquals("last", new String(zip.getInputStream(zip.getEntry("last.txt")).readAllBytes(), StandardCharsets.UTF_8));
+			for (String name : new String[]{"stored.jar", "deflated.jar"}) {
+				Path nested = dir.resolve(name);
+				try (InputStream in = zip.getInputStream(zip.getEntry(name))) {
+					Files.copy(in, nested);
+				}
+				try (ZipFile nestedZip = new ZipFile(nested.toFile())) {
+					assertArrayEquals(large, nestedZip.getInputStream(nestedZip.getEntry("large.bin")).readAllBytes());
+					if (name.equals("deflated.jar")) {
+						// Innermost archive is stored in a non-seekable stream, but should still have its sizes
+						// in the local header so that it can be read sequentially.
+						ZipEntry inner = nestedZip.getEntry("inner.jar");
+						assertEquals(ZipEntry.STORED, inner.getMethod());
+						try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(nested))) {
+							assertEquals("large.bin", zis.getNextEntry().getName());
+							assertEquals("inner.jar", zis.getNextEntry().getName());
+							try (ZipInputStream innerZis = new ZipInputStream(zis)) {
+								assertEquals("large.bin", innerZis.getNextEntry().getName());
+								assertArrayEquals(large, innerZis.readAllBytes());
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void compressedEntriesAreCopied(@TempDir Path dir) throws IOException {
+		byte[] content = content(500_000, 4);
+		CRC32 crc = new CRC32();
+		crc.update(content);
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+		deflater.setInput(content);
+		deflater.finish();
+		byte[] buffer = new byte[content.length];
+		int deflatedLength = deflater.deflate(buffer);
+		deflater.end();
+		ByteBuffer deflated = ByteBuffer.wrap(buffer, 0, deflatedLength);
+
+		Path path = dir.resolve("out.zip");
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+			ParallelZipWriter writer = new ParallelZipWriter(channel, service);
+			writer.addCompressed("deflated.txt", deflated, true, crc.getValue(), content.length, "comment", -1, -1, -1);
+			writer.addCompressed("stored.txt", ByteBuffer.wrap(content), false, crc.getValue(), content.length, null, -1, -1, -1);
+			writer.add("after.txt", content, true, null, -1, -1, -1);
+			writer.finish();
+		}
+
+		// The given buffer should not be consumed
+		assertEquals(deflatedLength, deflated.remaining());
+		try (ZipFile zip = new ZipFile(path.toFile())) {
+			ZipEntry entry = zip.getEntry("deflated.txt");
+			assertEquals(deflatedLength, entry.getCompressedSize());
+			assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+			assertEquals("comment", entry.getComment());
+			assertArrayEquals(content, zip.getInputStream(entry).readAllBytes());
+			assertEquals(ZipEntry.STORED, zip.getEntry("stored.txt").getMethod());
+			assertArrayEquals(content, zip.getInputStream(zip.getEntry("stored.txt")).readAllBytes());
+			assertArrayEquals(content, zip.getInputStream(zip.getEntry("after.txt")).readAllBytes());
+		}
+	}
+
+	@Test
+	void zip64EntryCount(@TempDir Path dir) throws IOException {
+		int count = 70_000;
+		Path path = dir.resolve("out.zip");
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+			ParallelZipWriter writer = new ParallelZipWriter(channel, service);
+			byte[] content = {1};
+			for (int i = 0; i < count; i++)
+				writer.add("e" + i, content, false, null, -1, -1, -1);
+			writer.finish();
+		}
+		try (ZipFile zip = new ZipFile(path.toFile())) {
+			assertEquals(count, zip.size());
+			assertArrayEquals(new byte[]{1}, zip.getInputStream(zip.getEntry("e" + (count - 1))).readAllBytes());
+		}
+	}
+
+	@Test
+	void matchesZipOutputStream(@TempDir Path dir) throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		for (int i = 0; i < 20; i++)
+			entries.put("entry" + i, content(5_000 + i * 1000, i));
+		entries.put("large", content(1_000_000, -1));
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				zos.putNextEntry(new ZipEntry(entry.getKey()));
+				zos.write(entry.getValue());
+				zos.closeEntry();
+			}
+		}
+
+		Path path = dir.resolve("out.zip");
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+			ParallelZipWriter writer = new ParallelZipWriter(channel, service);
+			for (Map.Entry<String, byte[]> entry : entries.entrySet())
+				writer.add(entry.getKey(), entry.getValue(), true, null, -1, -1, -1);
+			writer.finish();
+		}
+
+		// Both archives should yield the same entries in the same order
+		try (ZipInputStream expected = new ZipInputStream(new ByteArrayInputStream(baos.toByteArray()));
+		     ZipInputStream actual = new ZipInputStream(Files.newInputStream(path))) {
+			ZipEntry expectedEntry;
+			while ((expectedEntry = expected.getNextEntry()) != null) {
+				ZipEntry actualEntry = actual.getNextEntry();
+				assertNotNull(actualEntry, "Missing entry: " + expectedEntry.getName());
+				assertEquals(expectedEntry.getName(), actualEntry.getName());
+				assertArrayEquals(expected.readAllBytes(), actual.readAllBytes(), expectedEntry.getName());
+			}
+			assertNull(actual.getNextEntry(), "Unexpected trailing entry");
+		}
+	}
+
+	private static void writeNested(OutputStream out, byte[] large, boolean withInner) throws IOException {
+		// Written through a plain channel, which cannot be seeked
+		ParallelZipWriter nested = new ParallelZipWriter(Channels.newChannel(out), service);
+		nested.add("large.bin", large, true, null, -1, -1, -1);
+		if (withInner) {
+			try (OutputStream innerOut = nested.openEntry("inner.jar", false, null, -1, -1, -1)) {
+				writeNested(innerOut, large, false);
+			}
+		}
+		nested.finish();
+	}
+
+	/**
+	 * @return Somewhat compressible content.
+	 */
+	private static byte[] content(int length, long seed) {
+		Random random = new Random(seed);
+		byte[] content = new byte[length];
+		for (int i = 0; i < length; i++)
+			content[i] = (byte) ('a' + random.nextInt(8));
+		return content;
+	}
+}
@@ -1,8 +1,17 @@
 package software.coley.recaf.util;
 
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.openrewrite.jgit.diff.DiffAlgorithm;
+import org.openrewrite.jgit.diff.RawText;
+import org.openrewrite.jgit.diff.RawTextComparator;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -134,4 +143,133 @@ void foo() {
 		String patched = diff.apply(original);
 		assertEquals(modified, patched);
 	}
-}
\ No newline at end of file
+
+	@Test
+	void testInsertAtStart() {
+		String original = "x";
+		String modified = "y\nx";
+
+		// Expect one INSERT diff
+		List<StringDiff.Diff> diffs = StringDiff.diff(original, modified);
+		assertEquals(1, diffs.size(), "Mismatch number of expected diffs");
+		StringDiff.Diff diff = diffs.getFirst();
+		assertEquals(StringDiff.DiffType.INSERT, diff.type());
+		assertEquals("y\n", diff.textB());
+		assertEquals(modified, diff.apply(original));
+	}
+
+	@Test
+	void testLeadingNewline() {
+		String original = "\nfoo\nend";
+		String modified = "\nbar\nend";
+		List<StringDiff.Diff> diffs = StringDiff.diff(original, modified);
+		assertEquals(1, diffs.size(), "Mismatch number of expected diffs");
+		assertEquals("foo", diffs.getFirst().textA());
+		assertEquals("bar", diffs.getFirst().textB());
+		assertEquals(modified, StringDiff.Diff.apply(original, diffs));
+	}
+
+	@ParameterizedTest
+	@EnumSource(StringDiff.Algorithm.class)
+	void testRandomEditsApply(StringDiff.Algorithm algorithm) {
+		Random random = new Random(1234);
+		for (int i = 0; i < 200; i++) {
+			List<String> lines = new ArrayList<>();
+			int lineCount = random.nextInt(30);
+			for (int j = 0; j < lineCount; j++)
+				lines.add("line" + random.nextInt(10));
+			String original = String.join("\n", lines) + (random.nextBoolean() ? "\n" : "");
+
+			// Randomly insert, remove, and change lines
+			for (int j = random.nextInt(5); j >= 0; j--) {
+				int index = lines.isEmpty() ? 0 : random.nextInt(lines.size());
+				switch (random.nextInt(3)) {
+					case 0 -> lines.add(index, "inserted" + random.nextInt(3));
+					case 1 -> {
+						if (!lines.isEmpty()) lines.remove(index);
+					}
+					default -> {
+						if (!lines.isEmpty()) lines.set(index, lines.get(index) + "changed");
+					}
+				}
+			}
+			String modified = String.join("\n", lines) + (random.nextBoolean() ? "\n" : "");
+
+			List<StringDiff.Diff> diffs = StringDiff.diff(original, modified, algorithm);
+			assertEquals(modified, StringDiff.Diff.apply(original, diffs), "Bad diff of:\n" + original + "\n---\n" + modified);
+			for (StringDiff.Diff diff : diffs) {
+				assertEquals(original.substring(diff.startA(), diff.endA()), diff.textA());
+				assertEquals(modified.substring(diff.startB(), diff.endB()), diff.textB());
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(StringDiff.Algorithm.class)
+	void testScatteredLineChanges(StringDiff.Algorithm algorithm) {
+		// Roughly the shape of a disassembled method, with a few scattered changes
+		StringBuilder originalBuilder = new StringBuilder();
+		StringBuilder modifiedBuilder = new StringBuilder();
+		for (int i = 0; i < 2_000; i++) {
+			String line = "\t\taload " + (i % 7) + " // line " + (i % 100) + "\n";
+			originalBuilder.append(line);
+			if (i % 200 == 100)
+				modifiedBuilder.append("\t\tnop\n");
+			else if (i % 500 != 250)
+				modifiedBuilder.append(line);
+		}
+		String original = originalBuilder.toString();
+		String modified = modifiedBuilder.toString();
+
+		List<StringDiff.Diff> diffs = StringDiff.diff(original, modified, algorithm);
+		assertEquals(modified, StringDiff.Diff.apply(original, diffs));
+
+		// Only a single character differs between the two, so the whole thing should be skipped
+		List<StringDiff.Diff> tailDiffs = StringDiff.diff(original, original + "x", algorithm);
+		assertEquals(1, tailDiffs.size());
+		assertEquals("x", tailDiffs.getFirst().textB());
+	}
+
+	@Test
+	@Disabled("Benchmark, run manually")
+	void benchmarkLargeText() {
+		// Scattered changes over a large disassembly-like text, like the diffs done when the assembler is saved
+		StringBuilder originalBuilder = new StringBuilder();
+		StringBuilder modifiedBuilder = new StringBuilder();
+		for (int i = 0; i < 200_000; i++) {
+			String line = "\t\taload " + (i % 7) + " // line " + (i % 1000) + "\n";
+			originalBuilder.append(line);
+			if (i % 2_000 == 1_000)
+				modifiedBuilder.append("\t\tnop\n");
+			else if (i % 5_000 != 2_500)
+				modifiedBuilder.append(line);
+		}
+		String original = originalBuilder.toString();
+		String modified = modifiedBuilder.toString();
+
+		// Line diff over UTF-8 encoded copies of both inputs, as done before diffing on the strings directly
+		long encodedTime = time(() -> DiffAlgorithm.getAlgorithm(DiffAlgorithm.SupportedAlgorithm.MYERS)
+				.diff(RawTextComparator.DEFAULT,
+						new RawText(original.getBytes(StandardCharsets.UTF_8)),
+						new RawText(modified.getBytes(StandardCharsets.UTF_8))));
+		System.out.printf("Encoded MYERS: %dms%n", encodedTime);
+		for (StringDiff.Algorithm algorithm : StringDiff.Algorithm.values()) {
+			long time = time(() -> StringDiff.diff(original, modified, algorithm));
+			System.out.printf("%s: %dms%n", algorithm, time);
+		}
+		assertEquals(modified, StringDiff.Diff.apply(original, StringDiff.diff(original, modified)));
+	}
+
+	private static long time(Runnable action) {
+		// Best of several runs, after a few warmup runs
+		for (int i = 0; i < 3; i++)
+			action.run();
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			long start = System.nanoTime();
+			action.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best / 1_000_000;
+	}
+}
@@ -4,7 +4,14 @@
 import jakarta.annotation.Nullable;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import software.coley.recaf.RecafConstants;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.info.LazyJvmClassInfo;
 import software.coley.recaf.info.StubFileInfo;
+import software.coley.recaf.info.properties.builtin.PathPrefixProperty;
 import software.coley.recaf.path.ClassPathNode;
 import software.coley.recaf.test.dummy.AccessibleFields;
 import software.coley.recaf.test.dummy.AccessibleMethods;
@@ -12,8 +19,11 @@
 import software.coley.recaf.test.dummy.ClassWithAnnotation;
 import software.coley.recaf.test.dummy.ClassWithConstructor;
 import software.coley.recaf.test.dummy.ClassWithExceptions;
+import software.coley.recaf.util.io.ByteSources;
 import software.coley.recaf.workspace.model.bundle.BasicAndroidClassBundle;
+import software.coley.recaf.workspace.model.bundle.BasicJvmClassBundle;
 import software.coley.recaf.workspace.model.bundle.Bundle;
+import software.coley.recaf.workspace.model.bundle.HistoryPolicy;
 import software.coley.recaf.workspace.model.resource.AndroidApiResource;
 import software.coley.recaf.workspace.model.resource.RuntimeWorkspaceResource;
 import software.coley.recaf.workspace.model.resource.WorkspaceFileResource;
@@ -22,13 +32,17 @@
 import software.coley.recaf.workspace.model.resource.WorkspaceResourceBuilder;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
+import java.util.Stack;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static software.coley.recaf.test.TestClassUtils.fromClasses;
+import static software.coley.recaf.test.TestClassUtils.fromRuntimeClass;
 
 /**
  * Tests for the {@link Workspace} model.
@@ -240,6 +254,74 @@ void findClass_embeddedDeeperInPrimary() throws IOException {
 			assertEquals(result, allClassPaths.first());
 		}
 
+		@Test
+		void findClass_tracksModifications() throws IOException {
+			WorkspaceResource primary = new WorkspaceResourceBuilder()
+					.withJvmClassBundle(fromClasses(
+							AccessibleFields.class
+					)).build();
+			WorkspaceResource supporting = new WorkspaceResourceBuilder()
+					.withJvmClassBundle(fromClasses(
+							AccessibleFields.class
+					)).build();
+			Workspace workspace = new BasicWorkspace(primary, List.of(supporting));
+
+			// The primary resource takes priority
+			ClassPathNode result = findClass(workspace, AccessibleFields.class);
+			assertNotNull(result);
+			assertSame(primary, result.getValueOfType(WorkspaceResource.class));
+
+			// Once removed from the primary resource, the supporting resource's copy should be found
+			String name = AccessibleFields.class.getName().replace('.', '/');
+			primary.getJvmClassBundle().remove(name);
+			result = findClass(workspace, AccessibleFields.class);
+			assertNotNull(result);
+			assertSame(supporting, result.getValueOfType(WorkspaceResource.class));
+
+			// Classes added after the first lookup should be found
+			JvmClassInfo added = fromRuntimeClass(ClassWithConstructor.class);
+			assertNull(workspace.findJvmClass(added.getName()));
+			primary.getJvmClassBundle().put(added.getName(), added);
+			result = workspace.findJvmClass(added.getName());
+			assertNotNull(result);
+			assertSame(added, result.getValue());
+
+			// Supporting resources added after the first lookup should be found
+			WorkspaceResource supporting2 = new WorkspaceResourceBuilder()
+					.withJvmClassBundle(fromClasses(
+							ClassWithExceptions.class
+					)).build();
+			workspace.addSupportingResource(supporting2);
+			result = findClass(workspace, ClassWithExceptions.class);
+			assertNotNull(result);
+			assertSame(supporting2, result.getValueOfType(WorkspaceResource.class));
+			workspace.removeSupportingResource(supporting2);
+			assertNull(workspace.findJvmClass(ClassWithExceptions.class.getName().replace('.', '/')));
+		}
+
+		@Test
+		void findPackage() throws IOException {
+			WorkspaceResource primary = new WorkspaceResourceBuilder()
+					.withJvmClassBundle(fromClasses(
+							AccessibleFields.class
+					)).build();
+			Workspace workspace = new BasicWorkspace(primary);
+
+			String name = AccessibleFields.class.getName().replace('.', '/');
+			String packageName = name.substring(0, name.lastIndexOf('/'));
+			assertNotNull(workspace.findPackage(packageName));
+			assertNotNull(workspace.findPackage(packageName + '/'));
+			assertNotNull(workspace.findPackage(packageName.replace('/', '.')));
+			assertNotNull(workspace.findPackage(packageName.substring(0, packageName.lastIndexOf('/'))));
+
+			// Partial package names should not match
+			assertNull(workspace.findPackage(packageName.substring(0, packageName.length() - 1)));
+
+			// Removing the only class in the package should remove the package
+			primary.getJvmClassBundle().remove(name);
+			assertNull(workspace.findPackage(packageName));
+		}
+
 		/**
 		 * @param workspace
 		 * 		Workspace to search in.
@@ -253,4 +335,123 @@ private static ClassPathNode findClass(@Nonnull Workspace workspace, @Nonnull Cl
 			return workspace.findClass(type.getName().replace('.', '/'));
 		}
 	}
-}
\ No newline at end of file
+
+	@Nested
+	class History {
+		@Test
+		void historyRoundTrip() throws IOException {
+			BasicJvmClassBundle bundle = fromClasses(AccessibleFields.class);
+			JvmClassInfo initial = bundle.iterator().next();
+			String name = initial.getName();
+
+			// Record a number of edits, each with its own property value to check those are kept too
+			List<JvmClassInfo> states = new ArrayList<>();
+			states.add(initial);
+			for (int i = 0; i < 5; i++) {
+				JvmClassInfo modified = withField(initial, "added" + i);
+				PathPrefixProperty.set(modified, "prefix" + i + "/");
+				bundle.put(modified);
+				states.add(modified);
+			}
+			assertTrue(bundle.hasHistory(name));
+			assertEquals(Set.of(name), bundle.getDirtyKeys());
+
+			// The full history should match the recorded states
+			Stack<JvmClassInfo> history = bundle.getHistory(name);
+			assertEquals(states.size(), history.size());
+			for (int i = 0; i < states.size(); i++)
+				assertArrayEquals(states.get(i).getBytecode(), history.get(i).getBytecode());
+
+			// Undoing should walk back through each state
+			for (int i = states.size() - 2; i >= 0; i--) {
+				bundle.decrementHistory(name);
+				JvmClassInfo current = bundle.get(name);
+				assertArrayEquals(states.get(i).getBytecode(), current.getBytecode());
+				assertEquals(PathPrefixProperty.get(states.get(i)), PathPrefixProperty.get(current));
+				assertSame(states.get(i), current, "Reachable states should be restored as the same instance");
+			}
+			assertSame(initial, bundle.get(name), "Initial state should be kept as-is");
+			assertFalse(bundle.hasHistory(name));
+			assertTrue(bundle.getDirtyKeys().isEmpty());
+		}
+
+		@Test
+		void historyLimit() throws IOException {
+			BasicJvmClassBundle bundle = fromClasses(AccessibleFields.class);
+			bundle.setHistoryPolicy(new HistoryPolicy(3, 0));
+			JvmClassInfo initial = bundle.iterator().next();
+			String name = initial.getName();
+			for (int i = 0; i < 5; i++)
+				bundle.put(withField(initial, "added" + i));
+
+			// Only the initial state, the latest prior state, and the current state are kept
+			Stack<JvmClassInfo> history = bundle.getHistory(name);
+			assertEquals(3, history.size());
+			assertSame(initial, history.firstElement());
+			assertNotNull(history.get(1).getDeclaredField("added3", "I"));
+			assertNotNull(history.peek().getDeclaredField("added4", "I"));
+		}
+
+		@Test
+		void historyLimitOfOneKeepsInitialAndCurrent() throws IOException {
+			BasicJvmClassBundle bundle = fromClasses(AccessibleFields.class);
+			bundle.setHistoryPolicy(new HistoryPolicy(1, 0));
+			assertTrue(bundle.getHistoryPolicy().hasEntryLimit());
+			JvmClassInfo initial = bundle.iterator().next();
+			String name = initial.getName();
+			for (int i = 0; i < 5; i++)
+				bundle.put(withField(initial, "added" + i));
+
+			// Only the initial and current states are kept, which are also available without decoding the history
+			assertEquals(2, bundle.getHistory(name).size());
+			assertSame(initial, bundle.getInitial(name));
+			assertNotNull(bundle.get(name).getDeclaredField("added4", "I"));
+		}
+
+		@Test
+		void historySpill() throws IOException {
+			BasicJvmClassBundle bundle = fromClasses(AccessibleFields.class);
+			bundle.setHistoryPolicy(new HistoryPolicy(0, 1));
+			JvmClassInfo initial = bundle.iterator().next();
+			String name = initial.getName();
+			for (int i = 0; i < 5; i++)
+				bundle.put(withField(initial, "added" + i));
+
+			// Spilled states should be read back from disk
+			for (int i = 3; i >= 0; i--) {
+				bundle.decrementHistory(name);
+				assertNotNull(bundle.get(name).getDeclaredField("added" + i, "I"));
+			}
+			bundle.decrementHistory(name);
+			assertSame(initial, bundle.get(name));
+			bundle.close();
+		}
+
+		@Test
+		void historyKeepsLazyClassType() throws IOException {
+			BasicJvmClassBundle bundle = fromClasses(AccessibleFields.class);
+			JvmClassInfo initial = bundle.iterator().next();
+			String name = initial.getName();
+			LazyJvmClassInfo lazy = new LazyJvmClassInfo(ByteSources.wrap(withField(initial, "added").getBytecode()));
+			bundle.put(lazy);
+			bundle.put(withField(initial, "added2"));
+
+			// Lazy classes cannot be rebuilt by the history codec, so they should be kept as-is
+			bundle.decrementHistory(name);
+			assertSame(lazy, bundle.get(name));
+		}
+
+		@Nonnull
+		private static JvmClassInfo withField(@Nonnull JvmClassInfo classInfo, @Nonnull String fieldName) {
+			ClassWriter writer = new ClassWriter(0);
+			classInfo.getClassReader().accept(new ClassVisitor(RecafConstants.getAsmVersion(), writer) {
+				@Override
+				public void visitEnd() {
+					visitField(Opcodes.ACC_PUBLIC, fieldName, "I", null, null).visitEnd();
+					super.visitEnd();
+				}
+			}, 0);
+			return classInfo.toJvmClassBuilder().adaptFrom(writer.toByteArray()).build();
+		}
+	}
+}
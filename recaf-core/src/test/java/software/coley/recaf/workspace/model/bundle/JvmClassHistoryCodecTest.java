@@ -0,0 +1,42 @@
+package software.coley.recaf.workspace.model.bundle;
+
+import org.junit.jupiter.api.Test;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.info.LazyJvmClassInfo;
+import software.coley.recaf.info.properties.builtin.PathPrefixProperty;
+import software.coley.recaf.test.dummy.AccessibleFields;
+import software.coley.recaf.test.dummy.AccessibleMethods;
+import software.coley.recaf.util.io.ByteSources;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static software.coley.recaf.test.TestClassUtils.fromRuntimeClass;
+
+/**
+ * Tests for {@link JvmClassHistoryCodec}
+ */
+class JvmClassHistoryCodecTest {
+	private static final JvmClassHistoryCodec codec = JvmClassHistoryCodec.INSTANCE;
+
+	@Test
+	void roundTrip() throws IOException {
+		JvmClassInfo reference = fromRuntimeClass(AccessibleFields.class);
+		JvmClassInfo item = fromRuntimeClass(AccessibleMethods.class);
+		PathPrefixProperty.set(item, "prefix/");
+
+		byte[] data = codec.encode(reference, item);
+		assertNotNull(data);
+		JvmClassInfo decoded = codec.decode(reference, data, Map.copyOf(item.getProperties()));
+		assertArrayEquals(item.getBytecode(), decoded.getBytecode());
+		assertEquals("prefix/", PathPrefixProperty.get(decoded));
+	}
+
+	@Test
+	void lazyClassesAreNotEncoded() throws IOException {
+		JvmClassInfo reference = fromRuntimeClass(AccessibleFields.class);
+		LazyJvmClassInfo lazy = new LazyJvmClassInfo(ByteSources.wrap(reference.getBytecode()));
+		assertNull(codec.encode(reference, lazy));
+	}
+}
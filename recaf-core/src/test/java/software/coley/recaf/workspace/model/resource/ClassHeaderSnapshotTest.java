@@ -0,0 +1,93 @@
+package software.coley.recaf.workspace.model.resource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.coley.recaf.info.JvmClassInfo;
+import software.coley.recaf.info.LazyJvmClassInfo;
+import software.coley.recaf.info.member.FieldMember;
+import software.coley.recaf.info.member.MethodMember;
+import software.coley.recaf.test.TestClassUtils;
+import software.coley.recaf.test.dummy.AccessibleFields;
+import software.coley.recaf.test.dummy.StringConsumer;
+import software.coley.recaf.util.io.ByteSources;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ClassHeaderSnapshot}
+ */
+class ClassHeaderSnapshotTest {
+	private static final String KEY = "test:1";
+
+	@Test
+	void roundTrip(@TempDir Path dir) throws IOException {
+		List<JvmClassInfo> classes = new ArrayList<>();
+		for (Class<?> cls : List.of(Object.class, String.class, ArrayList.class, AccessibleFields.class, StringConsumer.class))
+			classes.add(TestClassUtils.fromRuntimeClass(cls));
+		Path path = dir.resolve("test.snapshot");
+		write(path, classes);
+
+		ClassHeaderSnapshot snapshot = ClassHeaderSnapshot.load(path, KEY);
+		assertNotNull(snapshot, "Failed to load written snapshot");
+		assertEquals(classes.size(), snapshot.size());
+		assertNull(snapshot.get("does/not/Exist"));
+		for (JvmClassInfo expected : classes) {
+			LazyJvmClassInfo.Header header = snapshot.get(expected.getName());
+			assertNotNull(header, "Missing header for: " + expected.getName());
+			assertEquals(expected.getName(), header.name());
+			assertEquals(expected.getSuperName(), header.superName());
+			assertEquals(expected.getInterfaces(), header.interfaces());
+			assertEquals(expected.getAccess(), header.access());
+			assertEquals(expected.getVersion(), header.version());
+			for (FieldMember field : expected.getFields())
+				assertTrue(header.hasField(field.getName(), field.getDescriptor()), "Missing field: " + field.getName());
+			for (MethodMember method : expected.getMethods())
+				assertTrue(header.hasMethod(method.getName(), method.getDescriptor()), "Missing method: " + method.getName());
+			assertFalse(header.hasMethod("notAMethod", "()V"));
+			assertFalse(header.hasField("notAField", "I"));
+		}
+	}
+
+	@Test
+	void keyMismatchIsIgnored(@TempDir Path dir) throws IOException {
+		Path path = dir.resolve("test.snapshot");
+		write(path, List.of(TestClassUtils.fromRuntimeClass(String.class)));
+		assertNotNull(ClassHeaderSnapshot.load(path, KEY));
+		assertNull(ClassHeaderSnapshot.load(path, "test:2"), "Snapshot of a different key should not be loaded");
+
+		// Corrupt content should also be ignored
+		Files.write(path, new byte[]{1, 2, 3});
+		assertNull(ClassHeaderSnapshot.load(path, KEY));
+	}
+
+	@Test
+	void lazyClassFromHeader(@TempDir Path dir) throws IOException {
+		JvmClassInfo expected = TestClassUtils.fromRuntimeClass(AccessibleFields.class);
+		Path path = dir.resolve("test.snapshot");
+		write(path, List.of(expected));
+		ClassHeaderSnapshot snapshot = ClassHeaderSnapshot.load(path, KEY);
+		assertNotNull(snapshot);
+
+		LazyJvmClassInfo lazy = new LazyJvmClassInfo(ByteSources.wrap(expected.getBytecode()), snapshot.get(expected.getName()));
+		assertEquals(expected.getSuperName(), lazy.getSuperName());
+		assertNull(lazy.getDeclaredMethod("notAMethod", "()V"));
+		assertFalse(lazy.isMaterialized(), "Missing members should be reported from the header alone");
+
+		MethodMember method = expected.getMethods().getFirst();
+		assertEquals(method, lazy.getDeclaredMethod(method.getName(), method.getDescriptor()));
+		assertEquals(expected, lazy);
+	}
+
+	private static void write(Path path, List<JvmClassInfo> classes) throws IOException {
+		ClassHeaderSnapshot.Builder builder = new ClassHeaderSnapshot.Builder();
+		for (JvmClassInfo cls : classes)
+			builder.add(cls.getBytecode());
+		builder.write(path, KEY);
+	}
+}
@@ -85,8 +85,7 @@ public MappingMenu(@Nonnull WindowManager windowManager,
 					importPool.submit(() -> {
 						try {
 							MappingFileFormat format = formatManager.createFormatInstance(formatName);
-							String mappingsText = Files.readString(file.toPath());
-							IntermediateMappings parsedMappings = format.parse(mappingsText);
+							IntermediateMappings parsedMappings = format.parse(file.toPath());
 							logger.info("Loaded mappings from {} in {} format", file.getName(), formatName);
 
 							MappingResults results = mappingApplierService.inCurrentWorkspace().applyToPrimaryResource(parsedMappings);
@@ -15,6 +15,7 @@
 import software.coley.recaf.services.navigation.Navigable;
 import software.coley.recaf.services.search.CancellableSearchFeedback;
 import software.coley.recaf.services.search.SearchService;
+import software.coley.recaf.services.search.StreamingSearchFeedback;
 import software.coley.recaf.services.search.query.Query;
 import software.coley.recaf.services.search.result.Result;
 import software.coley.recaf.services.search.result.Results;
@@ -29,7 +30,6 @@
 import java.util.Collections;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Consumer;
 
 /**
  * Common base capabilities for search panels.
@@ -179,7 +179,7 @@ protected final void search() {
 		// Run new search.
 		CancellableSearchFeedback feedback;
 		if (liveResults.get()) {
-			feedback = new LiveOnlySearchFeedback(result -> {
+			feedback = new StreamingSearchFeedback(result -> {
 				// Search is multi-threaded, so we will want to lock on the root to prevent concurrent-modification errors
 				synchronized (root) {
 					WorkspaceTreeNode node = WorkspaceTreeNode.getOrInsertIntoTree(root, result.getPath(), false);
@@ -216,23 +216,4 @@ private void cancelLastSearch() {
 			lastSearchFeedback = null;
 		}
 	}
-
-	/**
-	 * Feedback that passes results to a consumer.
-	 * <br>
-	 * Disables the collection of results into a single wrapper at the end of a search.
-	 */
-	private static class LiveOnlySearchFeedback extends CancellableSearchFeedback {
-		private final Consumer<Result<?>> resultConsumer;
-
-		private LiveOnlySearchFeedback(@Nonnull Consumer<Result<?>> resultConsumer) {
-			this.resultConsumer = resultConsumer;
-		}
-
-		@Override
-		public boolean doAcceptResult(@Nonnull Result<?> result) {
-			resultConsumer.accept(result);
-			return false;
-		}
-	}
 }